@@ -206,6 +206,11 @@
     */
    MetadataValue<V> getWithMetadata(K key);
 
+   /**
+    * Asynchronous version of {@link #getWithMetadata(Object)}.
+    */
+   CompletableFuture<MetadataValue<V>> getWithMetadataAsync(K key);
+
    /**
     * @throws UnsupportedOperationException
     */
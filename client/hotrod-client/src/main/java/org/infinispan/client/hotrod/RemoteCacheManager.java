@@ -2,11 +2,16 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.infinispan.client.hotrod.configuration.Configuration;
 import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
@@ -21,7 +26,9 @@
 import org.infinispan.client.hotrod.impl.protocol.CodecFactory;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
 import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransportFactory;
+import org.infinispan.client.hotrod.jmx.RemoteCacheManagerMXBean;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.client.hotrod.near.NearCacheService;
@@ -50,7 +57,7 @@
  * @author Mircea.Markus@jboss.com
  * @since 4.1
  */
-public class RemoteCacheManager implements RemoteCacheContainer {
+public class RemoteCacheManager implements RemoteCacheContainer, RemoteCacheManagerMXBean {
 
    private static final Log log = LogFactory.getLog(RemoteCacheManager.class);
 
@@ -67,7 +74,9 @@ public class RemoteCacheManager implements RemoteCacheContainer {
    private Marshaller marshaller;
    protected TransportFactory transportFactory;
    private ExecutorService asyncExecutorService;
+   private ChannelFactory channelFactory;
    protected ClientListenerNotifier listenerNotifier;
+   private ObjectName mbeanObjectName;
 
    /**
     *
@@ -198,6 +207,14 @@ public void start() {
       listenerNotifier = ClientListenerNotifier.create(codec, marshaller, transportFactory);
       transportFactory.start(codec, configuration, defaultCacheTopologyId, listenerNotifier);
 
+      if (configuration.asyncTransport().enabled()) {
+         if (configuration.security().authentication().enabled()) {
+            log.asyncTransportAuthenticationUnsupported();
+         } else {
+            channelFactory = new ChannelFactory(transportFactory, codec, configuration);
+         }
+      }
+
       synchronized (cacheName2RemoteCache) {
          for (RemoteCacheHolder rcc : cacheName2RemoteCache.values()) {
             startRemoteCache(rcc);
@@ -209,9 +226,38 @@ public void start() {
 
       warnAboutUberJarDuplicates();
 
+      if (configuration.jmx().enabled()) {
+         registerMBean();
+      }
+
       started = true;
    }
 
+   private void registerMBean() {
+      String name = configuration.jmx().domain() + ":type=RemoteCacheManager,name=" +
+            ObjectName.quote(configuration.jmx().name());
+      try {
+         ObjectName objectName = new ObjectName(name);
+         ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+         mbeanObjectName = objectName;
+      } catch (Exception e) {
+         log.unableToRegisterMBean(name, e);
+      }
+   }
+
+   private void unregisterMBean() {
+      MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      try {
+         if (mBeanServer.isRegistered(mbeanObjectName)) {
+            mBeanServer.unregisterMBean(mbeanObjectName);
+         }
+      } catch (Exception e) {
+         log.unableToUnregisterMBean(mbeanObjectName.toString(), e);
+      } finally {
+         mbeanObjectName = null;
+      }
+   }
+
    private final void warnAboutUberJarDuplicates() {
       UberJarDuplicatedJarsWarner scanner = new ManifestUberJarDuplicatedJarsWarner();
       scanner.isClasspathCorrectAsync()
@@ -229,8 +275,15 @@ private final void warnAboutUberJarDuplicates() {
    @Override
    public void stop() {
       if (isStarted()) {
+         if (mbeanObjectName != null) {
+            unregisterMBean();
+         }
          listenerNotifier.stop();
          transportFactory.destroy();
+         if (channelFactory != null) {
+            channelFactory.destroy();
+            channelFactory = null;
+         }
          asyncExecutorService.shutdownNow();
       }
       started = false;
@@ -303,11 +356,40 @@ protected <K, V> NearCacheService<K, V> createNearCacheService(NearCacheConfigur
       return NearCacheService.create(cfg, listenerNotifier);
    }
 
+   @Override
+   public long getNearCacheHits() {
+      return sumNearCacheStatistic(NearCacheService::getHits);
+   }
+
+   @Override
+   public long getNearCacheMisses() {
+      return sumNearCacheStatistic(NearCacheService::getMisses);
+   }
+
+   @Override
+   public long getNearCacheEvictions() {
+      return sumNearCacheStatistic(NearCacheService::getEvictions);
+   }
+
+   private long sumNearCacheStatistic(ToLongFunction<NearCacheService<?, ?>> statistic) {
+      long sum = 0;
+      synchronized (cacheName2RemoteCache) {
+         for (RemoteCacheHolder rcc : cacheName2RemoteCache.values()) {
+            if (rcc.remoteCache instanceof InvalidatedNearRemoteCache) {
+               sum += statistic.applyAsLong(((InvalidatedNearRemoteCache<?, ?>) rcc.remoteCache).getNearCacheService());
+            }
+         }
+      }
+      return sum;
+   }
+
    private void startRemoteCache(RemoteCacheHolder remoteCacheHolder) {
       RemoteCacheImpl<?, ?> remoteCache = remoteCacheHolder.remoteCache;
+      // Near caches rely on the async operations invoking the blocking ones, which they override
+      ChannelFactory asyncChannelFactory = configuration.nearCache().mode().enabled() ? null : channelFactory;
       OperationsFactory operationsFactory = new OperationsFactory(
-              transportFactory, remoteCache.getName(), remoteCacheHolder.forceReturnValue, codec, listenerNotifier,
-            asyncExecutorService, configuration.clientIntelligence());
+              transportFactory, asyncChannelFactory, remoteCache.getName(), remoteCacheHolder.forceReturnValue, codec,
+            listenerNotifier, asyncExecutorService, configuration.clientIntelligence());
       remoteCache.init(marshaller, asyncExecutorService, operationsFactory, configuration.keySizeEstimate(), configuration.valueSizeEstimate());
    }
 
@@ -0,0 +1,72 @@
+package org.infinispan.client.hotrod.configuration;
+
+/**
+ * Configuration of the transport used by the asynchronous operations of remote caches.
+ *
+ * @since 9.0
+ */
+public class AsyncTransportConfiguration {
+   private final boolean enabled;
+   private final int ioThreads;
+   private final boolean pipelining;
+   private final long putCoalescingWindowMicros;
+   private final int putCoalescingMaxEntries;
+
+   AsyncTransportConfiguration(boolean enabled, int ioThreads, boolean pipelining, long putCoalescingWindowMicros,
+         int putCoalescingMaxEntries) {
+      this.enabled = enabled;
+      this.ioThreads = ioThreads;
+      this.pipelining = pipelining;
+      this.putCoalescingWindowMicros = putCoalescingWindowMicros;
+      this.putCoalescingMaxEntries = putCoalescingMaxEntries;
+   }
+
+   /**
+    * Whether asynchronous operations are multiplexed over non-blocking connections instead of executing the blocking
+    * operations in the async executor
+    */
+   public boolean enabled() {
+      return enabled;
+   }
+
+   /**
+    * The number of threads handling the non-blocking connections, 0 meaning twice the number of processors
+    */
+   public int ioThreads() {
+      return ioThreads;
+   }
+
+   /**
+    * Whether the blocking operations that have an asynchronous counterpart using the non-blocking connections are
+    * pipelined over them as well
+    */
+   public boolean pipelining() {
+      return pipelining;
+   }
+
+   /**
+    * How long, in microseconds, asynchronous puts to the same server are held to be written together as a single
+    * putAll, 0 meaning puts are never coalesced
+    */
+   public long putCoalescingWindowMicros() {
+      return putCoalescingWindowMicros;
+   }
+
+   /**
+    * The maximum number of puts coalesced into a single putAll
+    */
+   public int putCoalescingMaxEntries() {
+      return putCoalescingMaxEntries;
+   }
+
+   @Override
+   public String toString() {
+      return "AsyncTransportConfiguration{" +
+            "enabled=" + enabled +
+            ", ioThreads=" + ioThreads +
+            ", pipelining=" + pipelining +
+            ", putCoalescingWindowMicros=" + putCoalescingWindowMicros +
+            ", putCoalescingMaxEntries=" + putCoalescingMaxEntries +
+            '}';
+   }
+}
@@ -0,0 +1,127 @@
+package org.infinispan.client.hotrod.configuration;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.client.hotrod.impl.ConfigurationProperties;
+import org.infinispan.client.hotrod.impl.TypedProperties;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.configuration.Builder;
+
+/**
+ * Configures the transport used by the asynchronous operations of remote caches.  When enabled, operations such as
+ * {@link org.infinispan.client.hotrod.RemoteCache#getAsync(Object)} are written to a single non-blocking connection
+ * per server, which is shared by all concurrent requests and matches responses to requests by their message id,
+ * instead of each occupying a thread of the async executor and a pooled connection until its response is read.
+ * <p>
+ * Optionally the blocking counterparts of those operations can be pipelined over the same connections, and
+ * asynchronous puts that don't need the previous value can be coalesced into putAll requests for a short window of
+ * time, trading a bit of latency for fewer round trips when many concurrent puts are issued.
+ *
+ * @since 9.0
+ */
+public class AsyncTransportConfigurationBuilder extends AbstractConfigurationChildBuilder
+      implements Builder<AsyncTransportConfiguration> {
+   private static final Log log = LogFactory.getLog(AsyncTransportConfigurationBuilder.class);
+
+   private boolean enabled = false;
+   private int ioThreads = 0;
+   private boolean pipelining = false;
+   private long putCoalescingWindowMicros = 0;
+   private int putCoalescingMaxEntries = 128;
+
+   AsyncTransportConfigurationBuilder(ConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   public AsyncTransportConfigurationBuilder enable() {
+      return enabled(true);
+   }
+
+   public AsyncTransportConfigurationBuilder disable() {
+      return enabled(false);
+   }
+
+   public AsyncTransportConfigurationBuilder enabled(boolean enabled) {
+      this.enabled = enabled;
+      return this;
+   }
+
+   /**
+    * Sets the number of threads handling the non-blocking connections.  Defaults to 0, meaning twice the number of
+    * processors.
+    */
+   public AsyncTransportConfigurationBuilder ioThreads(int ioThreads) {
+      this.ioThreads = ioThreads;
+      return this;
+   }
+
+   /**
+    * When enabled, the blocking get, put, putIfAbsent, replace and remove operations are also written to the
+    * non-blocking connections, so that concurrent callers pipeline their requests over a single connection per server
+    * instead of each borrowing a pooled connection.  Defaults to false.
+    */
+   public AsyncTransportConfigurationBuilder pipelining(boolean pipelining) {
+      this.pipelining = pipelining;
+      return this;
+   }
+
+   /**
+    * Sets how long asynchronous puts to the same server are held before being written together as a single putAll
+    * request.  Only puts that don't return the previous value are coalesced, and the operations on a key invoked after
+    * a coalesced put of the key are executed after it.  Blocking puts are never coalesced.  Defaults to 0, meaning
+    * puts are never coalesced.
+    */
+   public AsyncTransportConfigurationBuilder putCoalescingWindow(long window, TimeUnit unit) {
+      this.putCoalescingWindowMicros = unit.toMicros(window);
+      return this;
+   }
+
+   /**
+    * Sets the maximum number of puts coalesced into a single putAll, which is written as soon as it is full regardless
+    * of the window.  Defaults to 128.
+    */
+   public AsyncTransportConfigurationBuilder putCoalescingMaxEntries(int putCoalescingMaxEntries) {
+      this.putCoalescingMaxEntries = putCoalescingMaxEntries;
+      return this;
+   }
+
+   void withAsyncTransportProperties(TypedProperties properties) {
+      enabled(properties.getBooleanProperty(ConfigurationProperties.ASYNC_TRANSPORT, enabled));
+      ioThreads(properties.getIntProperty(ConfigurationProperties.ASYNC_TRANSPORT_IO_THREADS, ioThreads));
+      pipelining(properties.getBooleanProperty(ConfigurationProperties.ASYNC_TRANSPORT_PIPELINING, pipelining));
+      putCoalescingWindow(properties.getLongProperty(ConfigurationProperties.ASYNC_TRANSPORT_PUT_COALESCING_WINDOW,
+            putCoalescingWindowMicros), TimeUnit.MICROSECONDS);
+      putCoalescingMaxEntries(properties.getIntProperty(ConfigurationProperties.ASYNC_TRANSPORT_PUT_COALESCING_MAX_ENTRIES,
+            putCoalescingMaxEntries));
+   }
+
+   @Override
+   public void validate() {
+      if (ioThreads < 0) {
+         throw log.invalidAsyncTransportIoThreads(ioThreads);
+      }
+      if (putCoalescingWindowMicros < 0) {
+         throw log.invalidPutCoalescingWindow(putCoalescingWindowMicros);
+      }
+      if (putCoalescingMaxEntries < 1) {
+         throw log.invalidPutCoalescingMaxEntries(putCoalescingMaxEntries);
+      }
+   }
+
+   @Override
+   public AsyncTransportConfiguration create() {
+      return new AsyncTransportConfiguration(enabled, ioThreads, pipelining, putCoalescingWindowMicros,
+            putCoalescingMaxEntries);
+   }
+
+   @Override
+   public AsyncTransportConfigurationBuilder read(AsyncTransportConfiguration template) {
+      enabled = template.enabled();
+      ioThreads = template.ioThreads();
+      pipelining = template.pipelining();
+      putCoalescingWindowMicros = template.putCoalescingWindowMicros();
+      putCoalescingMaxEntries = template.putCoalescingMaxEntries();
+      return this;
+   }
+}
@@ -47,6 +47,8 @@ public class Configuration {
    private final int valueSizeEstimate;
    private final int maxRetries;
    private final NearCacheConfiguration nearCache;
+   private final AsyncTransportConfiguration asyncTransport;
+   private final JmxConfiguration jmx;
    private final List<ClusterConfiguration> clusters;
 
    Configuration(ExecutorFactoryConfiguration asyncExecutorFactory, Class<? extends FailoverRequestBalancingStrategy> balancingStrategyClass, FailoverRequestBalancingStrategy balancingStrategy, ClassLoader classLoader,
@@ -54,7 +56,7 @@ public class Configuration {
          Marshaller marshaller, Class<? extends Marshaller> marshallerClass,
          ProtocolVersion protocolVersion, List<ServerConfiguration> servers, int socketTimeout, SecurityConfiguration security, boolean tcpNoDelay, boolean tcpKeepAlive,
          Class<? extends TransportFactory> transportFactory, int valueSizeEstimate, int maxRetries, NearCacheConfiguration nearCache,
-         List<ClusterConfiguration> clusters) {
+         AsyncTransportConfiguration asyncTransport, JmxConfiguration jmx, List<ClusterConfiguration> clusters) {
       this.asyncExecutorFactory = asyncExecutorFactory;
       this.balancingStrategyClass = balancingStrategyClass;
       this.balancingStrategy = balancingStrategy;
@@ -77,6 +79,8 @@ public class Configuration {
       this.transportFactory = transportFactory;
       this.valueSizeEstimate = valueSizeEstimate;
       this.nearCache = nearCache;
+      this.asyncTransport = asyncTransport;
+      this.jmx = jmx;
       this.clusters = clusters;
    }
 
@@ -137,6 +141,14 @@ public NearCacheConfiguration nearCache() {
       return nearCache;
    }
 
+   public AsyncTransportConfiguration asyncTransport() {
+      return asyncTransport;
+   }
+
+   public JmxConfiguration jmx() {
+      return jmx;
+   }
+
    /**
     * @deprecated Use {@link Configuration#version()} instead.
     */
@@ -193,7 +205,7 @@ public String toString() {
             + forceReturnValues + ", keySizeEstimate=" + keySizeEstimate + ", marshallerClass=" + marshallerClass + ", marshaller=" + marshaller + ", protocolVersion="
             + protocolVersion + ", servers=" + servers + ", socketTimeout=" + socketTimeout + ", security=" + security + ", tcpNoDelay=" + tcpNoDelay + ", tcpKeepAlive=" + tcpKeepAlive
             + ", transportFactory=" + transportFactory + ", valueSizeEstimate=" + valueSizeEstimate + ", maxRetries=" + maxRetries
-            + "nearCache=" + nearCache + "]";
+            + "nearCache=" + nearCache + ", asyncTransport=" + asyncTransport + ", jmx=" + jmx + "]";
    }
 
    public Properties properties() {
@@ -227,6 +239,14 @@ public Properties properties() {
       properties.setProperty(ConfigurationProperties.TRANSPORT_FACTORY, transportFactory().getName());
       properties.setProperty(ConfigurationProperties.VALUE_SIZE_ESTIMATE, Integer.toString(valueSizeEstimate()));
       properties.setProperty(ConfigurationProperties.MAX_RETRIES, Integer.toString(maxRetries()));
+      properties.setProperty(ConfigurationProperties.ASYNC_TRANSPORT, Boolean.toString(asyncTransport.enabled()));
+      properties.setProperty(ConfigurationProperties.ASYNC_TRANSPORT_IO_THREADS, Integer.toString(asyncTransport.ioThreads()));
+      properties.setProperty(ConfigurationProperties.ASYNC_TRANSPORT_PIPELINING, Boolean.toString(asyncTransport.pipelining()));
+      properties.setProperty(ConfigurationProperties.ASYNC_TRANSPORT_PUT_COALESCING_WINDOW, Long.toString(asyncTransport.putCoalescingWindowMicros()));
+      properties.setProperty(ConfigurationProperties.ASYNC_TRANSPORT_PUT_COALESCING_MAX_ENTRIES, Integer.toString(asyncTransport.putCoalescingMaxEntries()));
+      properties.setProperty(ConfigurationProperties.JMX, Boolean.toString(jmx.enabled()));
+      properties.setProperty(ConfigurationProperties.JMX_DOMAIN, jmx.domain());
+      properties.setProperty(ConfigurationProperties.JMX_NAME, jmx.name());
 
       properties.setProperty("exhaustedAction", Integer.toString(connectionPool().exhaustedAction().ordinal()));
       properties.setProperty("maxActive", Integer.toString(connectionPool().maxActive()));
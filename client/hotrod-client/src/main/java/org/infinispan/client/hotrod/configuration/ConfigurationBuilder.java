@@ -68,6 +68,8 @@ public class ConfigurationBuilder implements ConfigurationChildBuilder, Builder<
    private int valueSizeEstimate = ConfigurationProperties.DEFAULT_VALUE_SIZE;
    private int maxRetries = ConfigurationProperties.DEFAULT_MAX_RETRIES;
    private final NearCacheConfigurationBuilder nearCache;
+   private final AsyncTransportConfigurationBuilder asyncTransport;
+   private final JmxConfigurationBuilder jmx;
 
    private final List<ClusterConfigurationBuilder> clusters = new ArrayList<ClusterConfigurationBuilder>();
 
@@ -77,6 +79,8 @@ public ConfigurationBuilder() {
       this.asyncExecutorFactory = new ExecutorFactoryConfigurationBuilder(this);
       this.security = new SecurityConfigurationBuilder(this);
       this.nearCache = new NearCacheConfigurationBuilder(this);
+      this.asyncTransport = new AsyncTransportConfigurationBuilder(this);
+      this.jmx = new JmxConfigurationBuilder(this);
    }
 
    @Override
@@ -218,6 +222,14 @@ public NearCacheConfigurationBuilder nearCache() {
       return nearCache;
    }
 
+   public AsyncTransportConfigurationBuilder asyncTransport() {
+      return asyncTransport;
+   }
+
+   public JmxConfigurationBuilder jmx() {
+      return jmx;
+   }
+
    /**
     * @deprecated Use {@link ConfigurationBuilder#version(ProtocolVersion)} instead.
     */
@@ -322,6 +334,8 @@ public ConfigurationBuilder withProperties(Properties properties) {
       this.maxRetries(typed.getIntProperty(ConfigurationProperties.MAX_RETRIES, maxRetries));
       this.security.ssl().withProperties(properties);
       this.security.authentication().withProperties(properties);
+      this.asyncTransport.withAsyncTransportProperties(typed);
+      this.jmx.withJmxProperties(typed);
       return this;
    }
 
@@ -331,6 +345,8 @@ public void validate() {
       asyncExecutorFactory.validate();
       security.validate();
       nearCache.validate();
+      asyncTransport.validate();
+      jmx.validate();
       if (maxRetries < 0) {
          throw log.invalidMaxRetries(maxRetries);
       }
@@ -362,7 +378,7 @@ public Configuration create() {
 
       return new Configuration(asyncExecutorFactory.create(), balancingStrategyClass, balancingStrategy, classLoader == null ? null : classLoader.get(), clientIntelligence, connectionPool.create(), connectionTimeout,
             consistentHashImpl, forceReturnValues, keySizeEstimate, marshaller, marshallerClass, protocolVersion, servers, socketTimeout, security.create(), tcpNoDelay, tcpKeepAlive, transportFactory,
-            valueSizeEstimate, maxRetries, nearCache.create(), serverClusterConfigs);
+            valueSizeEstimate, maxRetries, nearCache.create(), asyncTransport.create(), jmx.create(), serverClusterConfigs);
    }
 
    @Override
@@ -405,6 +421,8 @@ public ConfigurationBuilder read(Configuration template) {
       this.valueSizeEstimate = template.valueSizeEstimate();
       this.maxRetries = template.maxRetries();
       this.nearCache.read(template.nearCache());
+      this.asyncTransport.read(template.asyncTransport());
+      this.jmx.read(template.jmx());
       return this;
    }
 }
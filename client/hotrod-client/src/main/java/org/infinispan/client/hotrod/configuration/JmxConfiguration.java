@@ -0,0 +1,48 @@
+package org.infinispan.client.hotrod.configuration;
+
+/**
+ * Configuration of the MBean through which a remote cache manager exposes its statistics.
+ *
+ * @since 9.0
+ */
+public class JmxConfiguration {
+   private final boolean enabled;
+   private final String domain;
+   private final String name;
+
+   JmxConfiguration(boolean enabled, String domain, String name) {
+      this.enabled = enabled;
+      this.domain = domain;
+      this.name = name;
+   }
+
+   /**
+    * Whether the remote cache manager registers its MBean in the platform MBean server
+    */
+   public boolean enabled() {
+      return enabled;
+   }
+
+   /**
+    * The domain of the name the MBean is registered with
+    */
+   public String domain() {
+      return domain;
+   }
+
+   /**
+    * The value of the name key of the name the MBean is registered with
+    */
+   public String name() {
+      return name;
+   }
+
+   @Override
+   public String toString() {
+      return "JmxConfiguration{" +
+            "enabled=" + enabled +
+            ", domain='" + domain + '\'' +
+            ", name='" + name + '\'' +
+            '}';
+   }
+}
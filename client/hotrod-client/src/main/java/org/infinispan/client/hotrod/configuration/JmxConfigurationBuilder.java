@@ -0,0 +1,77 @@
+package org.infinispan.client.hotrod.configuration;
+
+import org.infinispan.client.hotrod.impl.ConfigurationProperties;
+import org.infinispan.client.hotrod.impl.TypedProperties;
+import org.infinispan.commons.configuration.Builder;
+
+/**
+ * Configures the MBean of the remote cache manager, which exposes the statistics of its near caches.  When enabled,
+ * it is registered in the platform MBean server as <tt>domain:type=RemoteCacheManager,name=name</tt> when the manager
+ * starts and unregistered when it stops, so every manager of the same JVM needs a distinct name.
+ *
+ * @since 9.0
+ */
+public class JmxConfigurationBuilder extends AbstractConfigurationChildBuilder implements Builder<JmxConfiguration> {
+   public static final String DEFAULT_DOMAIN = "org.infinispan";
+   public static final String DEFAULT_NAME = "Default";
+
+   private boolean enabled = false;
+   private String domain = DEFAULT_DOMAIN;
+   private String name = DEFAULT_NAME;
+
+   JmxConfigurationBuilder(ConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   public JmxConfigurationBuilder enable() {
+      return enabled(true);
+   }
+
+   public JmxConfigurationBuilder disable() {
+      return enabled(false);
+   }
+
+   public JmxConfigurationBuilder enabled(boolean enabled) {
+      this.enabled = enabled;
+      return this;
+   }
+
+   /**
+    * Sets the domain of the name of the MBean.  Defaults to <tt>org.infinispan</tt>.
+    */
+   public JmxConfigurationBuilder domain(String domain) {
+      this.domain = domain;
+      return this;
+   }
+
+   /**
+    * Sets the value of the name key of the name of the MBean.  Defaults to <tt>Default</tt>.
+    */
+   public JmxConfigurationBuilder name(String name) {
+      this.name = name;
+      return this;
+   }
+
+   void withJmxProperties(TypedProperties properties) {
+      enabled(properties.getBooleanProperty(ConfigurationProperties.JMX, enabled));
+      domain(properties.getProperty(ConfigurationProperties.JMX_DOMAIN, domain));
+      name(properties.getProperty(ConfigurationProperties.JMX_NAME, name));
+   }
+
+   @Override
+   public void validate() {
+   }
+
+   @Override
+   public JmxConfiguration create() {
+      return new JmxConfiguration(enabled, domain, name);
+   }
+
+   @Override
+   public JmxConfigurationBuilder read(JmxConfiguration template) {
+      enabled = template.enabled();
+      domain = template.domain();
+      name = template.name();
+      return this;
+   }
+}
@@ -4,16 +4,54 @@ public class NearCacheConfiguration {
    // TODO: Consider an option to configure key equivalence function for near cache (e.g. for byte arrays)
    private final NearCacheMode mode;
    private final int maxEntries;
+   private final long maxBytes;
+   private final boolean bloomFilter;
+   private final long bloomFilterRefreshIntervalMillis;
 
    public NearCacheConfiguration(NearCacheMode mode, int maxEntries) {
+      this(mode, maxEntries, -1);
+   }
+
+   public NearCacheConfiguration(NearCacheMode mode, int maxEntries, long maxBytes) {
+      this(mode, maxEntries, maxBytes, false, NearCacheConfigurationBuilder.DEFAULT_BLOOM_FILTER_REFRESH_INTERVAL);
+   }
+
+   public NearCacheConfiguration(NearCacheMode mode, int maxEntries, long maxBytes, boolean bloomFilter,
+         long bloomFilterRefreshIntervalMillis) {
       this.mode = mode;
       this.maxEntries = maxEntries;
+      this.maxBytes = maxBytes;
+      this.bloomFilter = bloomFilter;
+      this.bloomFilterRefreshIntervalMillis = bloomFilterRefreshIntervalMillis;
    }
 
    public int maxEntries() {
       return maxEntries;
    }
 
+   /**
+    * The maximum size in bytes of the marshalled keys and values held by the near cache, or -1 if it is bounded by
+    * {@link #maxEntries()} instead
+    */
+   public long maxBytes() {
+      return maxBytes;
+   }
+
+   /**
+    * Whether the servers only send the invalidations of the keys that the near cache may hold, according to a bloom
+    * filter of its keys
+    */
+   public boolean bloomFilter() {
+      return bloomFilter;
+   }
+
+   /**
+    * How often, in milliseconds, the bloom filter of the keys of the near cache is sent to the servers
+    */
+   public long bloomFilterRefreshIntervalMillis() {
+      return bloomFilterRefreshIntervalMillis;
+   }
+
    public NearCacheMode mode() {
       return mode;
    }
@@ -23,6 +61,9 @@ public String toString() {
       return "NearCacheConfiguration{" +
             "mode=" + mode +
             ", maxEntries=" + maxEntries +
+            ", maxBytes=" + maxBytes +
+            ", bloomFilter=" + bloomFilter +
+            ", bloomFilterRefreshIntervalMillis=" + bloomFilterRefreshIntervalMillis +
             '}';
    }
 }
@@ -1,5 +1,7 @@
 package org.infinispan.client.hotrod.configuration;
 
+import java.util.concurrent.TimeUnit;
+
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.commons.configuration.Builder;
@@ -8,8 +10,13 @@ public class NearCacheConfigurationBuilder extends AbstractConfigurationChildBui
       implements Builder<NearCacheConfiguration> {
    private static final Log log = LogFactory.getLog(NearCacheConfigurationBuilder.class);
 
+   static final long DEFAULT_BLOOM_FILTER_REFRESH_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+
    private NearCacheMode mode = NearCacheMode.DISABLED;
    private Integer maxEntries = null; // undefined
+   private Long maxBytes = null; // undefined
+   private boolean bloomFilter = false;
+   private long bloomFilterRefreshIntervalMillis = DEFAULT_BLOOM_FILTER_REFRESH_INTERVAL;
 
    protected NearCacheConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -20,6 +27,35 @@ public NearCacheConfigurationBuilder maxEntries(int maxEntries) {
       return this;
    }
 
+   /**
+    * Bounds the near cache by the size in bytes of its keys and values once marshalled, instead of by their number.
+    * Entries are then admitted and evicted based on how frequently they are read.  Can't be combined with
+    * {@link #maxEntries(int)}.
+    */
+   public NearCacheConfigurationBuilder maxBytes(long maxBytes) {
+      this.maxBytes = maxBytes;
+      return this;
+   }
+
+   /**
+    * When enabled, the near cache periodically sends a bloom filter of its keys to the server, which then only sends
+    * the invalidations of the keys matching it, instead of those of every modified key.  A key read for the first
+    * time is only stored in the near cache once the bloom filter including it has been sent.  Defaults to false.
+    */
+   public NearCacheConfigurationBuilder bloomFilter(boolean bloomFilter) {
+      this.bloomFilter = bloomFilter;
+      return this;
+   }
+
+   /**
+    * Sets how often the bloom filter of the keys of the near cache is sent to the server, if any key has been read
+    * since the last time.  Defaults to 5 seconds.
+    */
+   public NearCacheConfigurationBuilder bloomFilterRefreshInterval(long interval, TimeUnit unit) {
+      this.bloomFilterRefreshIntervalMillis = unit.toMillis(interval);
+      return this;
+   }
+
    public NearCacheConfigurationBuilder mode(NearCacheMode mode) {
       this.mode = mode;
       return this;
@@ -27,19 +63,34 @@ public NearCacheConfigurationBuilder mode(NearCacheMode mode) {
 
    @Override
    public void validate() {
-      if (mode.enabled() && maxEntries == null)
+      if (mode.enabled() && maxEntries == null && maxBytes == null)
          throw log.nearCacheMaxEntriesUndefined();
+      if (maxEntries != null && maxBytes != null)
+         throw log.nearCacheMaxEntriesAndMaxBytes();
+      if (maxBytes != null && maxBytes <= 0)
+         throw log.invalidNearCacheMaxBytes(maxBytes);
+      if (bloomFilter && bloomFilterRefreshIntervalMillis <= 0)
+         throw log.invalidBloomFilterRefreshInterval(bloomFilterRefreshIntervalMillis);
    }
 
    @Override
    public NearCacheConfiguration create() {
-      return new NearCacheConfiguration(mode, maxEntries == null ? -1 : maxEntries);
+      return new NearCacheConfiguration(mode, maxEntries == null ? -1 : maxEntries, maxBytes == null ? -1 : maxBytes,
+            bloomFilter, bloomFilterRefreshIntervalMillis);
    }
 
    @Override
    public Builder<?> read(NearCacheConfiguration template) {
       mode = template.mode();
-      maxEntries = template.maxEntries();
+      if (template.maxBytes() > 0) {
+         maxEntries = null;
+         maxBytes = template.maxBytes();
+      } else {
+         maxEntries = template.maxEntries();
+         maxBytes = null;
+      }
+      bloomFilter = template.bloomFilter();
+      bloomFilterRefreshIntervalMillis = template.bloomFilterRefreshIntervalMillis();
       return this;
    }
 }
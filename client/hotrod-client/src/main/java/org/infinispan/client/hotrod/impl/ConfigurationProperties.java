@@ -6,6 +6,7 @@
 
 import org.infinispan.client.hotrod.ProtocolVersion;
 import org.infinispan.client.hotrod.configuration.Configuration;
+import org.infinispan.client.hotrod.configuration.JmxConfigurationBuilder;
 import org.infinispan.client.hotrod.impl.async.DefaultAsyncExecutorFactory;
 import org.infinispan.client.hotrod.impl.transport.tcp.RoundRobinBalancingStrategy;
 import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransportFactory;
@@ -55,6 +56,14 @@ public class ConfigurationProperties {
    public static final String SASL_PROPERTIES_PREFIX = "infinispan.client.hotrod.sasl_properties";
    public static final Pattern SASL_PROPERTIES_PREFIX_REGEX =
          Pattern.compile('^' + ConfigurationProperties.SASL_PROPERTIES_PREFIX + '.');
+   public static final String ASYNC_TRANSPORT = "infinispan.client.hotrod.async_transport";
+   public static final String ASYNC_TRANSPORT_IO_THREADS = "infinispan.client.hotrod.async_transport.io_threads";
+   public static final String ASYNC_TRANSPORT_PIPELINING = "infinispan.client.hotrod.async_transport.pipelining";
+   public static final String ASYNC_TRANSPORT_PUT_COALESCING_WINDOW = "infinispan.client.hotrod.async_transport.put_coalescing_window_micros";
+   public static final String ASYNC_TRANSPORT_PUT_COALESCING_MAX_ENTRIES = "infinispan.client.hotrod.async_transport.put_coalescing_max_entries";
+   public static final String JMX = "infinispan.client.hotrod.jmx";
+   public static final String JMX_DOMAIN = "infinispan.client.hotrod.jmx_domain";
+   public static final String JMX_NAME = "infinispan.client.hotrod.jmx_name";
 
    // defaults
 
@@ -169,6 +178,38 @@ public int getMaxRetries() {
       return props.getIntProperty(MAX_RETRIES, DEFAULT_MAX_RETRIES);
    }
 
+   public boolean getAsyncTransport() {
+      return props.getBooleanProperty(ASYNC_TRANSPORT, false);
+   }
+
+   public int getAsyncTransportIoThreads() {
+      return props.getIntProperty(ASYNC_TRANSPORT_IO_THREADS, 0);
+   }
+
+   public boolean getAsyncTransportPipelining() {
+      return props.getBooleanProperty(ASYNC_TRANSPORT_PIPELINING, false);
+   }
+
+   public long getAsyncTransportPutCoalescingWindow() {
+      return props.getLongProperty(ASYNC_TRANSPORT_PUT_COALESCING_WINDOW, 0);
+   }
+
+   public int getAsyncTransportPutCoalescingMaxEntries() {
+      return props.getIntProperty(ASYNC_TRANSPORT_PUT_COALESCING_MAX_ENTRIES, 128);
+   }
+
+   public boolean getJmx() {
+      return props.getBooleanProperty(JMX, false);
+   }
+
+   public String getJmxDomain() {
+      return props.getProperty(JMX_DOMAIN, JmxConfigurationBuilder.DEFAULT_DOMAIN);
+   }
+
+   public String getJmxName() {
+      return props.getProperty(JMX_NAME, JmxConfigurationBuilder.DEFAULT_NAME);
+   }
+
    /**
     * Is version previous to, and not including, 1.2?
     */
@@ -24,6 +24,10 @@ public InvalidatedNearRemoteCache(RemoteCacheManager rcm, String name, NearCache
       this.nearcache = nearcache;
    }
 
+   public NearCacheService<K, V> getNearCacheService() {
+      return nearcache;
+   }
+
    @Override
    public V get(Object key) {
       VersionedValue<V> versioned = getVersioned((K) key);
@@ -6,9 +6,13 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -30,9 +34,12 @@
 import org.infinispan.client.hotrod.exceptions.HotRodClientException;
 import org.infinispan.client.hotrod.exceptions.RemoteCacheManagerNotStartedException;
 import org.infinispan.client.hotrod.filter.Filters;
+import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHash;
+import org.infinispan.client.hotrod.impl.consistenthash.SegmentConsistentHash;
+import org.infinispan.client.hotrod.impl.iteration.PerOwnerCloseableIterator;
 import org.infinispan.client.hotrod.impl.iteration.RemoteCloseableIterator;
 import org.infinispan.client.hotrod.impl.operations.AddClientListenerOperation;
-import org.infinispan.client.hotrod.impl.operations.BulkGetKeysOperation;
+import org.infinispan.client.hotrod.impl.operations.BulkGetKeysParallelOperation;
 import org.infinispan.client.hotrod.impl.operations.BulkGetOperation;
 import org.infinispan.client.hotrod.impl.operations.ClearOperation;
 import org.infinispan.client.hotrod.impl.operations.ContainsKeyOperation;
@@ -45,6 +52,7 @@
 import org.infinispan.client.hotrod.impl.operations.OperationsFactory;
 import org.infinispan.client.hotrod.impl.operations.PingOperation;
 import org.infinispan.client.hotrod.impl.operations.PutAllParallelOperation;
+import org.infinispan.client.hotrod.impl.operations.PutCoalescer;
 import org.infinispan.client.hotrod.impl.operations.PutIfAbsentOperation;
 import org.infinispan.client.hotrod.impl.operations.PutOperation;
 import org.infinispan.client.hotrod.impl.operations.PutStreamOperation;
@@ -55,6 +63,8 @@
 import org.infinispan.client.hotrod.impl.operations.ReplaceOperation;
 import org.infinispan.client.hotrod.impl.operations.SizeOperation;
 import org.infinispan.client.hotrod.impl.operations.StatsOperation;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelOperation;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.commons.marshall.Marshaller;
@@ -109,8 +119,10 @@ public RemoteCacheManager getRemoteCacheManager() {
    @Override
    public boolean removeWithVersion(K key, long version) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = obj2bytes(key, true);
+      awaitPendingPuts(keyBytes);
       RemoveIfUnmodifiedOperation<V> op = operationsFactory.newRemoveIfUnmodifiedOperation(
-         compatKeyIfNeeded(key), obj2bytes(key, true), version);
+         compatKeyIfNeeded(key), keyBytes, version);
       VersionedOperationResponse<V> response = op.execute();
       return response.getCode().isUpdated();
    }
@@ -129,8 +141,10 @@ public boolean replaceWithVersion(K key, V newValue, long version, int lifespanS
    @Override
    public boolean replaceWithVersion(K key, V newValue, long version, long lifespan, TimeUnit lifespanTimeUnit, long maxIdle, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = obj2bytes(key, true);
+      awaitPendingPuts(keyBytes);
       ReplaceIfUnmodifiedOperation op = operationsFactory.newReplaceIfUnmodifiedOperation(
-         compatKeyIfNeeded(key), obj2bytes(key, true), obj2bytes(newValue, false), lifespan, lifespanTimeUnit, maxIdle, maxIdleTimeUnit, version);
+         compatKeyIfNeeded(key), keyBytes, obj2bytes(newValue, false), lifespan, lifespanTimeUnit, maxIdle, maxIdleTimeUnit, version);
       VersionedOperationResponse response = op.execute();
       return response.getCode().isUpdated();
    }
@@ -163,8 +177,37 @@ public Entry<Object, Object> next() {
          };
       }
       byte[][] params = marshallParams(filterConverterParams);
-      RemoteCloseableIterator remoteCloseableIterator = new RemoteCloseableIterator(operationsFactory,
-              filterConverterFactory, params, segments, batchSize, false);
+      return iterator(filterConverterFactory, params, segments, batchSize, false);
+   }
+
+   /**
+    * Creates an iterator over the given segments that, when their primary owners are known, iterates over the segments
+    * of each server on that server, so that the entries are read and filtered by all the servers owning them instead
+    * of being gathered by a single one.
+    */
+   private <E> CloseableIterator<Entry<Object, E>> iterator(String filterConverterFactory, byte[][] params,
+         Set<Integer> segments, int batchSize, boolean metadata) {
+      SocketAddress owner = null;
+      ConsistentHash ch = operationsFactory.getConsistentHash();
+      if (ch instanceof SegmentConsistentHash) {
+         SocketAddress[][] segmentOwners = ((SegmentConsistentHash) ch).getSegmentOwners();
+         Map<SocketAddress, Set<Integer>> segmentsByPrimaryOwner = new LinkedHashMap<>();
+         for (int segment = 0; segment < segmentOwners.length; ++segment) {
+            if (segments == null || segments.contains(segment)) {
+               segmentsByPrimaryOwner.computeIfAbsent(segmentOwners[segment][0], s -> new HashSet<>()).add(segment);
+            }
+         }
+         if (segmentsByPrimaryOwner.size() > 1) {
+            List<RemoteCloseableIterator<E>> iterators = new ArrayList<>(segmentsByPrimaryOwner.size());
+            segmentsByPrimaryOwner.forEach((server, ownedSegments) -> iterators.add(new RemoteCloseableIterator<>(
+                  operationsFactory, filterConverterFactory, params, ownedSegments, batchSize, metadata, server)));
+            return new PerOwnerCloseableIterator<>(iterators);
+         } else if (segmentsByPrimaryOwner.size() == 1) {
+            owner = segmentsByPrimaryOwner.keySet().iterator().next();
+         }
+      }
+      RemoteCloseableIterator<E> remoteCloseableIterator = new RemoteCloseableIterator<>(operationsFactory,
+            filterConverterFactory, params, segments, batchSize, metadata, owner);
       remoteCloseableIterator.start();
       return remoteCloseableIterator;
    }
@@ -187,17 +230,17 @@ public CloseableIterator<Entry<Object, Object>> retrieveEntriesByQuery(Query fil
 
    @Override
    public CloseableIterator<Entry<Object, MetadataValue<Object>>> retrieveEntriesWithMetadata(Set<Integer> segments, int batchSize) {
-      RemoteCloseableIterator remoteCloseableIterator = new RemoteCloseableIterator(operationsFactory, batchSize, segments, true);
-      remoteCloseableIterator.start();
-      return remoteCloseableIterator;
+      return iterator(null, null, segments, batchSize, true);
    }
 
    @Override
    public VersionedValue<V> getVersioned(K key) {
       assertRemoteCacheManagerIsStarted();
       if (ConfigurationProperties.isVersionPre12(remoteCacheManager.getConfiguration())) {
+         byte[] keyBytes = obj2bytes(key, true);
+         awaitPendingPuts(keyBytes);
          GetWithVersionOperation<V> op = operationsFactory.newGetWithVersionOperation(
-               compatKeyIfNeeded(key), obj2bytes(key, true));
+               compatKeyIfNeeded(key), keyBytes);
          return op.execute();
       } else {
          MetadataValue<V> result = getWithMetadata(key);
@@ -210,11 +253,25 @@ public VersionedValue<V> getVersioned(K key) {
    @Override
    public MetadataValue<V> getWithMetadata(K key) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = obj2bytes(key, true);
+      awaitPendingPuts(keyBytes);
       GetWithMetadataOperation<V> op = operationsFactory.newGetWithMetadataOperation(
-         compatKeyIfNeeded(key), obj2bytes(key, true));
+         compatKeyIfNeeded(key), keyBytes);
       return op.execute();
    }
 
+   @Override
+   public CompletableFuture<MetadataValue<V>> getWithMetadataAsync(K key) {
+      assertRemoteCacheManagerIsStarted();
+      ChannelFactory channelFactory = operationsFactory.getChannelFactory();
+      if (channelFactory != null) {
+         byte[] keyBytes = obj2bytes(key, true);
+         return executeAfterPendingPuts(keyBytes,
+               operationsFactory.<V>newGetWithMetadataOperation(compatKeyIfNeeded(key), keyBytes));
+      }
+      return CompletableFuture.supplyAsync(() -> getWithMetadata(key), executorService);
+   }
+
    @Override
    public void putAll(Map<? extends K, ? extends V> map, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
@@ -223,7 +280,9 @@ public void putAll(Map<? extends K, ? extends V> map, long lifespan, TimeUnit li
       }
       Map<byte[], byte[]> byteMap = new HashMap<>();
       for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
-         byteMap.put(obj2bytes(entry.getKey(),  true), obj2bytes(entry.getValue(), false));
+         byte[] keyBytes = obj2bytes(entry.getKey(), true);
+         awaitPendingPuts(keyBytes);
+         byteMap.put(keyBytes, obj2bytes(entry.getValue(), false));
       }
       PutAllParallelOperation op = operationsFactory.newPutAllOperation(byteMap, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
       op.execute();
@@ -268,11 +327,49 @@ public V put(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleT
       if (trace) {
          log.tracef("About to add (K,V): (%s, %s) lifespan:%d, maxIdle:%d", key, value, lifespan, maxIdleTime);
       }
+      byte[] keyBytes = obj2bytes(key, true);
+      awaitPendingPuts(keyBytes);
+      // Blocking puts are never coalesced, they would wait for the window
       PutOperation<V> op = operationsFactory.newPutKeyValueOperation(compatKeyIfNeeded(key),
-         obj2bytes(key, true), obj2bytes(value, false), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+         keyBytes, obj2bytes(value, false), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+      if (isPipelined()) {
+         return ChannelFactory.await(operationsFactory.getChannelFactory().execute(op));
+      }
       return op.execute();
    }
 
+   /**
+    * Waits until the coalesced puts of the key invoked before a blocking operation on it have been applied.
+    */
+   private void awaitPendingPuts(byte[] keyBytes) {
+      PutCoalescer putCoalescer = operationsFactory.getPutCoalescer();
+      if (putCoalescer != null) {
+         putCoalescer.awaitPendingPuts(keyBytes);
+      }
+   }
+
+   /**
+    * Executes an asynchronous operation on the key once the coalesced puts of the key invoked before it have been
+    * applied.
+    */
+   private <T> CompletableFuture<T> executeAfterPendingPuts(byte[] keyBytes, ChannelOperation<T> op) {
+      ChannelFactory channelFactory = operationsFactory.getChannelFactory();
+      PutCoalescer putCoalescer = operationsFactory.getPutCoalescer();
+      if (putCoalescer == null) {
+         return channelFactory.execute(op);
+      }
+      return putCoalescer.executeAfterPendingPuts(keyBytes, () -> channelFactory.execute(op));
+   }
+
+   /**
+    * Whether the blocking operations are pipelined over the non-blocking connections.  Never the case in their I/O
+    * threads, e.g. when invoked from the callback of an asynchronous operation, as the response would never be read.
+    */
+   private boolean isPipelined() {
+      ChannelFactory channelFactory = operationsFactory.getChannelFactory();
+      return channelFactory != null && channelFactory.getConfiguration().pipelining() && !channelFactory.isIoThread();
+   }
+
    K compatKeyIfNeeded(Object key) {
       return hasCompatibility ? (K) key : null;
    }
@@ -280,22 +377,39 @@ K compatKeyIfNeeded(Object key) {
    @Override
    public V putIfAbsent(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = obj2bytes(key, true);
+      awaitPendingPuts(keyBytes);
       PutIfAbsentOperation<V> op = operationsFactory.newPutIfAbsentOperation(compatKeyIfNeeded(key),
-         obj2bytes(key, true), obj2bytes(value, false), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+         keyBytes, obj2bytes(value, false), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+      if (isPipelined()) {
+         return ChannelFactory.await(operationsFactory.getChannelFactory().execute(op));
+      }
       return op.execute();
    }
 
    @Override
    public V replace(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = obj2bytes(key, true);
+      awaitPendingPuts(keyBytes);
       ReplaceOperation<V> op = operationsFactory.newReplaceOperation(compatKeyIfNeeded(key),
-         obj2bytes(key, true), obj2bytes(value, false), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+         keyBytes, obj2bytes(value, false), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+      if (isPipelined()) {
+         return ChannelFactory.await(operationsFactory.getChannelFactory().execute(op));
+      }
       return op.execute();
    }
 
    @Override
    public CompletableFuture<V> putAsync(final K key, final V value, final long lifespan, final TimeUnit lifespanUnit, final long maxIdle, final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      ChannelFactory channelFactory = operationsFactory.getChannelFactory();
+      if (channelFactory != null) {
+         PutOperation<V> op = operationsFactory.newPutKeyValueOperation(compatKeyIfNeeded(key),
+               obj2bytes(key, true), obj2bytes(value, false), lifespan, lifespanUnit, maxIdle, maxIdleUnit);
+         PutCoalescer putCoalescer = operationsFactory.getPutCoalescer();
+         return putCoalescer != null ? putCoalescer.put(op) : channelFactory.execute(op);
+      }
       int flags = operationsFactory.flags();
       return CompletableFuture.supplyAsync(() -> {
          if (flags != 0)
@@ -313,6 +427,12 @@ public CompletableFuture<Void> clearAsync() {
    @Override
    public CompletableFuture<V> putIfAbsentAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      ChannelFactory channelFactory = operationsFactory.getChannelFactory();
+      if (channelFactory != null) {
+         byte[] keyBytes = obj2bytes(key, true);
+         return executeAfterPendingPuts(keyBytes, operationsFactory.<V>newPutIfAbsentOperation(compatKeyIfNeeded(key),
+               keyBytes, obj2bytes(value, false), lifespan, lifespanUnit, maxIdle, maxIdleUnit));
+      }
       int flags = operationsFactory.flags();
       return CompletableFuture.supplyAsync(() -> {
          if (flags != 0)
@@ -324,6 +444,11 @@ public CompletableFuture<V> putIfAbsentAsync(final K key,final V value,final lon
    @Override
    public CompletableFuture<V> removeAsync(final Object key) {
       assertRemoteCacheManagerIsStarted();
+      ChannelFactory channelFactory = operationsFactory.getChannelFactory();
+      if (channelFactory != null) {
+         byte[] keyBytes = obj2bytes(key, true);
+         return executeAfterPendingPuts(keyBytes, operationsFactory.<V>newRemoveOperation(compatKeyIfNeeded(key), keyBytes));
+      }
       int flags = operationsFactory.flags();
       return CompletableFuture.supplyAsync(() -> {
          if (flags != 0)
@@ -335,6 +460,12 @@ public CompletableFuture<V> removeAsync(final Object key) {
    @Override
    public CompletableFuture<V> replaceAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      ChannelFactory channelFactory = operationsFactory.getChannelFactory();
+      if (channelFactory != null) {
+         byte[] keyBytes = obj2bytes(key, true);
+         return executeAfterPendingPuts(keyBytes, operationsFactory.<V>newReplaceOperation(compatKeyIfNeeded(key),
+               keyBytes, obj2bytes(value, false), lifespan, lifespanUnit, maxIdle, maxIdleUnit));
+      }
       int flags = operationsFactory.flags();
       return CompletableFuture.supplyAsync(() -> {
          if (flags != 0)
@@ -346,8 +477,10 @@ public CompletableFuture<V> replaceAsync(final K key,final V value,final long li
    @Override
    public boolean containsKey(Object key) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = obj2bytes(key, true);
+      awaitPendingPuts(keyBytes);
       ContainsKeyOperation op = operationsFactory.newContainsKeyOperation(
-         compatKeyIfNeeded(key), obj2bytes(key, true));
+         compatKeyIfNeeded(key), keyBytes);
       return op.execute();
    }
 
@@ -355,8 +488,9 @@ public boolean containsKey(Object key) {
    public V get(Object key) {
       assertRemoteCacheManagerIsStarted();
       byte[] keyBytes = obj2bytes(key, true);
+      awaitPendingPuts(keyBytes);
       GetOperation<V> gco = operationsFactory.newGetKeyOperation(compatKeyIfNeeded(key), keyBytes);
-      V result = gco.execute();
+      V result = isPipelined() ? ChannelFactory.await(operationsFactory.getChannelFactory().execute(gco)) : gco.execute();
       if (trace) {
          log.tracef("For key(%s) returning %s", key, result);
       }
@@ -371,7 +505,9 @@ public Map<K, V> getAll(Set<? extends K> keys) {
       }
       Set<byte[]> byteKeys = new HashSet<>(keys.size());
       for (K key : keys) {
-         byteKeys.add(obj2bytes(key, true));
+         byte[] keyBytes = obj2bytes(key, true);
+         awaitPendingPuts(keyBytes);
+         byteKeys.add(keyBytes);
       }
       GetAllParallelOperation<K, V> op = operationsFactory.newGetAllOperation(byteKeys);
       Map<K, V> result = op.execute();
@@ -394,15 +530,24 @@ public Map<K, V> getBulk(int size) {
    @Override
    public V remove(Object key) {
       assertRemoteCacheManagerIsStarted();
-      RemoveOperation<V> removeOperation = operationsFactory.newRemoveOperation(compatKeyIfNeeded(key), obj2bytes(key, true));
+      byte[] keyBytes = obj2bytes(key, true);
+      awaitPendingPuts(keyBytes);
+      RemoveOperation<V> removeOperation = operationsFactory.newRemoveOperation(compatKeyIfNeeded(key), keyBytes);
       // TODO: It sucks that you need the prev value to see if it works...
       // We need to find a better API for RemoteCache...
+      if (isPipelined()) {
+         return ChannelFactory.await(operationsFactory.getChannelFactory().execute(removeOperation));
+      }
       return removeOperation.execute();
    }
 
    @Override
    public void clear() {
       assertRemoteCacheManagerIsStarted();
+      PutCoalescer putCoalescer = operationsFactory.getPutCoalescer();
+      if (putCoalescer != null) {
+         putCoalescer.awaitAllPendingPuts();
+      }
       ClearOperation op = operationsFactory.newClearOperation() ;
       op.execute();
    }
@@ -453,6 +598,18 @@ public void addClientListener(Object listener, Object[] filterFactoryParams, Obj
       op.execute();
    }
 
+   /**
+    * Adds a client listener whose filter and converter parameters are sent as they are, instead of being marshalled,
+    * for the filters and converters built into the server.
+    */
+   public void addClientListenerWithRawParams(Object listener, byte[][] filterFactoryParams,
+         byte[][] converterFactoryParams) {
+      assertRemoteCacheManagerIsStarted();
+      AddClientListenerOperation op = operationsFactory.newAddClientListenerOperation(
+            listener, filterFactoryParams, converterFactoryParams);
+      op.execute();
+   }
+
    private byte[][] marshallParams(Object[] params) {
       if (params == null)
          return new byte[0][];
@@ -488,6 +645,11 @@ public RemoteCache<K, V> withFlags(Flag... flags) {
    @Override
    public CompletableFuture<V> getAsync(final K key) {
       assertRemoteCacheManagerIsStarted();
+      ChannelFactory channelFactory = operationsFactory.getChannelFactory();
+      if (channelFactory != null) {
+         byte[] keyBytes = obj2bytes(key, true);
+         return executeAfterPendingPuts(keyBytes, operationsFactory.<V>newGetKeyOperation(compatKeyIfNeeded(key), keyBytes));
+      }
       return CompletableFuture.supplyAsync(() -> get(key), executorService);
    }
 
@@ -528,8 +690,7 @@ protected void set(K key, V value) {
    @Override
    public Set<K> keySet() {
       assertRemoteCacheManagerIsStarted();
-      // Use default scope
-      BulkGetKeysOperation<K> op = operationsFactory.newBulkGetKeysOperation(0);
+      BulkGetKeysParallelOperation<K> op = operationsFactory.newBulkGetKeysParallelOperation();
       return Collections.unmodifiableSet(op.execute());
    }
 
@@ -0,0 +1,68 @@
+package org.infinispan.client.hotrod.impl.iteration;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import org.infinispan.commons.util.CloseableIterator;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Iterates over the entries of a cache by iterating over the segments primarily owned by each server on that server,
+ * so that every server only reads the entries it holds, instead of a single server reading and forwarding the entries
+ * of the whole cluster.  The iteration of each server is started once the entries of the previous one have been
+ * consumed and closed right after its last entry.
+ *
+ * @since 9.0
+ */
+@NotThreadSafe
+public class PerOwnerCloseableIterator<E> implements CloseableIterator<Entry<Object, E>> {
+   private final Iterator<RemoteCloseableIterator<E>> remaining;
+   private RemoteCloseableIterator<E> current;
+   private boolean closed;
+
+   /**
+    * @param iterators not yet started iterators, each restricted to the segments of the server it is directed to
+    */
+   public PerOwnerCloseableIterator(List<RemoteCloseableIterator<E>> iterators) {
+      this.remaining = iterators.iterator();
+   }
+
+   @Override
+   public boolean hasNext() {
+      if (closed) {
+         return false;
+      }
+      while (current == null || !current.hasNext()) {
+         if (current != null) {
+            current.close();
+            current = null;
+         }
+         if (!remaining.hasNext()) {
+            return false;
+         }
+         current = remaining.next();
+         current.start();
+      }
+      return true;
+   }
+
+   @Override
+   public Entry<Object, E> next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      return current.next();
+   }
+
+   @Override
+   public void close() {
+      if (!closed) {
+         closed = true;
+         if (current != null) {
+            current.close();
+            current = null;
+         }
+      }
+   }
+}
@@ -1,5 +1,6 @@
 package org.infinispan.client.hotrod.impl.iteration;
 
+import java.net.SocketAddress;
 import java.util.LinkedList;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
@@ -39,6 +40,7 @@
    private final Set<Integer> segments;
    private final int batchSize;
    private final boolean metadata;
+   private SocketAddress server;
 
    private KeyTracker segmentKeyTracker;
    private Transport transport;
@@ -49,6 +51,16 @@
 
    public RemoteCloseableIterator(OperationsFactory operationsFactory, String filterConverterFactory,
                                   byte[][] filterParams, Set<Integer> segments, int batchSize, boolean metadata) {
+      this(operationsFactory, filterConverterFactory, filterParams, segments, batchSize, metadata, null);
+   }
+
+   /**
+    * Creates an iterator reading the entries from the given server, as long as it is available.
+    */
+   public RemoteCloseableIterator(OperationsFactory operationsFactory, String filterConverterFactory,
+                                  byte[][] filterParams, Set<Integer> segments, int batchSize, boolean metadata,
+                                  SocketAddress server) {
+      this.server = server;
       this.filterConverterFactory = filterConverterFactory;
       this.filterParams = filterParams;
       this.segments = segments;
@@ -111,6 +123,8 @@ private void fetch() {
 
       } catch (TransportException | RemoteIllegalLifecycleStateException e) {
          log.warnf(e, "Error reaching the server during iteration");
+         // The server may be gone, let the balancer pick any of the remaining ones
+         server = null;
          startInternal(segmentKeyTracker.missedSegments());
          fetch();
       }
@@ -120,7 +134,7 @@ private IterationStartResponse startInternal(Set<Integer> segments) {
       if (log.isDebugEnabled()) {
          log.debugf("Starting iteration with segments %s", segments);
       }
-      IterationStartOperation iterationStartOperation = operationsFactory.newIterationStartOperation(filterConverterFactory, filterParams, segments, batchSize, metadata);
+      IterationStartOperation iterationStartOperation = operationsFactory.newIterationStartOperation(filterConverterFactory, filterParams, segments, batchSize, metadata, server);
       IterationStartResponse startResponse = iterationStartOperation.execute();
       this.transport = startResponse.getTransport();
       if (log.isDebugEnabled()) {
@@ -35,22 +35,35 @@ protected AbstractKeyOperation(Codec codec, TransportFactory transportFactory,
    @Override
    protected Transport getTransport(int retryCount, Set<SocketAddress> failedServers) {
       if (retryCount == 0) {
-         return transportFactory.getTransport(key == null ? keyBytes : key, failedServers, cacheName);
+         return transportFactory.getTransport(getRoutingKey(), failedServers, cacheName);
       } else {
          return transportFactory.getTransport(failedServers, cacheName);
       }
    }
 
+   public Object getRoutingKey() {
+      return key == null ? keyBytes : key;
+   }
+
+   public byte[] getCacheNameBytes() {
+      return cacheName;
+   }
+
    protected short sendKeyOperation(byte[] key, Transport transport, byte opCode, byte opRespCode) {
       // 1) write [header][key length][key]
-      HeaderParams params = writeHeader(transport, opCode);
-      transport.writeArray(key);
+      HeaderParams params = writeKeyRequest(key, transport, opCode);
       transport.flush();
 
       // 2) now read the header
       return readHeaderAndValidate(transport, params);
    }
 
+   protected HeaderParams writeKeyRequest(byte[] key, Transport transport, short opCode) {
+      HeaderParams params = writeHeader(transport, opCode);
+      transport.writeArray(key);
+      return params;
+   }
+
    protected T returnPossiblePrevValue(Transport transport, short status) {
       return (T) codec.returnPossiblePrevValue(transport, status, flags);
    }
@@ -18,23 +18,47 @@
  * @since 5.2
  */
 public class BulkGetKeysOperation<K> extends RetryOnFailureOperation<Set<K>> {
+   public static final int DEFAULT_SCOPE = 0;
+   public static final int GLOBAL_SCOPE = 1;
+   public static final int LOCAL_SCOPE = 2;
+
    private final int scope;
+   private final SocketAddress server;
+   private boolean serverFailed;
 
    public BulkGetKeysOperation(Codec codec, TransportFactory transportFactory, byte[] cacheName,
                                AtomicInteger topologyId, int flags, ClientIntelligence clientIntelligence, int scope) {
+      this(codec, transportFactory, cacheName, topologyId, flags, clientIntelligence, scope, null);
+   }
+
+   /**
+    * Creates an operation reading the keys from the given server, as long as it is available.  Once it fails, the
+    * keys are read from any other server with the default scope, because the local keys of another server would not
+    * be the ones requested.
+    */
+   public BulkGetKeysOperation(Codec codec, TransportFactory transportFactory, byte[] cacheName,
+                               AtomicInteger topologyId, int flags, ClientIntelligence clientIntelligence, int scope,
+                               SocketAddress server) {
       super(codec, transportFactory, cacheName, topologyId, flags, clientIntelligence);
       this.scope = scope;
+      this.server = server;
    }
 
    @Override
    protected Transport getTransport(int retryCount, Set<SocketAddress> failedServers) {
+      if (server != null) {
+         serverFailed = failedServers != null && failedServers.contains(server);
+         if (!serverFailed) {
+            return transportFactory.getAddressTransport(server);
+         }
+      }
       return transportFactory.getTransport(failedServers, cacheName);
    }
 
    @Override
    protected Set<K> executeOperation(Transport transport) {
       HeaderParams params = writeHeader(transport, BULK_GET_KEYS_REQUEST);
-      transport.writeVInt(scope);
+      transport.writeVInt(serverFailed ? DEFAULT_SCOPE : scope);
       transport.flush();
       short status = readHeaderAndValidate(transport, params);
       Set<K> result = new HashSet<K>();
@@ -0,0 +1,87 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import java.net.SocketAddress;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.infinispan.client.hotrod.configuration.ClientIntelligence;
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHash;
+import org.infinispan.client.hotrod.impl.consistenthash.SegmentConsistentHash;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+/**
+ * Reads all keys by asking every server for the keys of the segments it is the primary owner of, in parallel, instead
+ * of having a single server gather all of them from the cluster.
+ * <p>
+ * The segments owned by each server are only known from the consistent hash of the client, so when the topology
+ * changes while the keys are read, or the client doesn't know the segment owners, all the keys are read from a single
+ * server instead.
+ *
+ * @since 9.0
+ */
+public class BulkGetKeysParallelOperation<K> extends ParallelHotRodOperation<Set<K>, BulkGetKeysOperation<K>> {
+   private static final Log log = LogFactory.getLog(BulkGetKeysParallelOperation.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   protected BulkGetKeysParallelOperation(Codec codec, TransportFactory transportFactory, byte[] cacheName,
+         AtomicInteger topologyId, int flags, ClientIntelligence clientIntelligence, ExecutorService executorService) {
+      super(codec, transportFactory, cacheName, topologyId, flags, clientIntelligence, executorService);
+   }
+
+   @Override
+   public Set<K> execute() {
+      int initialTopologyId = topologyId.get();
+      if (transportFactory.getConsistentHash(cacheName) instanceof SegmentConsistentHash) {
+         try {
+            Set<K> keys = super.execute();
+            if (topologyId.get() == initialTopologyId) {
+               return keys;
+            }
+            if (trace) {
+               log.tracef("Topology changed from %d to %d while reading the keys of each server", initialTopologyId,
+                     topologyId.get());
+            }
+         } catch (HotRodClientException e) {
+            if (trace) {
+               log.tracef(e, "Failed reading the keys of each server");
+            }
+         }
+      }
+      return newOperation(BulkGetKeysOperation.DEFAULT_SCOPE, null).execute();
+   }
+
+   @Override
+   protected List<BulkGetKeysOperation<K>> mapOperations() {
+      ConsistentHash ch = transportFactory.getConsistentHash(cacheName);
+      Set<SocketAddress> primaryOwners = new LinkedHashSet<>();
+      for (SocketAddress[] owners : ((SegmentConsistentHash) ch).getSegmentOwners()) {
+         primaryOwners.add(owners[0]);
+      }
+      return primaryOwners.stream().map(server -> newOperation(BulkGetKeysOperation.LOCAL_SCOPE, server))
+            .collect(Collectors.toList());
+   }
+
+   private BulkGetKeysOperation<K> newOperation(int scope, SocketAddress server) {
+      return new BulkGetKeysOperation<>(codec, transportFactory, cacheName, topologyId, flags, clientIntelligence,
+            scope, server);
+   }
+
+   @Override
+   protected Set<K> createCollector() {
+      return new HashSet<>();
+   }
+
+   @Override
+   protected void combine(Set<K> collector, Set<K> result) {
+      collector.addAll(result);
+   }
+}
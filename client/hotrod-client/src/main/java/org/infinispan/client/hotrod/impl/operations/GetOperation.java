@@ -4,9 +4,11 @@
 
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelOperation;
 
 import net.jcip.annotations.Immutable;
 
@@ -17,7 +19,7 @@
  * @since 4.1
  */
 @Immutable
-public class GetOperation<V> extends AbstractKeyOperation<V> {
+public class GetOperation<V> extends AbstractKeyOperation<V> implements ChannelOperation<V> {
 
    public GetOperation(Codec codec, TransportFactory transportFactory,
                        Object key, byte[] keyBytes, byte[] cacheName, AtomicInteger topologyId, int flags,
@@ -27,8 +29,18 @@ public GetOperation(Codec codec, TransportFactory transportFactory,
 
    @Override
    public V executeOperation(Transport transport) {
-      V result = null;
       short status = sendKeyOperation(keyBytes, transport, GET_REQUEST, GET_RESPONSE);
+      return readResponse(transport, null, status);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writeKeyRequest(keyBytes, transport, GET_REQUEST);
+   }
+
+   @Override
+   public V readResponse(Transport transport, HeaderParams params, short status) {
+      V result = null;
       if (HotRodConstants.isNotExist(status)) {
          result = null;
       } else {
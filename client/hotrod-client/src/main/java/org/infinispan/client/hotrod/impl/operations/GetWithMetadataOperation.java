@@ -6,9 +6,11 @@
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.impl.MetadataValueImpl;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelOperation;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 
@@ -22,7 +24,8 @@
  * @since 5.2
  */
 @Immutable
-public class GetWithMetadataOperation<V> extends AbstractKeyOperation<MetadataValue<V>> {
+public class GetWithMetadataOperation<V> extends AbstractKeyOperation<MetadataValue<V>>
+      implements ChannelOperation<MetadataValue<V>> {
 
    private static final Log log = LogFactory.getLog(GetWithMetadataOperation.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -36,6 +39,16 @@ public GetWithMetadataOperation(Codec codec, TransportFactory transportFactory,
    @Override
    protected MetadataValue<V> executeOperation(Transport transport) {
       short status = sendKeyOperation(keyBytes, transport, GET_WITH_METADATA, GET_WITH_METADATA_RESPONSE);
+      return readResponse(transport, null, status);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writeKeyRequest(keyBytes, transport, GET_WITH_METADATA);
+   }
+
+   @Override
+   public MetadataValue<V> readResponse(Transport transport, HeaderParams params, short status) {
       MetadataValue<V> result = null;
       if (HotRodConstants.isNotExist(status)) {
          result = null;
@@ -1,5 +1,6 @@
 package org.infinispan.client.hotrod.impl.operations;
 
+import java.net.SocketAddress;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -11,6 +12,7 @@
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
+import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHash;
 import org.infinispan.client.hotrod.event.ClientListenerNotifier;
 import org.infinispan.client.hotrod.impl.iteration.KeyTracker;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
@@ -18,6 +20,7 @@
 import org.infinispan.client.hotrod.impl.query.RemoteQuery;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
 
 import net.jcip.annotations.Immutable;
 import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransport;
@@ -51,9 +54,20 @@ public class OperationsFactory implements HotRodConstants {
 
    private final ClientIntelligence clientIntelligence;
 
+   private final ChannelFactory channelFactory;
+
+   private final PutCoalescer putCoalescer;
+
    public OperationsFactory(TransportFactory transportFactory, String cacheName, boolean forceReturnValue, Codec
            codec, ClientListenerNotifier listenerNotifier, ExecutorService executorService, ClientIntelligence clientIntelligence) {
+      this(transportFactory, null, cacheName, forceReturnValue, codec, listenerNotifier, executorService, clientIntelligence);
+   }
+
+   public OperationsFactory(TransportFactory transportFactory, ChannelFactory channelFactory, String cacheName,
+           boolean forceReturnValue, Codec codec, ClientListenerNotifier listenerNotifier, ExecutorService executorService,
+           ClientIntelligence clientIntelligence) {
       this.transportFactory = transportFactory;
+      this.channelFactory = channelFactory;
       this.executorService = executorService;
       this.cacheNameBytes = RemoteCacheManager.cacheNameBytes(cacheName);
       this.cacheName = cacheName;
@@ -64,6 +78,23 @@ public OperationsFactory(TransportFactory transportFactory, String cacheName, bo
       this.codec = codec;
       this.listenerNotifier = listenerNotifier;
       this.clientIntelligence = clientIntelligence;
+      this.putCoalescer = channelFactory != null && channelFactory.getConfiguration().putCoalescingWindowMicros() > 0
+            ? new PutCoalescer(channelFactory) : null;
+   }
+
+   /**
+    * Returns the factory executing operations over non-blocking connections, or null if the async transport is not
+    * enabled.
+    */
+   public ChannelFactory getChannelFactory() {
+      return channelFactory;
+   }
+
+   /**
+    * Returns the coalescer of puts executed over non-blocking connections, or null if puts are not coalesced.
+    */
+   public PutCoalescer getPutCoalescer() {
+      return putCoalescer;
    }
 
    public ClientListenerNotifier getListenerNotifier() {
@@ -159,6 +190,11 @@ public <K, V> BulkGetOperation<K, V> newBulkGetOperation(int size) {
             codec, transportFactory, cacheNameBytes, topologyId, flags(), clientIntelligence, size);
    }
 
+   public <K> BulkGetKeysParallelOperation<K> newBulkGetKeysParallelOperation() {
+      return new BulkGetKeysParallelOperation<>(
+         codec, transportFactory, cacheNameBytes, topologyId, flags(), clientIntelligence, executorService);
+   }
+
    public <K> BulkGetKeysOperation<K> newBulkGetKeysOperation(int scope) {
       return new BulkGetKeysOperation<>(
          codec, transportFactory, cacheNameBytes, topologyId, flags(), clientIntelligence, scope);
@@ -257,12 +293,24 @@ public boolean hasFlag(Flag flag) {
       return threadLocalFlags != null && (threadLocalFlags & flag.getFlagInt()) != 0;
    }
 
+   public ConsistentHash getConsistentHash() {
+      return transportFactory.getConsistentHash(cacheNameBytes);
+   }
+
    public CacheTopologyInfo getCacheTopologyInfo() {
       return transportFactory.getCacheTopologyInfo(cacheNameBytes);
    }
 
    public IterationStartOperation newIterationStartOperation(String filterConverterFactory, byte[][] filterParameters, Set<Integer> segments, int batchSize, boolean metadata) {
-      return new IterationStartOperation(codec, flags(), clientIntelligence, cacheNameBytes, topologyId, filterConverterFactory, filterParameters, segments, batchSize, transportFactory, metadata);
+      return newIterationStartOperation(filterConverterFactory, filterParameters, segments, batchSize, metadata, null);
+   }
+
+   /**
+    * Construct an iteration start request directed to the given server while it is available, or to any server if
+    * the given one is null.
+    */
+   public IterationStartOperation newIterationStartOperation(String filterConverterFactory, byte[][] filterParameters, Set<Integer> segments, int batchSize, boolean metadata, SocketAddress server) {
+      return new IterationStartOperation(codec, flags(), clientIntelligence, cacheNameBytes, topologyId, filterConverterFactory, filterParameters, segments, batchSize, transportFactory, metadata, server);
    }
 
    public IterationEndOperation newIterationEndOperation(String iterationId, Transport transport) {
@@ -14,6 +14,7 @@
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelOperation;
 
 import net.jcip.annotations.Immutable;
 
@@ -24,7 +25,7 @@
  * @since 7.2
  */
 @Immutable
-public class PutAllOperation extends RetryOnFailureOperation<Void> {
+public class PutAllOperation extends RetryOnFailureOperation<Void> implements ChannelOperation<Void> {
 
    public PutAllOperation(Codec codec, TransportFactory transportFactory,
                           Map<byte[], byte[]> map, byte[] cacheName, AtomicInteger topologyId,
@@ -46,6 +47,15 @@ public PutAllOperation(Codec codec, TransportFactory transportFactory,
 
    @Override
    protected Void executeOperation(Transport transport) {
+      HeaderParams params = writeRequest(transport);
+      transport.flush();
+
+      short status = readHeaderAndValidate(transport, params);
+      return readResponse(transport, params, status);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
       HeaderParams params = writeHeader(transport, PUT_ALL_REQUEST);
       codec.writeExpirationParams(transport, lifespan, lifespanTimeUnit, maxIdle, maxIdleTimeUnit);
       transport.writeVInt(map.size());
@@ -53,17 +63,29 @@ protected Void executeOperation(Transport transport) {
          transport.writeArray(entry.getKey());
          transport.writeArray(entry.getValue());
       }
-      transport.flush();
+      return params;
+   }
 
-      short status = readHeaderAndValidate(transport, params);
+   @Override
+   public Void readResponse(Transport transport, HeaderParams params, short status) {
       if (!HotRodConstants.isSuccess(status)) {
          throw new InvalidResponseException("Unexpected response status: " + Integer.toHexString(status));
       }
       return null;
    }
 
+   @Override
+   public Object getRoutingKey() {
+      return map.keySet().iterator().next();
+   }
+
+   @Override
+   public byte[] getCacheNameBytes() {
+      return cacheName;
+   }
+
    @Override
    protected Transport getTransport(int retryCount, Set<SocketAddress> failedServers) {
-      return transportFactory.getTransport(map.keySet().iterator().next(), failedServers, cacheName);
+      return transportFactory.getTransport(getRoutingKey(), failedServers, cacheName);
    }
 }
@@ -0,0 +1,293 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.marshall.WrappedByteArray;
+
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Coalesces the asynchronous puts of a cache into {@link PutAllOperation}s.  Puts sent to the same server with the
+ * same flags and expiration are held for the configured window, or until the maximum number of entries is reached,
+ * and then written as a single request, whose outcome completes all of them.  When the batch is sent its keys are
+ * grouped again by their current owner, in case the topology changed during the window.
+ * <p>
+ * Puts that have to return the previous value can't be coalesced, as putAll doesn't return it, and are executed right
+ * away.
+ * <p>
+ * As a coalesced put is written later than it was invoked, the operations on its key invoked after it must wait for
+ * it: {@link #executeAfterPendingPuts(byte[], Supplier)} and {@link #awaitPendingPuts(byte[])} send the batch holding
+ * the key right away and run the operation once it has been applied.  The operations on a key invoked while it has a
+ * pending put are chained one after the other, so they are applied in the order they were invoked.
+ *
+ * @since 9.0
+ */
+public class PutCoalescer {
+   private static final Log log = LogFactory.getLog(PutCoalescer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final ChannelFactory channelFactory;
+   private final long windowMicros;
+   private final int maxEntries;
+   // Batches waiting for their window to elapse - guarded by this
+   private final Map<BatchKey, Batch> batches = new HashMap<>();
+   // The last operation of each key with a coalesced put not applied yet - guarded by this
+   private final Map<WrappedByteArray, CompletableFuture<?>> pendingKeys = new HashMap<>();
+
+   public PutCoalescer(ChannelFactory channelFactory) {
+      this.channelFactory = channelFactory;
+      this.windowMicros = channelFactory.getConfiguration().putCoalescingWindowMicros();
+      this.maxEntries = channelFactory.getConfiguration().putCoalescingMaxEntries();
+   }
+
+   /**
+    * Executes an asynchronous put, possibly as part of a putAll with other puts, and returns a future completed once it
+    * has been applied.  Blocking puts must not use this method, they would wait for the window.
+    */
+   public <V> CompletableFuture<V> put(PutOperation<V> operation) {
+      if ((operation.flags & Flag.FORCE_RETURN_VALUE.getFlagInt()) != 0) {
+         return executeAfterPendingPuts(operation.keyBytes, () -> channelFactory.execute(operation));
+      }
+      WrappedByteArray key = new WrappedByteArray(operation.keyBytes);
+      BatchKey batchKey = new BatchKey(operation.transportFactory.getSocketAddress(operation.keyBytes,
+            operation.cacheName), operation);
+      Batch full = null;
+      CompletableFuture<Void> result;
+      synchronized (this) {
+         if (pendingKeys.containsKey(key)) {
+            // Neither merged with the pending put nor sent before it
+            return chain(key, () -> channelFactory.execute(operation));
+         }
+         Batch batch = batches.get(batchKey);
+         if (batch == null) {
+            Batch created = new Batch(batchKey, operation);
+            created.timeout = channelFactory.schedule(() -> flush(created), windowMicros, TimeUnit.MICROSECONDS);
+            batches.put(batchKey, created);
+            batch = created;
+         }
+         result = batch.add(operation);
+         pendingKeys.put(key, result);
+         if (batch.size() >= maxEntries) {
+            batches.remove(batchKey);
+            full = batch;
+         }
+      }
+      result.whenComplete((ignore, throwable) -> removePending(key, result));
+      if (full != null) {
+         send(full);
+      }
+      return result.thenApply(ignore -> null);
+   }
+
+   /**
+    * Executes an operation on the key once the coalesced puts of the key invoked before it have been applied, sending
+    * them right away if they are still waiting.
+    */
+   public <T> CompletableFuture<T> executeAfterPendingPuts(byte[] keyBytes, Supplier<CompletableFuture<T>> operation) {
+      WrappedByteArray key = new WrappedByteArray(keyBytes);
+      synchronized (this) {
+         if (pendingKeys.containsKey(key)) {
+            return chain(key, operation);
+         }
+      }
+      return operation.get();
+   }
+
+   /**
+    * Waits until the coalesced puts of the key have been applied, sending them right away if they are still waiting,
+    * before a blocking operation on the key.  Their failures are reported to the callers of the puts.  The I/O threads
+    * can't wait, as they are the ones reading the responses, so they only send the puts.
+    */
+   public void awaitPendingPuts(byte[] keyBytes) {
+      WrappedByteArray key = new WrappedByteArray(keyBytes);
+      CompletableFuture<?> pending;
+      Batch waiting;
+      synchronized (this) {
+         pending = pendingKeys.get(key);
+         if (pending == null) {
+            return;
+         }
+         waiting = removeWaitingBatch(key);
+      }
+      if (waiting != null) {
+         send(waiting);
+      }
+      if (!channelFactory.isIoThread()) {
+         try {
+            pending.join();
+         } catch (CompletionException e) {
+            // Reported to the caller of the put
+         }
+      }
+   }
+
+   /**
+    * Sends all the waiting batches and waits until they have been applied, before an operation that affects every key.
+    */
+   public void awaitAllPendingPuts() {
+      List<Batch> waiting;
+      List<CompletableFuture<?>> pending;
+      synchronized (this) {
+         waiting = new ArrayList<>(batches.values());
+         batches.clear();
+         pending = new ArrayList<>(pendingKeys.values());
+      }
+      waiting.forEach(this::send);
+      if (!channelFactory.isIoThread()) {
+         try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[pending.size()])).join();
+         } catch (CompletionException e) {
+            // Reported to the callers of the puts
+         }
+      }
+   }
+
+   // Must be invoked while holding the lock, with a pending put for the key
+   private <T> CompletableFuture<T> chain(WrappedByteArray key, Supplier<CompletableFuture<T>> operation) {
+      Batch waiting = removeWaitingBatch(key);
+      CompletableFuture<?> previous = pendingKeys.get(key);
+      // The failure of the previous operation is reported to its own caller
+      CompletableFuture<T> result = previous.handle((ignore, throwable) -> null)
+            .thenCompose(ignore -> operation.get());
+      pendingKeys.put(key, result);
+      result.whenComplete((ignore, throwable) -> removePending(key, result));
+      if (waiting != null) {
+         // Invoked while holding the lock, but sending only writes the request
+         send(waiting);
+      }
+      return result;
+   }
+
+   // Must be invoked while holding the lock
+   private Batch removeWaitingBatch(WrappedByteArray key) {
+      for (Batch batch : batches.values()) {
+         if (batch.keys.contains(key)) {
+            batches.remove(batch.batchKey);
+            return batch;
+         }
+      }
+      return null;
+   }
+
+   private synchronized void removePending(WrappedByteArray key, CompletableFuture<?> operation) {
+      pendingKeys.remove(key, operation);
+   }
+
+   private void flush(Batch batch) {
+      synchronized (this) {
+         if (!batches.remove(batch.batchKey, batch)) {
+            // Already sent because it was full or an operation on one of its keys was invoked
+            return;
+         }
+      }
+      send(batch);
+   }
+
+   private void send(Batch batch) {
+      batch.timeout.cancel(false);
+      PutOperation<?> first = batch.first;
+      CompletableFuture<?> response;
+      if (batch.size() == 1) {
+         response = channelFactory.execute(first);
+      } else {
+         Map<SocketAddress, Map<byte[], byte[]>> entriesByOwner = new HashMap<>();
+         batch.entries.forEach((key, value) -> entriesByOwner.computeIfAbsent(
+               first.transportFactory.getSocketAddress(key, first.cacheName), s -> new LinkedHashMap<>()).put(key, value));
+         if (trace) {
+            log.tracef("Coalescing %d puts into %d putAll", batch.size(), entriesByOwner.size());
+         }
+         CompletableFuture<?>[] responses = new CompletableFuture[entriesByOwner.size()];
+         int i = 0;
+         for (Map<byte[], byte[]> entries : entriesByOwner.values()) {
+            responses[i++] = channelFactory.execute(new PutAllOperation(first.codec, first.transportFactory, entries,
+                  first.cacheName, first.topologyId, first.flags, first.clientIntelligence, first.lifespan,
+                  first.lifespanTimeUnit, first.maxIdle, first.maxIdleTimeUnit));
+         }
+         response = responses.length == 1 ? responses[0] : CompletableFuture.allOf(responses);
+      }
+      response.whenComplete((ignore, throwable) -> {
+         if (throwable != null) {
+            batch.result.completeExceptionally(throwable);
+         } else {
+            batch.result.complete(null);
+         }
+      });
+   }
+
+   private static final class Batch {
+      final BatchKey batchKey;
+      final PutOperation<?> first;
+      final Map<byte[], byte[]> entries = new LinkedHashMap<>();
+      final Set<WrappedByteArray> keys = new HashSet<>();
+      final CompletableFuture<Void> result = new CompletableFuture<>();
+      ScheduledFuture<?> timeout;
+
+      Batch(BatchKey batchKey, PutOperation<?> first) {
+         this.batchKey = batchKey;
+         this.first = first;
+      }
+
+      CompletableFuture<Void> add(PutOperation<?> operation) {
+         keys.add(new WrappedByteArray(operation.keyBytes));
+         entries.put(operation.keyBytes, operation.value);
+         return result;
+      }
+
+      int size() {
+         return entries.size();
+      }
+   }
+
+   private static final class BatchKey {
+      private final SocketAddress server;
+      private final int flags;
+      private final long lifespan;
+      private final TimeUnit lifespanTimeUnit;
+      private final long maxIdle;
+      private final TimeUnit maxIdleTimeUnit;
+
+      BatchKey(SocketAddress server, PutOperation<?> operation) {
+         this.server = server;
+         this.flags = operation.flags;
+         this.lifespan = operation.lifespan;
+         this.lifespanTimeUnit = operation.lifespanTimeUnit;
+         this.maxIdle = operation.maxIdle;
+         this.maxIdleTimeUnit = operation.maxIdleTimeUnit;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         BatchKey batchKey = (BatchKey) o;
+         return flags == batchKey.flags && lifespan == batchKey.lifespan && maxIdle == batchKey.maxIdle &&
+               lifespanTimeUnit == batchKey.lifespanTimeUnit && maxIdleTimeUnit == batchKey.maxIdleTimeUnit &&
+               Objects.equals(server, batchKey.server);
+      }
+
+      @Override
+      public int hashCode() {
+         int result = Objects.hashCode(server);
+         result = 31 * result + flags;
+         result = 31 * result + Long.hashCode(lifespan);
+         result = 31 * result + Long.hashCode(maxIdle);
+         return result;
+      }
+   }
+}
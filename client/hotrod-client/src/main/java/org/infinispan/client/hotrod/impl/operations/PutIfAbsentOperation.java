@@ -5,9 +5,11 @@
 
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelOperation;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.jboss.logging.BasicLogger;
 
@@ -21,7 +23,7 @@
  * @since 4.1
  */
 @Immutable
-public class PutIfAbsentOperation<V> extends AbstractKeyValueOperation<V> {
+public class PutIfAbsentOperation<V> extends AbstractKeyValueOperation<V> implements ChannelOperation<V> {
 
    private static final BasicLogger log = LogFactory.getLog(PutIfAbsentOperation.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -37,6 +39,16 @@ public PutIfAbsentOperation(Codec codec, TransportFactory transportFactory,
    @Override
    protected V executeOperation(Transport transport) {
       short status = sendPutOperation(transport, PUT_IF_ABSENT_REQUEST, PUT_IF_ABSENT_RESPONSE);
+      return readResponse(transport, null, status);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writePutRequest(transport, PUT_IF_ABSENT_REQUEST);
+   }
+
+   @Override
+   public V readResponse(Transport transport, HeaderParams params, short status) {
       V previousValue = null;
       if (HotRodConstants.isNotExecuted(status)) {
          previousValue = returnPossiblePrevValue(transport, status);
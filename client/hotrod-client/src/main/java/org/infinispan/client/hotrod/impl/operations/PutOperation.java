@@ -6,9 +6,11 @@
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelOperation;
 
 import net.jcip.annotations.Immutable;
 
@@ -19,7 +21,7 @@
  * @since 4.1
  */
 @Immutable
-public class PutOperation<V> extends AbstractKeyValueOperation<V> {
+public class PutOperation<V> extends AbstractKeyValueOperation<V> implements ChannelOperation<V> {
 
    public PutOperation(Codec codec, TransportFactory transportFactory,
                        Object key, byte[] keyBytes, byte[] cacheName, AtomicInteger topologyId,
@@ -32,6 +34,16 @@ public PutOperation(Codec codec, TransportFactory transportFactory,
    @Override
    protected V executeOperation(Transport transport) {
       short status = sendPutOperation(transport, PUT_REQUEST, PUT_RESPONSE);
+      return readResponse(transport, null, status);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writePutRequest(transport, PUT_REQUEST);
+   }
+
+   @Override
+   public V readResponse(Transport transport, HeaderParams params, short status) {
       if (!HotRodConstants.isSuccess(status)) {
          throw new InvalidResponseException("Unexpected response status: " + Integer.toHexString(status));
       }
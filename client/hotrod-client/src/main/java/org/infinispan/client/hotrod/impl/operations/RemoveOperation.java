@@ -4,9 +4,11 @@
 
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelOperation;
 
 import net.jcip.annotations.Immutable;
 
@@ -18,7 +20,7 @@
  * @since 4.1
  */
 @Immutable
-public class RemoveOperation<V> extends AbstractKeyOperation<V> {
+public class RemoveOperation<V> extends AbstractKeyOperation<V> implements ChannelOperation<V> {
 
    public RemoveOperation(Codec codec, TransportFactory transportFactory,
          Object key, byte[] keyBytes, byte[] cacheName, AtomicInteger topologyId, int flags, ClientIntelligence clientIntelligence) {
@@ -28,6 +30,16 @@ public RemoveOperation(Codec codec, TransportFactory transportFactory,
    @Override
    public V executeOperation(Transport transport) {
       short status = sendKeyOperation(keyBytes, transport, REMOVE_REQUEST, REMOVE_RESPONSE);
+      return readResponse(transport, null, status);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writeKeyRequest(keyBytes, transport, REMOVE_REQUEST);
+   }
+
+   @Override
+   public V readResponse(Transport transport, HeaderParams params, short status) {
       V result = returnPossiblePrevValue(transport, status);
       if (HotRodConstants.isNotExist(status))
          return null;
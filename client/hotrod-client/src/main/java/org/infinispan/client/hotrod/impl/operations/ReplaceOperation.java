@@ -5,8 +5,10 @@
 
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelOperation;
 
 import net.jcip.annotations.Immutable;
 
@@ -18,7 +20,7 @@
  * @since 4.1
  */
 @Immutable
-public class ReplaceOperation<V> extends AbstractKeyValueOperation<V> {
+public class ReplaceOperation<V> extends AbstractKeyValueOperation<V> implements ChannelOperation<V> {
 
    public ReplaceOperation(Codec codec, TransportFactory transportFactory,
                            Object key, byte[] keyBytes, byte[] cacheName, AtomicInteger topologyId,
@@ -31,6 +33,16 @@ public ReplaceOperation(Codec codec, TransportFactory transportFactory,
    @Override
    protected V executeOperation(Transport transport) {
       short status = sendPutOperation(transport, REPLACE_REQUEST, REPLACE_RESPONSE);
+      return readResponse(transport, null, status);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writePutRequest(transport, REPLACE_REQUEST);
+   }
+
+   @Override
+   public V readResponse(Transport transport, HeaderParams params, short status) {
       return returnPossiblePrevValue(transport, status);
    }
 }
@@ -59,6 +59,10 @@ public HeaderParams messageId(long messageId) {
       return this;
    }
 
+   public long messageId() {
+      return messageId;
+   }
+
    public HeaderParams topologyAge(int topologyAge) {
       this.topologyAge = topologyAge;
       return this;
@@ -58,6 +58,13 @@ void updateHashFunction(SocketAddress[][] segmentOwners, int numSegments, short
 
    Transport getTransport(Object key, Set<SocketAddress> failedServers, byte[] cacheName);
 
+   /**
+    * Returns the server a request should be sent to, without borrowing a transport for it.  The owner of the key is
+    * chosen if known and not failed, otherwise the next server of the balancer.
+    * @param key the key of the request or null to always use the balancer
+    */
+   SocketAddress getServerAddress(Object key, Set<SocketAddress> failedServers, byte[] cacheName);
+
    boolean isTcpNoDelay();
 
    boolean isTcpKeepAlive();
@@ -0,0 +1,139 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.net.SocketAddress;
+
+import org.infinispan.client.hotrod.impl.transport.AbstractTransport;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Transport that reads and writes a Netty {@link ByteBuf}, which allows the existing codecs and operations to encode
+ * requests into and decode responses from the buffers of a {@link MultiplexedChannel}.  Nothing is sent or received by
+ * this transport itself, therefore {@link #flush()} does nothing and reads never block: they fail when the buffer
+ * doesn't contain enough bytes, which the {@link ResponseDecoder} relies on to wait for more data.
+ *
+ * @since 9.0
+ */
+class ByteBufTransport extends AbstractTransport {
+   private final SocketAddress serverAddress;
+   private ByteBuf buf;
+   private boolean invalid;
+
+   ByteBufTransport(TransportFactory transportFactory, SocketAddress serverAddress) {
+      super(transportFactory);
+      this.serverAddress = serverAddress;
+   }
+
+   ByteBufTransport buffer(ByteBuf buf) {
+      this.buf = buf;
+      return this;
+   }
+
+   @Override
+   public void writeByte(short toWrite) {
+      buf.writeByte(toWrite);
+   }
+
+   @Override
+   public void writeVInt(int vInt) {
+      while ((vInt & ~0x7F) != 0) {
+         buf.writeByte((vInt & 0x7F) | 0x80);
+         vInt >>>= 7;
+      }
+      buf.writeByte(vInt);
+   }
+
+   @Override
+   public void writeSignedVInt(int vInt) {
+      writeVInt((vInt << 1) ^ (vInt >> 31));
+   }
+
+   @Override
+   public void writeVLong(long l) {
+      while ((l & ~0x7F) != 0) {
+         buf.writeByte((int) ((l & 0x7F) | 0x80));
+         l >>>= 7;
+      }
+      buf.writeByte((int) l);
+   }
+
+   @Override
+   public long readVLong() {
+      byte b = buf.readByte();
+      long l = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = buf.readByte();
+         l |= (b & 0x7FL) << shift;
+      }
+      return l;
+   }
+
+   @Override
+   public int readVInt() {
+      byte b = buf.readByte();
+      int i = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = buf.readByte();
+         i |= (b & 0x7F) << shift;
+      }
+      return i;
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend) {
+      buf.writeBytes(toAppend);
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend, int offset, int count) {
+      buf.writeBytes(toAppend, offset, count);
+   }
+
+   @Override
+   public void flush() {
+      // Requests are sent by the channel once they have been completely written
+   }
+
+   @Override
+   public short readByte() {
+      return buf.readUnsignedByte();
+   }
+
+   @Override
+   public void release() {
+      // The channel is owned by the channel factory
+   }
+
+   @Override
+   public void readByteArray(byte[] buffer, int size) {
+      buf.readBytes(buffer, 0, size);
+   }
+
+   @Override
+   public byte[] readByteArray(int size) {
+      byte[] result = new byte[size];
+      buf.readBytes(result);
+      return result;
+   }
+
+   @Override
+   public byte[] dumpStream() {
+      return new byte[0];
+   }
+
+   @Override
+   public SocketAddress getRemoteSocketAddress() {
+      return serverAddress;
+   }
+
+   @Override
+   public void invalidate() {
+      invalid = true;
+   }
+
+   @Override
+   public boolean isValid() {
+      return !invalid;
+   }
+}
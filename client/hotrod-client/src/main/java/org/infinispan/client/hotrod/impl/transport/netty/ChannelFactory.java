@@ -0,0 +1,253 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SNIHostName;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+
+import org.infinispan.client.hotrod.configuration.AsyncTransportConfiguration;
+import org.infinispan.client.hotrod.configuration.Configuration;
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.exceptions.RemoteIllegalLifecycleStateException;
+import org.infinispan.client.hotrod.exceptions.RemoteNodeSuspectException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Executes {@link ChannelOperation}s over non-blocking connections, of which there is at most one per server.  All the
+ * connections are handled by a fixed number of I/O threads, which also read the responses and complete the futures
+ * returned by {@link #execute(ChannelOperation)}, therefore any number of operations can be in flight without
+ * occupying a thread each.
+ * <p>
+ * Servers are chosen and retried the same way as by the blocking operations: the first attempt goes to the owner of
+ * the key, if known, and the following ones to the next server of the balancer that hasn't failed yet.  The topology
+ * and consistent hash are shared with the {@link TransportFactory} and updated by the responses of either transport.
+ *
+ * @since 9.0
+ */
+public class ChannelFactory {
+   private static final Log log = LogFactory.getLog(ChannelFactory.class);
+   private static final boolean trace = log.isTraceEnabled();
+   public static final String THREAD_NAME = "HotRod-client-async-io";
+
+   private final TransportFactory transportFactory;
+   private final Codec codec;
+   private final AsyncTransportConfiguration configuration;
+   private final int socketTimeout;
+   private final EventLoopGroup eventLoopGroup;
+   private final Bootstrap bootstrap;
+   private final ConcurrentMap<SocketAddress, CompletableFuture<MultiplexedChannel>> channels = new ConcurrentHashMap<>();
+
+   public ChannelFactory(TransportFactory transportFactory, Codec codec, Configuration configuration) {
+      this.transportFactory = transportFactory;
+      this.codec = codec;
+      this.configuration = configuration.asyncTransport();
+      this.socketTimeout = configuration.socketTimeout();
+      AtomicInteger counter = new AtomicInteger();
+      this.eventLoopGroup = new NioEventLoopGroup(configuration.asyncTransport().ioThreads(), r -> {
+         Thread th = new Thread(r, THREAD_NAME + "-" + counter.getAndIncrement());
+         th.setDaemon(true);
+         return th;
+      });
+      this.bootstrap = new Bootstrap()
+            .group(eventLoopGroup)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.TCP_NODELAY, configuration.tcpNoDelay())
+            .option(ChannelOption.SO_KEEPALIVE, configuration.tcpKeepAlive())
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, configuration.connectionTimeout());
+   }
+
+   public AsyncTransportConfiguration getConfiguration() {
+      return configuration;
+   }
+
+   /**
+    * Whether the current thread is one of the I/O threads, which must never wait for a response as they are the ones
+    * reading it.
+    */
+   public boolean isIoThread() {
+      for (EventExecutor executor : eventLoopGroup) {
+         if (executor.inEventLoop()) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Waits for the result of an operation executed by this factory, throwing the same exception the blocking
+    * operation would have thrown if it failed.
+    */
+   public static <T> T await(CompletableFuture<T> future) {
+      try {
+         return future.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new HotRodClientException(e);
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+         }
+         throw new HotRodClientException(cause);
+      }
+   }
+
+   /**
+    * Runs the task in an I/O thread after the given delay.
+    */
+   public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+      return eventLoopGroup.schedule(task, delay, unit);
+   }
+
+   /**
+    * Executes the operation, retrying on other servers when the connection fails, and returns a future completed by an
+    * I/O thread with its result.
+    */
+   public <T> CompletableFuture<T> execute(ChannelOperation<T> operation) {
+      CompletableFuture<T> result = new CompletableFuture<>();
+      execute(operation, result, 0, Collections.emptySet());
+      return result;
+   }
+
+   private <T> void execute(ChannelOperation<T> operation, CompletableFuture<T> result, int retryCount,
+         Set<SocketAddress> failedServers) {
+      SocketAddress server;
+      CompletableFuture<T> response;
+      try {
+         // Only the first attempt goes to the owner of the key, like the blocking operations
+         server = transportFactory.getServerAddress(retryCount == 0 ? operation.getRoutingKey() : null,
+               failedServers, operation.getCacheNameBytes());
+         response = getChannel(server).thenCompose(channel -> channel.send(operation));
+      } catch (Throwable t) {
+         result.completeExceptionally(t);
+         return;
+      }
+      response.whenComplete((value, throwable) -> {
+         if (throwable == null) {
+            result.complete(value);
+            return;
+         }
+         Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+               ? throwable.getCause() : throwable;
+         Set<SocketAddress> nextFailedServers = failedServers;
+         if (cause instanceof TransportException || cause instanceof RemoteIllegalLifecycleStateException) {
+            nextFailedServers = new HashSet<>(failedServers);
+            nextFailedServers.add(server);
+         } else if (!(cause instanceof RemoteNodeSuspectException)) {
+            result.completeExceptionally(cause);
+            return;
+         }
+         if (retryCount >= transportFactory.getMaxRetries()) {
+            log.exceptionAndNoRetriesLeft(retryCount, transportFactory.getMaxRetries(), (HotRodClientException) cause);
+            result.completeExceptionally(cause);
+         } else {
+            if (trace) {
+               log.tracef(cause, "Exception encountered. Retry %d out of %d", retryCount, transportFactory.getMaxRetries());
+            }
+            execute(operation, result, retryCount + 1, nextFailedServers);
+         }
+      });
+   }
+
+   private CompletableFuture<MultiplexedChannel> getChannel(SocketAddress server) {
+      CompletableFuture<MultiplexedChannel> channel = channels.get(server);
+      if (channel != null) {
+         MultiplexedChannel connected = channel.getNow(null);
+         if (connected == null || connected.isActive()) {
+            return channel;
+         }
+         channels.remove(server, channel);
+      }
+      CompletableFuture<MultiplexedChannel> connected = new CompletableFuture<>();
+      CompletableFuture<MultiplexedChannel> existing = channels.putIfAbsent(server, connected);
+      if (existing != null) {
+         return existing;
+      }
+      connect(server, connected);
+      return connected;
+   }
+
+   private void connect(SocketAddress server, CompletableFuture<MultiplexedChannel> connected) {
+      if (trace) {
+         log.tracef("Connecting to %s", server);
+      }
+      MultiplexedChannel[] multiplexedChannel = new MultiplexedChannel[1];
+      ChannelFuture connectFuture = bootstrap.clone().handler(new ChannelInitializer<Channel>() {
+         @Override
+         protected void initChannel(Channel ch) throws Exception {
+            ChannelPipeline pipeline = ch.pipeline();
+            SSLContext sslContext = transportFactory.getSSLContext();
+            if (sslContext != null) {
+               pipeline.addLast(new SslHandler(createSSLEngine(sslContext, server)));
+            }
+            multiplexedChannel[0] = new MultiplexedChannel(ch, server, transportFactory, socketTimeout);
+            pipeline.addLast(new ResponseDecoder(multiplexedChannel[0], codec, transportFactory));
+         }
+      }).connect(server);
+      connectFuture.addListener(f -> {
+         if (f.isSuccess()) {
+            connectFuture.channel().closeFuture().addListener(c -> channels.remove(server, connected));
+            connected.complete(multiplexedChannel[0]);
+         } else {
+            channels.remove(server, connected);
+            connected.completeExceptionally(new TransportException(f.cause(), server));
+         }
+      });
+   }
+
+   private SSLEngine createSSLEngine(SSLContext sslContext, SocketAddress server) {
+      SSLEngine engine;
+      if (server instanceof InetSocketAddress) {
+         InetSocketAddress address = (InetSocketAddress) server;
+         engine = sslContext.createSSLEngine(address.getHostString(), address.getPort());
+      } else {
+         engine = sslContext.createSSLEngine();
+      }
+      engine.setUseClientMode(true);
+      String sniHostName = transportFactory.getSniHostName();
+      if (sniHostName != null) {
+         SSLParameters sslParameters = engine.getSSLParameters();
+         sslParameters.setServerNames(Collections.singletonList(new SNIHostName(sniHostName)));
+         engine.setSSLParameters(sslParameters);
+      }
+      return engine;
+   }
+
+   public void destroy() {
+      for (CompletableFuture<MultiplexedChannel> channel : channels.values()) {
+         channel.thenAccept(MultiplexedChannel::close);
+      }
+      channels.clear();
+      eventLoopGroup.shutdownGracefully(0, socketTimeout, TimeUnit.MILLISECONDS);
+   }
+}
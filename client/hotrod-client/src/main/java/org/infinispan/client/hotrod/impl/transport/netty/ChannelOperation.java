@@ -0,0 +1,34 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+
+/**
+ * Operation that can be executed over a {@link MultiplexedChannel}.  Unlike the blocking operations, which write the
+ * request and then wait for the response on the same transport, the request and the response of these operations are
+ * handled separately: the request is written by the thread invoking the operation and the response is read by the
+ * I/O thread of the channel once it is available.
+ *
+ * @since 9.0
+ */
+public interface ChannelOperation<T> {
+
+   /**
+    * Returns the key used to pick the server the operation is sent to.
+    */
+   Object getRoutingKey();
+
+   byte[] getCacheNameBytes();
+
+   /**
+    * Writes the request, including its header.
+    * @return the header params, which are needed to read the response
+    */
+   HeaderParams writeRequest(Transport transport);
+
+   /**
+    * Reads the body of the response, after its header has been read.
+    * @param status the status read from the response header
+    */
+   T readResponse(Transport transport, HeaderParams params, short status);
+}
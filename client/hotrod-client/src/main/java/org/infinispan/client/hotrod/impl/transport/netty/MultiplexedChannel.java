@@ -0,0 +1,161 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Connection to a server that is shared by any number of concurrent requests.  Each request is written as soon as it
+ * is sent and is registered with the message id of its header, so that its response, which may arrive in any order,
+ * can be read by the {@link ResponseDecoder} on the I/O thread of the channel and complete the future of the request.
+ * <p>
+ * When the connection is closed or fails, all the requests waiting for a response are completed with a
+ * {@link TransportException} so that they can be retried.  A request without response after the socket timeout is
+ * considered a connection failure, the same way the blocking transport invalidates its socket when a read times out.
+ *
+ * @since 9.0
+ */
+public class MultiplexedChannel {
+   private static final Log log = LogFactory.getLog(MultiplexedChannel.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final Channel channel;
+   private final SocketAddress serverAddress;
+   private final TransportFactory transportFactory;
+   private final int socketTimeout;
+   private final ConcurrentMap<Long, PendingRequest<?>> pending = new ConcurrentHashMap<>();
+
+   MultiplexedChannel(Channel channel, SocketAddress serverAddress, TransportFactory transportFactory, int socketTimeout) {
+      this.channel = channel;
+      this.serverAddress = serverAddress;
+      this.transportFactory = transportFactory;
+      this.socketTimeout = socketTimeout;
+   }
+
+   public SocketAddress getServerAddress() {
+      return serverAddress;
+   }
+
+   /**
+    * Writes the request of the operation and returns a future completed with its response.
+    */
+   public <T> CompletableFuture<T> send(ChannelOperation<T> operation) {
+      ByteBuf buf = channel.alloc().buffer();
+      HeaderParams params;
+      try {
+         params = operation.writeRequest(new ByteBufTransport(transportFactory, serverAddress).buffer(buf));
+      } catch (Throwable t) {
+         buf.release();
+         throw t;
+      }
+      long messageId = params.messageId();
+      PendingRequest<T> request = new PendingRequest<>(operation, params);
+      // Register before writing, the response could be read before the write completes
+      pending.put(messageId, request);
+      if (socketTimeout > 0) {
+         request.timeout = channel.eventLoop().schedule(() -> timeout(messageId), socketTimeout, TimeUnit.MILLISECONDS);
+      }
+      if (!channel.isActive()) {
+         // The channel may have been closed before the request was registered, in which case it would never be failed
+         fail(messageId, new TransportException("Connection closed", serverAddress));
+         buf.release();
+         return request.future;
+      }
+      channel.writeAndFlush(buf).addListener(f -> {
+         if (!f.isSuccess()) {
+            fail(messageId, new TransportException(f.cause(), serverAddress));
+         }
+      });
+      return request.future;
+   }
+
+   PendingRequest<?> getPending(long messageId) {
+      return pending.get(messageId);
+   }
+
+   PendingRequest<?> removePending(long messageId) {
+      PendingRequest<?> request = pending.remove(messageId);
+      if (request != null && request.timeout != null) {
+         request.timeout.cancel(false);
+      }
+      return request;
+   }
+
+   private void timeout(long messageId) {
+      if (fail(messageId, new TransportException(new SocketTimeoutException(
+            "No response for request " + messageId + " within " + socketTimeout + " ms"), serverAddress))) {
+         // The response may still arrive later, so the connection can't be used for other requests anymore
+         close();
+      }
+   }
+
+   private boolean fail(long messageId, Throwable t) {
+      PendingRequest<?> request = removePending(messageId);
+      if (request != null) {
+         request.future.completeExceptionally(t);
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * Completes all the requests waiting for a response with the given exception.
+    */
+   void failAll(Throwable t) {
+      List<Long> messageIds = new ArrayList<>(pending.keySet());
+      if (trace && !messageIds.isEmpty()) {
+         log.tracef(t, "Failing %d pending requests to %s", messageIds.size(), serverAddress);
+      }
+      for (Long messageId : messageIds) {
+         fail(messageId, t);
+      }
+   }
+
+   public boolean isActive() {
+      return channel.isActive();
+   }
+
+   public void close() {
+      channel.close();
+   }
+
+   static final class PendingRequest<T> {
+      final ChannelOperation<T> operation;
+      final HeaderParams params;
+      final CompletableFuture<T> future = new CompletableFuture<>();
+      volatile ScheduledFuture<?> timeout;
+
+      PendingRequest(ChannelOperation<T> operation, HeaderParams params) {
+         this.operation = operation;
+         this.params = params;
+      }
+
+      @SuppressWarnings("unchecked")
+      void complete(Object response) {
+         future.complete((T) response);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "MultiplexedChannel{" +
+            "serverAddress=" + serverAddress +
+            ", pending=" + pending.size() +
+            '}';
+   }
+}
@@ -0,0 +1,135 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.util.List;
+
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ReplayingDecoder;
+
+/**
+ * Reads the responses of a {@link MultiplexedChannel} and completes the requests they belong to, which are found by
+ * the message id of the response header.
+ * <p>
+ * Responses are read with the codec and operations used by the blocking transport over a {@link ByteBufTransport}.
+ * When a response hasn't been fully received yet, reading it fails and it is read again from the last checkpoint once
+ * more bytes have arrived.  A checkpoint is taken after the header, so that topology updates contained in it are only
+ * applied once.
+ *
+ * @since 9.0
+ */
+class ResponseDecoder extends ReplayingDecoder<ResponseDecoder.State> {
+   private static final Log log = LogFactory.getLog(ResponseDecoder.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   enum State {
+      READ_HEADER,
+      READ_BODY,
+   }
+
+   private final MultiplexedChannel channel;
+   private final Codec codec;
+   private final ByteBufTransport transport;
+   private MultiplexedChannel.PendingRequest<?> current;
+   private short status;
+
+   ResponseDecoder(MultiplexedChannel channel, Codec codec, TransportFactory transportFactory) {
+      super(State.READ_HEADER);
+      this.channel = channel;
+      this.codec = codec;
+      this.transport = new ByteBufTransport(transportFactory, channel.getServerAddress());
+   }
+
+   @Override
+   protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+      transport.buffer(in);
+      switch (state()) {
+         case READ_HEADER:
+            long messageId = peekMessageId(in);
+            MultiplexedChannel.PendingRequest<?> request = channel.getPending(messageId);
+            if (request == null) {
+               // Either the server couldn't read the message id of a request or the stream is corrupted
+               throw new InvalidResponseException("Received response for unknown message id " + messageId);
+            }
+            try {
+               status = codec.readHeader(transport, request.params);
+            } catch (InvalidResponseException e) {
+               throw e;
+            } catch (HotRodClientException e) {
+               // Error responses are read completely, so the next response can be read
+               checkpoint();
+               failRequest(ctx, messageId, e);
+               return;
+            }
+            current = request;
+            checkpoint(State.READ_BODY);
+            // fall through
+         case READ_BODY:
+            long currentId = current.params.messageId();
+            Object response;
+            try {
+               response = current.operation.readResponse(transport, current.params, status);
+            } catch (InvalidResponseException e) {
+               throw e;
+            } catch (HotRodClientException e) {
+               checkpoint(State.READ_HEADER);
+               current = null;
+               failRequest(ctx, currentId, e);
+               return;
+            }
+            checkpoint(State.READ_HEADER);
+            MultiplexedChannel.PendingRequest<?> completed = current;
+            current = null;
+            if (channel.removePending(currentId) != null) {
+               if (trace) {
+                  log.tracef("Received response for messageId=%d from %s", currentId, channel.getServerAddress());
+               }
+               completed.complete(response);
+            }
+            break;
+      }
+   }
+
+   private long peekMessageId(ByteBuf in) {
+      int readerIndex = in.readerIndex();
+      short magic = in.readUnsignedByte();
+      if (magic != HotRodConstants.RESPONSE_MAGIC) {
+         throw new InvalidResponseException(String.format("Invalid magic number. Expected %#x and received %#x",
+               HotRodConstants.RESPONSE_MAGIC, magic));
+      }
+      long messageId = transport.readVLong();
+      in.readerIndex(readerIndex);
+      return messageId;
+   }
+
+   private void failRequest(ChannelHandlerContext ctx, long messageId, HotRodClientException e) {
+      MultiplexedChannel.PendingRequest<?> request = channel.removePending(messageId);
+      if (request != null) {
+         request.future.completeExceptionally(e);
+      }
+      if (!transport.isValid()) {
+         ctx.close();
+      }
+   }
+
+   @Override
+   public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      channel.failAll(new TransportException("Connection closed", channel.getServerAddress()));
+      super.channelInactive(ctx);
+   }
+
+   @Override
+   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+      log.debugf(cause, "Closing connection to %s", channel.getServerAddress());
+      channel.failAll(new TransportException(cause, channel.getServerAddress()));
+      ctx.close();
+   }
+}
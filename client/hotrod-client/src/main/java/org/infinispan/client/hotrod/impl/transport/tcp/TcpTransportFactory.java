@@ -280,13 +280,19 @@ public SocketAddress getSocketAddress(Object key, byte[] cacheName) {
    }
 
    public Transport getTransport(Object key, Set<SocketAddress> failedServers, byte[] cacheName) {
-      SocketAddress server;
+      return borrowTransportFromPool(getServerAddress(key, failedServers, cacheName));
+   }
+
+   @Override
+   public SocketAddress getServerAddress(Object key, Set<SocketAddress> failedServers, byte[] cacheName) {
       synchronized (lock) {
+         if (key == null) {
+            return getNextServer(failedServers, cacheName);
+         }
          Optional<SocketAddress> hashAwareServer = topologyInfo.getHashAwareServer(key, cacheName);
          Optional<SocketAddress> filtered = hashAwareServer.filter(a -> failedServers == null || !failedServers.contains(a));
-         server = filtered.orElse(getNextServer(failedServers, cacheName));
+         return filtered.orElse(getNextServer(failedServers, cacheName));
       }
-      return borrowTransportFromPool(server);
    }
 
    @Override
@@ -0,0 +1,25 @@
+package org.infinispan.client.hotrod.jmx;
+
+/**
+ * Management interface of a {@link org.infinispan.client.hotrod.RemoteCacheManager}, registered when JMX is enabled
+ * in its configuration.  The near cache statistics are the sum of those of every near cache created by the manager.
+ *
+ * @since 9.0
+ */
+public interface RemoteCacheManagerMXBean {
+
+   /**
+    * Returns the number of reads served by the near caches.
+    */
+   long getNearCacheHits();
+
+   /**
+    * Returns the number of reads of the near caches that had to go to the servers.
+    */
+   long getNearCacheMisses();
+
+   /**
+    * Returns the number of entries evicted to keep the near caches within their bounds.
+    */
+   long getNearCacheEvictions();
+}
@@ -0,0 +1,6 @@
+/**
+ * Hot Rod client management API.
+ *
+ * @public
+ */
+package org.infinispan.client.hotrod.jmx;
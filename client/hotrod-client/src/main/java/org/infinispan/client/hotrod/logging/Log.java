@@ -252,4 +252,38 @@ public interface Log extends BasicLogger {
    @LogMessage(level = WARN)
    @Message(value = "Unable to convert property [%s] to an enum! Using default value of %d", id = 4066)
    void unableToConvertStringPropertyToEnum(String value, String defaultValue);
+
+   @Message(value = "Invalid number of async transport I/O threads %d", id = 4067)
+   CacheConfigurationException invalidAsyncTransportIoThreads(int ioThreads);
+
+   @LogMessage(level = WARN)
+   @Message(value = "The async transport does not support authentication, asynchronous operations will use the async executor instead", id = 4068)
+   void asyncTransportAuthenticationUnsupported();
+
+   @Message(value = "Invalid put coalescing window %d, it must not be negative", id = 4069)
+   CacheConfigurationException invalidPutCoalescingWindow(long window);
+
+   @Message(value = "Invalid put coalescing max entries %d, it must be positive", id = 4070)
+   CacheConfigurationException invalidPutCoalescingMaxEntries(int maxEntries);
+
+   @Message(value = "The near cache can be bounded either by max entries or by max bytes, but not by both", id = 4071)
+   CacheConfigurationException nearCacheMaxEntriesAndMaxBytes();
+
+   @Message(value = "Invalid near cache max bytes %d, it must be positive", id = 4072)
+   CacheConfigurationException invalidNearCacheMaxBytes(long maxBytes);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Unable to register the MBean of the remote cache manager as '%s'", id = 4073)
+   void unableToRegisterMBean(String objectName, @Cause Exception e);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Unable to unregister the MBean of the remote cache manager '%s'", id = 4074)
+   void unableToUnregisterMBean(String objectName, @Cause Exception e);
+
+   @Message(value = "Invalid near cache bloom filter refresh interval %d, it must be positive", id = 4075)
+   CacheConfigurationException invalidBloomFilterRefreshInterval(long interval);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Unable to send the bloom filter of the near cache to the server", id = 4076)
+   void unableToRefreshNearCacheBloomFilter(@Cause Throwable t);
 }
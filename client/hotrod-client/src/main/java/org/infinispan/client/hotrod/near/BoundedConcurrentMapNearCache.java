@@ -1,10 +1,13 @@
 package org.infinispan.client.hotrod.near;
 
+import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 
 import org.infinispan.client.hotrod.VersionedValue;
 import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
-import org.infinispan.commons.util.CollectionFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
  * Near cache based on {@link BoundedConcurrentMapNearCache}
@@ -13,15 +16,17 @@
  */
 final class BoundedConcurrentMapNearCache<K, V> implements NearCache<K, V> {
 
+   private final Cache<K, VersionedValue<V>> caffeine;
    private final ConcurrentMap<K, VersionedValue<V>> cache;
 
-   private BoundedConcurrentMapNearCache(ConcurrentMap<K, VersionedValue<V>> cache) {
-      this.cache = cache;
+   private BoundedConcurrentMapNearCache(Cache<K, VersionedValue<V>> caffeine) {
+      this.caffeine = caffeine;
+      this.cache = caffeine.asMap();
    }
 
    public static <K, V> NearCache<K, V> create(final NearCacheConfiguration config) {
       return new BoundedConcurrentMapNearCache<K, V>(
-         CollectionFactory.<K, VersionedValue<V>>makeBoundedConcurrentMap(config.maxEntries()));
+         Caffeine.newBuilder().maximumSize(config.maxEntries()).recordStats().build());
    }
 
    @Override
@@ -49,4 +54,14 @@ public void clear() {
       cache.clear();
    }
 
+   @Override
+   public Set<K> keySet() {
+      return cache.keySet();
+   }
+
+   @Override
+   public long evictionCount() {
+      return caffeine.stats().evictionCount();
+   }
+
 }
@@ -0,0 +1,115 @@
+package org.infinispan.client.hotrod.near;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.infinispan.client.hotrod.VersionedValue;
+import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.marshall.Marshaller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Near cache bounded by the size of its keys and values once marshalled, rather than by their number, so that a few
+ * large values can't take as much memory as many small ones would.  Entries are weighed before they are stored, so
+ * that the marshalling doesn't happen while Caffeine holds the lock of the entry, and admitted and evicted by
+ * Caffeine's W-TinyLFU policy, which keeps the frequently read entries instead of the last written ones.
+ *
+ * @since 9.0
+ */
+final class ByteSizeBoundedNearCache<K, V> implements NearCache<K, V> {
+   private static final Log log = LogFactory.getLog(ByteSizeBoundedNearCache.class);
+
+   private final Marshaller marshaller;
+   private final Cache<K, WeighedValue<V>> caffeine;
+   private final ConcurrentMap<K, WeighedValue<V>> cache;
+
+   private ByteSizeBoundedNearCache(Marshaller marshaller, Cache<K, WeighedValue<V>> caffeine) {
+      this.marshaller = marshaller;
+      this.caffeine = caffeine;
+      this.cache = caffeine.asMap();
+   }
+
+   public static <K, V> NearCache<K, V> create(NearCacheConfiguration config, Marshaller marshaller) {
+      Cache<K, WeighedValue<V>> caffeine = Caffeine.newBuilder()
+            .maximumWeight(config.maxBytes())
+            .weigher((K k, WeighedValue<V> v) -> v.weight)
+            .recordStats()
+            .build();
+      return new ByteSizeBoundedNearCache<>(marshaller, caffeine);
+   }
+
+   private WeighedValue<V> weighed(K key, VersionedValue<V> value) {
+      return new WeighedValue<>(value, weigh(marshaller, key, value.getValue()));
+   }
+
+   private static int weigh(Marshaller marshaller, Object key, Object value) {
+      long size = (long) marshalledSize(marshaller, key) + marshalledSize(marshaller, value);
+      return (int) Math.min(size, Integer.MAX_VALUE);
+   }
+
+   private static int marshalledSize(Marshaller marshaller, Object o) {
+      try {
+         return marshaller.objectToByteBuffer(o).length;
+      } catch (Exception e) {
+         if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+         }
+         // Weigh it as the marshaller expects it to be, it was marshalled before so this should hardly ever happen
+         log.tracef(e, "Unable to marshall %s to compute its size, estimating it", o);
+         return marshaller.getBufferSizePredictor(o).nextSize(o);
+      }
+   }
+
+   @Override
+   public void put(K key, VersionedValue<V> value) {
+      cache.put(key, weighed(key, value));
+   }
+
+   @Override
+   public void putIfAbsent(K key, VersionedValue<V> value) {
+      if (!cache.containsKey(key)) {
+         cache.putIfAbsent(key, weighed(key, value));
+      }
+   }
+
+   @Override
+   public void remove(K key) {
+      cache.remove(key);
+   }
+
+   @Override
+   public VersionedValue<V> get(K key) {
+      WeighedValue<V> value = cache.get(key);
+      return value == null ? null : value.value;
+   }
+
+   @Override
+   public void clear() {
+      cache.clear();
+   }
+
+   @Override
+   public Set<K> keySet() {
+      return cache.keySet();
+   }
+
+   @Override
+   public long evictionCount() {
+      return caffeine.stats().evictionCount();
+   }
+
+   private static final class WeighedValue<V> {
+      final VersionedValue<V> value;
+      final int weight;
+
+      WeighedValue(VersionedValue<V> value, int weight) {
+         this.value = value;
+         this.weight = weight;
+      }
+   }
+
+}
@@ -1,7 +1,9 @@
 package org.infinispan.client.hotrod.near;
 
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -84,6 +86,17 @@ public void clear() {
       }
    }
 
+   @Override
+   public Set<K> keySet() {
+      Lock lock = rwlock.readLock();
+      try {
+         lock.lock();
+         return new HashSet<>(cache.keySet());
+      } finally {
+         lock.unlock();
+      }
+   }
+
    public static <K, V> NearCache<K, V> create(final NearCacheConfiguration config) {
       return new LinkedMapNearCache<K, V>(
             new LinkedHashMap<K, VersionedValue<V>>(1 << 4, 0.75f, true) {
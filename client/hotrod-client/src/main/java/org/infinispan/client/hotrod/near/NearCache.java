@@ -1,5 +1,7 @@
 package org.infinispan.client.hotrod.near;
 
+import java.util.Set;
+
 import org.infinispan.client.hotrod.VersionedValue;
 
 /**
@@ -13,4 +15,16 @@
    void remove(K key);
    VersionedValue<V> get(K key);
    void clear();
+
+   /**
+    * Returns the keys currently held, as a snapshot or a weakly consistent view.
+    */
+   Set<K> keySet();
+
+   /**
+    * Returns the number of entries evicted so far to honour the bounds of the near cache.
+    */
+   default long evictionCount() {
+      return 0;
+   }
 }
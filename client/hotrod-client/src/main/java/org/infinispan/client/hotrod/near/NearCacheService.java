@@ -1,6 +1,16 @@
 package org.infinispan.client.hotrod.near;
 
 import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.VersionedValue;
@@ -16,15 +26,23 @@
 import org.infinispan.client.hotrod.event.ClientCacheEntryRemovedEvent;
 import org.infinispan.client.hotrod.event.ClientCacheFailoverEvent;
 import org.infinispan.client.hotrod.event.ClientListenerNotifier;
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.impl.RemoteCacheImpl;
 import org.infinispan.client.hotrod.impl.VersionedValueImpl;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.commons.util.BloomFilter;
 import org.infinispan.commons.util.Util;
 
 /**
  * Near cache service, manages the lifecycle of the near cache.
+ * <p>
+ * When the bloom filter is enabled the listener invalidating the near cache is registered with a bloom filter of the
+ * marshalled keys it may hold, so that the server only sends the invalidations matching it.  Only keys matching the
+ * registered bloom filter are stored, the others are remembered and included in the next bloom filter, which is
+ * registered with a new listener that replaces the previous one.
  *
  * @since 7.1
  */
@@ -34,21 +52,59 @@
 
    private final NearCacheConfiguration config;
    private final ClientListenerNotifier listenerNotifier;
-   private Object listener;
-   private byte[] listenerId;
+   private static final double BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY = 0.03;
+   private static final int BLOOM_FILTER_MIN_ENTRIES = 1024;
+   // Bounds the keys remembered between refreshes when the near cache itself is unbounded
+   private static final int MAX_UNCOVERED_KEYS = 64 * BLOOM_FILTER_MIN_ENTRIES;
+   private static final long STOP_TIMEOUT_SECONDS = 30;
+
+   private volatile Object listener;
+   private volatile byte[] listenerId;
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private Marshaller marshaller;
    private NearCache<K, V> cache;
+   // The bloom filter of the registered listener, null unless the bloom filter is enabled
+   private volatile BloomFilter bloomFilter;
+   // Keys read that could not be stored as they don't match the bloom filter, at most maxUncoveredKeys
+   private final Set<K> uncoveredKeys = ConcurrentHashMap.newKeySet();
+   private final int maxUncoveredKeys;
+   // Stores take the read lock, replacing the bloom filter the write lock
+   private final ReadWriteLock bloomFilterLock = new ReentrantReadWriteLock();
+   private ScheduledExecutorService bloomFilterRefresher;
+   // Guarded by the write lock, so that a refresh running while stopping removes the listener it registered
+   private boolean stopped;
 
    protected NearCacheService(NearCacheConfiguration config, ClientListenerNotifier listenerNotifier) {
       this.config = config;
       this.listenerNotifier = listenerNotifier;
+      this.maxUncoveredKeys = config.maxEntries() > 0 ? config.maxEntries() : MAX_UNCOVERED_KEYS;
    }
 
    public void start(RemoteCache<K, V> remote) {
+      marshaller = remote.getRemoteCacheManager().getMarshaller();
+      stopped = false;
       // Create near cache
       cache = createNearCache(config);
-      // Add a listener that updates the near cache
-      listener = createListener(remote);
-      remote.addClientListener(listener);
+      if (config.bloomFilter()) {
+         // Start with an empty bloom filter, no keys are stored until the first refresh
+         BloomFilter initial = BloomFilter.create(BLOOM_FILTER_MIN_ENTRIES, BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY);
+         listener = new BloomFilteredNearCacheListener<K, V>(this);
+         ((RemoteCacheImpl<K, V>) remote).addClientListenerWithRawParams(listener, new byte[][]{initial.toBytes()}, null);
+         bloomFilter = initial;
+         bloomFilterRefresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread th = new Thread(r, "HotRod-client-near-cache-bloom-filter-" + remote.getName());
+            th.setDaemon(true);
+            return th;
+         });
+         long interval = config.bloomFilterRefreshIntervalMillis();
+         bloomFilterRefresher.scheduleWithFixedDelay(() -> refreshBloomFilter(remote), interval, interval,
+               TimeUnit.MILLISECONDS);
+      } else {
+         // Add a listener that updates the near cache
+         listener = createListener(remote);
+         remote.addClientListener(listener);
+      }
       // Get the listener ID for faster listener connected lookups
       listenerId = listenerNotifier.findListenerId(listener);
    }
@@ -59,17 +115,117 @@ private Object createListener(RemoteCache<K, V> remote) {
             : new EagerNearCacheListener<K, V>(this, remote.getRemoteCacheManager().getMarshaller());
    }
 
+   /**
+    * Registers a new listener with a bloom filter of the keys held and of those that were read but not stored, then
+    * removes the keys that the new bloom filter doesn't match and the previous listener.  The previous listener keeps
+    * invalidating the keys stored with the previous bloom filter until they have been removed.
+    */
+   void refreshBloomFilter(RemoteCache<K, V> remote) {
+      if (uncoveredKeys.isEmpty())
+         return;
+
+      try {
+         Set<K> newKeys = new HashSet<>(uncoveredKeys);
+         Set<K> keys = new HashSet<>(cache.keySet());
+         keys.addAll(newKeys);
+         BloomFilter newBloomFilter = BloomFilter.create(Math.max(BLOOM_FILTER_MIN_ENTRIES, 2 * keys.size()),
+               BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY);
+         for (K key : keys) {
+            newBloomFilter.add(marshallKey(key));
+         }
+         Object newListener = new BloomFilteredNearCacheListener<K, V>(this);
+         ((RemoteCacheImpl<K, V>) remote).addClientListenerWithRawParams(newListener,
+               new byte[][]{newBloomFilter.toBytes()}, null);
+
+         Object oldListener;
+         Lock lock = bloomFilterLock.writeLock();
+         lock.lock();
+         try {
+            if (stopped) {
+               oldListener = newListener;
+            } else {
+               oldListener = listener;
+               listener = newListener;
+               listenerId = listenerNotifier.findListenerId(newListener);
+               bloomFilter = newBloomFilter;
+               uncoveredKeys.removeAll(newKeys);
+            }
+         } finally {
+            lock.unlock();
+         }
+         if (oldListener != newListener) {
+            // Keys stored since the bloom filter was built may not match it, and their invalidations would be lost
+            // once the previous listener is removed. The keys stored from now on are checked with the new one.
+            for (K key : cache.keySet()) {
+               if (!newBloomFilter.mightContain(marshallKey(key)))
+                  cache.remove(key);
+            }
+         }
+         remote.removeClientListener(oldListener);
+
+         if (trace)
+            log.tracef("Refreshed near cache bloom filter with %d keys (listenerId=%s)", keys.size(),
+                  Util.printArray(listenerId));
+      } catch (Throwable t) {
+         log.unableToRefreshNearCacheBloomFilter(t);
+      }
+   }
+
+   private byte[] marshallKey(K key) {
+      try {
+         return marshaller.objectToByteBuffer(key);
+      } catch (Exception e) {
+         throw new HotRodClientException(e);
+      }
+   }
+
+   /**
+    * Whether the key can be stored, because the registered listener receives its invalidations.  Must be called
+    * holding the read lock.
+    */
+   private boolean isCovered(K key) {
+      BloomFilter filter = bloomFilter;
+      if (filter == null || filter.mightContain(marshallKey(key)))
+         return true;
+
+      // Past the limit the key is not stored until a later read after a refresh
+      if (uncoveredKeys.size() < maxUncoveredKeys)
+         uncoveredKeys.add(key);
+      return false;
+   }
+
    public void stop(RemoteCache<K, V> remote) {
       if (trace)
          log.tracef("Stop near cache, remove underlying listener id %s", Util.printArray(listenerId));
 
+      Object currentListener;
+      Lock lock = bloomFilterLock.writeLock();
+      lock.lock();
+      try {
+         stopped = true;
+         currentListener = listener;
+      } finally {
+         lock.unlock();
+      }
+      if (bloomFilterRefresher != null) {
+         bloomFilterRefresher.shutdown();
+         try {
+            // A refresh in progress removes the listener it registers itself, as it sees the near cache stopped
+            bloomFilterRefresher.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
       // Remove listener
-      remote.removeClientListener(listener);
+      remote.removeClientListener(currentListener);
       // Empty cache
       cache.clear();
    }
 
    protected NearCache<K, V> createNearCache(NearCacheConfiguration config) {
+      if (config.maxBytes() > 0)
+         return ByteSizeBoundedNearCache.<K, V>create(config, marshaller);
+
       return config.maxEntries() > 0
             ? BoundedConcurrentMapNearCache.<K, V>create(config)
             : ConcurrentMapNearCache.<K, V>create();
@@ -82,7 +238,16 @@ public static <K, V> NearCacheService<K, V> create(
 
    @Override
    public void put(K key, VersionedValue<V> value) {
-       cache.put(key, value);
+      Lock lock = bloomFilterLock.readLock();
+      lock.lock();
+      try {
+         if (!isCovered(key))
+            return;
+
+         cache.put(key, value);
+      } finally {
+         lock.unlock();
+      }
 
       if (trace)
          log.tracef("Put key=%s and value=%s in near cache (listenerId=%s)",
@@ -91,7 +256,16 @@ public void put(K key, VersionedValue<V> value) {
 
    @Override
    public void putIfAbsent(K key, VersionedValue<V> value) {
-      cache.putIfAbsent(key, value);
+      Lock lock = bloomFilterLock.readLock();
+      lock.lock();
+      try {
+         if (!isCovered(key))
+            return;
+
+         cache.putIfAbsent(key, value);
+      } finally {
+         lock.unlock();
+      }
 
       if (trace)
          log.tracef("Conditionally put key=%s and value=%s if absent in near cache (listenerId=%s)",
@@ -111,6 +285,11 @@ public VersionedValue<V> get(K key) {
       boolean listenerConnected = isConnected();
       if (listenerConnected) {
          VersionedValue<V> value = cache.get(key);
+         if (value != null)
+            hits.increment();
+         else
+            misses.increment();
+
          if (trace)
             log.tracef("Get key=%s returns value=%s (listenerId=%s)", key, value, Util.printArray(listenerId));
 
@@ -121,6 +300,7 @@ public VersionedValue<V> get(K key) {
          log.tracef("Near cache disconnected from server, returning null for key=%s (listenedId=%s)",
                key, Util.printArray(listenerId));
 
+      misses.increment();
       return null;
    }
 
@@ -130,6 +310,33 @@ public void clear() {
       if (trace) log.tracef("Cleared near cache (listenerId=%s)", Util.printArray(listenerId));
    }
 
+   @Override
+   public Set<K> keySet() {
+      return cache.keySet();
+   }
+
+   /**
+    * Returns the number of reads served by the near cache.
+    */
+   public long getHits() {
+      return hits.sum();
+   }
+
+   /**
+    * Returns the number of reads that had to go to the server, including those done while the near cache was
+    * disconnected from it.
+    */
+   public long getMisses() {
+      return misses.sum();
+   }
+
+   /**
+    * Returns the number of entries evicted to keep the near cache within its bounds.
+    */
+   public long getEvictions() {
+      return cache == null ? 0 : cache.evictionCount();
+   }
+
    private boolean isConnected() {
       return listenerNotifier.isListenerConnected(listenerId);
    }
@@ -175,6 +382,17 @@ private void invalidate(K key) {
       }
    }
 
+   /**
+    * Invalidates the near cache like {@link InvalidatedNearCacheListener}, but receives only the events of the keys
+    * matching the bloom filter it is registered with.
+    */
+   @ClientListener(filterFactoryName = "___near-cache-bloom-filter")
+   private static class BloomFilteredNearCacheListener<K, V> extends InvalidatedNearCacheListener<K, V> {
+      private BloomFilteredNearCacheListener(NearCache<K, V> cache) {
+         super(cache);
+      }
+   }
+
    /**
     * An near cache listener that eagerly populates the near cache as cache
     * entries are created/modified in the server. It uses a converter in order
@@ -0,0 +1,69 @@
+package org.infinispan.client.hotrod;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.impl.RemoteCacheImpl;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
+import org.infinispan.client.hotrod.test.InternalRemoteCacheManager;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the async API tests over the non-blocking transport.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "client.hotrod.RemoteAsyncTransportAPITest")
+public class RemoteAsyncTransportAPITest extends RemoteAsyncAPITest {
+
+   @Override
+   protected RemoteCacheManager getRemoteCacheManager() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.forceReturnValues(isForceReturnValuesViaConfiguration());
+      builder.addServer().host("127.0.0.1").port(hotrodServer.getPort());
+      builder.asyncTransport().enable().ioThreads(1);
+      return new InternalRemoteCacheManager(builder.build());
+   }
+
+   public void testManyConcurrentOperations() throws Exception {
+      int count = 10_000;
+      List<CompletableFuture<String>> puts = new ArrayList<>(count);
+      for (int i = 0; i < count; ++i) {
+         puts.add(remote().putAsync("key" + i, "value" + i));
+      }
+      CompletableFuture.allOf(puts.toArray(new CompletableFuture[count])).get(30, TimeUnit.SECONDS);
+
+      List<CompletableFuture<String>> gets = new ArrayList<>(count);
+      for (int i = 0; i < count; ++i) {
+         gets.add(remote().getAsync("key" + i));
+      }
+      for (int i = 0; i < count; ++i) {
+         assertEquals("value" + i, gets.get(i).get(30, TimeUnit.SECONDS));
+      }
+   }
+
+   public void testCompletedByIoThread() throws Exception {
+      remote().put("k", "v");
+      ChannelFactory channelFactory = ((RemoteCacheImpl<String, String>) remote()).getOperationsFactory().getChannelFactory();
+      // Block the only I/O thread, so that the response can't be read before the callback is registered
+      CountDownLatch latch = new CountDownLatch(1);
+      channelFactory.schedule(() -> {
+         try {
+            latch.await(10, TimeUnit.SECONDS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }, 0, TimeUnit.MILLISECONDS);
+      CompletableFuture<String> future = remote().getAsync("k").thenApply(v -> Thread.currentThread().getName());
+      latch.countDown();
+      String threadName = future.get(10, TimeUnit.SECONDS);
+      assertTrue(threadName, threadName.startsWith(ChannelFactory.THREAD_NAME));
+   }
+}
@@ -0,0 +1,164 @@
+package org.infinispan.client.hotrod;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.test.InternalRemoteCacheManager;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.PutMapCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.BaseCustomAsyncInterceptor;
+import org.infinispan.interceptors.BasicInvocationStage;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the blocking operations pipelined over the non-blocking transport and the coalescing of puts.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "client.hotrod.RemotePipeliningTest")
+public class RemotePipeliningTest extends SingleHotRodServerTest {
+
+   private static final int MAX_ENTRIES = 16;
+   // Long enough for the tests to notice an operation waiting for the window
+   private static final long WINDOW_MILLIS = 2000;
+
+   private final CountingInterceptor counter = new CountingInterceptor();
+
+   @Override
+   protected void setup() throws Exception {
+      super.setup();
+      cache.getAdvancedCache().getAsyncInterceptorChain().addInterceptor(counter, 0);
+   }
+
+   @Override
+   protected RemoteCacheManager getRemoteCacheManager() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host("127.0.0.1").port(hotrodServer.getPort());
+      builder.asyncTransport().enable().pipelining(true)
+            .putCoalescingWindow(WINDOW_MILLIS, TimeUnit.MILLISECONDS).putCoalescingMaxEntries(MAX_ENTRIES);
+      return new InternalRemoteCacheManager(builder.build());
+   }
+
+   @BeforeMethod
+   public void resetCounter() {
+      cache.clear();
+      counter.puts.set(0);
+      counter.putMaps.set(0);
+   }
+
+   private RemoteCache<String, String> remote() {
+      return remoteCacheManager.getCache();
+   }
+
+   public void testBlockingOperations() {
+      RemoteCache<String, String> remote = remote();
+      assertNull(remote.put("k", "v"));
+      assertEquals("v", remote.get("k"));
+      assertEquals("v", remote.withFlags(Flag.FORCE_RETURN_VALUE).put("k", "v2"));
+      assertEquals("v2", remote.withFlags(Flag.FORCE_RETURN_VALUE).putIfAbsent("k", "v3"));
+      assertEquals("v2", remote.withFlags(Flag.FORCE_RETURN_VALUE).replace("k", "v3"));
+      assertEquals("v3", remote.withFlags(Flag.FORCE_RETURN_VALUE).remove("k"));
+      assertNull(remote.get("k"));
+   }
+
+   public void testConcurrentBlockingOperations() throws Exception {
+      int threads = 8;
+      int count = 200;
+      List<Future<?>> futures = new ArrayList<>(threads);
+      for (int t = 0; t < threads; ++t) {
+         String prefix = "t" + t + "-";
+         futures.add(fork(() -> {
+            RemoteCache<String, String> remote = remote();
+            for (int i = 0; i < count; ++i) {
+               remote.put(prefix + i, "v" + i);
+               assertEquals("v" + i, remote.get(prefix + i));
+            }
+         }));
+      }
+      for (Future<?> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(threads * count, cache.size());
+   }
+
+   public void testPutsCoalesced() throws Exception {
+      List<CompletableFuture<String>> puts = new ArrayList<>(MAX_ENTRIES);
+      for (int i = 0; i < MAX_ENTRIES; ++i) {
+         puts.add(remote().putAsync("k" + i, "v" + i));
+      }
+      CompletableFuture.allOf(puts.toArray(new CompletableFuture[MAX_ENTRIES])).get(10, TimeUnit.SECONDS);
+      for (int i = 0; i < MAX_ENTRIES; ++i) {
+         assertNull(puts.get(i).get());
+         assertEquals("v" + i, remote().get("k" + i));
+      }
+      assertEquals(1, counter.putMaps.get());
+      assertEquals(0, counter.puts.get());
+   }
+
+   public void testPutsOfSameKeyNotCoalesced() throws Exception {
+      CompletableFuture<String> first = remote().putAsync("k", "v1");
+      CompletableFuture<String> second = remote().putAsync("k", "v2");
+      CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+      assertEquals("v2", remote().get("k"));
+      assertEquals(0, counter.putMaps.get());
+      assertEquals(2, counter.puts.get());
+   }
+
+   public void testBlockingPutNotCoalesced() {
+      long start = System.nanoTime();
+      assertNull(remote().put("k", "v"));
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < WINDOW_MILLIS);
+      assertEquals(1, counter.puts.get());
+      assertEquals(0, counter.putMaps.get());
+   }
+
+   public void testOperationsAfterCoalescedPutNotReordered() throws Exception {
+      CompletableFuture<String> put = remote().putAsync("k", "v1");
+      CompletableFuture<String> remove = remote().removeAsync("k");
+      CompletableFuture<String> putIfAbsent = remote().putIfAbsentAsync("k", "v2");
+      CompletableFuture.allOf(put, remove, putIfAbsent).get(WINDOW_MILLIS / 2, TimeUnit.MILLISECONDS);
+      assertEquals("v2", cache.get("k"));
+
+      remote().putAsync("other", "v1");
+      // A blocking read waits for the pending put instead of reading the old value
+      assertEquals("v1", remote().get("other"));
+   }
+
+   public void testPutsReturningPreviousValueNotCoalesced() throws Exception {
+      remote().put("k", "v1");
+      CompletableFuture<String> put = remote().withFlags(Flag.FORCE_RETURN_VALUE).putAsync("k", "v2");
+      assertEquals("v1", put.get(10, TimeUnit.SECONDS));
+      assertTrue(counter.puts.get() >= 1);
+      assertEquals(0, counter.putMaps.get());
+   }
+
+   static class CountingInterceptor extends BaseCustomAsyncInterceptor {
+      final AtomicInteger puts = new AtomicInteger();
+      final AtomicInteger putMaps = new AtomicInteger();
+
+      @Override
+      public BasicInvocationStage visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command)
+            throws Throwable {
+         puts.incrementAndGet();
+         return super.visitPutKeyValueCommand(ctx, command);
+      }
+
+      @Override
+      public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
+         putMaps.incrementAndGet();
+         return super.visitPutMapCommand(ctx, command);
+      }
+   }
+}
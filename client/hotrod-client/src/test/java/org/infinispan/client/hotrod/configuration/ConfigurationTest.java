@@ -34,6 +34,7 @@
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import javax.net.ssl.SSLContext;
@@ -326,6 +327,45 @@ public void testNegativeRetriesPerServer() {
       builder.build();
    }
 
+   @Test(expectedExceptions = CacheConfigurationException.class,
+         expectedExceptionsMessageRegExp = "ISPN(\\d)*: The near cache can be bounded either by max entries or by max bytes, but not by both")
+   public void testNearCacheMaxEntriesAndMaxBytes() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.nearCache().mode(NearCacheMode.INVALIDATED).maxEntries(10).maxBytes(1024);
+      builder.build();
+   }
+
+   public void testNearCacheMaxBytes() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.nearCache().mode(NearCacheMode.INVALIDATED).maxBytes(1024);
+      Configuration configuration = builder.build();
+      assertEquals(1024, configuration.nearCache().maxBytes());
+      assertEquals(-1, configuration.nearCache().maxEntries());
+      Configuration copy = new ConfigurationBuilder().read(configuration).build();
+      assertEquals(1024, copy.nearCache().maxBytes());
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class,
+         expectedExceptionsMessageRegExp = "ISPN(\\d)*: Invalid near cache bloom filter refresh interval 0, it must be positive")
+   public void testNearCacheInvalidBloomFilterRefreshInterval() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.nearCache().mode(NearCacheMode.INVALIDATED).maxEntries(10).bloomFilter(true)
+            .bloomFilterRefreshInterval(0, TimeUnit.SECONDS);
+      builder.build();
+   }
+
+   public void testNearCacheBloomFilter() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.nearCache().mode(NearCacheMode.INVALIDATED).maxEntries(10).bloomFilter(true)
+            .bloomFilterRefreshInterval(1, TimeUnit.SECONDS);
+      Configuration configuration = builder.build();
+      assertTrue(configuration.nearCache().bloomFilter());
+      assertEquals(1000, configuration.nearCache().bloomFilterRefreshIntervalMillis());
+      Configuration copy = new ConfigurationBuilder().read(configuration).build();
+      assertTrue(copy.nearCache().bloomFilter());
+      assertEquals(1000, copy.nearCache().bloomFilterRefreshIntervalMillis());
+   }
+
    @Test(expectedExceptions = CacheConfigurationException.class)
    public void testMissingClusterNameDefinition() {
       ConfigurationBuilder builder = new ConfigurationBuilder();
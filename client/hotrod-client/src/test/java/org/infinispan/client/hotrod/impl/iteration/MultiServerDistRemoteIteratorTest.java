@@ -2,16 +2,22 @@
 
 import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.impl.RemoteCacheImpl;
+import org.infinispan.client.hotrod.impl.consistenthash.SegmentConsistentHash;
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
@@ -66,11 +72,40 @@ public void testSegmentFinishedCallback() {
       populateCache(CACHE_SIZE, this::newAccount, cache);
       TestSegmentKeyTracker testSegmentKeyTracker = new TestSegmentKeyTracker();
 
+      // Iterate the segments of each server separately, as iterating all of them uses one iterator per server
+      for (Set<Integer> segments : segmentsByPrimaryOwner(cache).values()) {
+         try (CloseableIterator<Map.Entry<Object, Object>> iterator = cache.retrieveEntries(null, segments, 3)) {
+            TestingUtil.replaceField(testSegmentKeyTracker, "segmentKeyTracker", iterator, RemoteCloseableIterator.class);
+            while (iterator.hasNext()) iterator.next();
+         }
+      }
+      assertEquals(60, testSegmentKeyTracker.finished.size());
+   }
+
+   public void testIterationPerOwner() {
+      RemoteCache<Integer, AccountHS> cache = clients.get(0).getCache();
+      populateCache(CACHE_SIZE, this::newAccount, cache);
+      assertEquals(NUM_SERVERS, segmentsByPrimaryOwner(cache).size());
+
+      Set<Integer> keys = new HashSet<>();
       try (CloseableIterator<Map.Entry<Object, Object>> iterator = cache.retrieveEntries(null, 3)) {
-         TestingUtil.replaceField(testSegmentKeyTracker, "segmentKeyTracker", iterator, RemoteCloseableIterator.class);
-         while (iterator.hasNext()) iterator.next();
-         assertEquals(60, testSegmentKeyTracker.finished.size());
+         assertTrue(iterator instanceof PerOwnerCloseableIterator);
+         while (iterator.hasNext()) {
+            assertTrue(keys.add((Integer) iterator.next().getKey()));
+         }
       }
+      assertEquals(CACHE_SIZE, keys.size());
+   }
+
+   private Map<SocketAddress, Set<Integer>> segmentsByPrimaryOwner(RemoteCache<?, ?> cache) {
+      SegmentConsistentHash ch = (SegmentConsistentHash) ((RemoteCacheImpl<?, ?>) cache).getOperationsFactory()
+            .getConsistentHash();
+      Map<SocketAddress, Set<Integer>> segmentsByPrimaryOwner = new HashMap<>();
+      SocketAddress[][] segmentOwners = ch.getSegmentOwners();
+      for (int segment = 0; segment < segmentOwners.length; ++segment) {
+         segmentsByPrimaryOwner.computeIfAbsent(segmentOwners[segment][0], s -> new HashSet<>()).add(segment);
+      }
+      return segmentsByPrimaryOwner;
    }
 
    @Override
@@ -87,11 +122,23 @@ protected org.infinispan.client.hotrod.configuration.ConfigurationBuilder create
    @Test
    public void testIterationRouting() throws Exception {
       for (int i = 0; i < clients.size(); i++) {
-         RemoteCacheManager client = client(i);
-         try (CloseableIterator<Map.Entry<Object, Object>> ignored = client.getCache().retrieveEntries(null, 10)) {
-            assertIterationActiveOnlyOnServer(i);
+         RemoteCache<Object, Object> cache = client(i).getCache();
+         for (Map.Entry<SocketAddress, Set<Integer>> owner : segmentsByPrimaryOwner(cache).entrySet()) {
+            try (CloseableIterator<Map.Entry<Object, Object>> ignored = cache.retrieveEntries(null, owner.getValue(), 10)) {
+               assertIterationActiveOnlyOnServer(serverIndex(owner.getKey()));
+            }
+         }
+      }
+   }
+
+   private int serverIndex(SocketAddress address) {
+      int port = ((InetSocketAddress) address).getPort();
+      for (int i = 0; i < servers.size(); i++) {
+         if (server(i).getPort() == port) {
+            return i;
          }
       }
+      throw new IllegalArgumentException("Unknown server " + address);
    }
 
    private void assertIterationActiveOnlyOnServer(int index) {
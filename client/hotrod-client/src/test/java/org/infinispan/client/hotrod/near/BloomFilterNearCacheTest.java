@@ -0,0 +1,90 @@
+package org.infinispan.client.hotrod.near;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.annotation.ClientListener;
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.configuration.NearCacheMode;
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.impl.InvalidatedNearRemoteCache;
+import org.infinispan.client.hotrod.impl.RemoteCacheImpl;
+import org.infinispan.client.hotrod.test.HotRodClientTestingUtil;
+import org.infinispan.client.hotrod.test.InternalRemoteCacheManager;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the near cache whose invalidations are filtered by the server with a bloom filter of its keys.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "client.hotrod.near.BloomFilterNearCacheTest")
+public class BloomFilterNearCacheTest extends SingleHotRodServerTest {
+
+   @Override
+   protected RemoteCacheManager getRemoteCacheManager() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host("127.0.0.1").port(hotrodServer.getPort());
+      builder.nearCache().mode(NearCacheMode.INVALIDATED).maxEntries(100)
+            .bloomFilter(true).bloomFilterRefreshInterval(1, TimeUnit.SECONDS);
+      return new InternalRemoteCacheManager(builder.build());
+   }
+
+   public void testStoredOnceCoveredAndInvalidated() {
+      RemoteCacheManager writerManager = super.getRemoteCacheManager();
+      try {
+         RemoteCache<Integer, String> writer = writerManager.getCache();
+         RemoteCache<Integer, String> remote = remoteCacheManager.getCache();
+         NearCacheService<Integer, String> nearCache =
+               ((InvalidatedNearRemoteCache<Integer, String>) remote).getNearCacheService();
+
+         writer.put(1, "v1");
+         assertEquals("v1", remote.get(1));
+         // Not stored until a bloom filter including the key has been registered
+         assertFalse(nearCache.keySet().contains(1));
+         eventually(() -> "v1".equals(remote.get(1)) && nearCache.keySet().contains(1));
+
+         writer.put(1, "v2");
+         eventually(() -> !nearCache.keySet().contains(1));
+         assertEquals("v2", remote.get(1));
+      } finally {
+         HotRodClientTestingUtil.killRemoteCacheManager(writerManager);
+      }
+   }
+
+   @Test(expectedExceptions = HotRodClientException.class)
+   public void testInvalidBloomFilterRejected() {
+      RemoteCacheImpl<Integer, String> remote =
+            (RemoteCacheImpl<Integer, String>) remoteCacheManager.<Integer, String>getCache();
+      // A filter without any bits
+      remote.addClientListenerWithRawParams(new BloomFilterListener(), new byte[][]{new byte[4]}, null);
+   }
+
+   public void testNoListenerLeftAfterStop() {
+      long listeners = clientListeners();
+      RemoteCacheManager manager = getRemoteCacheManager();
+      RemoteCache<Integer, String> remote = manager.getCache();
+      for (int i = 0; i < 10; i++) {
+         remote.put(i, "v" + i);
+         // Uncovered keys, so that the bloom filter is refreshed
+         remote.get(i);
+      }
+      HotRodClientTestingUtil.killRemoteCacheManager(manager);
+      // Neither the first listener nor one registered by a refresh in progress is left
+      eventually(() -> clientListeners() == listeners);
+   }
+
+   private long clientListeners() {
+      return cache.getAdvancedCache().getListeners().stream()
+            .filter(l -> l.getClass().getSimpleName().endsWith("ClientEventSender")).count();
+   }
+
+   @ClientListener(filterFactoryName = "___near-cache-bloom-filter")
+   public static class BloomFilterListener {
+   }
+}
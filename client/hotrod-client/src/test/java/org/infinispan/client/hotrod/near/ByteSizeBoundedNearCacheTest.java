@@ -0,0 +1,84 @@
+package org.infinispan.client.hotrod.near;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.configuration.NearCacheMode;
+import org.infinispan.client.hotrod.test.InternalRemoteCacheManager;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the near cache bounded by the size of the marshalled entries and its statistics.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "client.hotrod.near.ByteSizeBoundedNearCacheTest")
+public class ByteSizeBoundedNearCacheTest extends SingleHotRodServerTest {
+
+   private static final String JMX_DOMAIN = ByteSizeBoundedNearCacheTest.class.getSimpleName();
+   private static final int MAX_BYTES = 16 * 1024;
+   private static final int VALUE_SIZE = 1024;
+
+   @Override
+   protected RemoteCacheManager getRemoteCacheManager() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host("127.0.0.1").port(hotrodServer.getPort());
+      builder.nearCache().mode(NearCacheMode.INVALIDATED).maxBytes(MAX_BYTES);
+      builder.jmx().enable().domain(JMX_DOMAIN);
+      return new InternalRemoteCacheManager(builder.build());
+   }
+
+   private static byte[] value(int i) {
+      byte[] value = new byte[VALUE_SIZE];
+      Arrays.fill(value, (byte) i);
+      return value;
+   }
+
+   public void testBoundedBySize() throws Exception {
+      RemoteCache<Integer, byte[]> remote = remoteCacheManager.getCache();
+      int entries = 4 * MAX_BYTES / VALUE_SIZE;
+      for (int i = 0; i < entries; i++) {
+         remote.put(i, value(i));
+      }
+      // Misses, which populate the near cache
+      for (int i = 0; i < entries; i++) {
+         assertTrue(Arrays.equals(value(i), remote.get(i)));
+      }
+      // Hits for the entries that are still cached, misses for the evicted ones
+      for (int i = 0; i < entries; i++) {
+         assertTrue(Arrays.equals(value(i), remote.get(i)));
+      }
+
+      MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(JMX_DOMAIN + ":type=RemoteCacheManager,name=\"Default\"");
+      long hits = (Long) mBeanServer.getAttribute(name, "NearCacheHits");
+      long misses = (Long) mBeanServer.getAttribute(name, "NearCacheMisses");
+      assertEquals(2 * entries, hits + misses);
+      assertTrue("Expected most entries not to fit, misses: " + misses, misses > entries);
+      assertTrue("Expected some entries to fit, hits: " + hits, hits > 0);
+      eventually(() -> (Long) mBeanServer.getAttribute(name, "NearCacheEvictions") >= entries - MAX_BYTES / VALUE_SIZE);
+   }
+
+   public void testMBeanUnregisteredOnStop() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host("127.0.0.1").port(hotrodServer.getPort());
+      builder.jmx().enable().domain(JMX_DOMAIN).name("stopped");
+      RemoteCacheManager manager = new InternalRemoteCacheManager(builder.build());
+      ObjectName name = new ObjectName(JMX_DOMAIN + ":type=RemoteCacheManager,name=\"stopped\"");
+      MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      assertTrue(mBeanServer.isRegistered(name));
+      assertEquals(0L, mBeanServer.getAttribute(name, "NearCacheHits"));
+      manager.stop();
+      assertTrue(!mBeanServer.isRegistered(name));
+   }
+}
@@ -1,5 +1,6 @@
 package org.infinispan.client.hotrod.near;
 
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 
 import org.infinispan.client.hotrod.VersionedValue;
@@ -74,6 +75,16 @@ public void clear() {
          events.clear();
          events.add(new MockClearEvent());
       }
+
+      @Override
+      public Set<K> keySet() {
+         return delegate.keySet();
+      }
+
+      @Override
+      public long evictionCount() {
+         return delegate.evictionCount();
+      }
    }
 
    static class MockPutEvent<K, V> extends MockKeyValueEvent<K, V> {
@@ -0,0 +1,43 @@
+package org.infinispan.commons.marshall;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicate that an {@link AdvancedExternalizer} should be generated at compile time for this class by the
+ * {@link org.infinispan.commons.marshall.processor.ExternalizerProcessor} annotation processor.
+ * <p>
+ * The generated externalizer is named after the class with an {@code _Externalizer} suffix and placed in the same
+ * package.  It writes and reads the fields of the class directly, without reflection or class descriptors, and it is
+ * listed in {@code META-INF/services/org.infinispan.commons.marshall.AdvancedExternalizer} so that the marshaller
+ * registers it automatically.
+ * <p>
+ * The annotated class must not be abstract, private or a non-static inner class, and must have a non-private
+ * constructor without arguments.  All the non-static, non-transient fields of the class and its superclasses are
+ * marshalled, so they must not be private or final, and the fields declared in other packages must be public.
+ * <p>
+ * The generated externalizer does not track references: an object reachable through several fields is written each
+ * time, and a cyclic object graph overflows the stack.  Fields whose type is the annotated class, one of its
+ * superclasses or one of their subclasses are therefore rejected.  Cycles going through fields of other types, such as
+ * {@code Object} or collections, are not detected, so the objects referenced by them must not lead back to the
+ * instance being written.
+ *
+ * @since 9.0
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+@Documented
+public @interface GenerateExternalizer {
+
+   /**
+    * The identifier of the generated externalizer, with the same constraints as
+    * {@link AdvancedExternalizer#getId()}.
+    *
+    * @return the externalizer identifier
+    */
+   int id();
+
+}
@@ -0,0 +1,397 @@
+package org.infinispan.commons.marshall.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.commons.marshall.GenerateExternalizer;
+
+/**
+ * Annotation processor generating an {@link AdvancedExternalizer} for each class annotated with
+ * {@link GenerateExternalizer}, and listing them in {@value #SERVICE_FILE} so that the marshaller registers them.
+ * <p>
+ * The generated externalizers read and write the fields directly: primitives with the matching
+ * {@link java.io.ObjectOutput} method, strings, byte arrays and small enums with {@link
+ * org.infinispan.commons.marshall.MarshallUtil}, and any other type with {@link java.io.ObjectOutput#writeObject(Object)},
+ * so fields referencing other annotated classes use their generated externalizers.
+ * <p>
+ * The generated externalizers do not track references, so a field that can hold an instance of the annotated class or
+ * one of its superclasses is rejected, as a cycle would overflow the stack.
+ * <p>
+ * The processor is not registered as a service, to keep it from running while compiling this module.  Enable it
+ * with {@code -processor org.infinispan.commons.marshall.processor.ExternalizerProcessor}, or by listing it in the
+ * {@code annotationProcessors} of the maven-compiler-plugin.
+ *
+ * @since 9.0
+ */
+@SupportedAnnotationTypes("org.infinispan.commons.marshall.GenerateExternalizer")
+public class ExternalizerProcessor extends AbstractProcessor {
+
+   static final String SERVICE_FILE = "META-INF/services/" + AdvancedExternalizer.class.getName();
+   static final String EXTERNALIZER_SUFFIX = "_Externalizer";
+
+   // MarshallUtil writes the ordinal of enums in a single byte
+   private static final int MAX_ENUM_CONSTANTS = Byte.MAX_VALUE;
+
+   private final Set<String> externalizers = new TreeSet<>();
+
+   @Override
+   public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+   }
+
+   @Override
+   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(GenerateExternalizer.class)) {
+         if (element.getKind() != ElementKind.CLASS) {
+            error(element, "@GenerateExternalizer can only be used on classes");
+            continue;
+         }
+         TypeElement type = (TypeElement) element;
+         List<VariableElement> fields = marshalledFields(type);
+         if (fields == null || !isInstantiable(type)) {
+            continue;
+         }
+         try {
+            externalizers.add(writeExternalizer(type, fields));
+         } catch (IOException e) {
+            error(type, "Unable to write the externalizer: " + e.getMessage());
+         }
+      }
+      if (roundEnv.processingOver() && !externalizers.isEmpty()) {
+         try {
+            writeServiceFile();
+         } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                  "Unable to write " + SERVICE_FILE + ": " + e.getMessage());
+         }
+      }
+      return true;
+   }
+
+   private boolean isInstantiable(TypeElement type) {
+      boolean valid = true;
+      if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+         error(type, "Classes annotated with @GenerateExternalizer can not be abstract");
+         valid = false;
+      }
+      for (Element e = type; e.getKind().isClass() || e.getKind().isInterface(); e = e.getEnclosingElement()) {
+         if (e.getModifiers().contains(Modifier.PRIVATE)) {
+            error(type, "Classes annotated with @GenerateExternalizer can not be private");
+            valid = false;
+         }
+         if (e.getEnclosingElement().getKind() != ElementKind.PACKAGE && !e.getModifiers().contains(Modifier.STATIC)) {
+            error(type, "Classes annotated with @GenerateExternalizer can not be inner classes");
+            valid = false;
+         }
+      }
+      boolean hasConstructor = false;
+      for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+         if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            hasConstructor = true;
+         }
+      }
+      if (!hasConstructor) {
+         error(type, "Classes annotated with @GenerateExternalizer need a non-private constructor without arguments");
+         valid = false;
+      }
+      return valid;
+   }
+
+   /**
+    * @return the fields to marshall, superclass fields first, or {@code null} if some field can not be accessed
+    */
+   private List<VariableElement> marshalledFields(TypeElement type) {
+      List<TypeElement> hierarchy = new ArrayList<>();
+      for (TypeElement t = type; t != null; t = superclass(t)) {
+         hierarchy.add(0, t);
+      }
+      PackageElement typePackage = processingEnv.getElementUtils().getPackageOf(type);
+      List<VariableElement> fields = new ArrayList<>();
+      boolean valid = true;
+      for (TypeElement t : hierarchy) {
+         boolean samePackage = processingEnv.getElementUtils().getPackageOf(t).equals(typePackage);
+         for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+               continue;
+            }
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) ||
+                  (!samePackage && !modifiers.contains(Modifier.PUBLIC))) {
+               error(field, "Field " + field.getSimpleName() + " of " + t.getQualifiedName() + " can not be " +
+                     "marshalled by the externalizer generated for " + type.getQualifiedName() +
+                     ", it must not be private or final and it must be public if declared in another package." +
+                     " Make it transient if it does not need to be marshalled.");
+               valid = false;
+               continue;
+            }
+            if (isSelfReference(field, hierarchy)) {
+               error(field, "Field " + field.getSimpleName() + " of " + t.getQualifiedName() + " can not be " +
+                     "marshalled by the externalizer generated for " + type.getQualifiedName() +
+                     ", it can reference an instance of the class and the generated externalizers do not track" +
+                     " references, so a cycle would overflow the stack." +
+                     " Make it transient or write the externalizer by hand.");
+               valid = false;
+               continue;
+            }
+            fields.add(field);
+         }
+      }
+      return valid ? fields : null;
+   }
+
+   /**
+    * @return whether the field can hold an instance of one of the classes of the hierarchy, including their subclasses
+    */
+   private boolean isSelfReference(VariableElement field, List<TypeElement> hierarchy) {
+      if (field.asType().getKind() != TypeKind.DECLARED) {
+         return false;
+      }
+      Types types = processingEnv.getTypeUtils();
+      TypeMirror fieldType = types.erasure(field.asType());
+      for (TypeElement t : hierarchy) {
+         if (types.isAssignable(fieldType, types.erasure(t.asType()))) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private TypeElement superclass(TypeElement type) {
+      TypeMirror superclass = type.getSuperclass();
+      if (superclass.getKind() != TypeKind.DECLARED) {
+         return null;
+      }
+      TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+      return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+   }
+
+   private String writeExternalizer(TypeElement type, List<VariableElement> fields) throws IOException {
+      String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+      String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+      String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+            .replace('$', '_') + EXTERNALIZER_SUFFIX;
+      String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+      String typeName = erasure(type.asType());
+      int id = type.getAnnotation(GenerateExternalizer.class).id();
+
+      // one values() array per enum type, instead of a copy for each read
+      Map<String, String> enumValues = new LinkedHashMap<>();
+      for (VariableElement field : fields) {
+         if (isMarshalledAsEnum(field.asType())) {
+            String enumType = erasure(field.asType());
+            enumValues.putIfAbsent(enumType, "VALUES_" + enumValues.size());
+         }
+      }
+
+      try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter();
+           PrintWriter out = new PrintWriter(writer)) {
+         if (!packageName.isEmpty()) {
+            out.printf("package %s;%n%n", packageName);
+         }
+         out.printf("/**%n * Externalizer for {@link %s}, generated by %s. Do not edit.%n */%n", typeName,
+               ExternalizerProcessor.class.getName());
+         out.printf("@SuppressWarnings({\"unchecked\", \"rawtypes\"})%n");
+         out.printf("public final class %s implements org.infinispan.commons.marshall.AdvancedExternalizer<%s> {%n%n",
+               simpleName, typeName);
+         for (Map.Entry<String, String> e : enumValues.entrySet()) {
+            out.printf("   private static final %s[] %s = %s.values();%n", e.getKey(), e.getValue(), e.getKey());
+         }
+         if (!enumValues.isEmpty()) {
+            out.println();
+         }
+
+         out.printf("   @Override%n");
+         out.printf("   public java.util.Set<Class<? extends %s>> getTypeClasses() {%n", typeName);
+         out.printf("      return java.util.Collections.<Class<? extends %s>>singleton(%s.class);%n", typeName, typeName);
+         out.printf("   }%n%n");
+
+         out.printf("   @Override%n");
+         out.printf("   public Integer getId() {%n");
+         out.printf("      return %d;%n", id);
+         out.printf("   }%n%n");
+
+         out.printf("   @Override%n");
+         out.printf("   public void writeObject(java.io.ObjectOutput output, %s object) throws java.io.IOException {%n",
+               typeName);
+         for (VariableElement field : fields) {
+            out.printf("      %s;%n", writeStatement(field, fieldAccess(type, field)));
+         }
+         out.printf("   }%n%n");
+
+         out.printf("   @Override%n");
+         out.printf("   public %s readObject(java.io.ObjectInput input) throws java.io.IOException, ClassNotFoundException {%n",
+               typeName);
+         out.printf("      %s object = new %s();%n", typeName, typeName);
+         for (VariableElement field : fields) {
+            out.printf("      %s = %s;%n", fieldAccess(type, field), readExpression(field, enumValues));
+         }
+         out.printf("      return object;%n");
+         out.printf("   }%n");
+         out.printf("}%n");
+      }
+      return qualifiedName;
+   }
+
+   private String fieldAccess(TypeElement type, VariableElement field) {
+      TypeElement declaring = (TypeElement) field.getEnclosingElement();
+      if (declaring.equals(type)) {
+         return "object." + field.getSimpleName();
+      }
+      // cast, in case the field is hidden by a field with the same name in a subclass
+      return "((" + erasure(declaring.asType()) + ") object)." + field.getSimpleName();
+   }
+
+   private String writeStatement(VariableElement field, String value) {
+      TypeMirror type = field.asType();
+      switch (type.getKind()) {
+         case BOOLEAN:
+            return "output.writeBoolean(" + value + ")";
+         case BYTE:
+            return "output.writeByte(" + value + ")";
+         case SHORT:
+            return "output.writeShort(" + value + ")";
+         case CHAR:
+            return "output.writeChar(" + value + ")";
+         case INT:
+            return "output.writeInt(" + value + ")";
+         case LONG:
+            return "output.writeLong(" + value + ")";
+         case FLOAT:
+            return "output.writeFloat(" + value + ")";
+         case DOUBLE:
+            return "output.writeDouble(" + value + ")";
+         default:
+            if (isString(type)) {
+               return "org.infinispan.commons.marshall.MarshallUtil.marshallString(" + value + ", output)";
+            } else if (isByteArray(type)) {
+               return "org.infinispan.commons.marshall.MarshallUtil.marshallByteArray(" + value + ", output)";
+            } else if (isMarshalledAsEnum(type)) {
+               return "org.infinispan.commons.marshall.MarshallUtil.marshallEnum(" + value + ", output)";
+            }
+            return "output.writeObject(" + value + ")";
+      }
+   }
+
+   private String readExpression(VariableElement field, Map<String, String> enumValues) {
+      TypeMirror type = field.asType();
+      switch (type.getKind()) {
+         case BOOLEAN:
+            return "input.readBoolean()";
+         case BYTE:
+            return "input.readByte()";
+         case SHORT:
+            return "input.readShort()";
+         case CHAR:
+            return "input.readChar()";
+         case INT:
+            return "input.readInt()";
+         case LONG:
+            return "input.readLong()";
+         case FLOAT:
+            return "input.readFloat()";
+         case DOUBLE:
+            return "input.readDouble()";
+         default:
+            if (isString(type)) {
+               return "org.infinispan.commons.marshall.MarshallUtil.unmarshallString(input)";
+            } else if (isByteArray(type)) {
+               return "org.infinispan.commons.marshall.MarshallUtil.unmarshallByteArray(input)";
+            } else if (isMarshalledAsEnum(type)) {
+               return "org.infinispan.commons.marshall.MarshallUtil.unmarshallEnum(input, ordinal -> " +
+                     enumValues.get(erasure(type)) + "[ordinal])";
+            }
+            return "(" + erasure(type) + ") input.readObject()";
+      }
+   }
+
+   private boolean isString(TypeMirror type) {
+      return type.getKind() == TypeKind.DECLARED && erasure(type).equals(String.class.getName());
+   }
+
+   private boolean isByteArray(TypeMirror type) {
+      return type.getKind() == TypeKind.ARRAY && erasure(type).equals("byte[]");
+   }
+
+   private boolean isMarshalledAsEnum(TypeMirror type) {
+      if (type.getKind() != TypeKind.DECLARED) {
+         return false;
+      }
+      Element element = ((DeclaredType) type).asElement();
+      if (element.getKind() != ElementKind.ENUM) {
+         return false;
+      }
+      int constants = 0;
+      for (Element e : element.getEnclosedElements()) {
+         if (e.getKind() == ElementKind.ENUM_CONSTANT) {
+            constants++;
+         }
+      }
+      return constants <= MAX_ENUM_CONSTANTS;
+   }
+
+   private String erasure(TypeMirror type) {
+      return processingEnv.getTypeUtils().erasure(type).toString();
+   }
+
+   private void writeServiceFile() throws IOException {
+      // keep the externalizers generated by previous, incremental, compilations
+      try {
+         FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+         try (BufferedReader reader = new BufferedReader(
+               new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+               line = line.trim();
+               if (!line.isEmpty() && !line.startsWith("#")) {
+                  externalizers.add(line);
+               }
+            }
+         }
+      } catch (IOException e) {
+         // no service file yet
+      }
+      FileObject serviceFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+      try (PrintWriter out = new PrintWriter(new OutputStreamWriter(serviceFile.openOutputStream(),
+            StandardCharsets.UTF_8))) {
+         for (String externalizer : externalizers) {
+            out.println(externalizer);
+         }
+      }
+   }
+
+   private void error(Element element, String message) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+   }
+}
@@ -0,0 +1,5 @@
+/**
+ * Annotation processor generating the externalizers of classes annotated with
+ * {@link org.infinispan.commons.marshall.GenerateExternalizer}.
+ */
+package org.infinispan.commons.marshall.processor;
@@ -0,0 +1,119 @@
+package org.infinispan.commons.util;
+
+import java.nio.ByteBuffer;
+
+import org.infinispan.commons.hash.MurmurHash3;
+
+/**
+ * A bloom filter of byte arrays, sized for a number of entries and a false positive probability.  The bits are set by
+ * double hashing the 128 bit {@link MurmurHash3} of the entry, and the filter can be written as bytes with
+ * {@link #toBytes()} so that it can be shipped and read back with {@link #fromBytes(byte[])}.
+ * <p>
+ * Adding entries is not thread safe.
+ *
+ * @since 9.0
+ */
+public final class BloomFilter {
+   private static final int SEED = 9001;
+   private static final int HEADER_BYTES = 4;
+   private static final int MAX_WORDS = Integer.MAX_VALUE / Long.SIZE;
+
+   /**
+    * The maximum number of hashes per entry, which bounds the cost of adding and checking an entry.  A false positive
+    * probability of one in a billion only needs 30.
+    */
+   public static final int MAX_HASHES = 32;
+
+   private final long[] bits;
+   private final int numBits;
+   private final int numHashes;
+
+   private BloomFilter(long[] bits, int numHashes) {
+      this.bits = bits;
+      this.numBits = bits.length * Long.SIZE;
+      this.numHashes = numHashes;
+   }
+
+   /**
+    * Creates an empty filter able to hold the given number of entries with, at most, the given probability of
+    * reporting an entry that was not added as present.
+    */
+   public static BloomFilter create(int expectedEntries, double falsePositiveProbability) {
+      if (expectedEntries < 1) {
+         expectedEntries = 1;
+      }
+      if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+         throw new IllegalArgumentException("False positive probability must be between 0 and 1 exclusive, was " +
+               falsePositiveProbability);
+      }
+      long numBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+      int numWords = (int) Math.min(MAX_WORDS, (numBits + Long.SIZE - 1) / Long.SIZE);
+      int numHashes = Math.min(MAX_HASHES,
+            Math.max(1, (int) Math.round((double) numWords * Long.SIZE / expectedEntries * Math.log(2))));
+      return new BloomFilter(new long[numWords], numHashes);
+   }
+
+   /**
+    * Reads a filter written by {@link #toBytes()}.
+    *
+    * @throws IllegalArgumentException if the bytes are not a valid filter, e.g. because it has no bits or more than
+    *                                  {@link #MAX_HASHES} hashes
+    */
+   public static BloomFilter fromBytes(byte[] bytes) {
+      int bitsLength = bytes.length - HEADER_BYTES;
+      if (bitsLength < Long.BYTES || bitsLength % Long.BYTES != 0 || bitsLength / Long.BYTES > MAX_WORDS) {
+         throw new IllegalArgumentException("Invalid bloom filter of " + bytes.length + " bytes");
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      int numHashes = buffer.getInt();
+      if (numHashes < 1 || numHashes > MAX_HASHES) {
+         throw new IllegalArgumentException("Invalid bloom filter with " + numHashes +
+               " hashes, it must be between 1 and " + MAX_HASHES);
+      }
+      long[] bits = new long[buffer.remaining() / 8];
+      buffer.asLongBuffer().get(bits);
+      return new BloomFilter(bits, numHashes);
+   }
+
+   public void add(byte[] entry) {
+      long[] hash = MurmurHash3.MurmurHash3_x64_128(entry, SEED);
+      for (int i = 0; i < numHashes; i++) {
+         int bit = bitIndex(hash, i);
+         bits[bit >>> 6] |= 1L << bit;
+      }
+   }
+
+   /**
+    * Returns false if the entry was definitely never added, true if it was probably added.
+    */
+   public boolean mightContain(byte[] entry) {
+      long[] hash = MurmurHash3.MurmurHash3_x64_128(entry, SEED);
+      for (int i = 0; i < numHashes; i++) {
+         int bit = bitIndex(hash, i);
+         if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private int bitIndex(long[] hash, int i) {
+      long combined = hash[0] + i * hash[1];
+      return (int) ((combined & Long.MAX_VALUE) % numBits);
+   }
+
+   public byte[] toBytes() {
+      ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bits.length * Long.BYTES);
+      buffer.putInt(numHashes);
+      buffer.asLongBuffer().put(bits);
+      return buffer.array();
+   }
+
+   @Override
+   public String toString() {
+      return "BloomFilter{" +
+            "numBits=" + numBits +
+            ", numHashes=" + numHashes +
+            '}';
+   }
+}
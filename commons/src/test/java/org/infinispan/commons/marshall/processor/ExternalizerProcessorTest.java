@@ -0,0 +1,231 @@
+package org.infinispan.commons.marshall.processor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.commons.marshall.GenerateExternalizer;
+import org.infinispan.commons.util.ServiceFinder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the externalizers generated by {@link ExternalizerProcessor}.
+ *
+ * @since 9.0
+ */
+public class ExternalizerProcessorTest {
+
+   private static final String BASE = "package sample;\n" +
+         "public class Base {\n" +
+         "   public int version;\n" +
+         "}\n";
+
+   private static final String COLOR = "package sample;\n" +
+         "public enum Color { RED, GREEN, BLUE }\n";
+
+   private static final String PERSON = "package sample;\n" +
+         "@org.infinispan.commons.marshall.GenerateExternalizer(id = 1000)\n" +
+         "public class Person extends Base {\n" +
+         "   static int instances;\n" +
+         "   String name;\n" +
+         "   int age;\n" +
+         "   long id;\n" +
+         "   boolean active;\n" +
+         "   double score;\n" +
+         "   Color color;\n" +
+         "   byte[] data;\n" +
+         "   java.util.List<String> tags;\n" +
+         "   transient int hash;\n" +
+         "   @org.infinispan.commons.marshall.GenerateExternalizer(id = 1001)\n" +
+         "   public static class Address {\n" +
+         "      public String street;\n" +
+         "   }\n" +
+         "}\n";
+
+   private Path output;
+
+   @Before
+   public void createOutput() throws IOException {
+      output = Files.createTempDirectory("externalizer-processor");
+   }
+
+   @After
+   public void deleteOutput() throws IOException {
+      Files.walk(output).sorted(Collections.reverseOrder()).map(Path::toFile).forEach(File::delete);
+   }
+
+   @Test
+   public void testGeneratedExternalizer() throws Exception {
+      DiagnosticCollector<JavaFileObject> diagnostics = compile(source("sample.Base", BASE),
+            source("sample.Color", COLOR), source("sample.Person", PERSON));
+      Assert.assertTrue(diagnostics.getDiagnostics().toString(), diagnostics.getDiagnostics().isEmpty());
+
+      List<String> services = Files.readAllLines(output.resolve(ExternalizerProcessor.SERVICE_FILE),
+            StandardCharsets.UTF_8);
+      Assert.assertEquals(Arrays.asList("sample.Person_Address_Externalizer", "sample.Person_Externalizer"), services);
+
+      try (URLClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+         Class<?> personClass = loader.loadClass("sample.Person");
+         AdvancedExternalizer<Object> externalizer = null;
+         for (AdvancedExternalizer ext : ServiceFinder.load(AdvancedExternalizer.class, loader)) {
+            if (ext.getTypeClasses().contains(personClass)) {
+               externalizer = ext;
+            }
+         }
+         Assert.assertNotNull(externalizer);
+         Assert.assertEquals(Integer.valueOf(1000), externalizer.getId());
+
+         Object person = personClass.newInstance();
+         set(person, "version", 3);
+         set(person, "name", "person");
+         set(person, "age", 42);
+         set(person, "id", Long.MAX_VALUE);
+         set(person, "active", true);
+         set(person, "score", 1.5d);
+         set(person, "color", Enum.valueOf((Class) loader.loadClass("sample.Color"), "BLUE"));
+         set(person, "data", new byte[]{1, 2, 3});
+         set(person, "tags", Arrays.asList("a", "b"));
+         set(person, "hash", 7);
+
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+         try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            externalizer.writeObject(out, person);
+         }
+         Object copy;
+         try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = externalizer.readObject(in);
+         }
+         Assert.assertSame(personClass, copy.getClass());
+         Assert.assertEquals(3, get(copy, "version"));
+         Assert.assertEquals("person", get(copy, "name"));
+         Assert.assertEquals(42, get(copy, "age"));
+         Assert.assertEquals(Long.MAX_VALUE, get(copy, "id"));
+         Assert.assertEquals(true, get(copy, "active"));
+         Assert.assertEquals(1.5d, get(copy, "score"));
+         Assert.assertEquals("BLUE", ((Enum) get(copy, "color")).name());
+         Assert.assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) get(copy, "data"));
+         Assert.assertEquals(Arrays.asList("a", "b"), get(copy, "tags"));
+         Assert.assertEquals(0, get(copy, "hash"));
+      }
+   }
+
+   @Test
+   public void testPrivateFieldIsRejected() throws Exception {
+      DiagnosticCollector<JavaFileObject> diagnostics = compile(source("sample.Invalid", "package sample;\n" +
+            "@org.infinispan.commons.marshall.GenerateExternalizer(id = 1000)\n" +
+            "public class Invalid {\n" +
+            "   private String name;\n" +
+            "}\n"));
+      Assert.assertEquals(1, diagnostics.getDiagnostics().size());
+      Diagnostic<? extends JavaFileObject> diagnostic = diagnostics.getDiagnostics().get(0);
+      Assert.assertEquals(Diagnostic.Kind.ERROR, diagnostic.getKind());
+      Assert.assertTrue(diagnostic.getMessage(null), diagnostic.getMessage(null).contains("name"));
+      Assert.assertFalse(Files.exists(output.resolve("sample/Invalid_Externalizer.class")));
+   }
+
+   @Test
+   public void testSelfReferenceIsRejected() throws Exception {
+      DiagnosticCollector<JavaFileObject> diagnostics = compile(source("sample.Base", BASE),
+            source("sample.Node", "package sample;\n" +
+            "@org.infinispan.commons.marshall.GenerateExternalizer(id = 1000)\n" +
+            "public class Node extends Base {\n" +
+            "   String name;\n" +
+            "   Node next;\n" +
+            "   Base parent;\n" +
+            "   transient Node previous;\n" +
+            "}\n"));
+      Assert.assertEquals(diagnostics.getDiagnostics().toString(), 2, diagnostics.getDiagnostics().size());
+      for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+         Assert.assertEquals(Diagnostic.Kind.ERROR, diagnostic.getKind());
+         Assert.assertTrue(diagnostic.getMessage(null), diagnostic.getMessage(null).contains("next") ||
+               diagnostic.getMessage(null).contains("parent"));
+      }
+      Assert.assertFalse(Files.exists(output.resolve("sample/Node_Externalizer.class")));
+   }
+
+   @Test
+   public void testMissingConstructorIsRejected() throws Exception {
+      DiagnosticCollector<JavaFileObject> diagnostics = compile(source("sample.Invalid", "package sample;\n" +
+            "@org.infinispan.commons.marshall.GenerateExternalizer(id = 1000)\n" +
+            "public class Invalid {\n" +
+            "   String name;\n" +
+            "   public Invalid(String name) { this.name = name; }\n" +
+            "}\n"));
+      Assert.assertEquals(1, diagnostics.getDiagnostics().size());
+      Assert.assertEquals(Diagnostic.Kind.ERROR, diagnostics.getDiagnostics().get(0).getKind());
+   }
+
+   private DiagnosticCollector<JavaFileObject> compile(JavaFileObject... sources) throws Exception {
+      JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+      DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+      try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+         String classPath = Paths.get(GenerateExternalizer.class.getProtectionDomain().getCodeSource().getLocation()
+               .toURI()).toString();
+         List<String> options = Arrays.asList("-d", output.toString(), "-classpath", classPath);
+         JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+               Arrays.asList(sources));
+         task.setProcessors(Collections.singletonList(new ExternalizerProcessor()));
+         task.call();
+      }
+      return diagnostics;
+   }
+
+   private static JavaFileObject source(String className, String code) {
+      return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+            JavaFileObject.Kind.SOURCE) {
+         @Override
+         public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+         }
+      };
+   }
+
+   private static void set(Object object, String field, Object value) throws ReflectiveOperationException {
+      Field f = findField(object.getClass(), field);
+      f.setAccessible(true);
+      f.set(object, value);
+   }
+
+   private static Object get(Object object, String field) throws ReflectiveOperationException {
+      Field f = findField(object.getClass(), field);
+      f.setAccessible(true);
+      return f.get(object);
+   }
+
+   private static Field findField(Class<?> clazz, String name) throws NoSuchFieldException {
+      for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+         try {
+            return c.getDeclaredField(name);
+         } catch (NoSuchFieldException e) {
+            // look in the superclass
+         }
+      }
+      throw new NoSuchFieldException(name);
+   }
+}
@@ -0,0 +1,78 @@
+package org.infinispan.commons.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+   private static final int ENTRIES = 10_000;
+
+   private static byte[] entry(int i) {
+      return ("entry-" + i).getBytes(StandardCharsets.UTF_8);
+   }
+
+   @Test
+   public void testNoFalseNegatives() {
+      BloomFilter filter = BloomFilter.create(ENTRIES, 0.01);
+      for (int i = 0; i < ENTRIES; i++) {
+         filter.add(entry(i));
+      }
+      for (int i = 0; i < ENTRIES; i++) {
+         assertTrue(filter.mightContain(entry(i)));
+      }
+   }
+
+   @Test
+   public void testFalsePositiveProbability() {
+      BloomFilter filter = BloomFilter.create(ENTRIES, 0.01);
+      for (int i = 0; i < ENTRIES; i++) {
+         filter.add(entry(i));
+      }
+      int falsePositives = 0;
+      for (int i = ENTRIES; i < 2 * ENTRIES; i++) {
+         if (filter.mightContain(entry(i))) {
+            falsePositives++;
+         }
+      }
+      assertTrue("False positives: " + falsePositives, falsePositives < ENTRIES * 0.02);
+   }
+
+   @Test
+   public void testToBytes() {
+      BloomFilter filter = BloomFilter.create(100, 0.01);
+      filter.add(entry(1));
+      BloomFilter copy = BloomFilter.fromBytes(filter.toBytes());
+      assertTrue(copy.mightContain(entry(1)));
+      assertFalse(BloomFilter.create(100, 0.01).mightContain(entry(1)));
+   }
+
+   @Test
+   public void testHashesBounded() {
+      BloomFilter filter = BloomFilter.create(100, 1e-30);
+      BloomFilter.fromBytes(filter.toBytes());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testFromBytesWithoutBits() {
+      BloomFilter.fromBytes(ByteBuffer.allocate(4).putInt(1).array());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testFromBytesWithPartialWord() {
+      BloomFilter.fromBytes(ByteBuffer.allocate(4 + 12).putInt(1).array());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testFromBytesWithoutHashes() {
+      BloomFilter.fromBytes(ByteBuffer.allocate(4 + 8).putInt(0).array());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testFromBytesWithTooManyHashes() {
+      BloomFilter.fromBytes(ByteBuffer.allocate(4 + 8).putInt(BloomFilter.MAX_HASHES + 1).array());
+   }
+}
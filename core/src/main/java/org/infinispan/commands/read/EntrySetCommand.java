@@ -4,6 +4,9 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.infinispan.Cache;
 import org.infinispan.CacheSet;
@@ -15,6 +18,7 @@
 import org.infinispan.commons.util.Closeables;
 import org.infinispan.commons.util.EnumUtil;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.ForwardingCacheEntry;
 import org.infinispan.context.Flag;
@@ -132,16 +136,29 @@ private ConsistentHash getConsistentHash(Cache<K, V> cache) {
          return null;
       }
 
+      /**
+       * Reads only the requested segments when the data container is segmented
+       */
+      @SuppressWarnings("unchecked")
+      private Function<Set<Integer>, Stream<CacheEntry<K, V>>> getSegmentSupplier() {
+         DataContainer<K, V> dc = cache.getAdvancedCache().getDataContainer();
+         if (dc instanceof SegmentedDataContainer) {
+            SegmentedDataContainer<K, V> segmentedDc = (SegmentedDataContainer<K, V>) dc;
+            return segments -> (Stream) StreamSupport.stream(segmentedDc.spliterator(segments), false);
+         }
+         return null;
+      }
+
       @Override
       public CacheStream<CacheEntry<K, V>> stream() {
          return new LocalCacheStream<>(new EntryStreamSupplier<>(cache, getConsistentHash(cache),
-                 () -> super.stream()), false, cache.getAdvancedCache().getComponentRegistry());
+                 () -> super.stream(), getSegmentSupplier()), false, cache.getAdvancedCache().getComponentRegistry());
       }
 
       @Override
       public CacheStream<CacheEntry<K, V>> parallelStream() {
          return new LocalCacheStream<>(new EntryStreamSupplier<>(cache, getConsistentHash(cache),
-                 () -> super.stream()), true, cache.getAdvancedCache().getComponentRegistry());
+                 () -> super.stream(), getSegmentSupplier()), true, cache.getAdvancedCache().getComponentRegistry());
       }
    }
 
@@ -3,6 +3,8 @@
 import java.util.Iterator;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import org.infinispan.Cache;
@@ -14,6 +16,8 @@
 import org.infinispan.commons.util.CloseableSpliterator;
 import org.infinispan.commons.util.Closeables;
 import org.infinispan.commons.util.EnumUtil;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
@@ -97,11 +101,23 @@ public boolean remove(Object o) {
          return cache.remove(o) != null;
       }
 
+      /**
+       * Reads only the requested segments when the data container is segmented
+       */
+      private Function<Set<Integer>, Stream<K>> getSegmentSupplier() {
+         DataContainer<K, V> dc = cache.getAdvancedCache().getDataContainer();
+         if (dc instanceof SegmentedDataContainer) {
+            SegmentedDataContainer<K, V> segmentedDc = (SegmentedDataContainer<K, V>) dc;
+            return segments -> StreamSupport.stream(segmentedDc.spliterator(segments), false).map(CacheEntry::getKey);
+         }
+         return null;
+      }
+
       @Override
       public CacheStream<K> stream() {
          DistributionManager dm = cache.getAdvancedCache().getDistributionManager();
          return new LocalCacheStream<>(new KeyStreamSupplier<>(cache, dm != null ? dm.getConsistentHash() : null,
-                 () -> StreamSupport.stream(spliterator(), false)), false,
+                 () -> StreamSupport.stream(spliterator(), false), getSegmentSupplier()), false,
                  cache.getAdvancedCache().getComponentRegistry());
       }
 
@@ -109,7 +125,7 @@ public CacheStream<K> stream() {
       public CacheStream<K> parallelStream() {
          DistributionManager dm = cache.getAdvancedCache().getDistributionManager();
          return new LocalCacheStream<>(new KeyStreamSupplier<>(cache, dm != null ? dm.getConsistentHash() : null,
-                 () -> StreamSupport.stream(spliterator(), false)), true,
+                 () -> StreamSupport.stream(spliterator(), false), getSegmentSupplier()), true,
                  cache.getAdvancedCache().getComponentRegistry());
       }
    }
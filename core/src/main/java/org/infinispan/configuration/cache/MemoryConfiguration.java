@@ -6,6 +6,8 @@
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.commons.configuration.attributes.IdentityAttributeCopier;
 import org.infinispan.container.StorageType;
+import org.infinispan.container.offheap.AllocatorType;
+import org.infinispan.container.offheap.PooledOffHeapMemoryAllocator;
 import org.infinispan.eviction.EvictionType;
 
 /**
@@ -19,16 +21,25 @@ public class MemoryConfiguration {
          .builder("storage", StorageType.OBJECT).copier(IdentityAttributeCopier.INSTANCE).immutable().build();
    public static final AttributeDefinition<Long> SIZE  = AttributeDefinition.builder("size", -1l).build();
    public static final AttributeDefinition<EvictionType> EVICTION_TYPE  = AttributeDefinition.builder("type", EvictionType.COUNT).build();
+   public static final AttributeDefinition<AllocatorType> ALLOCATOR = AttributeDefinition
+         .builder("allocator", AllocatorType.UNPOOLED).immutable().build();
+   public static final AttributeDefinition<Integer> SLAB_SIZE = AttributeDefinition
+         .builder("slab-size", PooledOffHeapMemoryAllocator.DEFAULT_SLAB_SIZE).immutable().build();
+   public static final AttributeDefinition<Boolean> SEGMENTED = AttributeDefinition
+         .builder("segmented", false).immutable().build();
 
    static public AttributeSet attributeDefinitionSet() {
       return new AttributeSet(MemoryConfiguration.class, AbstractTypedPropertiesConfiguration.attributeSet(),
-            STORAGE_TYPE, SIZE, EVICTION_TYPE, ADDRESS_COUNT);
+            STORAGE_TYPE, SIZE, EVICTION_TYPE, ADDRESS_COUNT, ALLOCATOR, SLAB_SIZE, SEGMENTED);
    }
 
    private final Attribute<Long> size;
    private final Attribute<EvictionType> evictionType;
    private final Attribute<StorageType> storageType;
    private final Attribute<Integer> addressCount;
+   private final Attribute<AllocatorType> allocator;
+   private final Attribute<Integer> slabSize;
+   private final Attribute<Boolean> segmented;
    private final AttributeSet attributes;
 
    MemoryConfiguration(AttributeSet attributes) {
@@ -37,6 +48,9 @@ static public AttributeSet attributeDefinitionSet() {
       size = attributes.attribute(SIZE);
       evictionType = attributes.attribute(EVICTION_TYPE);
       addressCount = attributes.attribute(ADDRESS_COUNT);
+      allocator = attributes.attribute(ALLOCATOR);
+      slabSize = attributes.attribute(SLAB_SIZE);
+      segmented = attributes.attribute(SEGMENTED);
    }
 
    /**
@@ -59,6 +73,14 @@ public void size(long newSize) {
       size.set(newSize);
    }
 
+   /**
+    * Whether the data container is bounded, which is the case for any size that is not negative, even 0
+    * @return
+    */
+   public boolean isEvictionEnabled() {
+      return size.get() >= 0;
+   }
+
    /**
     * The configured eviction type
     * @return
@@ -75,6 +97,30 @@ public int addressCount() {
       return addressCount.get();
    }
 
+   /**
+    * The allocator used for off-heap memory
+    * @return
+    */
+   public AllocatorType allocator() {
+      return allocator.get();
+   }
+
+   /**
+    * The size in bytes of the slabs reserved by the pooled allocator
+    * @return
+    */
+   public int slabSize() {
+      return slabSize.get();
+   }
+
+   /**
+    * Whether the entries of each segment are stored in a separate container
+    * @return
+    */
+   public boolean segmented() {
+      return segmented.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
@@ -1,8 +1,11 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.MemoryConfiguration.ADDRESS_COUNT;
+import static org.infinispan.configuration.cache.MemoryConfiguration.ALLOCATOR;
 import static org.infinispan.configuration.cache.MemoryConfiguration.EVICTION_TYPE;
+import static org.infinispan.configuration.cache.MemoryConfiguration.SEGMENTED;
 import static org.infinispan.configuration.cache.MemoryConfiguration.SIZE;
+import static org.infinispan.configuration.cache.MemoryConfiguration.SLAB_SIZE;
 import static org.infinispan.configuration.cache.MemoryConfiguration.STORAGE_TYPE;
 
 import org.infinispan.commons.CacheConfigurationException;
@@ -10,6 +13,7 @@
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.container.StorageType;
+import org.infinispan.container.offheap.AllocatorType;
 import org.infinispan.eviction.EvictionType;
 
 /**
@@ -69,7 +73,8 @@ public MemoryConfigurationBuilder evictionType(EvictionType type) {
     * Configuration setting when using off-heap that defines how many address pointers there are.
     * This number will be rounded up to the next power of two.  This helps performance in that the
     * more address pointers there are the less collisions there will be which improve performance of
-    * both read and write operations.
+    * both read and write operations.  This is only the initial count, as the address pointers are doubled
+    * as needed once there are more entries than three quarters of the pointers.
     * @param addressCount
     * @return this
     */
@@ -78,17 +83,65 @@ public MemoryConfigurationBuilder addressCount(int addressCount) {
       return this;
    }
 
+   /**
+    * Configuration setting when using off-heap that defines how the native memory for entries is allocated.
+    * {@link AllocatorType#POOLED} carves entries out of larger slabs and reuses freed blocks, which avoids
+    * going to the system allocator for every write.
+    * @param allocator the allocator type
+    * @return this
+    */
+   public MemoryConfigurationBuilder allocator(AllocatorType allocator) {
+      attributes.attribute(ALLOCATOR).set(allocator);
+      return this;
+   }
+
+   /**
+    * Configuration setting when using the pooled off-heap allocator that defines the size in bytes of each slab.
+    * Entries larger than an eighth of the slab size are not pooled.
+    * @param slabSize
+    * @return this
+    */
+   public MemoryConfigurationBuilder slabSize(int slabSize) {
+      attributes.attribute(SLAB_SIZE).set(slabSize);
+      return this;
+   }
+
+   /**
+    * Configuration setting that stores the entries of each segment in a separate container.  This makes iterating
+    * or counting the entries of some segments, as done by state transfer and segment filtered streams,
+    * proportional to the entries of these segments instead of the whole container.  Eviction is not supported with
+    * a segmented container.
+    * @param segmented whether the container is segmented
+    * @return this
+    */
+   public MemoryConfigurationBuilder segmented(boolean segmented) {
+      attributes.attribute(SEGMENTED).set(segmented);
+      return this;
+   }
+
    @Override
    public void validate() {
       StorageType type = attributes.attribute(STORAGE_TYPE).get();
       if (type != StorageType.OBJECT && getBuilder().compatibility().isEnabled()) {
          throw new CacheConfigurationException("Compatibility mode requires OBJECT storage type but was: " + type);
       }
+      if (attributes.attribute(ALLOCATOR).get() == AllocatorType.POOLED) {
+         if (type != StorageType.OFF_HEAP) {
+            throw new CacheConfigurationException("POOLED allocator requires OFF_HEAP storage type but was: " + type);
+         }
+         int slabSize = attributes.attribute(SLAB_SIZE).get();
+         if (slabSize < 256) {
+            throw new CacheConfigurationException("Slab size must be at least 256 bytes but was: " + slabSize);
+         }
+      }
       long size = attributes.attribute(SIZE).get();
+      if (size >= 0 && attributes.attribute(SEGMENTED).get()) {
+         throw new CacheConfigurationException("Segmented data container does not support eviction but size was: " + size);
+      }
       if (size > 0) {
          EvictionType evictionType = attributes.attribute(EVICTION_TYPE).get();
-         if (evictionType == EvictionType.MEMORY && type != StorageType.BINARY) {
-            throw new CacheConfigurationException("MEMORY based eviction requires binary but was : " + type);
+         if (evictionType == EvictionType.MEMORY && type == StorageType.OBJECT) {
+            throw new CacheConfigurationException("MEMORY based eviction requires binary or off-heap but was : " + type);
          }
       }
    }
@@ -19,13 +19,15 @@ public class SingleFileStoreConfiguration extends AbstractStoreConfiguration {
    public static final AttributeDefinition<String> LOCATION = AttributeDefinition.builder("location", "Infinispan-SingleFileStore").immutable().xmlName("path").build();
    public static final AttributeDefinition<Integer> MAX_ENTRIES = AttributeDefinition.builder("maxEntries", -1).immutable().build();
    public static final AttributeDefinition<Float> FRAGMENTATION_FACTOR = AttributeDefinition.builder("fragmentationFactor", 0.75f).immutable().build();
+   public static final AttributeDefinition<Float> COMPACTION_THRESHOLD = AttributeDefinition.builder("compactionThreshold", 0.5f).immutable().build();
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(SingleFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, MAX_ENTRIES, FRAGMENTATION_FACTOR);
+      return new AttributeSet(SingleFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, MAX_ENTRIES, FRAGMENTATION_FACTOR, COMPACTION_THRESHOLD);
    }
 
    private final Attribute<String> location;
    private final Attribute<Integer> maxEntries;
    private final Attribute<Float> fragmentationFactor;
+   private final Attribute<Float> compactionThreshold;
 
    public SingleFileStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async,
                                        SingletonStoreConfiguration singletonStore) {
@@ -33,6 +35,7 @@ public SingleFileStoreConfiguration(AttributeSet attributes, AsyncStoreConfigura
       location = attributes.attribute(LOCATION);
       maxEntries = attributes.attribute(MAX_ENTRIES);
       fragmentationFactor = attributes.attribute(FRAGMENTATION_FACTOR);
+      compactionThreshold = attributes.attribute(COMPACTION_THRESHOLD);
    }
 
    public String location() {
@@ -47,6 +50,10 @@ public float fragmentationFactor () {
       return fragmentationFactor.get();
    }
 
+   public float compactionThreshold() {
+      return compactionThreshold.get();
+   }
+
    @Override
    public AttributeSet attributes() {
       return attributes;
@@ -1,5 +1,6 @@
 package org.infinispan.configuration.cache;
 
+import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.COMPACTION_THRESHOLD;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.FRAGMENTATION_FACTOR;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.LOCATION;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.MAX_ENTRIES;
@@ -67,6 +68,17 @@ public SingleFileStoreConfigurationBuilder fragmentationFactor(float fragmentati
       return this;
    }
 
+   /**
+    * When the store is purged, if the free space in the file is more than this fraction of the file size, the live
+    * entries at the end of the file are moved into the free entries closer to its start, and the file is truncated.
+    * So, if this value is set as 0.5, the file is compacted once more than half of it is free. A value of 1 or more
+    * disables compaction. Defaults to 0.5.
+    */
+   public SingleFileStoreConfigurationBuilder compactionThreshold(float compactionThreshold) {
+      attributes.attribute(COMPACTION_THRESHOLD).set(compactionThreshold);
+      return this;
+   }
+
    @Override
    public SingleFileStoreConfiguration create() {
       return new SingleFileStoreConfiguration(attributes.protect(), async.create(), singletonStore.create());
@@ -17,15 +17,24 @@ public class StateTransferConfiguration {
    public static final AttributeDefinition<Boolean> FETCH_IN_MEMORY_STATE = AttributeDefinition.builder("fetchInMemoryState", true).xmlName("enabled").immutable().build();
    public static final AttributeDefinition<Long> TIMEOUT = AttributeDefinition.builder("timeout", TimeUnit.MINUTES.toMillis(4)).immutable().build();
    public static final AttributeDefinition<Integer> CHUNK_SIZE = AttributeDefinition.builder("chunkSize", 512).immutable().build();
+   public static final AttributeDefinition<Boolean> BULK_APPLY = AttributeDefinition.builder("bulkApply", false).immutable().build();
+   public static final AttributeDefinition<Integer> CHUNK_BYTES = AttributeDefinition.builder("chunkBytes", 0).immutable().build();
+   public static final AttributeDefinition<Integer> MAX_IN_FLIGHT_CHUNKS = AttributeDefinition.builder("maxInFlightChunks", 1).immutable().build();
+   public static final AttributeDefinition<Long> MAX_BANDWIDTH = AttributeDefinition.builder("maxBandwidth", 0L).immutable().build();
 
    static final AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(StoreAsBinaryConfiguration.class, FETCH_IN_MEMORY_STATE, TIMEOUT, CHUNK_SIZE, AWAIT_INITIAL_TRANSFER);
+      return new AttributeSet(StoreAsBinaryConfiguration.class, FETCH_IN_MEMORY_STATE, TIMEOUT, CHUNK_SIZE, AWAIT_INITIAL_TRANSFER, BULK_APPLY,
+            CHUNK_BYTES, MAX_IN_FLIGHT_CHUNKS, MAX_BANDWIDTH);
    }
 
    private final Attribute<Boolean> awaitInitialTransfer;
    private final Attribute<Boolean> fetchInMemoryState;
    private final Attribute<Long> timeout;
    private final Attribute<Integer> chunkSize;
+   private final Attribute<Boolean> bulkApply;
+   private final Attribute<Integer> chunkBytes;
+   private final Attribute<Integer> maxInFlightChunks;
+   private final Attribute<Long> maxBandwidth;
    private final AttributeSet attributes;
 
    StateTransferConfiguration(AttributeSet attributes) {
@@ -34,6 +43,10 @@ static final AttributeSet attributeDefinitionSet() {
       fetchInMemoryState = attributes.attribute(FETCH_IN_MEMORY_STATE);
       timeout = attributes.attribute(TIMEOUT);
       chunkSize = attributes.attribute(CHUNK_SIZE);
+      bulkApply = attributes.attribute(BULK_APPLY);
+      chunkBytes = attributes.attribute(CHUNK_BYTES);
+      maxInFlightChunks = attributes.attribute(MAX_IN_FLIGHT_CHUNKS);
+      maxBandwidth = attributes.attribute(MAX_BANDWIDTH);
    }
 
    /**
@@ -73,6 +86,40 @@ public int chunkSize() {
       return chunkSize.get();
    }
 
+   /**
+    * If {@code true}, the entries of each received state chunk are written directly to the data container and to the
+    * cache stores in one pass, instead of invoking a put command through the interceptor chain for every entry.
+    * The entries are still discarded if the key was updated by a concurrent operation.  Chunks are applied with
+    * commands anyway if the cache has listeners, indexing, compatibility mode, total order or transactional stores.
+    */
+   public boolean bulkApply() {
+      return bulkApply.get();
+   }
+
+   /**
+    * If greater than 0, a state chunk is also sent as soon as the estimated size of its entries reaches
+    * {@code chunkBytes} bytes, even if it contains less than {@code chunkSize} entries.
+    */
+   public int chunkBytes() {
+      return chunkBytes.get();
+   }
+
+   /**
+    * The maximum number of state chunks a node sends to another node before waiting for the receiver to
+    * acknowledge them. The default of 1 waits for each chunk to be applied before sending the next one.
+    */
+   public int maxInFlightChunks() {
+      return maxInFlightChunks.get();
+   }
+
+   /**
+    * If greater than 0, the maximum number of bytes per second a node sends for the state transfer of this cache,
+    * across all the nodes it sends state to.
+    */
+   public long maxBandwidth() {
+      return maxBandwidth.get();
+   }
+
    /**
     * If {@code true}, this will cause the first call to method {@code CacheManager.getCache()} on the joiner node to
     * block and wait until the joining is complete and the cache has finished receiving state from neighboring caches
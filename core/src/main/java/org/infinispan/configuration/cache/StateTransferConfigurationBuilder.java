@@ -1,8 +1,12 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.StateTransferConfiguration.AWAIT_INITIAL_TRANSFER;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.BULK_APPLY;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.CHUNK_BYTES;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.CHUNK_SIZE;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.FETCH_IN_MEMORY_STATE;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.MAX_BANDWIDTH;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.MAX_IN_FLIGHT_CHUNKS;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.TIMEOUT;
 
 import java.util.concurrent.TimeUnit;
@@ -84,11 +88,59 @@ public StateTransferConfigurationBuilder timeout(long l, TimeUnit unit) {
       return timeout(unit.toMillis(l));
    }
 
+   /**
+    * If {@code true}, the entries of each received state chunk are written directly to the data container and to the
+    * cache stores in one pass, instead of invoking a put command through the interceptor chain for every entry.
+    * This skips any custom interceptor for the entries received by state transfer.
+    */
+   public StateTransferConfigurationBuilder bulkApply(boolean b) {
+      attributes.attribute(BULK_APPLY).set(b);
+      return this;
+   }
+
+   /**
+    * If greater than 0, a state chunk is also sent as soon as the estimated size of its entries reaches
+    * {@code chunkBytes} bytes, even if it contains less than {@code chunkSize} entries.  The size of keys and values
+    * stored as bytes is exact, the size of other objects is estimated from the sizes the marshaller has seen so far.
+    */
+   public StateTransferConfigurationBuilder chunkBytes(int i) {
+      attributes.attribute(CHUNK_BYTES).set(i);
+      return this;
+   }
+
+   /**
+    * The maximum number of state chunks a node sends to another node before waiting for the receiver to
+    * acknowledge them. The default of 1 waits for each chunk to be applied before sending the next one.
+    */
+   public StateTransferConfigurationBuilder maxInFlightChunks(int i) {
+      attributes.attribute(MAX_IN_FLIGHT_CHUNKS).set(i);
+      return this;
+   }
+
+   /**
+    * If greater than 0, the maximum number of bytes per second a node sends for the state transfer of this cache,
+    * across all the nodes it sends state to.  Since all the nodes use the same configuration, this caps the bandwidth
+    * state transfer uses on every link.
+    */
+   public StateTransferConfigurationBuilder maxBandwidth(long l) {
+      attributes.attribute(MAX_BANDWIDTH).set(l);
+      return this;
+   }
+
    @Override
    public void validate() {
       if (attributes.attribute(CHUNK_SIZE).get() <= 0) {
          throw new CacheConfigurationException("chunkSize can not be <= 0");
       }
+      if (attributes.attribute(CHUNK_BYTES).get() < 0) {
+         throw new CacheConfigurationException("chunkBytes can not be < 0");
+      }
+      if (attributes.attribute(MAX_IN_FLIGHT_CHUNKS).get() <= 0) {
+         throw new CacheConfigurationException("maxInFlightChunks can not be <= 0");
+      }
+      if (attributes.attribute(MAX_BANDWIDTH).get() < 0) {
+         throw new CacheConfigurationException("maxBandwidth can not be < 0");
+      }
 
       if (clustering().cacheMode().isInvalidation()) {
          Attribute<Boolean> fetchAttribute = attributes.attribute(FETCH_IN_MEMORY_STATE);
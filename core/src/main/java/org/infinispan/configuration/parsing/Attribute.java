@@ -18,6 +18,7 @@ public enum Attribute {
     ADDRESS_COUNT("address-count"),
     AFTER("after"),
     ALIASES("aliases"),
+    ALLOCATOR("allocator"),
     ALLOW_DUPLICATE_DOMAINS("duplicate-domains"),
     ASYNC_EXECUTOR("async-executor"),
     @Deprecated
@@ -28,7 +29,9 @@ public enum Attribute {
     AWAIT_INITIAL_TRANSFER("await-initial-transfer"),
     BACKUP_FAILURE_POLICY("failure-policy"),
     BEFORE("before"),
+    BULK_APPLY("bulk-apply"),
     CAPACITY_FACTOR("capacity"),
+    CHUNK_BYTES("chunk-bytes"),
     CHUNK_SIZE("chunk-size"),
     CLASS("class"),
     CLUSTER("cluster"),
@@ -71,8 +74,10 @@ public enum Attribute {
     MACHINE_ID("machine"),
     MAPPER("mapper"),
     MARSHALLER_CLASS("marshaller"),
+    MAX_BANDWIDTH("max-bandwidth"),
     MAX_ENTRIES("max-entries"),
     MAX_IDLE("max-idle"),
+    MAX_IN_FLIGHT_CHUNKS("max-in-flight-chunks"),
     MAX_RETRIES("max-retries"),
     MAX_THREADS("max-threads"),
     MBEAN_SERVER_LOOKUP("mbean-server-lookup"),
@@ -110,6 +115,7 @@ public enum Attribute {
     @Deprecated
     REPLICATION_QUEUE_EXECUTOR("replication-queue-executor"),
     ROLES("roles"),
+    SEGMENTED("segmented"),
     SEGMENTS("segments"),
     SHARED("shared"),
     SHUTDOWN_HOOK("shutdown-hook"),
@@ -120,6 +126,7 @@ public enum Attribute {
     SINGLETON("singleton"),
     SITE("site"),
     SIZE("size"),
+    SLAB_SIZE("slab-size"),
     SPIN_DURATION("deadlock-detection-spin"),
     STATISTICS("statistics"),
     STATISTICS_AVAILABLE("statistics-available"),
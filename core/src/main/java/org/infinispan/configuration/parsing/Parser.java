@@ -60,6 +60,7 @@
 import org.infinispan.configuration.global.TransportConfigurationBuilder;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.StorageType;
+import org.infinispan.container.offheap.AllocatorType;
 import org.infinispan.distribution.group.Grouper;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
@@ -1590,12 +1591,21 @@ private void parseOffHeapMemoryAttributes(final XMLExtendedStreamReader reader,
             case SIZE:
                memoryBuilder.size(Long.parseLong(value));
                break;
+            case SEGMENTED:
+               memoryBuilder.segmented(Boolean.parseBoolean(value));
+               break;
             case EVICTION:
                memoryBuilder.evictionType(EvictionType.valueOf(value));
                break;
             case ADDRESS_COUNT:
                memoryBuilder.addressCount(Integer.parseInt(value));
                break;
+            case ALLOCATOR:
+               memoryBuilder.allocator(AllocatorType.valueOf(value));
+               break;
+            case SLAB_SIZE:
+               memoryBuilder.slabSize(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1613,6 +1623,9 @@ private void parseObjectMemoryAttributes(final XMLExtendedStreamReader reader, f
             case SIZE:
                memoryBuilder.size(Long.parseLong(value));
                break;
+            case SEGMENTED:
+               memoryBuilder.segmented(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1630,6 +1643,9 @@ private void parseBinaryMemoryAttributes(final XMLExtendedStreamReader reader, f
             case SIZE:
                memoryBuilder.size(Long.parseLong(value));
                break;
+            case SEGMENTED:
+               memoryBuilder.segmented(Boolean.parseBoolean(value));
+               break;
             case EVICTION:
                memoryBuilder.evictionType(EvictionType.valueOf(value));
                break;
@@ -2041,6 +2057,22 @@ private void parseStateTransfer(XMLExtendedStreamReader reader, ConfigurationBui
                builder.clustering().stateTransfer().chunkSize(Integer.parseInt(value));
                break;
             }
+            case BULK_APPLY: {
+               builder.clustering().stateTransfer().bulkApply(Boolean.parseBoolean(value));
+               break;
+            }
+            case CHUNK_BYTES: {
+               builder.clustering().stateTransfer().chunkBytes(Integer.parseInt(value));
+               break;
+            }
+            case MAX_IN_FLIGHT_CHUNKS: {
+               builder.clustering().stateTransfer().maxInFlightChunks(Integer.parseInt(value));
+               break;
+            }
+            case MAX_BANDWIDTH: {
+               builder.clustering().stateTransfer().maxBandwidth(Long.parseLong(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
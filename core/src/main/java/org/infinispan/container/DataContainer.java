@@ -181,6 +181,20 @@
     */
    Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired();
 
+   /**
+    * Returns the entries that have to be checked by the expiration reaper at the given time.  Containers that keep
+    * track of when their entries expire can return only a subset of their entries, which must include all entries that
+    * are expired at the given time.  The returned entries may not be expired though, so callers still have to check
+    * them.
+    * <p>
+    * By default this is the same as {@link #iteratorIncludingExpired()}.
+    * @param currentTimeMillis the current wall clock time in milliseconds
+    * @return iterator of the entries that may be expired
+    */
+   default Iterator<InternalCacheEntry<K, V>> expirationCandidates(long currentTimeMillis) {
+      return iteratorIncludingExpired();
+   }
+
    interface ComputeAction<K, V> {
 
       /**
@@ -77,6 +77,7 @@
    private TimeService timeService;
    private CacheNotifier cacheNotifier;
    private ExpirationManager<K, V> expirationManager;
+   private final ExpirationIndex<K> expirationIndex = new ExpirationIndex<>();
 
    public DefaultDataContainer(int concurrencyLevel) {
       // If no comparing implementations passed, could fallback on JDK CHM
@@ -234,6 +235,12 @@ public void put(K k, V v, Metadata metadata) {
 
       entries.compute(copy.getKey(), (key, entry) -> {
          activator.onUpdate(key, entry == null);
+         if (entry != null && entry.canExpire()) {
+            expirationIndex.remove(key, entry.getExpiryTime());
+         }
+         if (copy.canExpire()) {
+            expirationIndex.add(key, copy.getExpiryTime());
+         }
          return copy;
       });
    }
@@ -260,6 +267,9 @@ public InternalCacheEntry<K, V> remove(Object k) {
       if (trace) {
          log.tracef("Removed %s from container", e);
       }
+      if (e != null && e.canExpire()) {
+         expirationIndex.remove(e.getKey(), e.getExpiryTime());
+      }
       return e == null || (e.canExpire() && e.isExpired(timeService.wallClockTime())) ? null : e;
    }
 
@@ -305,6 +315,7 @@ public int sizeIncludingExpired() {
    public void clear() {
       log.tracef("Clearing data container");
       entries.clear();
+      expirationIndex.clear();
    }
 
    @Override
@@ -336,13 +347,20 @@ public InternalCacheEntry<K, V> compute(K key, ComputeAction<K, V> action) {
          InternalCacheEntry<K, V> newEntry = action.compute(k, oldEntry, entryFactory);
          if (newEntry == oldEntry) {
             return oldEntry;
-         } else if (newEntry == null) {
+         }
+         if (oldEntry != null && oldEntry.canExpire()) {
+            expirationIndex.remove(k, oldEntry.getExpiryTime());
+         }
+         if (newEntry == null) {
             activator.onRemove(k, false);
             return null;
          }
          activator.onUpdate(k, oldEntry == null);
          if (trace)
             log.tracef("Store %s in container", newEntry);
+         if (newEntry.canExpire()) {
+            expirationIndex.add(k, newEntry.getExpiryTime());
+         }
          return newEntry;
       });
    }
@@ -357,6 +375,11 @@ public Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired() {
       return new EntryIterator(entries.values().iterator(), true);
    }
 
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> expirationCandidates(long currentTimeMillis) {
+      return expirationIndex.expirationCandidates(currentTimeMillis, this::peek);
+   }
+
    private final class DefaultEvictionListener implements EvictionListener<K, InternalCacheEntry<K, V>> {
 
       @Override
@@ -0,0 +1,295 @@
+package org.infinispan.container;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.infinispan.commons.util.IteratorMapper;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.filter.KeyFilter;
+import org.infinispan.filter.KeyValueFilter;
+import org.infinispan.metadata.Metadata;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * {@link SegmentedDataContainer} that stores the entries of each segment in a separate data container.  Operations
+ * on a key are routed to the container of its segment, so they behave the same as with a single container, while
+ * the entries of a segment can be iterated, counted or removed without visiting the other segments.
+ * <p>
+ * The per segment containers are not registered in the component registry, their dependencies are injected when
+ * this container is injected.
+ * @since 9.0
+ */
+@ThreadSafe
+public class DefaultSegmentedDataContainer<K, V> implements SegmentedDataContainer<K, V> {
+   protected final DataContainer<K, V>[] containers;
+   private KeyPartitioner keyPartitioner;
+
+   /**
+    * @param numSegments how many segments the key partitioner of the cache maps keys to
+    * @param containerSupplier creates the container of each segment
+    */
+   @SuppressWarnings("unchecked")
+   public DefaultSegmentedDataContainer(int numSegments, Supplier<? extends DataContainer<K, V>> containerSupplier) {
+      containers = new DataContainer[numSegments];
+      for (int i = 0; i < numSegments; ++i) {
+         containers[i] = containerSupplier.get();
+      }
+   }
+
+   @Inject
+   public void inject(KeyPartitioner keyPartitioner, ComponentRegistry componentRegistry) {
+      this.keyPartitioner = keyPartitioner;
+      for (DataContainer<K, V> container : containers) {
+         componentRegistry.wireDependencies(container);
+      }
+   }
+
+   protected DataContainer<K, V> containerFor(Object key) {
+      return containers[keyPartitioner.getSegment(key)];
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> get(Object k) {
+      return containerFor(k).get(k);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> peek(Object k) {
+      return containerFor(k).peek(k);
+   }
+
+   @Override
+   public void put(K k, V v, Metadata metadata) {
+      containerFor(k).put(k, v, metadata);
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      return containerFor(k).containsKey(k);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> remove(Object k) {
+      return containerFor(k).remove(k);
+   }
+
+   @Override
+   public void evict(K key) {
+      containerFor(key).evict(key);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> compute(K key, ComputeAction<K, V> action) {
+      return containerFor(key).compute(key, action);
+   }
+
+   @Override
+   public int size() {
+      long size = 0;
+      for (DataContainer<K, V> container : containers) {
+         size += container.size();
+      }
+      return (int) Math.min(size, Integer.MAX_VALUE);
+   }
+
+   @Override
+   public int sizeIncludingExpired() {
+      long size = 0;
+      for (DataContainer<K, V> container : containers) {
+         size += container.sizeIncludingExpired();
+      }
+      return (int) Math.min(size, Integer.MAX_VALUE);
+   }
+
+   @Override
+   public int sizeIncludingExpired(Set<Integer> segments) {
+      long size = 0;
+      for (int segment : segments) {
+         size += containers[segment].sizeIncludingExpired();
+      }
+      return (int) Math.min(size, Integer.MAX_VALUE);
+   }
+
+   @Override
+   public void clear() {
+      for (DataContainer<K, V> container : containers) {
+         container.clear();
+      }
+   }
+
+   @Override
+   public Set<K> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<V> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry<K, V>> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void executeTask(KeyFilter<? super K> filter, BiConsumer<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      for (DataContainer<K, V> container : containers) {
+         container.executeTask(filter, action);
+      }
+   }
+
+   @Override
+   public void executeTask(KeyValueFilter<? super K, ? super V> filter,
+         BiConsumer<? super K, InternalCacheEntry<K, V>> action) throws InterruptedException {
+      for (DataContainer<K, V> container : containers) {
+         container.executeTask(filter, action);
+      }
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iterator() {
+      return concat(DataContainer::iterator);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired() {
+      return concat(DataContainer::iteratorIncludingExpired);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iterator(Set<Integer> segments) {
+      return new ConcatIterator<>(new IteratorMapper<>(segments.iterator(), s -> containers[s].iterator()));
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired(Set<Integer> segments) {
+      return new ConcatIterator<>(new IteratorMapper<>(segments.iterator(),
+            s -> containers[s].iteratorIncludingExpired()));
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> expirationCandidates(long currentTimeMillis) {
+      return concat(c -> c.expirationCandidates(currentTimeMillis));
+   }
+
+   private <T> Iterator<T> concat(Function<DataContainer<K, V>, Iterator<T>> function) {
+      return new ConcatIterator<>(new IteratorMapper<>(Arrays.asList(containers).iterator(), function));
+   }
+
+   /**
+    * Iterator returning the elements of several iterators one after the other, which are only created once the
+    * previous one is exhausted.  Remove is supported if the underlying iterators support it.
+    */
+   private static class ConcatIterator<T> implements Iterator<T> {
+      private final Iterator<Iterator<T>> iterators;
+      private Iterator<T> current = Collections.emptyIterator();
+      private Iterator<T> last;
+
+      ConcatIterator(Iterator<Iterator<T>> iterators) {
+         this.iterators = iterators;
+      }
+
+      @Override
+      public boolean hasNext() {
+         while (!current.hasNext()) {
+            if (!iterators.hasNext()) {
+               return false;
+            }
+            current = iterators.next();
+         }
+         return true;
+      }
+
+      @Override
+      public T next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         last = current;
+         return current.next();
+      }
+
+      @Override
+      public void remove() {
+         if (last == null) {
+            throw new IllegalStateException();
+         }
+         last.remove();
+         last = null;
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class KeySet extends AbstractSet<K> {
+      @Override
+      public boolean contains(Object o) {
+         return containerFor(o).keySet().contains(o);
+      }
+
+      @Override
+      public Iterator<K> iterator() {
+         return concat(c -> c.keySet().iterator());
+      }
+
+      @Override
+      public int size() {
+         return sizeIncludingExpired();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class EntrySet extends AbstractSet<InternalCacheEntry<K, V>> {
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+         return containerFor(((Map.Entry) o).getKey()).entrySet().contains(o);
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry<K, V>> iterator() {
+         return concat(c -> c.entrySet().iterator());
+      }
+
+      @Override
+      public int size() {
+         return sizeIncludingExpired();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Collection
+    */
+   private class Values extends AbstractCollection<V> {
+      @Override
+      public Iterator<V> iterator() {
+         return concat(c -> c.values().iterator());
+      }
+
+      @Override
+      public int size() {
+         return sizeIncludingExpired();
+      }
+   }
+}
@@ -0,0 +1,148 @@
+package org.infinispan.container;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * Index of the keys of a data container ordered by the time their entries expire, which allows the expiration reaper
+ * to only visit entries that may have expired instead of the whole container.
+ * <p>
+ * Keys are grouped in buckets of {@link #getResolution()} milliseconds.  The index is updated lazily: a key is added
+ * whenever an entry that can expire is written, but it is not removed when the entry is removed, overwritten or
+ * touched.  Instead, when a bucket is due the current entry of each key is looked up, keys without an entry are
+ * dropped and the others are added again at the current expiration time of their entry, which may be later than
+ * before, for example because the entry was accessed and has a max idle.  Therefore the entries returned by
+ * {@link #expirationCandidates(long, Function)} may not be expired yet and callers still have to check them.
+ * @since 9.0
+ */
+public class ExpirationIndex<K> {
+   public static final long DEFAULT_RESOLUTION = 1000;
+
+   // The keys of each bucket; a bucket is created, emptied and removed only inside compute, which serializes these
+   // changes with the adds and removes of its keys
+   private final ConcurrentHashMap<Long, Set<K>> buckets = new ConcurrentHashMap<>();
+   // The buckets present in the map, in the order they are due, only updated inside compute on the bucket
+   private final ConcurrentSkipListSet<Long> bucketOrder = new ConcurrentSkipListSet<>();
+   private final long resolution;
+
+   public ExpirationIndex() {
+      this(DEFAULT_RESOLUTION);
+   }
+
+   /**
+    * @param resolution how many milliseconds of expiration times are grouped in the same bucket
+    */
+   public ExpirationIndex(long resolution) {
+      if (resolution <= 0) {
+         throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+      }
+      this.resolution = resolution;
+   }
+
+   public long getResolution() {
+      return resolution;
+   }
+
+   /**
+    * Registers a key whose entry expires at the given time.  Does nothing when the expiry time is negative, meaning
+    * the entry never expires.
+    * @param key the key of the entry
+    * @param expiryTime the wall clock time in milliseconds the entry expires at
+    */
+   public void add(K key, long expiryTime) {
+      if (expiryTime < 0) {
+         return;
+      }
+      buckets.compute(bucketFor(expiryTime), (bucket, keys) -> {
+         if (keys == null) {
+            keys = ConcurrentHashMap.newKeySet();
+            bucketOrder.add(bucket);
+         }
+         keys.add(key);
+         return keys;
+      });
+   }
+
+   /**
+    * Unregisters a key that was added with the given expiry time, so that the key doesn't have to be kept until the
+    * time its entry would have expired.  This is optional, keys that are not removed are dropped once they are due.
+    * @param key the key of the entry
+    * @param expiryTime the expiry time the key was added with
+    */
+   public void remove(K key, long expiryTime) {
+      if (expiryTime < 0) {
+         return;
+      }
+      buckets.computeIfPresent(bucketFor(expiryTime), (bucket, keys) -> {
+         if (keys.remove(key) && keys.isEmpty()) {
+            bucketOrder.remove(bucket);
+            return null;
+         }
+         return keys;
+      });
+   }
+
+   /**
+    * Removes the buckets that are due at the given time and looks up the current entry of each of their keys.  Keys
+    * without an entry are dropped and the others are added to the index again at the time their entry expires.  This
+    * way entries that expire later are visited again when they are due, and expired entries that could not be removed
+    * are visited again by the next invocation.
+    * @param currentTimeMillis the current wall clock time in milliseconds
+    * @param lookup returns the current entry for a key without touching it, or null if there is none
+    * @return the entries that may be expired
+    */
+   public <V> Iterator<InternalCacheEntry<K, V>> expirationCandidates(long currentTimeMillis,
+         Function<? super K, InternalCacheEntry<K, V>> lookup) {
+      // Include the bucket the current time falls in, entries expiring in there that aren't due yet are added back
+      // and visited again by the next invocation
+      // Remove the buckets up front so that added back keys are not visited again by this invocation
+      List<Set<K>> dueKeys = new ArrayList<>();
+      for (Long due : bucketOrder.headSet(bucketFor(currentTimeMillis), true)) {
+         buckets.computeIfPresent(due, (bucket, keys) -> {
+            dueKeys.add(keys);
+            bucketOrder.remove(bucket);
+            return null;
+         });
+      }
+      return dueKeys.stream()
+            .flatMap(Set::stream)
+            .map(lookup)
+            .filter(Objects::nonNull)
+            .peek(ice -> {
+               if (ice.canExpire()) {
+                  add(ice.getKey(), ice.getExpiryTime());
+               }
+            })
+            .iterator();
+   }
+
+   private long bucketFor(long time) {
+      // Round up so that a bucket is only due once all of its entries are
+      return (time + resolution - 1) / resolution;
+   }
+
+   /**
+    * Returns how many keys are currently indexed, which may include keys that no longer have an entry
+    * @return the number of indexed keys
+    */
+   public long size() {
+      return buckets.values().stream().mapToLong(Set::size).sum();
+   }
+
+   public void clear() {
+      for (Long bucket : bucketOrder) {
+         buckets.computeIfPresent(bucket, (b, keys) -> {
+            bucketOrder.remove(b);
+            return null;
+         });
+      }
+   }
+}
@@ -0,0 +1,48 @@
+package org.infinispan.container;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * A {@link DataContainer} that keeps the entries of each segment apart, so that iterating or counting the entries of
+ * some segments only costs as much as the entries of these segments, instead of the whole container.
+ * <p>
+ * Segments are the ones of the {@link org.infinispan.distribution.ch.KeyPartitioner} of the cache.
+ * @since 9.0
+ */
+public interface SegmentedDataContainer<K, V> extends DataContainer<K, V> {
+   /**
+    * Same as {@link #iterator()} but only returns the entries of the given segments
+    * @param segments the segments to iterate over
+    * @return iterator that returns the entries of the segments that have not expired
+    */
+   Iterator<InternalCacheEntry<K, V>> iterator(Set<Integer> segments);
+
+   /**
+    * Same as {@link #iteratorIncludingExpired()} but only returns the entries of the given segments
+    * @param segments the segments to iterate over
+    * @return iterator that returns all the entries of the segments, including the expired ones
+    */
+   Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired(Set<Integer> segments);
+
+   /**
+    * Spliterator over the entries returned by {@link #iterator(Set)}
+    * @param segments the segments to iterate over
+    * @return spliterator that returns the entries of the segments that have not expired
+    */
+   default Spliterator<InternalCacheEntry<K, V>> spliterator(Set<Integer> segments) {
+      return Spliterators.spliteratorUnknownSize(iterator(segments),
+            Spliterator.CONCURRENT | Spliterator.NONNULL | Spliterator.DISTINCT);
+   }
+
+   /**
+    * Same as {@link #sizeIncludingExpired()} but only counts the entries of the given segments
+    * @param segments the segments to count
+    * @return how many entries the segments contain, including the expired ones
+    */
+   int sizeIncludingExpired(Set<Integer> segments);
+}
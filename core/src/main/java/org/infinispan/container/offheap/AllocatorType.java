@@ -0,0 +1,16 @@
+package org.infinispan.container.offheap;
+
+/**
+ * Enumeration defining the various ways native memory can be allocated for an off-heap data container
+ * @since 9.0
+ */
+public enum AllocatorType {
+   /**
+    * Every entry is allocated and freed directly with the underlying system allocator
+    */
+   UNPOOLED,
+   /**
+    * Entries are carved out of larger slabs grouped by size class and freed blocks are reused
+    */
+   POOLED
+}
@@ -0,0 +1,224 @@
+package org.infinispan.container.offheap;
+
+import java.util.Collections;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Data container that stores entries off-heap and evicts the least recently used entries once the configured bound
+ * is exceeded.  The eviction order is kept in a doubly linked list threaded through the entries themselves, see
+ * {@link OffHeapLruNode}, so no additional memory is required per entry on the heap.
+ * <p>
+ * When the eviction type is {@link EvictionType#COUNT} the bound is the number of entries, otherwise it is the
+ * amount of off-heap memory reported by the {@link OffHeapMemoryAllocator} of this cache.
+ * <p>
+ * The lru lock is always acquired after a key's lock, therefore eviction reads the least recently used key while
+ * only holding the lru lock and then releases it before acquiring the lock for that key.
+ * <p>
+ * Reads never wait for the lru lock: an entry that is already the most recently used one is left in place, and the
+ * move is skipped when another thread holds the lock.  Under contention the order is therefore only approximately
+ * least recently used, which is enough to pick entries to evict and keeps reads from being serialized.
+ * @since 9.0
+ */
+public class BoundedOffHeapDataContainer extends OffHeapDataContainer {
+   private static final Log log = LogFactory.getLog(BoundedOffHeapDataContainer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final EvictionType evictionType;
+   private final Lock lruLock = new ReentrantLock();
+   private volatile long maxSize;
+   private EvictionManager evictionManager;
+
+   // Least recently used entry, first to be evicted - guarded by lruLock
+   private long firstAddress;
+   // Most recently used entry - written while holding lruLock, volatile so reads can skip the lock for it
+   private volatile long lastAddress;
+
+   public BoundedOffHeapDataContainer(int desiredSize, long maxSize, EvictionType evictionType) {
+      super(desiredSize);
+      this.maxSize = maxSize;
+      this.evictionType = evictionType;
+   }
+
+   @Inject
+   public void injectEvictionManager(EvictionManager evictionManager) {
+      this.evictionManager = evictionManager;
+   }
+
+   @Override
+   public void put(WrappedBytes key, WrappedBytes value, Metadata metadata) {
+      super.put(key, value, metadata);
+      ensureSize();
+   }
+
+   @Override
+   public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(WrappedBytes key,
+         ComputeAction<WrappedBytes, WrappedBytes> action) {
+      InternalCacheEntry<WrappedBytes, WrappedBytes> result = super.compute(key, action);
+      if (result != null) {
+         ensureSize();
+      }
+      return result;
+   }
+
+   @Override
+   public void clear() {
+      // The lru lock has to be held while entries are deallocated, as eviction reads them with only that lock
+      locks.lockAll();
+      try {
+         lruLock.lock();
+         try {
+            super.clear();
+         } finally {
+            lruLock.unlock();
+         }
+      } finally {
+         locks.unlockAll();
+      }
+   }
+
+   @Override
+   public long capacity() {
+      return maxSize;
+   }
+
+   @Override
+   public void resize(long newSize) {
+      maxSize = newSize;
+      ensureSize();
+   }
+
+   private long currentSize() {
+      if (evictionType == EvictionType.COUNT) {
+         return size.get();
+      }
+      return allocator.getAllocatedAmount();
+   }
+
+   /**
+    * Evicts the least recently used entries until the container is within its bound.  Must not be invoked while
+    * holding any of the key locks.
+    */
+   private void ensureSize() {
+      while (currentSize() > maxSize) {
+         long addressToEvict;
+         WrappedBytes key;
+         lruLock.lock();
+         try {
+            if (currentSize() <= maxSize || firstAddress == 0) {
+               return;
+            }
+            addressToEvict = firstAddress;
+            key = offHeapEntryFactory.fromMemory(addressToEvict).getKey();
+         } finally {
+            lruLock.unlock();
+         }
+         InternalCacheEntry<WrappedBytes, WrappedBytes> evicted;
+         Lock lock = locks.getLock(key).writeLock();
+         lock.lock();
+         try {
+            checkDeallocation();
+            // The entry may have been updated or removed while we weren't holding the lock, in which case we retry
+            evicted = performRemove(key, addressToEvict);
+            if (evicted != null) {
+               passivator.passivate(evicted);
+            }
+         } finally {
+            lock.unlock();
+         }
+         if (evicted != null) {
+            if (trace) {
+               log.tracef("Evicted entry with key %s", key);
+            }
+            evictionManager.onEntryEviction(Collections.singletonMap(key, evicted));
+         }
+      }
+   }
+
+   @Override
+   protected void entryCreated(long newAddress) {
+      lruLock.lock();
+      try {
+         addLast(newAddress);
+      } finally {
+         lruLock.unlock();
+      }
+   }
+
+   @Override
+   protected void entryReplaced(long newAddress, long oldAddress) {
+      lruLock.lock();
+      try {
+         unlink(oldAddress);
+         addLast(newAddress);
+      } finally {
+         lruLock.unlock();
+      }
+   }
+
+   @Override
+   protected void entryRemoved(long removedAddress) {
+      lruLock.lock();
+      try {
+         unlink(removedAddress);
+      } finally {
+         lruLock.unlock();
+      }
+   }
+
+   @Override
+   protected void entryRetrieved(long entryAddress) {
+      if (entryAddress == lastAddress || !lruLock.tryLock()) {
+         return;
+      }
+      try {
+         if (entryAddress != lastAddress) {
+            unlink(entryAddress);
+            addLast(entryAddress);
+         }
+      } finally {
+         lruLock.unlock();
+      }
+   }
+
+   @Override
+   protected void entriesCleared() {
+      firstAddress = 0;
+      lastAddress = 0;
+   }
+
+   private void addLast(long entryAddress) {
+      OffHeapLruNode.setNext(entryAddress, 0);
+      OffHeapLruNode.setPrevious(entryAddress, lastAddress);
+      if (lastAddress == 0) {
+         firstAddress = entryAddress;
+      } else {
+         OffHeapLruNode.setNext(lastAddress, entryAddress);
+      }
+      lastAddress = entryAddress;
+   }
+
+   private void unlink(long entryAddress) {
+      long previous = OffHeapLruNode.getPrevious(entryAddress);
+      long next = OffHeapLruNode.getNext(entryAddress);
+      if (previous == 0) {
+         firstAddress = next;
+      } else {
+         OffHeapLruNode.setNext(previous, next);
+      }
+      if (next == 0) {
+         lastAddress = previous;
+      } else {
+         OffHeapLruNode.setPrevious(next, previous);
+      }
+   }
+}
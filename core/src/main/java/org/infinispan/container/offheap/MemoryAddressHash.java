@@ -1,12 +1,19 @@
 package org.infinispan.container.offheap;
 
-import java.util.Arrays;
+import java.util.function.LongToIntFunction;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 
 import sun.misc.Unsafe;
 
 /**
+ * Hash table of memory addresses split into segments.  The segment for an instance is chosen by the lowest bits of
+ * its hash, the same way {@link StripedLock} chooses a lock, therefore when there is one segment per lock every
+ * segment is guarded by exactly one lock.  Each segment grows on its own by doubling its pointers once it holds more
+ * entries than its load factor allows, so a resize only requires the write lock of the segment being resized.
+ * <p>
+ * Entries are expected to be chained through the first 8 bytes of their memory, which hold the address of the next
+ * entry in the same pointer or 0.
  * @author wburns
  * @since 9.0
  */
@@ -14,39 +21,116 @@ public class MemoryAddressHash {
    private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
    private static final int MAXIMUM_CAPACITY = 1 << 30;
    private static final int HASH_BITS = 0x7fffffff; // usable bits of normal node hash
+   private static final float LOAD_FACTOR = 0.75f;
 
-   private final long memory;
-   private final int pointerCount;
+   private final Segment[] segments;
+   private final int segmentMask;
+   private final int segmentShift;
+   private final int maxSegmentPointers;
 
    public MemoryAddressHash(int pointers) {
-      this.pointerCount = nextPowerOfTwo(pointers);
-      long bytes = ((long) pointerCount) << 3;
-      memory = UNSAFE.allocateMemory(bytes);
-      // Have to clear out bytes to make sure no bad stuff was read in
-      UNSAFE.setMemory(memory, bytes, (byte) 0);
+      this(pointers, 1);
    }
 
-   private int findOffset(Object instance) {
-      int h = spread(instance.hashCode());
-      int pointerMask = pointerCount - 1;
-      return h & pointerMask;
+   /**
+    * @param pointers how many pointers there are initially in total, which is rounded to the next power of two
+    * @param segmentCount how many segments the pointers are split into, which is rounded to the next power of two
+    */
+   public MemoryAddressHash(int pointers, int segmentCount) {
+      segmentCount = nextPowerOfTwo(segmentCount);
+      int pointerCount = Math.max(nextPowerOfTwo(pointers), segmentCount);
+      segments = new Segment[segmentCount];
+      segmentMask = segmentCount - 1;
+      segmentShift = Integer.numberOfTrailingZeros(segmentCount);
+      maxSegmentPointers = MAXIMUM_CAPACITY / segmentCount;
+      for (int i = 0; i < segmentCount; ++i) {
+         segments[i] = new Segment(pointerCount / segmentCount);
+      }
+   }
+
+   private Segment segmentFor(int h) {
+      return segments[h & segmentMask];
+   }
+
+   private int findOffset(Segment segment, int h) {
+      return (h >>> segmentShift) & (segment.pointerCount - 1);
    }
 
    public void putMemoryAddress(Object instance, long address) {
-      int offset = findOffset(instance);
-      UNSAFE.putLong(memory + (((long) offset) << 3), address);
+      int h = spread(instance.hashCode());
+      Segment segment = segmentFor(h);
+      UNSAFE.putLong(segment.memory + (((long) findOffset(segment, h)) << 3), address);
    }
 
    public long getMemoryAddress(Object instance) {
-      return UNSAFE.getLong(memory + (findOffset(instance) << 3));
+      int h = spread(instance.hashCode());
+      Segment segment = segmentFor(h);
+      return UNSAFE.getLong(segment.memory + (((long) findOffset(segment, h)) << 3));
+   }
+
+   /**
+    * Returns how many segments there are
+    * @return the segment count
+    */
+   public int getSegmentCount() {
+      return segments.length;
    }
 
-   public long getMemoryAddressOffset(int offset) {
-      return UNSAFE.getLong(memory + (((long) offset) << 3));
+   /**
+    * Returns how many pointers the given segment currently has.  The lock guarding the segment must be held.
+    * @param segment the segment
+    * @return the pointer count, always a power of two
+    */
+   public int getPointerCount(int segment) {
+      return segments[segment].pointerCount;
+   }
+
+   /**
+    * Returns the address stored in the pointer at the given offset of a segment.  The lock guarding the segment must
+    * be held.
+    * @param segment the segment
+    * @param offset the offset of the pointer in the segment
+    * @return the address or 0 if there is none
+    */
+   public long getMemoryAddressOffset(int segment, int offset) {
+      return UNSAFE.getLong(segments[segment].memory + (((long) offset) << 3));
+   }
+
+   /**
+    * Notifies that a new entry was stored for the given instance, which may cause its segment to grow.  The write
+    * lock guarding the segment must be held.
+    * @param instance the key of the entry added
+    * @param hashFunction returns the hash code of the key for an entry address, used to move entries when growing
+    */
+   public void entryAdded(Object instance, LongToIntFunction hashFunction) {
+      Segment segment = segmentFor(spread(instance.hashCode()));
+      if (++segment.entryCount > segment.threshold && segment.pointerCount < maxSegmentPointers) {
+         segment.grow(hashFunction);
+      }
+   }
+
+   /**
+    * Notifies that an entry was removed for the given instance.  The write lock guarding the segment must be held.
+    * @param instance the key of the entry removed
+    */
+   public void entryRemoved(Object instance) {
+      segmentFor(spread(instance.hashCode())).entryCount--;
+   }
+
+   /**
+    * Returns how many entries were added to the given segment and not yet removed.  The lock guarding the segment
+    * must be held.
+    * @param segment the segment
+    * @return the entry count
+    */
+   public int getEntryCount(int segment) {
+      return segments[segment].entryCount;
    }
 
    public void deallocate() {
-      UNSAFE.freeMemory(memory);
+      for (Segment segment : segments) {
+         UNSAFE.freeMemory(segment.memory);
+      }
    }
 
    /**
@@ -54,21 +138,69 @@ public void deallocate() {
     * @return stream of the various memory locations
     */
    public LongStream toStream() {
-      return LongStream.iterate(memory, l -> l + 8)
-            .limit(pointerCount)
-            .map(UNSAFE::getLong)
-            .filter(l -> l != 0);
+      return IntStream.range(0, segments.length).mapToObj(i -> segments[i]).flatMapToLong(segment ->
+            LongStream.iterate(segment.memory, l -> l + 8)
+                  .limit(segment.pointerCount)
+                  .map(UNSAFE::getLong)
+                  .filter(l -> l != 0));
    }
 
    /**
-    * Same as {@link MemoryAddressHash#toStream()} except that the memory addresses are also cleared out (set to 0)
+    * Same as {@link MemoryAddressHash#toStream()} except that the memory addresses are also cleared out (set to 0).
+    * All of the write locks must be held.
     * @return stream with the valid memory pointers to stored values
     */
    public LongStream toStreamRemoved() {
-      return LongStream.iterate(memory, l -> l + 8)
-            .limit(pointerCount)
-            .map(l -> UNSAFE.getAndSetLong(null, l, 0))
-            .filter(l -> l != 0);
+      return IntStream.range(0, segments.length).mapToObj(i -> segments[i]).flatMapToLong(segment -> {
+         segment.entryCount = 0;
+         return LongStream.iterate(segment.memory, l -> l + 8)
+               .limit(segment.pointerCount)
+               .map(l -> UNSAFE.getAndSetLong(null, l, 0))
+               .filter(l -> l != 0);
+      });
+   }
+
+   private final class Segment {
+      long memory;
+      int pointerCount;
+      int entryCount;
+      int threshold;
+
+      Segment(int pointerCount) {
+         this.memory = allocatePointers(pointerCount);
+         this.pointerCount = pointerCount;
+         this.threshold = (int) (pointerCount * LOAD_FACTOR);
+      }
+
+      void grow(LongToIntFunction hashFunction) {
+         int newPointerCount = pointerCount << 1;
+         long newMemory = allocatePointers(newPointerCount);
+         int newMask = newPointerCount - 1;
+         for (int i = 0; i < pointerCount; ++i) {
+            long address = UNSAFE.getLong(memory + (((long) i) << 3));
+            while (address != 0) {
+               long nextAddress = UNSAFE.getLong(address);
+               int offset = (spread(hashFunction.applyAsInt(address)) >>> segmentShift) & newMask;
+               long pointer = newMemory + (((long) offset) << 3);
+               // Entries are pushed at the front of the new chains, order within a chain doesn't matter
+               UNSAFE.putLong(address, UNSAFE.getLong(pointer));
+               UNSAFE.putLong(pointer, address);
+               address = nextAddress;
+            }
+         }
+         UNSAFE.freeMemory(memory);
+         memory = newMemory;
+         pointerCount = newPointerCount;
+         threshold = (int) (newPointerCount * LOAD_FACTOR);
+      }
+   }
+
+   private static long allocatePointers(int pointerCount) {
+      long bytes = ((long) pointerCount) << 3;
+      long memory = UNSAFE.allocateMemory(bytes);
+      // Have to clear out bytes to make sure no bad stuff was read in
+      UNSAFE.setMemory(memory, bytes, (byte) 0);
+      return memory;
    }
 
    private static final int nextPowerOfTwo(int c) {
@@ -12,13 +12,13 @@
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
-import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.WrappedBytes;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.ExpirationIndex;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.eviction.PassivationManager;
@@ -26,6 +26,10 @@
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.filter.KeyValueFilter;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
@@ -37,21 +41,23 @@
  * @author wburns
  * @since 9.0
  */
+@MBean(objectName = "OffHeapDataContainer", description = "Data container storing entries in off-heap memory")
 public class OffHeapDataContainer implements DataContainer<WrappedBytes, WrappedBytes> {
    private static final Log log = LogFactory.getLog(OffHeapDataContainer.class);
    private static final boolean trace = log.isTraceEnabled();
    private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
 
-   private final AtomicLong size = new AtomicLong();
+   protected final AtomicLong size = new AtomicLong();
    private final int lockCount;
-   private final int memoryAddressCount;
-   private final StripedLock locks;
+   protected final StripedLock locks;
    private final MemoryAddressHash memoryLookup;
-   private OffHeapMemoryAllocator allocator;
-   private OffHeapEntryFactory offHeapEntryFactory;
+   // Keys of entries that can expire, so the expiration reaper doesn't have to read every entry
+   private final ExpirationIndex<WrappedBytes> expirationIndex = new ExpirationIndex<>();
+   protected OffHeapMemoryAllocator allocator;
+   protected OffHeapEntryFactory offHeapEntryFactory;
    private InternalEntryFactory internalEntryFactory;
    private TimeService timeService;
-   private PassivationManager passivator;
+   protected PassivationManager passivator;
    // Variable to make sure memory locations aren't read after being deallocated
    // This variable should always be read first after acquiring either the read or write lock
    private boolean dellocated = false;
@@ -75,9 +81,8 @@ public OffHeapDataContainer(int desiredSize) {
       while (memoryAddresses < desiredSize) {
          memoryAddresses <<= 1;
       }
-      memoryAddressCount = memoryAddresses;
-      memoryLookup = new MemoryAddressHash(memoryAddressCount);
-      // Unfortunately desired size directly correlates to lock size
+      // There is a segment per lock, which allows each segment to be resized while only holding its write lock
+      memoryLookup = new MemoryAddressHash(memoryAddresses, lockCount);
       locks = new StripedLock(lockCount);
    }
 
@@ -92,9 +97,10 @@ public void inject(PassivationManager passivator, OffHeapEntryFactory offHeapEnt
    }
 
    /**
-    * Clears the memory lookups and cache data.
+    * Clears the memory lookups and cache data.  This must happen before the allocator is stopped as entries are
+    * read while they are deallocated.
     */
-   @Stop(priority = Integer.MAX_VALUE)
+   @Stop(priority = Integer.MAX_VALUE - 1)
    public void deallocate() {
       locks.lockAll();
       try {
@@ -117,7 +123,7 @@ static WrappedByteArray toWrapper(Object obj) {
       throw new IllegalArgumentException("Require WrappedByteArray: got " + obj.getClass());
    }
 
-   private void checkDeallocation() {
+   protected void checkDeallocation() {
       if (dellocated) {
          throw new IllegalStateException("Container was already shut down!");
       }
@@ -125,6 +131,10 @@ private void checkDeallocation() {
 
    @Override
    public InternalCacheEntry<WrappedBytes, WrappedBytes> get(Object k) {
+      return getEntry(k, true);
+   }
+
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> getEntry(Object k, boolean retrieved) {
       Lock lock = locks.getLock(k).readLock();
       lock.lock();
       try {
@@ -137,10 +147,12 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> get(Object k) {
          WrappedBytes wrappedKey = toWrapper(k);
          while (address != 0) {
             long nextAddress = UNSAFE.getLong(address);
-            long realAddress = address + 8;
 
-            InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(realAddress);
+            InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(address);
             if (wrappedKey.equalsWrappedBytes(ice.getKey())) {
+               if (retrieved) {
+                  entryRetrieved(address);
+               }
                return ice;
             } else {
                address = nextAddress;
@@ -154,7 +166,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> get(Object k) {
 
    @Override
    public InternalCacheEntry<WrappedBytes, WrappedBytes> peek(Object k) {
-      return get(k);
+      return getEntry(k, false);
    }
 
    @Override
@@ -163,62 +175,90 @@ public void put(WrappedBytes key, WrappedBytes value, Metadata metadata) {
       lock.lock();
       try {
          checkDeallocation();
-         long newAddress = offHeapEntryFactory.create(key, value, metadata);
+         performPut(key, value, metadata);
+      } finally {
+         lock.unlock();
+      }
+   }
 
-         long address = memoryLookup.getMemoryAddress(key);
-         boolean shouldCreate = false;
-         // Have to start new linked node list
-         if (address == 0) {
-            memoryLookup.putMemoryAddress(key, newAddress);
-         } else {
-            // Whether the key was found or not - short circuit equality checks
-            boolean foundKey = false;
-            // Holds the previous linked list address
-            long prevAddress = 0;
-            // Keep looping until we get the tail end - we always append the put to the end
-            while (address != 0) {
-               long nextAddress = UNSAFE.getLong(address);
-               long realAddress = address + 8;
-               if (!foundKey) {
-                  if (offHeapEntryFactory.equalsKey(realAddress, key)) {
-                     allocator.deallocate(address);
-                     foundKey = true;
-                     // If this is true it means this was the first node in the linked list
-                     if (prevAddress == 0) {
-                        if (nextAddress == 0) {
-                           // This branch is the case where our key is the only one in the linked list
-                           shouldCreate = true;
-                        } else {
-                           // This branch is the case where our key is the first with another after
-                           memoryLookup.putMemoryAddress(key, nextAddress);
-                        }
+   /**
+    * Stores the entry, the write lock for the key must be held by the caller
+    */
+   private void performPut(WrappedBytes key, WrappedBytes value, Metadata metadata) {
+      long newAddress = offHeapEntryFactory.create(key, value, metadata);
+      indexExpiration(key, metadata);
+
+      long address = memoryLookup.getMemoryAddress(key);
+      boolean shouldCreate = false;
+      // Have to start new linked node list
+      if (address == 0) {
+         memoryLookup.putMemoryAddress(key, newAddress);
+         newEntryLinked(key, newAddress);
+      } else {
+         // Whether the key was found or not - short circuit equality checks
+         boolean foundKey = false;
+         // Holds the previous linked list address
+         long prevAddress = 0;
+         // Keep looping until we get the tail end - we always append the put to the end
+         while (address != 0) {
+            long nextAddress = UNSAFE.getLong(address);
+            if (!foundKey) {
+               if (offHeapEntryFactory.equalsKey(address, key)) {
+                  entryReplaced(newAddress, address);
+                  allocator.deallocate(address);
+                  foundKey = true;
+                  // If this is true it means this was the first node in the linked list
+                  if (prevAddress == 0) {
+                     if (nextAddress == 0) {
+                        // This branch is the case where our key is the only one in the linked list
+                        shouldCreate = true;
                      } else {
-                        // This branch means our node was not the first, so we have to update the address before ours
-                        // to the one we previously referenced
-                        UNSAFE.putLong(prevAddress, nextAddress);
-                        // We purposely don't update prevAddress, because we have to keep it as the current pointer
-                        // since we removed ours
-                        address = nextAddress;
-                        continue;
+                        // This branch is the case where our key is the first with another after
+                        memoryLookup.putMemoryAddress(key, nextAddress);
                      }
+                  } else {
+                     // This branch means our node was not the first, so we have to update the address before ours
+                     // to the one we previously referenced
+                     UNSAFE.putLong(prevAddress, nextAddress);
+                     // We purposely don't update prevAddress, because we have to keep it as the current pointer
+                     // since we removed ours
+                     address = nextAddress;
+                     continue;
                   }
                }
-               prevAddress = address;
-               address = nextAddress;
-            }
-            if (!foundKey) {
-               size.incrementAndGet();
-            }
-            if (shouldCreate) {
-               memoryLookup.putMemoryAddress(key, newAddress);
-            } else {
-               // Now prevAddress should be the last link so we fix our link
-               UNSAFE.putLong(prevAddress, newAddress);
             }
+            prevAddress = address;
+            address = nextAddress;
          }
-      } finally {
-         lock.unlock();
+         if (shouldCreate) {
+            memoryLookup.putMemoryAddress(key, newAddress);
+         } else {
+            // Now prevAddress should be the last link so we fix our link
+            UNSAFE.putLong(prevAddress, newAddress);
+         }
+         if (!foundKey) {
+            newEntryLinked(key, newAddress);
+         }
+      }
+   }
+
+   private void indexExpiration(WrappedBytes key, Metadata metadata) {
+      long lifespan = metadata.lifespan();
+      long maxIdle = metadata.maxIdle();
+      if (lifespan < 0 && maxIdle < 0) {
+         return;
       }
+      // The entry was just created, so it expires after the shortest of both from now.  This doesn't need to be
+      // exact as the reaper reads the entry and adds it again if it expires later.
+      long expiresIn = lifespan < 0 ? maxIdle : maxIdle < 0 ? lifespan : Math.min(lifespan, maxIdle);
+      expirationIndex.add(key, timeService.wallClockTime() + expiresIn);
+   }
+
+   private void newEntryLinked(WrappedBytes key, long newAddress) {
+      size.incrementAndGet();
+      entryCreated(newAddress);
+      // This may grow the segment, so it must be done after the entry is linked
+      memoryLookup.entryAdded(key, offHeapEntryFactory::getHashCode);
    }
 
    @Override
@@ -235,8 +275,7 @@ public boolean containsKey(Object k) {
 
          while (address != 0) {
             long nextAddress = UNSAFE.getLong(address);
-            long realAddress = address + 8;
-            if (offHeapEntryFactory.equalsKey(realAddress, wba)) {
+            if (offHeapEntryFactory.equalsKey(address, wba)) {
                return true;
             }
             address = nextAddress;
@@ -253,36 +292,53 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> remove(Object key) {
       lock.lock();
       try {
          checkDeallocation();
-         long address = memoryLookup.getMemoryAddress(key);
-         if (address == 0) {
-            return null;
-         }
-         WrappedByteArray wba = toWrapper(key);
-         long prevAddress = 0;
+         return performRemove(key, 0);
+      } finally {
+         lock.unlock();
+      }
+   }
 
-         while (address != 0) {
-            long nextAddress = UNSAFE.getLong(address);
-            long realAddress = address + 8;
+   /**
+    * Removes the entry for the given key, the write lock for the key must be held by the caller
+    * @param key the key to remove
+    * @param requiredAddress if not 0 the entry is only removed if it is still stored at this address
+    * @return the removed entry or null if none was removed
+    */
+   protected InternalCacheEntry<WrappedBytes, WrappedBytes> performRemove(Object key, long requiredAddress) {
+      long address = memoryLookup.getMemoryAddress(key);
+      if (address == 0) {
+         return null;
+      }
+      WrappedByteArray wba = toWrapper(key);
+      long prevAddress = 0;
 
-            InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(realAddress);
-            if (ice.getKey().equals(wba)) {
-               // Free the node
-               allocator.deallocate(address);
-               if (prevAddress != 0) {
-                  UNSAFE.putLong(prevAddress, nextAddress);
-               } else {
-                  memoryLookup.putMemoryAddress(key, nextAddress);
-               }
-               size.decrementAndGet();
-               return ice;
+      while (address != 0) {
+         long nextAddress = UNSAFE.getLong(address);
+
+         if (offHeapEntryFactory.equalsKey(address, wba)) {
+            if (requiredAddress != 0 && requiredAddress != address) {
+               return null;
             }
-            prevAddress = address;
-            address = nextAddress;
+            InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(address);
+            entryRemoved(address);
+            // Free the node
+            allocator.deallocate(address);
+            if (prevAddress != 0) {
+               UNSAFE.putLong(prevAddress, nextAddress);
+            } else {
+               memoryLookup.putMemoryAddress(key, nextAddress);
+            }
+            size.decrementAndGet();
+            memoryLookup.entryRemoved(key);
+            if (ice.canExpire()) {
+               expirationIndex.remove(wba, ice.getExpiryTime());
+            }
+            return ice;
          }
-         return null;
-      } finally {
-         lock.unlock();
+         prevAddress = address;
+         address = nextAddress;
       }
+      return null;
    }
 
    @Override
@@ -317,11 +373,50 @@ public void clear() {
             }
          });
          size.set(0);
+         expirationIndex.clear();
+         entriesCleared();
       } finally {
          locks.unlockAll();
       }
    }
 
+   /**
+    * Invoked when a new entry was stored while holding the write lock for its key
+    * @param newAddress the address of the new entry
+    */
+   protected void entryCreated(long newAddress) {
+   }
+
+   /**
+    * Invoked when an entry replaces an existing one while holding the write lock for its key.  The old entry is
+    * deallocated right after this returns.
+    * @param newAddress the address of the new entry
+    * @param oldAddress the address of the entry being replaced
+    */
+   protected void entryReplaced(long newAddress, long oldAddress) {
+   }
+
+   /**
+    * Invoked when an entry is removed while holding the write lock for its key.  The entry is deallocated right
+    * after this returns.
+    * @param removedAddress the address of the removed entry
+    */
+   protected void entryRemoved(long removedAddress) {
+   }
+
+   /**
+    * Invoked when an entry is read by {@link #get(Object)} while holding the read lock for its key.
+    * @param entryAddress the address of the entry read
+    */
+   protected void entryRetrieved(long entryAddress) {
+   }
+
+   /**
+    * Invoked when all entries have been removed while holding all the write locks
+    */
+   protected void entriesCleared() {
+   }
+
    class ValueCollection extends AbstractCollection<WrappedBytes> {
 
       @Override
@@ -422,8 +517,11 @@ public void evict(WrappedBytes key) {
       try {
          checkDeallocation();
          // TODO: this could be more efficient
-         passivator.passivate(get(key));
-         remove(key);
+         InternalCacheEntry<WrappedBytes, WrappedBytes> ice = peek(key);
+         if (ice != null) {
+            passivator.passivate(ice);
+            performRemove(key, 0);
+         }
       } finally {
          lock.unlock();
       }
@@ -438,11 +536,14 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(WrappedBytes key,
          checkDeallocation();
          InternalCacheEntry<WrappedBytes, WrappedBytes> prev = get(key);
          InternalCacheEntry<WrappedBytes, WrappedBytes> result = action.compute(key, prev, internalEntryFactory);
-         if (result != null) {
+         if (result == prev) {
+            // Nothing changed, rewriting the entry would reset its created and last used times
+            return result;
+         } else if (result != null) {
             // Could be more efficient
-            put(result.getKey(), result.getValue(), result.getMetadata());
+            performPut(result.getKey(), result.getValue(), result.getMetadata());
          } else {
-            remove(key);
+            performRemove(key, 0);
          }
          return result;
       } finally {
@@ -456,12 +557,12 @@ private void executeTask(Consumer<InternalCacheEntry<WrappedBytes, WrappedBytes>
          lock.lock();
          try {
             checkDeallocation();
-            for (int j = i; j < memoryAddressCount; j += lockCount) {
-               long address = memoryLookup.getMemoryAddressOffset(j);
+            int pointerCount = memoryLookup.getPointerCount(i);
+            for (int j = 0; j < pointerCount; ++j) {
+               long address = memoryLookup.getMemoryAddressOffset(i, j);
                while (address != 0) {
                   long nextAddress = UNSAFE.getLong(address);
-                  long realAddress = address + 8;
-                  InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(realAddress);
+                  InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(address);
                   consumer.accept(ice);
                   address = nextAddress;
                }
@@ -492,34 +593,47 @@ public void executeTask(KeyValueFilter<? super WrappedBytes, ? super WrappedByte
       });
    }
 
+   private int readPointerCount(int segment) {
+      Lock lock = locks.getLockWithOffset(segment).readLock();
+      lock.lock();
+      try {
+         checkDeallocation();
+         return memoryLookup.getPointerCount(segment);
+      } finally {
+         lock.unlock();
+      }
+   }
+
    private Stream<InternalCacheEntry<WrappedBytes, WrappedBytes>> entryStream() {
-      int limit = memoryAddressCount / lockCount;
       return IntStream.range(0, lockCount)
             // REALLY REALLY stupid there is no flatMapToObj on IntStream...
             .boxed()
             .flatMap(l -> {
                int value = l;
-               return LongStream.iterate(value, i -> i + lockCount).limit(limit)
+               // The segment may grow while iterating, which splits a pointer at offset i into the ones at
+               // offset i + n * initialCount.  Visiting all of those together means no entry is seen twice.
+               int initialCount = readPointerCount(value);
+               return IntStream.range(0, initialCount)
                      .boxed()
                      .flatMap(a -> {
                      Lock lock = locks.getLockWithOffset(value).readLock();
                      lock.lock();
                      try {
                         checkDeallocation();
-                        long address = memoryLookup.getMemoryAddressOffset(a.intValue());
-                        if (address == 0) {
-                           return Stream.empty();
-                        }
-                        Stream.Builder<InternalCacheEntry<WrappedBytes, WrappedBytes>> builder = Stream.builder();
-                        while (address != 0) {
-                           long nextAddress;
-                           do {
-                              nextAddress = UNSAFE.getLong(address);
-                              long realAddress = address + 8;
-                              builder.accept(offHeapEntryFactory.fromMemory(realAddress));
-                           } while ((address = nextAddress) != 0);
+                        int pointerCount = memoryLookup.getPointerCount(value);
+                        Stream.Builder<InternalCacheEntry<WrappedBytes, WrappedBytes>> builder = null;
+                        for (int offset = a; offset < pointerCount; offset += initialCount) {
+                           long address = memoryLookup.getMemoryAddressOffset(value, offset);
+                           while (address != 0) {
+                              if (builder == null) {
+                                 builder = Stream.builder();
+                              }
+                              long nextAddress = UNSAFE.getLong(address);
+                              builder.accept(offHeapEntryFactory.fromMemory(address));
+                              address = nextAddress;
+                           }
                         }
-                        return builder.build();
+                        return builder == null ? Stream.empty() : builder.build();
                      } finally {
                         lock.unlock();
                      }
@@ -527,6 +641,71 @@ private Stream<InternalCacheEntry<WrappedBytes, WrappedBytes>> entryStream() {
             });
    }
 
+   @ManagedAttribute(
+         description = "Number of address pointers, which grows as entries are added",
+         displayName = "Address count",
+         measurementType = MeasurementType.DYNAMIC,
+         displayType = DisplayType.DETAIL
+   )
+   public long getAddressCount() {
+      long addressCount = 0;
+      for (int i = 0; i < lockCount; ++i) {
+         addressCount += readPointerCount(i);
+      }
+      return addressCount;
+   }
+
+   @ManagedAttribute(
+         description = "Number of entries compared to the number of address pointers",
+         displayName = "Address load factor",
+         measurementType = MeasurementType.DYNAMIC,
+         displayType = DisplayType.DETAIL
+   )
+   public double getLoadFactor() {
+      long addressCount = 0;
+      long entryCount = 0;
+      for (int i = 0; i < lockCount; ++i) {
+         Lock lock = locks.getLockWithOffset(i).readLock();
+         lock.lock();
+         try {
+            checkDeallocation();
+            addressCount += memoryLookup.getPointerCount(i);
+            entryCount += memoryLookup.getEntryCount(i);
+         } finally {
+            lock.unlock();
+         }
+      }
+      return addressCount == 0 ? 0 : (double) entryCount / addressCount;
+   }
+
+   @ManagedAttribute(
+         description = "Average number of entries linked from each address pointer that has at least one entry",
+         displayName = "Average address chain length",
+         measurementType = MeasurementType.DYNAMIC,
+         displayType = DisplayType.DETAIL
+   )
+   public double getAverageChainLength() {
+      long usedAddresses = 0;
+      long entryCount = 0;
+      for (int i = 0; i < lockCount; ++i) {
+         Lock lock = locks.getLockWithOffset(i).readLock();
+         lock.lock();
+         try {
+            checkDeallocation();
+            int pointerCount = memoryLookup.getPointerCount(i);
+            for (int j = 0; j < pointerCount; ++j) {
+               if (memoryLookup.getMemoryAddressOffset(i, j) != 0) {
+                  usedAddresses++;
+               }
+            }
+            entryCount += memoryLookup.getEntryCount(i);
+         } finally {
+            lock.unlock();
+         }
+      }
+      return usedAddresses == 0 ? 0 : (double) entryCount / usedAddresses;
+   }
+
    @Override
    public Iterator<InternalCacheEntry<WrappedBytes, WrappedBytes>> iterator() {
       long time = timeService.time();
@@ -537,4 +716,9 @@ public Iterator<InternalCacheEntry<WrappedBytes, WrappedBytes>> iterator() {
    public Iterator<InternalCacheEntry<WrappedBytes, WrappedBytes>> iteratorIncludingExpired() {
       return entryStream().iterator();
    }
+
+   @Override
+   public Iterator<InternalCacheEntry<WrappedBytes, WrappedBytes>> expirationCandidates(long currentTimeMillis) {
+      return expirationIndex.expirationCandidates(currentTimeMillis, this::peek);
+   }
 }
@@ -28,15 +28,22 @@ public interface OffHeapEntryFactory {
    long determineSize(long address);
 
    /**
-    *
-    * @param address
-    * @return
+    * Returns the hash code of the key stored in the entry at the given address
+    * @param address the address of the entry, as returned from {@link #create(WrappedBytes, WrappedBytes, Metadata)}
+    * @return the hash code of the key
+    */
+   int getHashCode(long address);
+
+   /**
+    * Creates an {@link InternalCacheEntry} from the entry stored at the given address.
+    * @param address the address of the entry, as returned from {@link #create(WrappedBytes, WrappedBytes, Metadata)}
+    * @return the entry read from memory
     */
    InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address);
 
    /**
     * Returns whether the given key as bytes is the same key as the key stored in the entry for the given address.
-    * @param address the address of the entry's key to check
+    * @param address the address of the entry, as returned from {@link #create(WrappedBytes, WrappedBytes, Metadata)}
     * @param wrappedBytes the key to check equality with
     * @return whether or not the keys are equal
     */
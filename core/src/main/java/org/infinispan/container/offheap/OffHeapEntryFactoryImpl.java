@@ -1,11 +1,13 @@
 package org.infinispan.container.offheap;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
 
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.versioning.EntryVersion;
@@ -28,6 +30,9 @@ public class OffHeapEntryFactoryImpl implements OffHeapEntryFactory {
    private OffHeapMemoryAllocator allocator;
    private TimeService timeService;
    private InternalEntryFactory internalEntryFactory;
+   // Bytes before the header: the hash linked pointer and the lru pointers when the container is bounded, which
+   // DataContainerFactory decides with the same predicate
+   private int headerOffset;
 
    // If custom than we just store the metadata as is (no other bits should be used)
    private static final byte CUSTOM = 1;
@@ -43,17 +48,22 @@ public class OffHeapEntryFactoryImpl implements OffHeapEntryFactory {
 
    private static final int HEADER_LENGTH = 4 + 4 + 4 + 4 + 1;
 
+   private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
    @Inject
    public void inject(Marshaller marshaller, OffHeapMemoryAllocator allocator, TimeService timeService,
-         InternalEntryFactory internalEntryFactory) {
+         InternalEntryFactory internalEntryFactory, Configuration configuration) {
       this.marshaller = marshaller;
       this.allocator = allocator;
       this.timeService = timeService;
       this.internalEntryFactory = internalEntryFactory;
+      this.headerOffset = configuration.memory().isEvictionEnabled() ? 8 + OffHeapLruNode.LRU_POINTERS : 8;
    }
 
    /**
-    * Create an entry off-heap.  The first 8 bytes will always be 0, reserved for a future reference to another entry
+    * Create an entry off-heap.  The first 8 bytes will always be 0, reserved for a future reference to another entry.
+    * When eviction is enabled the following 16 bytes are also 0, reserved for the previous and next entries in the
+    * eviction order.
     * @param key
     * @param value
     * @param metadata
@@ -90,13 +100,13 @@ public long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
             metadataBytes = new byte[16 + versionBytes.length];
             Bits.putLong(metadataBytes, 0, lifespan);
             Bits.putLong(metadataBytes, 8, timeService.wallClockTime());
-            System.arraycopy(metadataBytes, 0, versionBytes, 16, versionBytes.length);
+            System.arraycopy(versionBytes, 0, metadataBytes, 16, versionBytes.length);
          } else if (lifespan < 0 && maxIdle > -1) {
             type |= TRANSIENT;
             metadataBytes = new byte[16 + versionBytes.length];
             Bits.putLong(metadataBytes, 0, maxIdle);
             Bits.putLong(metadataBytes, 8, timeService.wallClockTime());
-            System.arraycopy(metadataBytes, 0, versionBytes, 16, versionBytes.length);
+            System.arraycopy(versionBytes, 0, metadataBytes, 16, versionBytes.length);
          } else {
             type |= TRANSIENT_MORTAL;
             metadataBytes = new byte[32 + versionBytes.length];
@@ -104,7 +114,7 @@ public long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
             Bits.putLong(metadataBytes, 8, lifespan);
             Bits.putLong(metadataBytes, 16, timeService.wallClockTime());
             Bits.putLong(metadataBytes, 24, timeService.wallClockTime());
-            System.arraycopy(metadataBytes, 0, versionBytes, 16, versionBytes.length);
+            System.arraycopy(versionBytes, 0, metadataBytes, 32, versionBytes.length);
          }
       } else {
          type = CUSTOM;
@@ -117,7 +127,7 @@ public long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
       int keySize = key.getLength();
       int valueSize = value.getLength();
       int metadataSize = metadataBytes.length;
-      long totalSize = 8 + HEADER_LENGTH + keySize + metadataSize + valueSize;
+      long totalSize = headerOffset + HEADER_LENGTH + keySize + metadataSize + valueSize;
 
       long memoryAddress = allocator.allocate(totalSize);
 
@@ -136,9 +146,9 @@ public long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
 
       long memoryOffset = memoryAddress;
 
-      // Write the empty linked address pointer first
-      UNSAFE.putLong(memoryAddress, 0);
-      memoryOffset += 8;
+      // Write the empty linked address pointer first and the empty lru pointers if present
+      UNSAFE.setMemory(memoryAddress, headerOffset, (byte) 0);
+      memoryOffset += headerOffset;
 
       UNSAFE.copyMemory(header, BYTE_ARRAY_BASE_OFFSET, null, memoryOffset, HEADER_LENGTH);
       memoryOffset += HEADER_LENGTH;
@@ -157,17 +167,33 @@ public long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
 
    @Override
    public long determineSize(long address) {
-      long offset = 8 + HEADER_LENGTH + address;
-      return 8 + HEADER_LENGTH + UNSAFE.getInt(offset) + UNSAFE.getInt(offset + 8) + UNSAFE.getInt(offset + 8);
+      // Skip the pointers, the header is written in big endian so it has to be read through Bits
+      byte[] header = readHeader(address + headerOffset);
+      // Skip the hash code
+      int offset = 4;
+      int keyLength = Bits.getInt(header, offset);
+      offset += 4;
+      int metadataLength = Bits.getInt(header, offset);
+      offset += 4;
+      int valueLength = Bits.getInt(header, offset);
+      return headerOffset + HEADER_LENGTH + keyLength + metadataLength + valueLength;
+   }
+
+   @Override
+   public int getHashCode(long address) {
+      // The hash code is the first value of the header, which is written in big endian
+      int hashCode = UNSAFE.getInt(address + headerOffset);
+      return BIG_ENDIAN ? hashCode : Integer.reverseBytes(hashCode);
    }
 
    /**
-    * Assumes the addres doesn't contain the linked pointer at the beginning
+    * Assumes the address points to the beginning of the entry, including the linked pointer
     * @param address
     * @return
     */
    @Override
    public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
+      address += headerOffset;
       byte[] header = readHeader(address);
 
       int offset = 0;
@@ -218,21 +244,25 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
                break;
             case MORTAL:
                maxIdle = -1;
-               lifespan = Bits.getLong(metadataBytes, offset++);
+               lifespan = Bits.getLong(metadataBytes, offset);
                created = Bits.getLong(metadataBytes, offset += 8);
                lastUsed = -1;
+               offset += 8;
                break;
             case TRANSIENT:
                lifespan = -1;
-               maxIdle = Bits.getLong(metadataBytes, offset++);
+               maxIdle = Bits.getLong(metadataBytes, offset);
                created = -1;
                lastUsed = Bits.getLong(metadataBytes, offset += 8);
+               offset += 8;
                break;
             case TRANSIENT_MORTAL:
-               lifespan = Bits.getLong(metadataBytes, offset++);
-               maxIdle = Bits.getLong(metadataBytes, offset += 8);
+               // Same order as they are written in create
+               maxIdle = Bits.getLong(metadataBytes, offset);
+               lifespan = Bits.getLong(metadataBytes, offset += 8);
                created = Bits.getLong(metadataBytes, offset += 8);
                lastUsed = Bits.getLong(metadataBytes, offset += 8);
+               offset += 8;
                break;
             default:
                throw new IllegalArgumentException("Unsupported type: " + metadataType);
@@ -260,13 +290,14 @@ private byte[] readHeader(long address) {
    }
 
    /**
-    * Assumes the address points to the entry excluding the pointer reference at the beginning
+    * Assumes the address points to the beginning of the entry, including the linked pointer
     * @param address
     * @param wrappedBytes
     * @return
     */
    @Override
    public boolean equalsKey(long address, WrappedBytes wrappedBytes) {
+      address += headerOffset;
       byte[] header = readHeader(address);
       int hashCode = wrappedBytes.hashCode();
       if (hashCode != Bits.getInt(header, 0)) {
@@ -0,0 +1,39 @@
+package org.infinispan.container.offheap;
+
+import sun.misc.Unsafe;
+
+/**
+ * Accessors for the eviction order pointers stored in an off-heap entry.  When eviction is enabled every entry
+ * reserves 16 bytes right after the hash linked pointer that hold the address of the previous and next entry in the
+ * doubly linked eviction list.  All access to these pointers must be guarded by the same lock.
+ * @since 9.0
+ */
+public class OffHeapLruNode {
+   private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
+
+   /**
+    * How many bytes are reserved in an entry for the lru pointers
+    */
+   static final int LRU_POINTERS = 16;
+
+   private static final int PREVIOUS_OFFSET = 8;
+   private static final int NEXT_OFFSET = 16;
+
+   private OffHeapLruNode() { }
+
+   static long getPrevious(long entryAddress) {
+      return UNSAFE.getLong(entryAddress + PREVIOUS_OFFSET);
+   }
+
+   static void setPrevious(long entryAddress, long previousAddress) {
+      UNSAFE.putLong(entryAddress + PREVIOUS_OFFSET, previousAddress);
+   }
+
+   static long getNext(long entryAddress) {
+      return UNSAFE.getLong(entryAddress + NEXT_OFFSET);
+   }
+
+   static void setNext(long entryAddress, long nextAddress) {
+      UNSAFE.putLong(entryAddress + NEXT_OFFSET, nextAddress);
+   }
+}
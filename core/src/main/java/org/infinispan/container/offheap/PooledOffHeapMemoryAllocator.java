@@ -0,0 +1,417 @@
+package org.infinispan.container.offheap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import sun.misc.Unsafe;
+
+/**
+ * Memory allocator that carves blocks out of larger slabs of native memory.  Requests are rounded up to one of a
+ * fixed set of size classes and every size class keeps its own slabs, so a freed block can be handed out again to
+ * the next allocation of a similar size without going back to the system allocator.
+ * <p>
+ * Each block is prefixed with an 8 byte header holding the size class and slab it belongs to, thus no information
+ * about the stored entry is required to deallocate it.  Allocations larger than the biggest size class bypass the
+ * pool and are allocated directly.
+ * <p>
+ * A slab whose blocks have all been freed is kept around so that a burst of writes does not immediately need to
+ * reserve memory again, however only one such idle slab is retained per size class.  The remaining idle slabs can
+ * be released manually through {@link #releaseIdleSlabs()}.
+ * @since 9.0
+ */
+@MBean(objectName = "OffHeapMemoryAllocator", description = "Pooled allocator of the off-heap memory used by the cache")
+public class PooledOffHeapMemoryAllocator implements OffHeapMemoryAllocator {
+   private static final Log log = LogFactory.getLog(PooledOffHeapMemoryAllocator.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
+
+   public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+   // Holds the size class (or UNPOOLED) and the slab index or the allocated size when unpooled
+   private static final int BLOCK_HEADER = 8;
+   private static final int UNPOOLED = -1;
+   private static final int MINIMUM_BLOCK_SIZE = 32;
+   // How many size classes there are between each power of two
+   private static final int SUB_CLASSES = 4;
+   // Each slab must be able to hold at least this many blocks of its size class
+   private static final int MINIMUM_BLOCKS_PER_SLAB = 8;
+
+   private final int slabSize;
+   private final int[] classSizes;
+   private final SizeClass[] sizeClasses;
+
+   private final AtomicLong amountAllocated = new AtomicLong();
+   private final AtomicLong amountReserved = new AtomicLong();
+   private final AtomicLong unpooledAllocations = new AtomicLong();
+
+   private volatile boolean stopped;
+
+   public PooledOffHeapMemoryAllocator() {
+      this(DEFAULT_SLAB_SIZE);
+   }
+
+   public PooledOffHeapMemoryAllocator(int slabSize) {
+      if (slabSize < MINIMUM_BLOCK_SIZE * MINIMUM_BLOCKS_PER_SLAB) {
+         throw new IllegalArgumentException("Slab size must be at least " + MINIMUM_BLOCK_SIZE * MINIMUM_BLOCKS_PER_SLAB);
+      }
+      this.slabSize = slabSize;
+      this.classSizes = createClassSizes(slabSize / MINIMUM_BLOCKS_PER_SLAB);
+      this.sizeClasses = new SizeClass[classSizes.length];
+      for (int i = 0; i < classSizes.length; ++i) {
+         sizeClasses[i] = new SizeClass(i, classSizes[i], slabSize / classSizes[i]);
+      }
+   }
+
+   static int[] createClassSizes(int maxBlockSize) {
+      List<Integer> sizes = new ArrayList<>();
+      for (int powerOfTwo = MINIMUM_BLOCK_SIZE; powerOfTwo <= maxBlockSize; powerOfTwo <<= 1) {
+         int step = powerOfTwo / SUB_CLASSES;
+         for (int i = 0; i < SUB_CLASSES; ++i) {
+            int size = powerOfTwo + i * step;
+            if (size > maxBlockSize) {
+               break;
+            }
+            sizes.add(size);
+         }
+      }
+      return sizes.stream().mapToInt(Integer::intValue).toArray();
+   }
+
+   /**
+    * Returns the index of the smallest size class that can hold the given amount of bytes or -1 if none can
+    * @param blockSize the amount of bytes required including the block header
+    * @return the size class index
+    */
+   int sizeClassFor(long blockSize) {
+      if (blockSize > classSizes[classSizes.length - 1]) {
+         return UNPOOLED;
+      }
+      int index = Arrays.binarySearch(classSizes, (int) blockSize);
+      return index >= 0 ? index : -(index + 1);
+   }
+
+   @Override
+   public long allocate(long memoryLength) {
+      if (stopped) {
+         throw new IllegalStateException("Allocator was already shut down!");
+      }
+      long blockSize = memoryLength + BLOCK_HEADER;
+      int classIndex = sizeClassFor(blockSize);
+      long block;
+      if (classIndex == UNPOOLED) {
+         if (blockSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Cannot allocate " + memoryLength + " bytes");
+         }
+         block = UNSAFE.allocateMemory(blockSize);
+         UNSAFE.putInt(block, UNPOOLED);
+         UNSAFE.putInt(block + 4, (int) blockSize);
+         amountReserved.addAndGet(blockSize);
+         unpooledAllocations.incrementAndGet();
+      } else {
+         SizeClass sizeClass = sizeClasses[classIndex];
+         block = sizeClass.allocateBlock();
+         blockSize = sizeClass.blockSize;
+      }
+      amountAllocated.addAndGet(blockSize);
+      return block + BLOCK_HEADER;
+   }
+
+   @Override
+   public void deallocate(long memoryAddress) {
+      if (stopped) {
+         // All slabs were already released
+         return;
+      }
+      long block = memoryAddress - BLOCK_HEADER;
+      int classIndex = UNSAFE.getInt(block);
+      int slabIndexOrSize = UNSAFE.getInt(block + 4);
+      if (classIndex == UNPOOLED) {
+         amountAllocated.addAndGet(-slabIndexOrSize);
+         amountReserved.addAndGet(-slabIndexOrSize);
+         unpooledAllocations.decrementAndGet();
+         UNSAFE.freeMemory(block);
+      } else {
+         SizeClass sizeClass = sizeClasses[classIndex];
+         amountAllocated.addAndGet(-sizeClass.blockSize);
+         sizeClass.freeBlock(block, slabIndexOrSize);
+      }
+   }
+
+   @Override
+   public long getAllocatedAmount() {
+      return amountAllocated.get();
+   }
+
+   /**
+    * Releases all of the slabs currently allocated.  The data container must have already freed all of its entries
+    * as any address handed out by this allocator is no longer valid after this.
+    */
+   @Stop(priority = Integer.MAX_VALUE)
+   public void stop() {
+      stopped = true;
+      for (SizeClass sizeClass : sizeClasses) {
+         sizeClass.releaseAll();
+      }
+      if (unpooledAllocations.get() != 0) {
+         log.warn("Off-heap allocations larger than the biggest size class were not freed!  Memory leak " +
+               "will have occurred!");
+      }
+   }
+
+   @ManagedOperation(
+         description = "Releases the native memory of all slabs that have no blocks in use",
+         displayName = "Release idle slabs"
+   )
+   public long releaseIdleSlabs() {
+      long released = 0;
+      for (SizeClass sizeClass : sizeClasses) {
+         released += sizeClass.releaseIdle();
+      }
+      if (trace) {
+         log.tracef("Released %d idle slabs", released);
+      }
+      return released;
+   }
+
+   @ManagedAttribute(
+         description = "Amount of off-heap memory handed out in blocks, including the rounding up to the size class",
+         displayName = "Allocated off-heap memory",
+         measurementType = MeasurementType.DYNAMIC,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAllocatedMemory() {
+      return amountAllocated.get();
+   }
+
+   @ManagedAttribute(
+         description = "Amount of off-heap memory reserved from the system by slabs and unpooled allocations",
+         displayName = "Reserved off-heap memory",
+         measurementType = MeasurementType.DYNAMIC,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getReservedMemory() {
+      return amountReserved.get();
+   }
+
+   @ManagedAttribute(
+         description = "Number of slabs currently reserved",
+         displayName = "Number of slabs",
+         measurementType = MeasurementType.DYNAMIC,
+         displayType = DisplayType.SUMMARY
+   )
+   public int getSlabCount() {
+      int count = 0;
+      for (SizeClass sizeClass : sizeClasses) {
+         count += sizeClass.slabCount();
+      }
+      return count;
+   }
+
+   @ManagedAttribute(
+         description = "Number of slabs reserved that have no blocks in use",
+         displayName = "Number of idle slabs",
+         measurementType = MeasurementType.DYNAMIC,
+         displayType = DisplayType.SUMMARY
+   )
+   public int getIdleSlabCount() {
+      int count = 0;
+      for (SizeClass sizeClass : sizeClasses) {
+         count += sizeClass.idleSlabCount();
+      }
+      return count;
+   }
+
+   @ManagedAttribute(
+         description = "Size of a slab in bytes",
+         displayName = "Slab size",
+         dataType = DataType.TRAIT,
+         displayType = DisplayType.SUMMARY
+   )
+   public int getSlabSize() {
+      return slabSize;
+   }
+
+   @ManagedAttribute(
+         description = "Blocks in use compared to the blocks reserved for every size class that has slabs",
+         displayName = "Size class occupancy",
+         displayType = DisplayType.DETAIL
+   )
+   public List<String> getSizeClassOccupancy() {
+      List<String> occupancy = new ArrayList<>();
+      for (SizeClass sizeClass : sizeClasses) {
+         String description = sizeClass.describe();
+         if (description != null) {
+            occupancy.add(description);
+         }
+      }
+      return occupancy;
+   }
+
+   private static class Slab {
+      final long address;
+      final int index;
+      final int blockCount;
+      // How many blocks are handed out
+      int used;
+      // Blocks past this offset have never been handed out, so they don't need to be in the free list
+      int untouched;
+      // Head of the free blocks, each free block stores the address of the next one
+      long freeHead;
+      boolean available;
+
+      Slab(long address, int index, int blockCount) {
+         this.address = address;
+         this.index = index;
+         this.blockCount = blockCount;
+      }
+   }
+
+   private class SizeClass {
+      final int index;
+      final int blockSize;
+      final int blocksPerSlab;
+      // Slab index is stored in the block header, so released slabs leave a null hole to be reused
+      final List<Slab> slabs = new ArrayList<>();
+      final Deque<Integer> releasedIndexes = new ArrayDeque<>();
+      // Slabs that have at least one free block
+      final Deque<Slab> available = new ArrayDeque<>();
+      int idleSlabs;
+
+      SizeClass(int index, int blockSize, int blocksPerSlab) {
+         this.index = index;
+         this.blockSize = blockSize;
+         this.blocksPerSlab = blocksPerSlab;
+      }
+
+      synchronized long allocateBlock() {
+         Slab slab = available.peekFirst();
+         if (slab == null) {
+            slab = newSlab();
+         }
+         long block;
+         if (slab.freeHead != 0) {
+            block = slab.freeHead;
+            slab.freeHead = UNSAFE.getLong(block);
+         } else {
+            block = slab.address + ((long) slab.untouched++) * blockSize;
+         }
+         if (slab.used++ == 0) {
+            idleSlabs--;
+         }
+         if (slab.used == slab.blockCount) {
+            available.pollFirst();
+            slab.available = false;
+         }
+         UNSAFE.putInt(block, index);
+         UNSAFE.putInt(block + 4, slab.index);
+         return block;
+      }
+
+      synchronized void freeBlock(long block, int slabIndex) {
+         Slab slab = slabs.get(slabIndex);
+         UNSAFE.putLong(block, slab.freeHead);
+         slab.freeHead = block;
+         if (--slab.used == 0) {
+            if (idleSlabs > 0) {
+               release(slab);
+               return;
+            }
+            idleSlabs++;
+         }
+         if (!slab.available) {
+            available.addLast(slab);
+            slab.available = true;
+         }
+      }
+
+      private Slab newSlab() {
+         int slabBytes = blocksPerSlab * blockSize;
+         long address = UNSAFE.allocateMemory(slabBytes);
+         amountReserved.addAndGet(slabBytes);
+         Integer slabIndex = releasedIndexes.pollFirst();
+         Slab slab;
+         if (slabIndex == null) {
+            slab = new Slab(address, slabs.size(), blocksPerSlab);
+            slabs.add(slab);
+         } else {
+            slab = new Slab(address, slabIndex, blocksPerSlab);
+            slabs.set(slabIndex, slab);
+         }
+         slab.available = true;
+         available.addFirst(slab);
+         idleSlabs++;
+         if (trace) {
+            log.tracef("Reserved slab %d of %d bytes for blocks of %d bytes", slab.index, slabBytes, blockSize);
+         }
+         return slab;
+      }
+
+      private void release(Slab slab) {
+         if (slab.available) {
+            available.remove(slab);
+            slab.available = false;
+         }
+         slabs.set(slab.index, null);
+         releasedIndexes.addLast(slab.index);
+         UNSAFE.freeMemory(slab.address);
+         amountReserved.addAndGet(-((long) slab.blockCount) * blockSize);
+      }
+
+      synchronized int releaseIdle() {
+         int released = 0;
+         for (Slab slab : slabs) {
+            if (slab != null && slab.used == 0) {
+               release(slab);
+               released++;
+            }
+         }
+         idleSlabs = 0;
+         return released;
+      }
+
+      synchronized void releaseAll() {
+         for (Slab slab : slabs) {
+            if (slab != null) {
+               release(slab);
+            }
+         }
+         idleSlabs = 0;
+      }
+
+      synchronized int slabCount() {
+         return slabs.size() - releasedIndexes.size();
+      }
+
+      synchronized int idleSlabCount() {
+         return idleSlabs;
+      }
+
+      synchronized String describe() {
+         int slabCount = slabs.size() - releasedIndexes.size();
+         if (slabCount == 0) {
+            return null;
+         }
+         long used = 0;
+         for (Slab slab : slabs) {
+            if (slab != null) {
+               used += slab.used;
+            }
+         }
+         return "size=" + blockSize + ", slabs=" + slabCount + ", blocks=" + used + "/" + ((long) slabCount) * blocksPerSlab;
+      }
+   }
+}
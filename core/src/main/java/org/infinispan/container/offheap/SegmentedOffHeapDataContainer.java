@@ -0,0 +1,33 @@
+package org.infinispan.container.offheap;
+
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.DefaultSegmentedDataContainer;
+import org.infinispan.factories.annotations.Stop;
+
+/**
+ * Segmented data container storing the entries of each segment in its own {@link OffHeapDataContainer}, each with
+ * its own address pointers and locks.
+ * @since 9.0
+ */
+public class SegmentedOffHeapDataContainer extends DefaultSegmentedDataContainer<WrappedBytes, WrappedBytes> {
+
+   /**
+    * @param numSegments how many segments the key partitioner of the cache maps keys to
+    * @param desiredSize the initial address count of each segment
+    */
+   public SegmentedOffHeapDataContainer(int numSegments, int desiredSize) {
+      super(numSegments, () -> new OffHeapDataContainer(desiredSize));
+   }
+
+   /**
+    * Deallocates the memory lookups of all the segments, which is not done by the component registry as they are
+    * not registered.
+    */
+   @Stop(priority = Integer.MAX_VALUE - 1)
+   public void deallocate() {
+      for (DataContainer<WrappedBytes, WrappedBytes> container : containers) {
+         ((OffHeapDataContainer) container).deallocate();
+      }
+   }
+}
@@ -4,6 +4,8 @@
 import static org.infinispan.persistence.PersistenceUtil.internalMetadata;
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.BOTH;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -40,6 +42,8 @@ public class PassivationManagerImpl implements PassivationManager {
    private DataContainer<Object, Object> container;
    private TimeService timeService;
    private static final boolean trace = log.isTraceEnabled();
+   // Number of entries written to the stores at once when passivating all the entries
+   private static final int PASSIVATION_BATCH_SIZE = 512;
    private MarshalledEntryFactory marshalledEntryFactory;
    private DistributionManager distributionManager;
 
@@ -99,11 +103,17 @@ public void passivateAll() throws PersistenceException {
       if (enabled && !skipOnStop) {
          long start = timeService.time();
          log.passivatingAllEntries();
+         List<MarshalledEntry> batch = new ArrayList<>(PASSIVATION_BATCH_SIZE);
          for (InternalCacheEntry e : container) {
             if (trace) log.tracef("Passivating %s", e.getKey());
-            persistenceManager.writeToAllNonTxStores(marshalledEntryFactory.newMarshalledEntry(e.getKey(), e.getValue(),
-                                                                                               internalMetadata(e)), BOTH);
+            batch.add(marshalledEntryFactory.newMarshalledEntry(e.getKey(), e.getValue(), internalMetadata(e)));
+            if (batch.size() == PASSIVATION_BATCH_SIZE) {
+               persistenceManager.writeBatchToAllNonTxStores(batch, BOTH);
+               batch.clear();
+            }
          }
+         if (!batch.isEmpty())
+            persistenceManager.writeBatchToAllNonTxStores(batch, BOTH);
          log.passivatedEntries(container.size(),
                                Util.prettyPrintTime(timeService.timeDuration(start, TimeUnit.MILLISECONDS)));
       }
@@ -72,17 +72,23 @@ public void processExpiration() {
                start = timeService.time();
             }
             long currentTimeMillis = timeService.wallClockTime();
-            for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.iteratorIncludingExpired();
-                 purgeCandidates.hasNext();) {
+            int visited = 0;
+            int expired = 0;
+            Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.expirationCandidates(currentTimeMillis);
+            while (purgeCandidates.hasNext()) {
                InternalCacheEntry<K, V> e = purgeCandidates.next();
+               visited++;
                if (e.canExpire()) {
                   if (ExpiryHelper.isExpiredMortal(e.getLifespan(), e.getCreated(), currentTimeMillis)) {
+                     expired++;
                      handleLifespanExpireEntry(e, true);
                   } else if (ExpiryHelper.isExpiredTransient(e.getMaxIdle(), e.getLastUsed(), currentTimeMillis)) {
+                     expired++;
                      super.handleInMemoryExpiration(e, currentTimeMillis);
                   }
                }
             }
+            purgeCompleted(visited, expired);
             if (trace) {
                log.tracef("Purging data container completed in %s",
                        Util.prettyPrintTime(timeService.timeDuration(start, TimeUnit.MILLISECONDS)));
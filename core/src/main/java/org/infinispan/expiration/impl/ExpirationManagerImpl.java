@@ -1,6 +1,7 @@
 package org.infinispan.expiration.impl;
 
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
@@ -18,6 +19,10 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
@@ -29,6 +34,7 @@
 import net.jcip.annotations.ThreadSafe;
 
 @ThreadSafe
+@MBean(objectName = "ExpirationManager", description = "Component that purges expired entries")
 public class ExpirationManagerImpl<K, V> implements ExpirationManager<K, V> {
    protected static final Log log = LogFactory.getLog(ExpirationManagerImpl.class);
    protected static final boolean trace = log.isTraceEnabled();
@@ -52,6 +58,9 @@
     */
    protected ConcurrentMap<K, Object> expiring;
 
+   private volatile int lastPurgeVisited;
+   private volatile int lastPurgeExpired;
+
    @Inject
    public void initialize(@ComponentName(KnownComponentNames.EXPIRATION_SCHEDULED_EXECUTOR)
          ScheduledExecutorService executor, Cache<K, V> cache, Configuration cfg, DataContainer<K, V> dataContainer,
@@ -103,13 +112,18 @@ public void processExpiration() {
                start = timeService.time();
             }
             long currentTimeMillis = timeService.wallClockTime();
-            for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.iteratorIncludingExpired();
-                 purgeCandidates.hasNext();) {
+            int visited = 0;
+            int expired = 0;
+            Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.expirationCandidates(currentTimeMillis);
+            while (purgeCandidates.hasNext()) {
                InternalCacheEntry<K, V> e = purgeCandidates.next();
+               visited++;
                if (e.isExpired(currentTimeMillis)) {
+                  expired++;
                   handleInMemoryExpiration(e, currentTimeMillis);
                }
             }
+            purgeCompleted(visited, expired);
             if (trace) {
                log.tracef("Purging data container completed in %s",
                           Util.prettyPrintTime(timeService.timeDuration(start, TimeUnit.MILLISECONDS)));
@@ -124,6 +138,39 @@ public void processExpiration() {
       }
    }
 
+   /**
+    * Records the outcome of purging the data container
+    * @param visited how many entries were checked
+    * @param expired how many of those were expired
+    */
+   protected void purgeCompleted(int visited, int expired) {
+      lastPurgeVisited = visited;
+      lastPurgeExpired = expired;
+      if (trace) {
+         log.tracef("Purging data container visited %d entries of which %d were expired", visited, expired);
+      }
+   }
+
+   @ManagedAttribute(
+         description = "Number of entries checked by the last purge of expired entries from the data container",
+         displayName = "Entries visited by last purge",
+         measurementType = MeasurementType.DYNAMIC,
+         displayType = DisplayType.DETAIL
+   )
+   public int getLastPurgeVisited() {
+      return lastPurgeVisited;
+   }
+
+   @ManagedAttribute(
+         description = "Number of expired entries found by the last purge of expired entries from the data container",
+         displayName = "Entries expired by last purge",
+         measurementType = MeasurementType.DYNAMIC,
+         displayType = DisplayType.DETAIL
+   )
+   public int getLastPurgeExpired() {
+      return lastPurgeExpired;
+   }
+
    @Override
    public boolean isEnabled() {
       return enabled;
@@ -132,7 +179,7 @@ public boolean isEnabled() {
    @Override
    public void handleInMemoryExpiration(InternalCacheEntry<K, V> entry, long currentTime) {
       dataContainer.compute(entry.getKey(), ((k, oldEntry, factory) -> {
-         if (entry == oldEntry) {
+         if (isSameEntry(entry, oldEntry)) {
             synchronized (entry) {
                if (entry.isExpired(currentTime)) {
                   deleteFromStoresAndNotify(k, entry.getValue(), entry.getMetadata());
@@ -144,6 +191,19 @@ public void handleInMemoryExpiration(InternalCacheEntry<K, V> entry, long curren
       }));
    }
 
+   /**
+    * Whether the entry read before is still the one in the container.  Containers that don't store the entry
+    * instances themselves, such as off-heap ones, return a new instance every time, so those are compared by their
+    * contents instead.
+    */
+   private static boolean isSameEntry(InternalCacheEntry<?, ?> entry, InternalCacheEntry<?, ?> oldEntry) {
+      if (entry == oldEntry) {
+         return true;
+      }
+      return oldEntry != null && entry.getCreated() == oldEntry.getCreated() &&
+            entry.getLastUsed() == oldEntry.getLastUsed() && Objects.equals(entry.getValue(), oldEntry.getValue());
+   }
+
    @Override
    public void handleInStoreExpiration(K key) {
       // Note since this is invoked without the actual key lock it is entirely possible for a remove to occur
@@ -6,10 +6,12 @@
 import org.infinispan.configuration.cache.MemoryConfiguration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.DefaultSegmentedDataContainer;
 import org.infinispan.container.StorageType;
 import org.infinispan.container.entries.PrimitiveEntrySizeCalculator;
+import org.infinispan.container.offheap.BoundedOffHeapDataContainer;
 import org.infinispan.container.offheap.OffHeapDataContainer;
-import org.infinispan.eviction.EvictionType;
+import org.infinispan.container.offheap.SegmentedOffHeapDataContainer;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
 import org.infinispan.marshall.core.WrappedByteArraySizeCalculator;
 
@@ -36,7 +38,17 @@ public <T> T construct(Class<T> componentType) {
 
 
          //handle case when < 0 value signifies unbounded container
-         if(thresholdSize < 0) {
+         if(!configuration.memory().isEvictionEnabled()) {
+            if (configuration.memory().segmented()) {
+               int numSegments = configuration.clustering().hash().numSegments();
+               if (configuration.memory().storageType() == StorageType.OFF_HEAP) {
+                  return (T) new SegmentedOffHeapDataContainer(numSegments,
+                        Math.max(configuration.memory().addressCount() / numSegments, 1));
+               } else {
+                  return (T) new DefaultSegmentedDataContainer<>(numSegments,
+                        () -> DefaultDataContainer.unBoundedDataContainer(level));
+               }
+            }
             if (configuration.memory().storageType() == StorageType.OFF_HEAP) {
                return (T) new OffHeapDataContainer(configuration.memory().addressCount());
             } else {
@@ -46,12 +58,8 @@ public <T> T construct(Class<T> componentType) {
 
          DataContainer dataContainer;
          if (configuration.memory().storageType() == StorageType.OFF_HEAP) {
-            if (configuration.eviction().type() == EvictionType.MEMORY) {
-               // TODO: need to bound container
-               dataContainer = new OffHeapDataContainer(configuration.memory().addressCount());
-            } else {
-               dataContainer = new OffHeapDataContainer(configuration.memory().addressCount());
-            }
+            dataContainer = new BoundedOffHeapDataContainer(configuration.memory().addressCount(), thresholdSize,
+                  configuration.memory().evictionType());
          } else {
             dataContainer = DefaultDataContainer.boundedDataContainer(level, thresholdSize,
                   configuration.eviction().type());
@@ -1,14 +1,12 @@
 package org.infinispan.interceptors.impl;
 
-import static org.infinispan.factories.KnownComponentNames.PERSISTENCE_EXECUTOR;
 import static org.infinispan.persistence.PersistenceUtil.convert;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 import java.util.Spliterator;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -40,6 +38,7 @@
 import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.commons.equivalence.EquivalentHashSet;
 import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.commons.util.CloseableIteratorMapper;
 import org.infinispan.commons.util.CloseableSpliterator;
 import org.infinispan.commons.util.Closeables;
 import org.infinispan.container.DataContainer;
@@ -51,7 +50,6 @@
 import org.infinispan.context.impl.FlagBitSets;
 import org.infinispan.distribution.group.GroupFilter;
 import org.infinispan.distribution.group.GroupManager;
-import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.filter.CollectionKeyFilter;
@@ -69,14 +67,11 @@
 import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
-import org.infinispan.persistence.util.PersistenceManagerCloseableSupplier;
 import org.infinispan.stream.impl.interceptor.AbstractDelegatingEntryCacheSet;
 import org.infinispan.stream.impl.interceptor.AbstractDelegatingKeyCacheSet;
 import org.infinispan.stream.impl.spliterators.IteratorAsSpliterator;
-import org.infinispan.util.CloseableSuppliedIterator;
 import org.infinispan.util.DistinctKeyDoubleEntryCloseableIterator;
 import org.infinispan.util.TimeService;
-import org.infinispan.util.function.CloseableSupplier;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -95,7 +90,6 @@
    private InternalEntryFactory iceFactory;
    private DataContainer<K, V> dataContainer;
    private GroupManager groupManager;
-   private ExecutorService executorService;
    private Cache<K, V> cache;
    private Equivalence<? super K> keyEquivalence;
    private boolean activation;
@@ -106,8 +100,7 @@
    @Inject
    protected void injectDependencies(PersistenceManager clm, EntryFactory entryFactory, CacheNotifier notifier,
                                      TimeService timeService, InternalEntryFactory iceFactory, DataContainer<K, V> dataContainer,
-                                     GroupManager groupManager, @ComponentName(PERSISTENCE_EXECUTOR) ExecutorService persistenceExecutor,
-                                     Cache<K, V> cache) {
+                                     GroupManager groupManager, Cache<K, V> cache) {
       this.persistenceManager = clm;
       this.notifier = notifier;
       this.entryFactory = entryFactory;
@@ -115,7 +108,6 @@ protected void injectDependencies(PersistenceManager clm, EntryFactory entryFact
       this.iceFactory = iceFactory;
       this.dataContainer = dataContainer;
       this.groupManager = groupManager;
-      this.executorService = persistenceExecutor;
       this.cache = cache;
    }
 
@@ -195,7 +187,10 @@ private BasicInvocationStage visitDataCommand(InvocationContext ctx, AbstractDat
          throws Throwable {
       Object key;
       if ((key = command.getKey()) != null) {
-         loadIfNeeded(ctx, key, command);
+         CompletableFuture<Boolean> loadFuture = loadIfNeededAsync(ctx, key, command);
+         if (loadFuture != null) {
+            return invokeNextAsync(ctx, command, loadFuture);
+         }
       }
       return invokeNext(ctx, command);
    }
@@ -235,28 +230,17 @@ public BasicInvocationStage visitEntrySetCommand(InvocationContext ctx, EntrySet
       });
    }
 
-   class SupplierFunction<K, V> implements CloseableSupplier<K> {
-      private final CloseableSupplier<CacheEntry<K, V>> supplier;
-
-      SupplierFunction(CloseableSupplier<CacheEntry<K, V>> supplier) {
-         this.supplier = supplier;
-      }
-
-      @Override
-      public K get() {
-         CacheEntry<K, V> entry = supplier.get();
-         if (entry != null) {
-            return entry.getKey();
-         }
-         return null;
-      }
-
-      @Override
-      public void close() {
-         supplier.close();
-      }
+   /**
+    * Returns an iterator over the stored entries whose keys have not been seen yet. The entries are read from the
+    * stores as the iterator advances.
+    */
+   private CloseableIterator<CacheEntry<K, V>> storeEntryIterator(Set<K> seenKeys) {
+      CloseableIterator<MarshalledEntry<K, V>> iterator = (CloseableIterator) persistenceManager.entryIterator(
+            new CollectionKeyFilter<>(seenKeys), true, true, PersistenceManager.AccessMode.BOTH);
+      return new CloseableIteratorMapper<>(iterator, me -> PersistenceUtil.convert(me, iceFactory));
    }
 
+
    @Override
    public BasicInvocationStage visitKeySetCommand(InvocationContext ctx, KeySetCommand command)
          throws Throwable {
@@ -334,11 +318,33 @@ protected final Boolean loadIfNeeded(final InvocationContext ctx, Object key, fi
       return loadInContext(ctx, key, cmd);
    }
 
+   /**
+    * Same as {@link #loadIfNeeded(InvocationContext, Object, FlagAffectedCommand)}, but the cache loader is queried
+    * without blocking the invoking thread.
+    * @return A future completed once the entry has been loaded in the context, with whether or not the entry was found
+    * in the cache loader, or null if the cache loader doesn't need to be queried.
+    */
+   protected final CompletableFuture<Boolean> loadIfNeededAsync(final InvocationContext ctx, Object key,
+                                                                final FlagAffectedCommand cmd) {
+      if (skipLoad(cmd, key, ctx)) {
+         return null;
+      }
+
+      final AtomicReference<Boolean> isLoaded = new AtomicReference<>();
+      return PersistenceUtil.loadAndStoreInDataContainerAsync(dataContainer, persistenceManager, (K) key, ctx,
+                                                             timeService, isLoaded)
+            .thenApply(entry -> loadedInContext(ctx, key, cmd, entry, isLoaded.get()));
+   }
+
    private Boolean loadInContext(InvocationContext ctx, Object key, FlagAffectedCommand cmd) {
       final AtomicReference<Boolean> isLoaded = new AtomicReference<>();
       InternalCacheEntry<K, V> entry = PersistenceUtil.loadAndStoreInDataContainer(dataContainer, persistenceManager, (K) key,
                                                                              ctx, timeService, isLoaded);
-      Boolean isLoadedValue = isLoaded.get();
+      return loadedInContext(ctx, key, cmd, entry, isLoaded.get());
+   }
+
+   private Boolean loadedInContext(InvocationContext ctx, Object key, FlagAffectedCommand cmd,
+                                   InternalCacheEntry<K, V> entry, Boolean isLoadedValue) {
       if (trace) {
          log.tracef("Entry was loaded? %s", isLoadedValue);
       }
@@ -506,11 +512,7 @@ public CloseableIterator<CacheEntry<K, V>> iterator() {
          Set<K> seenKeys =
                new EquivalentHashSet<K>(cache.getAdvancedCache().getDataContainer().size(), keyEquivalence);
          // TODO: how to handle concurrent activation....
-         return new DistinctKeyDoubleEntryCloseableIterator<>(iterator, new CloseableSuppliedIterator<>(
-
-               // TODO: how to pass in key filter...
-               new PersistenceManagerCloseableSupplier<>(executorService, persistenceManager, iceFactory,
-                     new CollectionKeyFilter<>(seenKeys), 10, TimeUnit.SECONDS, 2048)), e -> e.getKey(),
+         return new DistinctKeyDoubleEntryCloseableIterator<>(iterator, storeEntryIterator(seenKeys), e -> e.getKey(),
                seenKeys);
       }
 
@@ -549,11 +551,8 @@ public CloseableIterator<K> iterator() {
          Set<K> seenKeys = new EquivalentHashSet<K>(cache.getAdvancedCache().getDataContainer().size(),
                keyEquivalence);
          // TODO: how to handle concurrent activation....
-         return new DistinctKeyDoubleEntryCloseableIterator<>(iterator, new CloseableSuppliedIterator<>(new SupplierFunction<>(
-               new PersistenceManagerCloseableSupplier<>(executorService, persistenceManager,
-                     // TODO: how to pass in key filter...
-                     iceFactory, new CollectionKeyFilter<>(seenKeys), 10, TimeUnit.SECONDS, 2048))),
-               Function.identity(), seenKeys);
+         return new DistinctKeyDoubleEntryCloseableIterator<>(iterator,
+               new CloseableIteratorMapper<>(storeEntryIterator(seenKeys), CacheEntry::getKey), Function.identity(), seenKeys);
       }
 
       @Override
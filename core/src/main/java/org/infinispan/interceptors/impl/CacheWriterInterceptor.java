@@ -4,8 +4,10 @@
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.BOTH;
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.PRIVATE;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.transaction.InvalidTransactionException;
@@ -58,6 +60,7 @@
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.marshall.core.MarshalledEntryImpl;
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
@@ -158,15 +161,17 @@ private Transaction suspendRunningTx(TxInvocationContext ctx) throws SystemExcep
 
    @Override
    public BasicInvocationStage visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
-      return invokeNext(ctx, command).thenAccept((rCtx, rCommand, rv) -> {
+      return invokeNext(ctx, command).thenCompose((stage, rCtx, rCommand, rv) -> {
          RemoveCommand removeCommand = (RemoveCommand) rCommand;
-         if (!isStoreEnabled(removeCommand) || rCtx.isInTxScope() || !removeCommand.isSuccessful()) return;
-         if (!isProperWriter(rCtx, removeCommand, removeCommand.getKey())) return;
+         if (!isStoreEnabled(removeCommand) || rCtx.isInTxScope() || !removeCommand.isSuccessful()) return stage;
+         if (!isProperWriter(rCtx, removeCommand, removeCommand.getKey())) return stage;
 
          Object key = removeCommand.getKey();
-         boolean resp = persistenceManager.deleteFromAllStores(key, BOTH);
-         if (trace)
-            getLog().tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
+         return returnWithAsync(persistenceManager.deleteFromAllStoresAsync(key, BOTH).thenApply(resp -> {
+            if (trace)
+               getLog().tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
+            return rv;
+         }));
       });
    }
 
@@ -180,33 +185,37 @@ public BasicInvocationStage visitClearCommand(InvocationContext ctx, ClearComman
 
    @Override
    public BasicInvocationStage visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
-      return invokeNext(ctx, command).thenAccept((rCtx, rCommand, rv) -> {
+      return invokeNext(ctx, command).thenCompose((stage, rCtx, rCommand, rv) -> {
          PutKeyValueCommand putKeyValueCommand = (PutKeyValueCommand) rCommand;
          if (!isStoreEnabled(putKeyValueCommand) || rCtx.isInTxScope() || !putKeyValueCommand.isSuccessful())
-            return;
+            return stage;
          if (!isProperWriter(rCtx, putKeyValueCommand, putKeyValueCommand.getKey()))
-            return;
+            return stage;
 
          Object key = putKeyValueCommand.getKey();
-         storeEntry(rCtx, key, putKeyValueCommand);
-         if (getStatisticsEnabled())
-            cacheStores.incrementAndGet();
+         return returnWithAsync(storeEntryAsync(rCtx, key, putKeyValueCommand).thenApply(ignore -> {
+            if (getStatisticsEnabled())
+               cacheStores.incrementAndGet();
+            return rv;
+         }));
       });
    }
 
    @Override
    public BasicInvocationStage visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
-      return invokeNext(ctx, command).thenAccept((rCtx, rCommand, rv) -> {
+      return invokeNext(ctx, command).thenCompose((stage, rCtx, rCommand, rv) -> {
          ReplaceCommand replaceCommand = (ReplaceCommand) rCommand;
          if (!isStoreEnabled(replaceCommand) || rCtx.isInTxScope() || !replaceCommand.isSuccessful())
-            return;
+            return stage;
          if (!isProperWriter(rCtx, replaceCommand, replaceCommand.getKey()))
-            return;
+            return stage;
 
          Object key = replaceCommand.getKey();
-         storeEntry(rCtx, key, replaceCommand);
-         if (getStatisticsEnabled())
-            cacheStores.incrementAndGet();
+         return returnWithAsync(storeEntryAsync(rCtx, key, replaceCommand).thenApply(ignore -> {
+            if (getStatisticsEnabled())
+               cacheStores.incrementAndGet();
+            return rv;
+         }));
       });
    }
 
@@ -218,11 +227,13 @@ public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapComm
             return;
 
          Map<Object, Object> map = putMapCommand.getMap();
+         List<Object> keys = new ArrayList<>(map.size());
          for (Object key : map.keySet()) {
             if (isProperWriter(rCtx, putMapCommand, key)) {
-               storeEntry(rCtx, key, putMapCommand);
+               keys.add(key);
             }
          }
+         storeEntries(rCtx, keys, putMapCommand);
          if (getStatisticsEnabled())
             cacheStores.getAndAdd(map.size());
       });
@@ -320,12 +331,12 @@ private <T extends WriteCommand & FunctionalCommand> BasicInvocationStage visitW
          switch (persistMode.get()) {
             case PERSIST:
                int storedCount = 0;
+               List<Object> removedKeys = new ArrayList<>();
                for (Object key : ((WriteCommand) rCommand).getAffectedKeys()) {
                   CacheEntry entry = rCtx.lookupEntry(key);
                   if (entry != null) {
                      if (entry.isRemoved()) {
-                        boolean resp = persistenceManager.deleteFromAllStores(key, BOTH);
-                        if (trace) getLog().tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
+                        removedKeys.add(key);
                      } else {
                         if (entry.isChanged() && isProperWriter(rCtx, manyEntriesCommand, key)) {
                            storeEntry(rCtx, key, manyEntriesCommand);
@@ -334,6 +345,10 @@ private <T extends WriteCommand & FunctionalCommand> BasicInvocationStage visitW
                      }
                   }
                }
+               if (!removedKeys.isEmpty()) {
+                  persistenceManager.deleteBatchFromAllNonTxStores(removedKeys, BOTH);
+                  if (trace) getLog().tracef("Removed entries under keys %s from CacheStore", removedKeys);
+               }
 
                if (getStatisticsEnabled())
                   cacheStores.getAndAdd(storedCount);
@@ -474,6 +489,42 @@ void storeEntry(InvocationContext ctx, Object key, FlagAffectedCommand command)
       if (trace) getLog().tracef("Stored entry %s under key %s", sv, key);
    }
 
+   /**
+    * Same as {@link #storeEntry(InvocationContext, Object, FlagAffectedCommand)}, but without blocking the invoking
+    * thread.
+    */
+   CompletableFuture<Void> storeEntryAsync(InvocationContext ctx, Object key, FlagAffectedCommand command) {
+      InternalCacheValue sv = getStoredValue(key, ctx);
+      return persistenceManager.writeToAllNonTxStoresAsync(new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller),
+                                                           skipSharedStores(ctx, key, command) ? PRIVATE : BOTH)
+            .thenRun(() -> {
+               if (trace) getLog().tracef("Stored entry %s under key %s", sv, key);
+            });
+   }
+
+   /**
+    * Stores the entries of all the keys, with a single batch for the keys that must skip the shared stores and
+    * another for the rest.
+    */
+   void storeEntries(InvocationContext ctx, List<Object> keys, FlagAffectedCommand command) {
+      List<MarshalledEntry> entries = new ArrayList<>(keys.size());
+      List<MarshalledEntry> privateEntries = new ArrayList<>();
+      for (Object key : keys) {
+         InternalCacheValue sv = getStoredValue(key, ctx);
+         MarshalledEntry entry = new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller);
+         if (skipSharedStores(ctx, key, command)) {
+            privateEntries.add(entry);
+         } else {
+            entries.add(entry);
+         }
+      }
+      if (!entries.isEmpty())
+         persistenceManager.writeBatchToAllNonTxStores(entries, BOTH);
+      if (!privateEntries.isEmpty())
+         persistenceManager.writeBatchToAllNonTxStores(privateEntries, PRIVATE);
+      if (trace) getLog().tracef("Stored entries under keys %s", keys);
+   }
+
    protected boolean skipSharedStores(InvocationContext ctx, Object key, FlagAffectedCommand command) {
       return !ctx.isOriginLocal() ||
             command.hasAnyFlag(FlagBitSets.SKIP_SHARED_CACHE_STORE);
@@ -4,6 +4,8 @@
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.BOTH;
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.PRIVATE;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.infinispan.commands.FlagAffectedCommand;
@@ -71,18 +73,19 @@ private void setAddress() {
 
    @Override
    public BasicInvocationStage visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
-      return invokeNext(ctx, command).thenApply((rCtx, rCommand, rv) -> {
+      return invokeNext(ctx, command).thenCompose((stage, rCtx, rCommand, rv) -> {
          PutKeyValueCommand putKeyValueCommand = (PutKeyValueCommand) rCommand;
          Object key = putKeyValueCommand.getKey();
          if (!isStoreEnabled(putKeyValueCommand) || rCtx.isInTxScope() || !putKeyValueCommand.isSuccessful())
-            return rv;
+            return stage;
          if (!isProperWriter(rCtx, putKeyValueCommand, putKeyValueCommand.getKey()))
-            return rv;
+            return stage;
 
-         storeEntry(rCtx, key, putKeyValueCommand);
-         if (getStatisticsEnabled())
-            cacheStores.incrementAndGet();
-         return rv;
+         return returnWithAsync(storeEntryAsync(rCtx, key, putKeyValueCommand).thenApply(ignore -> {
+            if (getStatisticsEnabled())
+               cacheStores.incrementAndGet();
+            return rv;
+         }));
       });
    }
 
@@ -94,7 +97,7 @@ public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapComm
             return rv;
 
          Map<Object, Object> map = putMapCommand.getMap();
-         int count = 0;
+         List<Object> keys = new ArrayList<>(map.size());
          for (Object key : map.keySet()) {
             // In non-tx mode, a node may receive the same forwarded PutMapCommand many times - but each time
             // it must write only the keys locked on the primary owner that forwarded the command
@@ -103,12 +106,12 @@ public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapComm
                continue;
 
             if (isProperWriter(rCtx, putMapCommand, key)) {
-               storeEntry(rCtx, key, putMapCommand);
-               count++;
+               keys.add(key);
             }
          }
+         storeEntries(rCtx, keys, putMapCommand);
          if (getStatisticsEnabled())
-            cacheStores.getAndAdd(count);
+            cacheStores.getAndAdd(keys.size());
 
          return rv;
       });
@@ -116,38 +119,39 @@ public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapComm
 
    @Override
    public BasicInvocationStage visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
-      return invokeNext(ctx, command).thenApply((rCtx, rCommand, rv) -> {
+      return invokeNext(ctx, command).thenCompose((stage, rCtx, rCommand, rv) -> {
          RemoveCommand removeCommand = (RemoveCommand) rCommand;
          Object key = removeCommand.getKey();
          if (!isStoreEnabled(removeCommand) || rCtx.isInTxScope() || !removeCommand.isSuccessful())
-            return rv;
+            return stage;
          if (!isProperWriter(rCtx, removeCommand, key))
-            return rv;
-
-         boolean resp = persistenceManager
-               .deleteFromAllStores(key, skipSharedStores(rCtx, key, removeCommand) ? PRIVATE : BOTH);
-         log.tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
-
-         return rv;
+            return stage;
+
+         return returnWithAsync(persistenceManager
+               .deleteFromAllStoresAsync(key, skipSharedStores(rCtx, key, removeCommand) ? PRIVATE : BOTH)
+               .thenApply(resp -> {
+                  log.tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
+                  return rv;
+               }));
       });
    }
 
    @Override
    public BasicInvocationStage visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
          throws Throwable {
-      return invokeNext(ctx, command).thenApply((rCtx, rCommand, rv) -> {
+      return invokeNext(ctx, command).thenCompose((stage, rCtx, rCommand, rv) -> {
          ReplaceCommand replaceCommand = (ReplaceCommand) rCommand;
          Object key = replaceCommand.getKey();
          if (!isStoreEnabled(replaceCommand) || rCtx.isInTxScope() || !replaceCommand.isSuccessful())
-            return rv;
+            return stage;
          if (!isProperWriter(rCtx, replaceCommand, replaceCommand.getKey()))
-            return rv;
+            return stage;
 
-         storeEntry(rCtx, key, replaceCommand);
-         if (getStatisticsEnabled())
-            cacheStores.incrementAndGet();
-
-         return rv;
+         return returnWithAsync(storeEntryAsync(rCtx, key, replaceCommand).thenApply(ignore -> {
+            if (getStatisticsEnabled())
+               cacheStores.incrementAndGet();
+            return rv;
+         }));
       });
    }
 
@@ -0,0 +1,42 @@
+package org.infinispan.marshall.core;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of the byte arrays {@link GlobalMarshaller} marshalls large objects into.  The arrays are only used
+ * while marshalling, the result is copied into an array of the exact size, so they can be reused as soon as the
+ * marshalling is done.  The pool holds at most {@code maxArrays} arrays of up to {@code maxArraySize} bytes, bigger
+ * arrays are left to the garbage collector.
+ *
+ * @since 9.0
+ */
+final class ByteArrayPool {
+   private final ArrayBlockingQueue<byte[]> arrays;
+   private final int maxArraySize;
+
+   ByteArrayPool(int maxArrays, int maxArraySize) {
+      this.arrays = new ArrayBlockingQueue<>(maxArrays);
+      this.maxArraySize = maxArraySize;
+   }
+
+   /**
+    * @return a pooled array of at least {@code minSize} bytes, or a new one if none is available
+    */
+   byte[] take(int minSize) {
+      byte[] array = arrays.poll();
+      if (array == null || array.length < minSize) {
+         // a smaller pooled array is dropped, the grown array will be released in its place
+         return new byte[minSize];
+      }
+      return array;
+   }
+
+   /**
+    * Returns an array to the pool.  The array must not be used by the caller anymore.
+    */
+   void release(byte[] array) {
+      if (array.length <= maxArraySize) {
+         arrays.offer(array);
+      }
+   }
+}
@@ -21,6 +21,11 @@ final class BytesObjectOutput implements ObjectOutput {
       this.marshaller = marshaller;
    }
 
+   BytesObjectOutput(byte[] bytes, GlobalMarshaller marshaller) {
+      this.bytes = bytes;
+      this.marshaller = marshaller;
+   }
+
    @Override
    public void writeObject(Object obj) throws IOException {
       marshaller.writeNullableObject(obj, this);
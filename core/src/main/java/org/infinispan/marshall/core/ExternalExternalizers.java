@@ -8,6 +8,7 @@
 
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.commons.util.ServiceFinder;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -45,6 +46,24 @@ else if (config.getKey() != null)
             exts.put(subType, foreignExt);
       }
 
+      // Externalizers generated for classes annotated with @GenerateExternalizer, unless configured explicitly
+      for (AdvancedExternalizer<?> ext : ServiceFinder.load(AdvancedExternalizer.class, globalCfg.classLoader())) {
+         Set<Class> subTypes = ext.getTypeClasses();
+         if (subTypes.stream().anyMatch(subType -> exts.get(subType) != null))
+            continue;
+
+         Integer id = ext.getId();
+         if (id == null)
+            throw new CacheConfigurationException(String.format(
+                  "No advanced externalizer identifier set for externalizer %s",
+                  ext.getClass().getName()));
+         checkForeignIdLimit(id, ext);
+
+         ForeignAdvancedExternalizer foreignExt = new ForeignAdvancedExternalizer(id, ext);
+         for (Class<?> subType : subTypes)
+            exts.put(subType, foreignExt);
+      }
+
       return exts;
    }
 
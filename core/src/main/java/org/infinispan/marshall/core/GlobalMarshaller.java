@@ -7,11 +7,13 @@
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.function.BiConsumer;
 
 import org.infinispan.commands.RemoteCommandsFactory;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.io.ByteBufferImpl;
 import org.infinispan.commons.io.ExposedByteArrayOutputStream;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
 import org.infinispan.commons.marshall.BufferSizePredictor;
@@ -93,7 +95,15 @@ public class GlobalMarshaller implements StreamingMarshaller {
    static final int FLAG_ARRAY_LARGE               = 0xC0;
 
 
+   /**
+    * Objects predicted to be marshalled into at least this number of bytes are written to a pooled array and then
+    * copied to an array of the exact size. Otherwise the new array, which stays referenced by the JGroups message until
+    * it is acknowledged, would be grown and copied while marshalling, ending up to twice as big as needed.
+    */
+   private static final int POOLED_SIZE_THRESHOLD = 64 * 1024;
+
    private final MarshallableTypeHints marshallableTypeHints = new MarshallableTypeHints();
+   private final ByteArrayPool bufferPool = new ByteArrayPool(Runtime.getRuntime().availableProcessors() * 2, 1024 * 1024);
 
    private GlobalComponentRegistry gcr;
    private RemoteCommandsFactory cmdFactory;
@@ -168,7 +178,13 @@ public void stopDefaultExternalMarshaller() {
    @Override
    public byte[] objectToByteBuffer(Object obj) throws IOException, InterruptedException {
       try {
-         BytesObjectOutput out = writeObjectOutput(obj);
+         BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(obj);
+         int estimatedSize = sizePredictor.nextSize(obj);
+         if (estimatedSize >= POOLED_SIZE_THRESHOLD) {
+            return writePooledObjectOutput(obj, sizePredictor, estimatedSize);
+         }
+         BytesObjectOutput out = writeObjectOutput(obj, estimatedSize);
+         sizePredictor.recordSize(out.pos);
          return out.toBytes(); // trim out unused bytes
       } catch (java.io.NotSerializableException nse) {
          if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
@@ -176,11 +192,17 @@ public byte[] objectToByteBuffer(Object obj) throws IOException, InterruptedExce
       }
    }
 
-   private BytesObjectOutput writeObjectOutput(Object obj) throws IOException {
-      BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(obj);
-      BytesObjectOutput out = writeObjectOutput(obj, sizePredictor.nextSize(obj));
-      sizePredictor.recordSize(out.pos);
-      return out;
+   private byte[] writePooledObjectOutput(Object obj, BufferSizePredictor sizePredictor, int estimatedSize)
+         throws IOException {
+      BytesObjectOutput out = new BytesObjectOutput(bufferPool.take(estimatedSize), this);
+      try {
+         writeNullableObject(obj, out);
+         sizePredictor.recordSize(out.pos);
+         return Arrays.copyOf(out.bytes, out.pos);
+      } finally {
+         // out.bytes may have been replaced by a bigger array, which is the one worth keeping
+         bufferPool.release(out.bytes);
+      }
    }
 
    private BytesObjectOutput writeObjectOutput(Object obj, int estimatedSize) throws IOException {
@@ -302,7 +324,14 @@ public BufferSizePredictor getBufferSizePredictor(Object o) {
    @Override
    public ByteBuffer objectToBuffer(Object o) throws IOException, InterruptedException {
       try {
-         BytesObjectOutput out = writeObjectOutput(o);
+         BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(o);
+         int estimatedSize = sizePredictor.nextSize(o);
+         if (estimatedSize >= POOLED_SIZE_THRESHOLD) {
+            byte[] bytes = writePooledObjectOutput(o, sizePredictor, estimatedSize);
+            return new ByteBufferImpl(bytes, 0, bytes.length);
+         }
+         BytesObjectOutput out = writeObjectOutput(o, estimatedSize);
+         sizePredictor.recordSize(out.pos);
          return out.toByteBuffer();
       } catch (java.io.NotSerializableException nse) {
          if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
@@ -603,9 +632,10 @@ private void writeRawUnknown(Object obj, BytesObjectOutput out) throws IOExcepti
          ((StreamingMarshaller) external).objectToObjectStream(obj, out);
       else {
          try {
-            byte[] bytes = external.objectToByteBuffer(obj);
-            out.writeInt(bytes.length);
-            out.write(bytes);
+            // the buffer is copied into the output, so there is no need to trim it first
+            ByteBuffer buffer = external.objectToBuffer(obj);
+            out.writeInt(buffer.getLength());
+            out.write(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
          } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
          }
@@ -863,9 +893,10 @@ private Object readUnknown(BytesObjectInput in) throws IOException, ClassNotFoun
          }
       } else {
          int length = in.readInt();
-         byte[] bytes = new byte[length];
-         in.readFully(bytes);
-         return external.objectFromByteBuffer(bytes);
+         // read in place, without copying the bytes first
+         Object obj = external.objectFromByteBuffer(in.bytes, in.pos, length);
+         in.pos += length;
+         return obj;
       }
    }
 }
@@ -3,9 +3,13 @@
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -18,6 +22,9 @@
 import org.infinispan.metadata.impl.InternalMetadataImpl;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.persistence.spi.IterableCacheLoader;
+import org.infinispan.persistence.util.CacheLoaderCloseableSupplier;
+import org.infinispan.util.CloseableSuppliedIterator;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
@@ -58,6 +65,21 @@ public static <K, V> Set<InternalCacheEntry> toEntrySet(AdvancedCacheLoader<K, V
       return set;
    }
 
+   /**
+    * Returns an iterator over the entries of the given loader that reads them as it is advanced. Loaders that are not
+    * {@link IterableCacheLoader}s are iterated by a task submitted to the given executor, which blocks once it is
+    * {@code maxQueue} entries ahead of the consumer.
+    */
+   public static <K, V> CloseableIterator<MarshalledEntry<K, V>> entryIterator(AdvancedCacheLoader<K, V> acl,
+         KeyFilter<? super K> filter, boolean fetchValue, boolean fetchMetadata, Executor executor, int maxQueue,
+         long timeout, TimeUnit unit) {
+      if (acl instanceof IterableCacheLoader) {
+         return ((IterableCacheLoader<K, V>) acl).entryIterator(filter, fetchValue, fetchMetadata);
+      }
+      return new CloseableSuppliedIterator<>(new CacheLoaderCloseableSupplier<>(executor, acl, filter, fetchValue,
+            fetchMetadata, maxQueue, timeout, unit));
+   }
+
    public static long getExpiryTime(InternalMetadata internalMetadata) {
       return internalMetadata == null ? -1 : internalMetadata.expiryTime();
    }
@@ -93,6 +115,52 @@ public static <K, V> InternalCacheEntry<K,V> loadAndStoreInDataContainer(DataCon
       });
    }
 
+   /**
+    * Same as {@link #loadAndStoreInDataContainer(DataContainer, PersistenceManager, Object, InvocationContext,
+    * TimeService, AtomicReference)}, but the stores are queried without blocking the invoking thread, and without
+    * holding the lock of the key in the data container. If the key was written to or deleted from the stores while
+    * they were queried, the loaded entry may be stale and the stores are queried again holding the lock.
+    */
+   public static <K, V> CompletableFuture<InternalCacheEntry<K, V>> loadAndStoreInDataContainerAsync(
+         DataContainer<K, V> dataContainer, PersistenceManager persistenceManager, K key, InvocationContext ctx,
+         TimeService timeService, AtomicReference<Boolean> isLoaded) {
+      InternalCacheEntry<K, V> inMemory = dataContainer.peek(key);
+      if (inMemory != null && (!inMemory.canExpire() || !inMemory.isExpired(timeService.wallClockTime()))) {
+         isLoaded.set(null); //not loaded
+         return CompletableFuture.completedFuture(inMemory);
+      }
+
+      long stamp = persistenceManager.getModificationStamp(key);
+      return persistenceManager.loadFromAllStoresAsync(key, ctx).thenApply(loaded -> {
+         if (trace) {
+            log.tracef("Loaded %s for key %s from persistence.", loaded, key);
+         }
+         return dataContainer.compute(key, (k, oldEntry, factory) -> {
+            //the entry may have been written to the DataContainer while the stores were queried
+            if (oldEntry != null && (!oldEntry.canExpire() || !oldEntry.isExpired(timeService.wallClockTime()))) {
+               isLoaded.set(null); //not loaded
+               return oldEntry; //no changes in container
+            }
+
+            MarshalledEntry<K, V> current = (MarshalledEntry<K, V>) loaded;
+            if (persistenceManager.getModificationStamp(k) != stamp) {
+               //e.g. a remove deleted the loaded entry meanwhile, and it must not be written back
+               current = loadAndCheckExpiration(persistenceManager, k, ctx, timeService);
+            } else if (loaded != null && loaded.getMetadata() != null && loaded.getMetadata().isExpired(timeService.wallClockTime())) {
+               current = null;
+            }
+
+            if (current == null) {
+               isLoaded.set(Boolean.FALSE); //not loaded
+               return null; //no changed in container
+            }
+
+            isLoaded.set(Boolean.TRUE); //loaded!
+            return convert(current, factory);
+         });
+      });
+   }
+
    public static <K, V> InternalCacheEntry<K,V> loadAndComputeInDataContainer(DataContainer<K, V> dataContainer, final PersistenceManager persistenceManager,
                                                                               K key, final InvocationContext ctx, final TimeService timeService,
                                                                               DataContainer.ComputeAction<K, V> action) {
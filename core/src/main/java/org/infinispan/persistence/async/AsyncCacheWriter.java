@@ -151,19 +151,38 @@ public boolean delete(Object key) {
       return true;
    }
 
+   @Override
+   public void writeBatch(Iterable entries) {
+      for (Object entry : entries)
+         write((MarshalledEntry) entry);
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      for (Object key : keys)
+         delete(key);
+   }
+
    protected void applyModificationsSync(List<Modification> mods) throws PersistenceException {
+      // modifications are coalesced per key, so stores and removes can be applied as two independent batches
+      List<MarshalledEntry> entries = new ArrayList<>(mods.size());
+      List<Object> keys = new ArrayList<>();
       for (Modification m : mods) {
          switch (m.getType()) {
             case STORE:
-               actual.write(((Store) m).getStoredValue());
+               entries.add(((Store) m).getStoredValue());
                break;
             case REMOVE:
-               actual.delete(((Remove) m).getKey());
+               keys.add(((Remove) m).getKey());
                break;
             default:
                throw new IllegalArgumentException("Unknown modification type " + m.getType());
          }
       }
+      if (!entries.isEmpty())
+         actual.writeBatch(entries);
+      if (!keys.isEmpty())
+         actual.deleteBatch(keys);
    }
 
 
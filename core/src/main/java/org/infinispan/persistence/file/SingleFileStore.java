@@ -1,10 +1,18 @@
 package org.infinispan.persistence.file;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -18,6 +26,9 @@
 import java.util.concurrent.Executor;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 import org.infinispan.commons.configuration.ConfiguredBy;
 import org.infinispan.commons.equivalence.AnyEquivalence;
@@ -60,6 +71,15 @@
  * data loss, and data can be recomputed or re-queried from the original data
  * source.
  * <p/>
+ * When the store is purged, if the free space exceeds the configured compaction threshold of the file size, the
+ * live entries at the end of the file are moved into free entries closer to its start so that the file can be
+ * truncated.
+ * <p/>
+ * On stop, the in-memory index is saved to <tt>&lt;location&gt;/&lt;cache name&gt;.idx</tt>, so that the next start
+ * only reads the keys instead of scanning the whole data file. The index is deleted on start, as it no longer
+ * matches the data file once the store is modified. It is only used if its checksum is valid and the data file still
+ * has the size and modification time recorded in it, otherwise the data file is scanned.
+ * <p/>
  * This class is fully thread safe, yet allows for concurrent load / store
  * of individual cache entries.
  *
@@ -73,6 +93,7 @@
    private static final boolean trace = log.isTraceEnabled();
 
    private static final byte[] MAGIC = new byte[]{'F', 'C', 'S', '1'};
+   private static final byte[] INDEX_MAGIC = new byte[]{'F', 'C', 'I', '1'};
    private static final byte[] ZERO_INT = {0, 0, 0, 0};
    private static final int KEYLEN_POS = 4;
    private static final int KEY_POS = 4 + 4 + 4 + 4 + 8;
@@ -87,6 +108,7 @@
    private SortedSet<FileEntry> freeList;
    private long filePos = MAGIC.length;
    private File file;
+   private File indexFile;
    private float fragmentationFactor = .75f;
    // Prevent clear() from truncating the file after a write() allocated the entry but before it wrote the data
    private ReadWriteLock resizeLock = new ReentrantReadWriteLock();
@@ -108,6 +130,7 @@ public void start() {
             location = "Infinispan-SingleFileStore";
 
          file = new File(location, ctx.getCache().getName() + ".dat");
+         indexFile = new File(location, ctx.getCache().getName() + ".idx");
          if (!file.exists()) {
             File dir = file.getParentFile();
             if (!dir.mkdirs() && !dir.exists()) {
@@ -123,11 +146,14 @@ public void start() {
          // check file format and read persistent state if enabled for the cache
          byte[] header = new byte[MAGIC.length];
          if (channel.read(ByteBuffer.wrap(header), 0) == MAGIC.length && Arrays.equals(MAGIC, header)) {
-            rebuildIndex();
+            if (!loadIndex())
+               rebuildIndex();
             processFreeEntries();
          }
          else
             clear(); // otherwise (unknown file format or no preload) just reset the file
+         // the saved index is stale as soon as the store is modified
+         Files.deleteIfExists(indexFile.toPath());
 
          // Initialize the fragmentation factor
          fragmentationFactor = configuration.fragmentationFactor();
@@ -154,6 +180,7 @@ public void stop() {
          if (channel != null) {
             log.tracef("Stopping store %s, size = %d, file size = %d", ctx.getCache().getName(), entries.size(), channel.size());
 
+            saveIndex();
             // reset state
             channel.close();
             channel = null;
@@ -171,13 +198,15 @@ public void stop() {
     */
    private void rebuildIndex() throws Exception {
       ByteBuffer buf = ByteBuffer.allocate(KEY_POS);
+      // entries written by a write() that was interrupted before it made them valid
+      Map<K, FileEntry> pendingEntries = newEntryMap();
       for (; ; ) {
          // read FileEntry fields from file (size, keyLen etc.)
          buf.clear().limit(KEY_POS);
          channel.read(buf, filePos);
-         // return if end of file is reached
+         // stop if end of file is reached
          if (buf.remaining() > 0)
-            return;
+            break;
          buf.flip();
 
          // initialize FileEntry from buffer
@@ -186,7 +215,9 @@ private void rebuildIndex() throws Exception {
          int dataLen = buf.getInt();
          int metadataLen = buf.getInt();
          long expiryTime = buf.getLong();
-         FileEntry fe = new FileEntry(filePos, entrySize, keyLen, dataLen, metadataLen, expiryTime);
+         // a negative keyLen marks an entry that is not valid yet, see write()
+         boolean pending = keyLen < 0;
+         FileEntry fe = new FileEntry(filePos, entrySize, Math.abs(keyLen), dataLen, metadataLen, expiryTime);
 
          // sanity check
          if (fe.size < KEY_POS + fe.keyLen + fe.dataLen + fe.metadataLen) {
@@ -208,12 +239,139 @@ private void rebuildIndex() throws Exception {
             // deserialize key and add to entries map
             // Marshaller should allow for provided type return for safety
             K key = (K) ctx.getMarshaller().objectFromByteBuffer(buf.array(), 0, fe.keyLen);
-            entries.put(key, fe);
+            if (pending) {
+               // concurrent writes of the same key were interrupted, none of them completed so either value will do
+               free(pendingEntries.put(key, fe));
+            } else {
+               // a key is only found twice if a compaction was interrupted before freeing the entry it copied, the
+               // copies are identical (a write only makes its entry valid once the entry it replaces is freed)
+               free(entries.put(key, fe));
+            }
          } else {
             // add to free list
             freeList.add(fe);
          }
       }
+
+      for (Map.Entry<K, FileEntry> pendingEntry : pendingEntries.entrySet()) {
+         if (entries.containsKey(pendingEntry.getKey())) {
+            // the write was interrupted before it freed the entry it replaces, which keeps the key
+            free(pendingEntry.getValue());
+         } else {
+            // the write was interrupted after it freed the entry it replaces (if any), so its entry has the value
+            writeKeyLen(pendingEntry.getValue());
+            entries.put(pendingEntry.getKey(), pendingEntry.getValue());
+         }
+      }
+   }
+
+   /**
+    * Loads the in-memory index saved by {@link #saveIndex()}, unless the data file was modified since.
+    *
+    * @return true if the index was loaded, false if it must be rebuilt from the data file
+    */
+   private boolean loadIndex() {
+      if (!indexFile.exists())
+         return false;
+
+      CRC32 checksum = new CRC32();
+      try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+            new BufferedInputStream(new FileInputStream(indexFile)), checksum))) {
+         byte[] header = new byte[INDEX_MAGIC.length];
+         in.readFully(header);
+         long indexFilePos = in.readLong();
+         long indexLastModified = in.readLong();
+         if (!Arrays.equals(INDEX_MAGIC, header) || indexFilePos != channel.size() ||
+               indexLastModified != file.lastModified())
+            return false;
+
+         int numEntries = in.readInt();
+         for (int i = 0; i < numEntries; i++) {
+            int keyLength = in.readInt();
+            if (keyLength <= 0 || keyLength > indexFile.length())
+               throw log.errorReadingFileStore(indexFile.getPath(), keyLength);
+            byte[] keyBytes = new byte[keyLength];
+            in.readFully(keyBytes);
+            K key = (K) ctx.getMarshaller().objectFromByteBuffer(keyBytes);
+            FileEntry fe = new FileEntry(in.readLong(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                  in.readLong());
+            if (fe.keyLen <= 0 || fe.dataLen < 0 || fe.metadataLen < 0)
+               throw log.errorReadingFileStore(indexFile.getPath(), fe.offset);
+            checkBounds(fe, indexFilePos, fe.actualSize());
+            entries.put(key, fe);
+         }
+         int numFree = in.readInt();
+         for (int i = 0; i < numFree; i++) {
+            FileEntry fe = new FileEntry(in.readLong(), in.readInt());
+            checkBounds(fe, indexFilePos, KEY_POS);
+            freeList.add(fe);
+         }
+         // the checksum covers everything read so far
+         long expectedChecksum = checksum.getValue();
+         if (in.readLong() != expectedChecksum || in.read() != -1)
+            throw log.errorReadingFileStore(indexFile.getPath(), indexFilePos);
+         filePos = indexFilePos;
+         if (trace) log.tracef("Loaded index of %d entries and %d free entries, file size is %d", numEntries, numFree, filePos);
+         return true;
+      } catch (Exception e) {
+         log.unableToLoadFileStoreIndex(indexFile.getPath(), e);
+         entries.clear();
+         freeList.clear();
+         return false;
+      }
+   }
+
+   private void checkBounds(FileEntry fe, long fileSize, int minSize) {
+      if (fe.offset < MAGIC.length || fe.size < minSize || fe.offset + fe.size > fileSize)
+         throw log.errorReadingFileStore(indexFile.getPath(), fe.offset);
+   }
+
+   /**
+    * Saves the in-memory index, with the keys and the file positions of the entries and of the free entries, so
+    * that the next start doesn't need to read the whole data file.
+    */
+   private void saveIndex() {
+      File tmpFile = new File(indexFile.getPath() + ".tmp");
+      try {
+         // the data must be on disk before an index that refers to it
+         channel.force(false);
+         CRC32 checksum = new CRC32();
+         try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+               new BufferedOutputStream(new FileOutputStream(tmpFile)), checksum))) {
+            out.write(INDEX_MAGIC);
+            out.writeLong(channel.size());
+            // the data file is modified by any write, so its size alone doesn't prove the index matches it
+            out.writeLong(file.lastModified());
+            synchronized (entries) {
+               out.writeInt(entries.size());
+               for (Map.Entry<K, FileEntry> e : entries.entrySet()) {
+                  byte[] keyBytes = ctx.getMarshaller().objectToByteBuffer(e.getKey());
+                  FileEntry fe = e.getValue();
+                  out.writeInt(keyBytes.length);
+                  out.write(keyBytes);
+                  out.writeLong(fe.offset);
+                  out.writeInt(fe.size);
+                  out.writeInt(fe.keyLen);
+                  out.writeInt(fe.dataLen);
+                  out.writeInt(fe.metadataLen);
+                  out.writeLong(fe.expiryTime);
+               }
+            }
+            synchronized (freeList) {
+               out.writeInt(freeList.size());
+               for (FileEntry fe : freeList) {
+                  out.writeLong(fe.offset);
+                  out.writeInt(fe.size);
+               }
+            }
+            out.writeLong(checksum.getValue());
+         }
+         Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+               StandardCopyOption.ATOMIC_MOVE);
+      } catch (Exception e) {
+         log.unableToSaveFileStoreIndex(indexFile.getPath(), e);
+         tmpFile.delete();
+      }
    }
 
    /**
@@ -318,6 +476,16 @@ private void free(FileEntry fe) throws IOException {
       }
    }
 
+   /**
+    * Makes an entry written as free or pending valid, by writing its keyLen field.
+    */
+   private void writeKeyLen(FileEntry fe) throws IOException {
+      ByteBuffer buf = ByteBuffer.allocate(4);
+      buf.putInt(fe.keyLen);
+      buf.flip();
+      channel.write(buf, fe.offset + KEYLEN_POS);
+   }
+
    @Override
    public void write(MarshalledEntry<? extends K, ? extends V> marshalledEntry) {
       try {
@@ -337,9 +505,13 @@ public void write(MarshalledEntry<? extends K, ? extends V> marshalledEntry) {
             long expiryTime = metadata != null ? marshalledEntry.getMetadata().expiryTime() : -1;
             newEntry = new FileEntry(newEntry, key.getLength(), data.getLength(), metadataLength, expiryTime);
 
+            // The entry is written as pending, with a negative keyLen, and only made valid once the entry it replaces
+            // is freed. If the write is interrupted before the old entry is freed, rebuildIndex() keeps the old entry
+            // and frees the pending one, otherwise it makes the pending entry valid. Either way the file never has
+            // two different valid values of the key, nor loses the key.
             ByteBuffer buf = ByteBuffer.allocate(len);
             buf.putInt(newEntry.size);
-            buf.putInt(newEntry.keyLen);
+            buf.putInt(-newEntry.keyLen);
             buf.putInt(newEntry.dataLen);
             buf.putInt(newEntry.metadataLen);
             buf.putLong(newEntry.expiryTime);
@@ -351,14 +523,19 @@ public void write(MarshalledEntry<? extends K, ? extends V> marshalledEntry) {
             channel.write(buf, newEntry.offset);
             if (trace) log.tracef("Wrote entry %s:%d at %d:%d", marshalledEntry.getKey(), len, newEntry.offset, newEntry.size);
 
-            // add the new entry to in-memory index
-            oldEntry = entries.put(marshalledEntry.getKey(), newEntry);
+            // holding the lock, so that the entry replaced is the one freed and a compaction doesn't move the new
+            // entry before it is valid
+            synchronized (entries) {
+               FileEntry replaced = entries.put(marshalledEntry.getKey(), newEntry);
+               free(replaced);
+               writeKeyLen(newEntry);
 
-            // if we added an entry, check if we need to evict something
-            if (oldEntry == null)
-               oldEntry = evict();
+               // if we added an entry, check if we need to evict something
+               if (replaced == null)
+                  oldEntry = evict();
+            }
          } finally {
-            // in case we replaced or evicted an entry, add to freeList
+            // in case we evicted an entry, add to freeList
             try {
                free(oldEntry);
             } finally {
@@ -655,6 +832,126 @@ private void mergeFreeEntries(List<FileEntry> entries) {
       if (trace) log.tracef("Total time taken for mergeFreeEntries: " + (timeService.wallClockTime() - startTime) + " (ms)");
    }
 
+   /**
+    * Moves the live entries at the end of the file into free entries closer to its start, when the free space is
+    * more than the configured compaction threshold of the file size, and truncates the file.
+    * <p/>
+    * Note: Caller must hold the {@code resizeLock} in shared mode.
+    */
+   private void compactIfFragmented() {
+      long freeSpace = 0;
+      long fileSize;
+      synchronized (freeList) {
+         for (FileEntry fe : freeList)
+            freeSpace += fe.size;
+         fileSize = filePos;
+      }
+      if (freeSpace <= fileSize * configuration.compactionThreshold())
+         return;
+
+      long startTime = 0;
+      if (trace) startTime = timeService.wallClockTime();
+
+      List<KeyValuePair<K, FileEntry>> candidates = new ArrayList<>(entries.size());
+      synchronized (entries) {
+         for (Map.Entry<K, FileEntry> e : entries.entrySet())
+            candidates.add(new KeyValuePair<>(e.getKey(), e.getValue()));
+      }
+      // Start from the end of the file, the space freed there can be truncated
+      Collections.sort(candidates, (o1, o2) -> Long.compare(o2.getValue().offset, o1.getValue().offset));
+
+      int movedEntries = 0;
+      try {
+         for (KeyValuePair<K, FileEntry> candidate : candidates) {
+            Boolean moved = moveEntry(candidate.getKey(), candidate.getValue());
+            if (moved == null)
+               break;
+            if (moved)
+               movedEntries++;
+         }
+      } catch (IOException e) {
+         throw new PersistenceException("Error while compacting file", e);
+      }
+
+      synchronized (freeList) {
+         processFreeEntries();
+      }
+
+      if (trace) log.tracef("Compacted file by moving %d entries, file size is now %d, time taken %d (ms)",
+            movedEntries, filePos, timeService.wallClockTime() - startTime);
+   }
+
+   /**
+    * Copies an entry into a free entry closer to the start of the file, and frees its current space.
+    * <p/>
+    * Note: Caller must hold the {@code resizeLock} in shared mode.
+    *
+    * @return true if the entry was moved, false if it was modified or removed concurrently, or null if no free entry
+    * before it is large enough
+    */
+   private Boolean moveEntry(K key, FileEntry fe) throws IOException {
+      synchronized (entries) {
+         if (entries.get(key) != fe)
+            return false;
+         // lock entry for reading, so that its space is not reused before it is copied
+         fe.lock();
+      }
+
+      FileEntry target;
+      try {
+         target = allocateBefore(fe.actualSize(), fe.offset);
+         if (target == null)
+            return null;
+
+         ByteBuffer buf = ByteBuffer.allocate(fe.actualSize());
+         channel.read(buf, fe.offset);
+         buf.flip();
+         buf.putInt(0, target.size);
+         // the copy stays free until it replaces the entry, so a write of the key meanwhile never leaves it valid
+         buf.putInt(KEYLEN_POS, 0);
+         channel.write(buf, target.offset);
+      } finally {
+         fe.unlock();
+      }
+
+      FileEntry newEntry = new FileEntry(target, fe.keyLen, fe.dataLen, fe.metadataLen, fe.expiryTime);
+      boolean replaced = false;
+      synchronized (entries) {
+         if (entries.get(key) == fe) {
+            writeKeyLen(newEntry);
+            entries.put(key, newEntry);
+            replaced = true;
+         }
+      }
+      if (replaced) {
+         if (trace) log.tracef("Moved entry %s from %d:%d to %d:%d", key, fe.offset, fe.size, newEntry.offset, newEntry.size);
+         free(fe);
+      } else {
+         // the entry was written or removed while being copied, so the copy goes back to the free entries
+         addNewFreeEntry(target);
+      }
+      return replaced;
+   }
+
+   /**
+    * Allocates the requested space in a free entry that starts before the given file position.
+    *
+    * @return allocated file position and length as FileEntry object, or null if no free entry is large enough
+    */
+   private FileEntry allocateBefore(int len, long offset) {
+      synchronized (freeList) {
+         for (Iterator<FileEntry> it = freeList.tailSet(new FileEntry(0, len)).iterator(); it.hasNext(); ) {
+            FileEntry free = it.next();
+            if (free.offset >= offset || free.isLocked())
+               continue;
+
+            it.remove();
+            return allocateExistingEntry(free, len);
+         }
+         return null;
+      }
+   }
+
    @Override
    public void purge(Executor threadPool, final PurgeListener task) {
       long now = timeService.wallClockTime();
@@ -690,6 +987,7 @@ public void purge(Executor threadPool, final PurgeListener task) {
          synchronized (freeList) {
            processFreeEntries();
          }
+         compactIfFragmented();
       } finally {
          resizeLock.readLock().unlock();
       }
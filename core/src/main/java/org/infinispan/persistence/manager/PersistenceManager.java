@@ -2,11 +2,13 @@
 
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
 import javax.transaction.Transaction;
 
 import org.infinispan.commons.api.Lifecycle;
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.filter.KeyFilter;
@@ -50,6 +52,14 @@ public interface PersistenceManager extends Lifecycle {
 
    boolean deleteFromAllStores(Object key, AccessMode mode);
 
+   /**
+    * Same as {@link #deleteFromAllStores(Object, AccessMode)}, but without blocking the invoking thread. Stores that are
+    * not {@link org.infinispan.persistence.spi.NonBlockingCacheWriter}s are invoked in the persistence executor.
+    *
+    * @return a future completed with true if the entry was removed from any store
+    */
+   CompletableFuture<Boolean> deleteFromAllStoresAsync(Object key, AccessMode mode);
+
    void processOnAllStores(KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata);
 
    void processOnAllStores(Executor executor, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata);
@@ -58,8 +68,45 @@ public interface PersistenceManager extends Lifecycle {
 
    void processOnAllStores(Executor executor, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode);
 
+   /**
+    * Same as {@link #processOnAllStores(KeyFilter, AdvancedCacheLoader.CacheLoaderTask, boolean, boolean, AccessMode)},
+    * but only feeds the entries of the given segments into the task. {@link
+    * org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore}s only read the data of those segments, the other
+    * stores skip the keys of the other segments before loading their values.
+    */
+   void processOnAllStores(Set<Integer> segments, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode);
+
+   /**
+    * Invokes {@link org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore#removeSegments(Set)} on all the
+    * stores that allow it. The entries of the given segments are left in the other stores.
+    */
+   void removeSegmentsFromAllStores(Set<Integer> segments, AccessMode mode);
+
+   /**
+    * Returns an iterator over the entries of all the stores that pass the filter, the stores being iterated one after
+    * the other. The entries are read from the stores as the iterator advances, see {@link
+    * org.infinispan.persistence.spi.IterableCacheLoader}. The iterator must be closed unless it has been exhausted.
+    */
+   CloseableIterator<MarshalledEntry> entryIterator(KeyFilter keyFilter, boolean fetchValue, boolean fetchMetadata, AccessMode mode);
+
    MarshalledEntry loadFromAllStores(Object key, InvocationContext context);
 
+   /**
+    * Same as {@link #loadFromAllStores(Object, InvocationContext)}, but without blocking the invoking thread. Loaders
+    * that are not {@link org.infinispan.persistence.spi.NonBlockingCacheLoader}s are invoked in the persistence
+    * executor.
+    *
+    * @return a future completed with the entry of the first loader containing the key, or with null
+    */
+   CompletableFuture<MarshalledEntry> loadFromAllStoresAsync(Object key, InvocationContext context);
+
+   /**
+    * Returns a stamp that changes once the key has been written to or deleted from the stores, so that an entry
+    * loaded without holding the lock of the key can be checked against a concurrent modification. Other keys may
+    * share the stamp of the key.
+    */
+   long getModificationStamp(Object key);
+
    /**
     * Returns the store one configured with fetch persistent state, or null if none exist.
     */
@@ -125,6 +172,34 @@ protected boolean canPerform(StoreConfiguration configuration) {
     */
    void writeToAllNonTxStores(MarshalledEntry marshalledEntry, AccessMode modes);
 
+   /**
+    * Same as {@link #writeToAllNonTxStores(MarshalledEntry, AccessMode)}, but without blocking the invoking thread.
+    * Stores that are not {@link org.infinispan.persistence.spi.NonBlockingCacheWriter}s are invoked in the persistence
+    * executor.
+    *
+    * @return a future completed once the entry has been written to all the stores
+    */
+   CompletableFuture<Void> writeToAllNonTxStoresAsync(MarshalledEntry marshalledEntry, AccessMode accessMode);
+
+   /**
+    * Write all the entries to all the stores that are not transactional, as a single batch per store if it supports
+    * it.
+    *
+    * @param marshalledEntries the entries to be written to all non-tx stores.
+    * @param accessMode the type of access to the underlying store.
+    * @see #writeToAllNonTxStores(MarshalledEntry, AccessMode)
+    */
+   void writeBatchToAllNonTxStores(Iterable<MarshalledEntry> marshalledEntries, AccessMode accessMode);
+
+   /**
+    * Remove all the keys from all the stores that are not transactional, as a single batch per store if it supports
+    * it.
+    *
+    * @param keys the keys to be removed from all non-tx stores.
+    * @param accessMode the type of access to the underlying store.
+    */
+   void deleteBatchFromAllNonTxStores(Iterable<Object> keys, AccessMode accessMode);
+
    /**
     * Perform the prepare phase of 2PC on all Tx stores.
     *
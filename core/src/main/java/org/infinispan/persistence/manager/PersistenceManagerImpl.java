@@ -17,13 +17,18 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -34,7 +39,10 @@
 
 import org.infinispan.AdvancedCache;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.executors.BlockingThreadPoolExecutorFactory;
+import org.infinispan.commons.executors.ThreadPoolExecutorFactory;
 import org.infinispan.commons.io.ByteBufferFactory;
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
@@ -43,12 +51,16 @@
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.eviction.EvictionType;
+import org.infinispan.executors.LimitedExecutor;
 import org.infinispan.expiration.ExpirationManager;
+import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.filter.CompositeKeyFilter;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.interceptors.AsyncInterceptor;
 import org.infinispan.interceptors.AsyncInterceptorChain;
@@ -60,6 +72,7 @@
 import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.InternalMetadataImpl;
 import org.infinispan.persistence.InitializationContextImpl;
+import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.async.AdvancedAsyncCacheLoader;
 import org.infinispan.persistence.async.AdvancedAsyncCacheWriter;
 import org.infinispan.persistence.async.AsyncCacheLoader;
@@ -73,14 +86,16 @@
 import org.infinispan.persistence.spi.CacheWriter;
 import org.infinispan.persistence.spi.LocalOnlyCacheLoader;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
 import org.infinispan.persistence.spi.TransactionalCacheWriter;
 import org.infinispan.persistence.support.AdvancedSingletonCacheWriter;
 import org.infinispan.persistence.support.BatchModification;
 import org.infinispan.persistence.support.DelegatingCacheLoader;
 import org.infinispan.persistence.support.DelegatingCacheWriter;
+import org.infinispan.persistence.support.NonBlockingStoreAdapter;
 import org.infinispan.persistence.support.SingletonCacheWriter;
 import org.infinispan.util.TimeService;
-import org.infinispan.util.concurrent.WithinThreadExecutor;
+import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -88,6 +103,12 @@ public class PersistenceManagerImpl implements PersistenceManager {
 
    private static final Log log = LogFactory.getLog(PersistenceManagerImpl.class);
    private static final boolean trace = log.isTraceEnabled();
+   // how many entries the iteration of a loader without an iterator can read ahead of the consumer
+   private static final int ITERATOR_QUEUE_SIZE = 2048;
+   // how long the consumer of such an iteration waits for the next entry, and the iteration for the consumer
+   private static final long ITERATOR_TIMEOUT_SECONDS = 10;
+   // the keys are spread over this many modification stamps, the keys sharing a stamp are only checked more often
+   private static final int MODIFICATION_STAMPS = 1024;
 
    Configuration configuration;
    AdvancedCache<Object, Object> cache;
@@ -113,16 +134,27 @@ public class PersistenceManagerImpl implements PersistenceManager {
     */
    volatile boolean enabled;
    private Executor persistenceExecutor;
+   // invokes the blocking stores on behalf of the asynchronous operations and completes the stages of the non-blocking
+   // stores
+   private LimitedExecutor storeExecutor;
+   // runs the iterations of the loaders without an iterator, each one blocking a thread until its consumer catches up
+   // or gives up; the two executors together run at most as many tasks at once as the persistence executor has threads
+   private LimitedExecutor iteratorExecutor;
    private ByteBufferFactory byteBufferFactory;
    private MarshalledEntryFactory marshalledEntryFactory;
+   private KeyPartitioner keyPartitioner;
    private volatile boolean clearOnStop;
+   private final AtomicLongArray modificationStamps = new AtomicLongArray(MODIFICATION_STAMPS);
+   // incremented when any key may have been modified, e.g. by a clear
+   private final AtomicLong allKeysModificationStamp = new AtomicLong();
 
    @Inject
    public void inject(AdvancedCache<Object, Object> cache, StreamingMarshaller marshaller,
                       Configuration configuration, TransactionManager transactionManager,
                       TimeService timeService, @ComponentName(PERSISTENCE_EXECUTOR) ExecutorService persistenceExecutor,
                       ByteBufferFactory byteBufferFactory, MarshalledEntryFactory marshalledEntryFactory,
-                      CacheStoreFactoryRegistry cacheStoreFactoryRegistry, ExpirationManager expirationManager) {
+                      CacheStoreFactoryRegistry cacheStoreFactoryRegistry, ExpirationManager expirationManager,
+                      KeyPartitioner keyPartitioner) {
       this.cache = cache;
       this.m = marshaller;
       this.configuration = configuration;
@@ -133,6 +165,7 @@ public void inject(AdvancedCache<Object, Object> cache, StreamingMarshaller mars
       this.marshalledEntryFactory = marshalledEntryFactory;
       this.cacheStoreFactoryRegistry = cacheStoreFactoryRegistry;
       this.expirationManager = expirationManager;
+      this.keyPartitioner = keyPartitioner;
 
       this.advancedListener = new AdvancedPurgeListener(expirationManager);
    }
@@ -143,6 +176,14 @@ public void start() {
       enabled = configuration.persistence().usingStores();
       if (!enabled)
          return;
+      String cacheName = cache.getName();
+      // The tasks beyond the limits are queued, the persistence executor runs the tasks on the submitting thread once
+      // all its threads are busy, e.g. with the tasks of other caches
+      int threads = persistenceThreads();
+      int iteratorThreads = Math.max(1, threads / 2);
+      storeExecutor = new LimitedExecutor("PersistenceStore-" + cacheName, persistenceExecutor,
+            Math.max(1, threads - iteratorThreads));
+      iteratorExecutor = new LimitedExecutor("PersistenceIterator-" + cacheName, persistenceExecutor, iteratorThreads);
       try {
          createLoadersAndWriters();
          Transaction xaTx = null;
@@ -225,6 +266,19 @@ public void stop() {
          }
       }
 
+      if (iteratorExecutor != null) {
+         // The consumers of the iterations waiting for a thread time out
+         iteratorExecutor.cancelQueuedTasks();
+      }
+   }
+
+   private int persistenceThreads() {
+      ThreadPoolExecutorFactory factory = cache.getCacheManager().getCacheManagerConfiguration()
+            .persistenceThreadPool().threadPoolFactory();
+      if (factory instanceof BlockingThreadPoolExecutorFactory) {
+         return ((BlockingThreadPoolExecutorFactory) factory).maxThreads();
+      }
+      return KnownComponentNames.getDefaultThreads(PERSISTENCE_EXECUTOR);
    }
 
    @Override
@@ -255,17 +309,16 @@ public void preload() {
       final long maxEntries = getMaxEntries();
       final AtomicInteger loadedEntries = new AtomicInteger(0);
       final AdvancedCache<Object, Object> flaggedCache = getCacheForStateInsertion();
-      preloadCl.process(null, new AdvancedCacheLoader.CacheLoaderTask() {
-         @Override
-         public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext taskContext) throws InterruptedException {
-            if (loadedEntries.getAndIncrement() >= maxEntries) {
-               taskContext.stop();
-               return;
-            }
+      // Pull the entries so that the store stops reading as soon as the maximum number of entries has been loaded
+      try (CloseableIterator<MarshalledEntry> iterator = PersistenceUtil.entryIterator(preloadCl, null, true, true,
+            iteratorExecutor, ITERATOR_QUEUE_SIZE, ITERATOR_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+         while (iterator.hasNext() && loadedEntries.get() < maxEntries) {
+            MarshalledEntry me = iterator.next();
+            loadedEntries.incrementAndGet();
             Metadata metadata = me.getMetadata() != null ? ((InternalMetadataImpl)me.getMetadata()).actual() : null; //the downcast will go away with ISPN-3460
             preloadKey(flaggedCache, me.getKey(), me.getValue(), metadata);
          }
-      }, new WithinThreadExecutor(), true, true);
+      }
 
       log.debugf("Preloaded %s keys in %s", loadedEntries, Util.prettyPrintTime(timeService.timeDuration(start, MILLISECONDS)));
    }
@@ -423,6 +476,7 @@ public void clearAllStores(AccessMode mode) {
          nonTxWriters.forEach(clearWriter);
          txWriters.forEach(clearWriter);
       } finally {
+         allKeysModificationStamp.incrementAndGet();
          storesMutex.readLock().unlock();
       }
    }
@@ -438,6 +492,23 @@ public boolean deleteFromAllStores(Object key, AccessMode mode) {
             }
          }
          return removed;
+      } finally {
+         keyModified(key);
+         storesMutex.readLock().unlock();
+      }
+   }
+
+   @Override
+   public CompletableFuture<Boolean> deleteFromAllStoresAsync(Object key, AccessMode mode) {
+      storesMutex.readLock().lock();
+      try {
+         CompletableFuture<Boolean> removed = CompletableFuture.completedFuture(Boolean.FALSE);
+         for (CacheWriter w : nonTxWriters) {
+            if (mode.canPerform(configMap.get(w))) {
+               removed = removed.thenCombine(NonBlockingStoreAdapter.delete(w, key, storeExecutor), Boolean::logicalOr);
+            }
+         }
+         return removed.whenComplete((ignore, throwable) -> keyModified(key));
       } finally {
          storesMutex.readLock().unlock();
       }
@@ -474,6 +545,119 @@ public void processOnAllStores(Executor executor, KeyFilter keyFilter, AdvancedC
       }
    }
 
+   @Override
+   public void processOnAllStores(Set<Integer> segments, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task,
+                                  boolean fetchValue, boolean fetchMetadata, AccessMode mode) {
+      KeyFilter segmentFilter = new CompositeKeyFilter(key -> segments.contains(keyPartitioner.getSegment(key)),
+            PersistenceUtil.notNull(keyFilter));
+      storesMutex.readLock().lock();
+      try {
+         for (CacheLoader loader : loaders) {
+            if (mode.canPerform(configMap.get(loader))) {
+               if (loader instanceof SegmentedAdvancedLoadWriteStore) {
+                  ((SegmentedAdvancedLoadWriteStore) loader).process(segments, keyFilter, task, persistenceExecutor,
+                        fetchValue, fetchMetadata);
+               } else if (loader instanceof AdvancedCacheLoader) {
+                  ((AdvancedCacheLoader) loader).process(segmentFilter, task, persistenceExecutor, fetchValue, fetchMetadata);
+               }
+            }
+         }
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+   }
+
+   @Override
+   public void removeSegmentsFromAllStores(Set<Integer> segments, AccessMode mode) {
+      storesMutex.readLock().lock();
+      try {
+         Consumer<CacheWriter> removeSegments = writer -> {
+            if (writer instanceof SegmentedAdvancedLoadWriteStore && ((SegmentedAdvancedLoadWriteStore) writer).isSegmented()) {
+               if (mode.canPerform(configMap.get(writer))) {
+                  ((SegmentedAdvancedLoadWriteStore) writer).removeSegments(segments);
+               }
+            }
+         };
+         nonTxWriters.forEach(removeSegments);
+         txWriters.forEach(removeSegments);
+      } finally {
+         allKeysModificationStamp.incrementAndGet();
+         storesMutex.readLock().unlock();
+      }
+   }
+
+   @Override
+   public CloseableIterator<MarshalledEntry> entryIterator(KeyFilter keyFilter, boolean fetchValue, boolean fetchMetadata,
+                                                          AccessMode mode) {
+      List<AdvancedCacheLoader> candidates = new ArrayList<>();
+      storesMutex.readLock().lock();
+      try {
+         for (CacheLoader loader : loaders) {
+            if (mode.canPerform(configMap.get(loader)) && loader instanceof AdvancedCacheLoader) {
+               candidates.add((AdvancedCacheLoader) loader);
+            }
+         }
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+      return new LoadersEntryIterator(candidates.iterator(), keyFilter, fetchValue, fetchMetadata);
+   }
+
+   /**
+    * Iterates over the loaders one after the other, only starting the iteration of a loader once the previous one is
+    * exhausted.
+    */
+   private class LoadersEntryIterator implements CloseableIterator<MarshalledEntry> {
+      private final Iterator<AdvancedCacheLoader> loaderIterator;
+      private final KeyFilter keyFilter;
+      private final boolean fetchValue;
+      private final boolean fetchMetadata;
+      private CloseableIterator<MarshalledEntry> current;
+
+      LoadersEntryIterator(Iterator<AdvancedCacheLoader> loaderIterator, KeyFilter keyFilter, boolean fetchValue,
+                           boolean fetchMetadata) {
+         this.loaderIterator = loaderIterator;
+         this.keyFilter = keyFilter;
+         this.fetchValue = fetchValue;
+         this.fetchMetadata = fetchMetadata;
+      }
+
+      @Override
+      public boolean hasNext() {
+         while (current == null || !current.hasNext()) {
+            if (current != null) {
+               current.close();
+               current = null;
+            }
+            if (!loaderIterator.hasNext()) {
+               return false;
+            }
+            current = PersistenceUtil.entryIterator(loaderIterator.next(), keyFilter, fetchValue, fetchMetadata,
+                  iteratorExecutor, ITERATOR_QUEUE_SIZE, ITERATOR_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+         }
+         return true;
+      }
+
+      @Override
+      public MarshalledEntry next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         return current.next();
+      }
+
+      @Override
+      public void close() {
+         if (current != null) {
+            current.close();
+            current = null;
+         }
+         while (loaderIterator.hasNext()) {
+            loaderIterator.next();
+         }
+      }
+   }
+
    @Override
    public MarshalledEntry loadFromAllStores(Object key, InvocationContext context) {
       storesMutex.readLock().lock();
@@ -492,6 +676,46 @@ public MarshalledEntry loadFromAllStores(Object key, InvocationContext context)
       }
    }
 
+   @Override
+   public CompletableFuture<MarshalledEntry> loadFromAllStoresAsync(Object key, InvocationContext context) {
+      List<CacheLoader> candidates;
+      storesMutex.readLock().lock();
+      try {
+         candidates = new ArrayList<>(loaders.size());
+         for (CacheLoader l : loaders) {
+            if (context.isOriginLocal() || !isLocalOnlyLoader(l))
+               candidates.add(l);
+         }
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+      return loadAsync(candidates, 0, key);
+   }
+
+   private CompletableFuture<MarshalledEntry> loadAsync(List<CacheLoader> candidates, int index, Object key) {
+      if (index == candidates.size())
+         return CompletableFutures.completedNull();
+
+      // Like the blocking load, query the next loader only if the previous ones don't have the key
+      return NonBlockingStoreAdapter.load(candidates.get(index), key, storeExecutor).thenCompose(
+            load -> load != null ? CompletableFuture.completedFuture(load) : loadAsync(candidates, index + 1, key));
+   }
+
+   @Override
+   public long getModificationStamp(Object key) {
+      // both stamps only increase, so the sum changes whenever either of them does
+      return allKeysModificationStamp.get() + modificationStamps.get(stampIndex(key));
+   }
+
+   // Invoked once the stores were modified, so that a load that read the previous value sees the new stamp
+   private void keyModified(Object key) {
+      modificationStamps.incrementAndGet(stampIndex(key));
+   }
+
+   private static int stampIndex(Object key) {
+      return (key.hashCode() & Integer.MAX_VALUE) % MODIFICATION_STAMPS;
+   }
+
    private boolean isLocalOnlyLoader(CacheLoader loader) {
       if (loader instanceof LocalOnlyCacheLoader) return true;
       if (loader instanceof DelegatingCacheLoader) {
@@ -510,6 +734,48 @@ public void writeToAllNonTxStores(MarshalledEntry marshalledEntry, AccessMode ac
                .filter(writer -> accessMode.canPerform(configMap.get(writer)))
                .forEach(writer -> writer.write(marshalledEntry));
       } finally {
+         keyModified(marshalledEntry.getKey());
+         storesMutex.readLock().unlock();
+      }
+   }
+
+   @Override
+   public CompletableFuture<Void> writeToAllNonTxStoresAsync(MarshalledEntry marshalledEntry, AccessMode accessMode) {
+      storesMutex.readLock().lock();
+      try {
+         CompletableFuture[] writes = nonTxWriters.stream()
+               .filter(writer -> accessMode.canPerform(configMap.get(writer)))
+               .map(writer -> NonBlockingStoreAdapter.write(writer, marshalledEntry, storeExecutor))
+               .toArray(CompletableFuture[]::new);
+         return CompletableFuture.allOf(writes)
+               .whenComplete((ignore, throwable) -> keyModified(marshalledEntry.getKey()));
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+   }
+
+   @Override
+   public void writeBatchToAllNonTxStores(Iterable<MarshalledEntry> marshalledEntries, AccessMode accessMode) {
+      storesMutex.readLock().lock();
+      try {
+         nonTxWriters.stream()
+               .filter(writer -> accessMode.canPerform(configMap.get(writer)))
+               .forEach(writer -> writer.writeBatch(marshalledEntries));
+      } finally {
+         marshalledEntries.forEach(entry -> keyModified(entry.getKey()));
+         storesMutex.readLock().unlock();
+      }
+   }
+
+   @Override
+   public void deleteBatchFromAllNonTxStores(Iterable<Object> keys, AccessMode accessMode) {
+      storesMutex.readLock().lock();
+      try {
+         nonTxWriters.stream()
+               .filter(writer -> accessMode.canPerform(configMap.get(writer)))
+               .forEach(writer -> writer.deleteBatch(keys));
+      } finally {
+         keys.forEach(this::keyModified);
          storesMutex.readLock().unlock();
       }
    }
@@ -532,7 +798,12 @@ public void prepareAllTxStores(Transaction transaction, BatchModification batchM
 
    @Override
    public void commitAllTxStores(Transaction transaction, AccessMode accessMode) {
-      performOnAllTxStores(accessMode, writer -> writer.commit(transaction));
+      try {
+         performOnAllTxStores(accessMode, writer -> writer.commit(transaction));
+      } finally {
+         // the modified keys are not known here
+         allKeysModificationStamp.incrementAndGet();
+      }
    }
 
    @Override
@@ -3,10 +3,13 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
 import javax.transaction.Transaction;
 
+import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.commons.util.Closeables;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.SurvivesRestarts;
 import org.infinispan.filter.KeyFilter;
@@ -14,6 +17,7 @@
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.persistence.support.BatchModification;
+import org.infinispan.util.concurrent.CompletableFutures;
 
 /**
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
@@ -59,6 +63,11 @@ public boolean deleteFromAllStores(Object key, AccessMode mode) {
       return false;
    }
 
+   @Override
+   public CompletableFuture<Boolean> deleteFromAllStoresAsync(Object key, AccessMode mode) {
+      return CompletableFuture.completedFuture(Boolean.FALSE);
+   }
+
    @Override
    public void processOnAllStores(KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata) {
    }
@@ -75,15 +84,51 @@ public void processOnAllStores(KeyFilter keyFilter, AdvancedCacheLoader.CacheLoa
    public void processOnAllStores(Executor executor, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode) {
    }
 
+   @Override
+   public void processOnAllStores(Set<Integer> segments, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode) {
+   }
+
+   @Override
+   public CloseableIterator<MarshalledEntry> entryIterator(KeyFilter keyFilter, boolean fetchValue, boolean fetchMetadata, AccessMode mode) {
+      return Closeables.iterator(Collections.emptyIterator());
+   }
+
+   @Override
+   public void removeSegmentsFromAllStores(Set<Integer> segments, AccessMode mode) {
+   }
+
    @Override
    public MarshalledEntry loadFromAllStores(Object key, InvocationContext context) {
       return null;
    }
 
+   @Override
+   public CompletableFuture<MarshalledEntry> loadFromAllStoresAsync(Object key, InvocationContext context) {
+      return CompletableFutures.completedNull();
+   }
+
+   @Override
+   public long getModificationStamp(Object key) {
+      return 0;
+   }
+
    @Override
    public void writeToAllNonTxStores(MarshalledEntry marshalledEntry, AccessMode modes) {
    }
 
+   @Override
+   public CompletableFuture<Void> writeToAllNonTxStoresAsync(MarshalledEntry marshalledEntry, AccessMode accessMode) {
+      return CompletableFutures.completedNull();
+   }
+
+   @Override
+   public void writeBatchToAllNonTxStores(Iterable<MarshalledEntry> marshalledEntries, AccessMode accessMode) {
+   }
+
+   @Override
+   public void deleteBatchFromAllNonTxStores(Iterable<Object> keys, AccessMode accessMode) {
+   }
+
    @Override
    public AdvancedCacheLoader getStateTransferProvider() {
       return null;
@@ -35,4 +35,26 @@
     * @throws PersistenceException in case of an error, e.g. communicating with the external storage
     */
    boolean delete(Object key);
+
+   /**
+    * Persists all the provided entries to the storage, as a single batch if the storage supports it. By default the
+    * entries are written one by one with {@link #write(MarshalledEntry)}.
+    *
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   default void writeBatch(Iterable<MarshalledEntry<? extends K, ? extends V>> entries) {
+      for (MarshalledEntry<? extends K, ? extends V> entry : entries)
+         write(entry);
+   }
+
+   /**
+    * Removes all the provided keys from the storage, as a single batch if the storage supports it. By default the
+    * keys are deleted one by one with {@link #delete(Object)}.
+    *
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   default void deleteBatch(Iterable<Object> keys) {
+      for (Object key : keys)
+         delete(key);
+   }
 }
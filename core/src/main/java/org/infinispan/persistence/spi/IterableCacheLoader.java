@@ -0,0 +1,33 @@
+package org.infinispan.persistence.spi;
+
+import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.filter.KeyFilter;
+import org.infinispan.marshall.core.MarshalledEntry;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * An {@link AdvancedCacheLoader} whose entries can be pulled through an iterator. Unlike {@link
+ * #process(KeyFilter, CacheLoaderTask, java.util.concurrent.Executor, boolean, boolean)}, which pushes all the entries
+ * into a task as fast as the storage can read them, the entries are only read as the consumer advances the iterator,
+ * so a slow consumer holds back the reads and closing the iterator ends the iteration right away. The cache iterates
+ * over loaders that only implement {@link AdvancedCacheLoader} by running {@code process} on the persistence executor
+ * and handing the entries over through a bounded queue.
+ *
+ * @since 9.0
+ */
+@ThreadSafe
+public interface IterableCacheLoader<K, V> extends AdvancedCacheLoader<K, V> {
+
+   /**
+    * Returns an iterator over the entries in the storage that pass the <b>filter</b>. The iterator is only used by one
+    * thread at a time, and it must be closed to release the resources held by the iteration, e.g. a connection or a
+    * cursor, unless it has been exhausted.
+    *
+    * @param filter        to validate which entries should be returned. Might be null.
+    * @param fetchValue    whether or not to fetch the value from the persistent store
+    * @param fetchMetadata whether or not to fetch the metadata from the persistent store
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   CloseableIterator<MarshalledEntry<K, V>> entryIterator(KeyFilter<? super K> filter, boolean fetchValue, boolean fetchMetadata);
+}
@@ -0,0 +1,27 @@
+package org.infinispan.persistence.spi;
+
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.marshall.core.MarshalledEntry;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A {@link CacheLoader} that can fetch entries without blocking the invoking thread. The cache invokes
+ * {@link #loadAsync(Object)} instead of {@link #load(Object)} when loading an entry on behalf of a command, so the
+ * command can continue once the returned stage completes. Loaders that only implement {@link CacheLoader} are invoked
+ * on the persistence executor instead.
+ *
+ * @since 9.0
+ */
+@ThreadSafe
+public interface NonBlockingCacheLoader<K, V> extends CacheLoader<K, V> {
+
+   /**
+    * Fetches an entry from the storage without blocking.
+    *
+    * @return a stage completed with the entry, or with null if the entry does not exist. In case of an error, e.g.
+    * communicating with the external storage, the stage is completed exceptionally with a {@link PersistenceException}
+    */
+   CompletionStage<MarshalledEntry<K, V>> loadAsync(Object key);
+}
@@ -0,0 +1,37 @@
+package org.infinispan.persistence.spi;
+
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.marshall.core.MarshalledEntry;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A {@link CacheWriter} that can modify the storage without blocking the invoking thread. The cache invokes
+ * {@link #writeAsync(MarshalledEntry)} and {@link #deleteAsync(Object)} instead of their blocking counterparts when
+ * storing the outcome of a non-transactional command. Writers that only implement {@link CacheWriter} are invoked on
+ * the persistence executor instead.
+ *
+ * @since 9.0
+ */
+@ThreadSafe
+public interface NonBlockingCacheWriter<K, V> extends CacheWriter<K, V> {
+
+   /**
+    * Persists the entry to the storage without blocking.
+    *
+    * @return a stage completed once the entry has been stored. In case of an error, e.g. communicating with the
+    * external storage, the stage is completed exceptionally with a {@link PersistenceException}
+    * @see MarshalledEntry
+    */
+   CompletionStage<Void> writeAsync(MarshalledEntry<? extends K, ? extends V> entry);
+
+   /**
+    * Removes the entry for the provided key from the storage without blocking.
+    *
+    * @return a stage completed with true if the entry existed in the persistent store and it was deleted. In case of
+    * an error, e.g. communicating with the external storage, the stage is completed exceptionally with a
+    * {@link PersistenceException}
+    */
+   CompletionStage<Boolean> deleteAsync(Object key);
+}
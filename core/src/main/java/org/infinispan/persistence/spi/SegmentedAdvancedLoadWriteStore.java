@@ -0,0 +1,49 @@
+package org.infinispan.persistence.spi;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.infinispan.filter.KeyFilter;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A store that keeps the entries of each segment apart, e.g. in a separate file or column family, so that the entries
+ * of some segments can be iterated or removed without touching the data of the other segments. The segment of a key
+ * is the one returned by the cache's {@link org.infinispan.distribution.ch.KeyPartitioner}.
+ * <p>
+ * State transfer uses these operations to send the entries of the segments requested by a joiner and to remove the
+ * entries of the segments no longer owned by the local node.
+ *
+ * @since 9.0
+ */
+@ThreadSafe
+public interface SegmentedAdvancedLoadWriteStore<K, V> extends AdvancedLoadWriteStore<K, V> {
+
+   /**
+    * Same as {@link #process(KeyFilter, CacheLoaderTask, Executor, boolean, boolean)}, but only iterates over the
+    * entries of the given segments.
+    *
+    * @param segments the segments whose entries should be fed into the task
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   void process(Set<Integer> segments, KeyFilter<? super K> filter, CacheLoaderTask<K, V> task, Executor executor,
+                boolean fetchValue, boolean fetchMetadata);
+
+   /**
+    * Returns whether the entries of each segment are really kept apart. A store can be configured not to, in which case
+    * {@link #process(Set, KeyFilter, CacheLoaderTask, Executor, boolean, boolean)} filters all the entries, and
+    * {@link #removeSegments(Set)} does nothing.
+    */
+   default boolean isSegmented() {
+      return true;
+   }
+
+   /**
+    * Removes all the entries of the given segments from the storage. Only invoked if {@link #isSegmented()} returns
+    * true, a store that is not segmented must ignore the invocation rather than fail.
+    *
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   void removeSegments(Set<Integer> segments);
+}
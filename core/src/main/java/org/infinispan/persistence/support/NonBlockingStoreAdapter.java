@@ -0,0 +1,93 @@
+package org.infinispan.persistence.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.persistence.spi.CacheLoader;
+import org.infinispan.persistence.spi.CacheWriter;
+import org.infinispan.persistence.spi.NonBlockingCacheLoader;
+import org.infinispan.persistence.spi.NonBlockingCacheWriter;
+import org.infinispan.util.concurrent.CompletableFutures;
+
+/**
+ * Invokes loaders and writers through futures, so that a slow store never blocks the caller, e.g. a remote command or
+ * I/O thread. Blocking loaders and writers are invoked on the given executor, which should be bounded, and the returned
+ * future is completed by the thread that invoked the store. {@link NonBlockingCacheLoader}s and
+ * {@link NonBlockingCacheWriter}s are invoked on the calling thread, as they don't block, but they may complete their
+ * stages in I/O threads that must not run the rest of the command, so their futures are completed by the executor.
+ * A failure, thrown or returned as a failed stage, fails the returned future.
+ *
+ * @since 9.0
+ */
+public final class NonBlockingStoreAdapter {
+
+   private NonBlockingStoreAdapter() {
+   }
+
+   @SuppressWarnings("unchecked")
+   public static CompletableFuture<MarshalledEntry> load(CacheLoader loader, Object key, Executor executor) {
+      if (loader instanceof NonBlockingCacheLoader) {
+         try {
+            return continueOn(((NonBlockingCacheLoader) loader).loadAsync(key), executor);
+         } catch (RuntimeException e) {
+            return CompletableFutures.completedExceptionFuture(e);
+         }
+      }
+      return supplyOn(() -> loader.load(key), executor);
+   }
+
+   @SuppressWarnings("unchecked")
+   public static CompletableFuture<Void> write(CacheWriter writer, MarshalledEntry entry, Executor executor) {
+      if (writer instanceof NonBlockingCacheWriter) {
+         try {
+            return continueOn(((NonBlockingCacheWriter) writer).writeAsync(entry), executor);
+         } catch (RuntimeException e) {
+            return CompletableFutures.completedExceptionFuture(e);
+         }
+      }
+      return supplyOn(() -> {
+         writer.write(entry);
+         return null;
+      }, executor);
+   }
+
+   @SuppressWarnings("unchecked")
+   public static CompletableFuture<Boolean> delete(CacheWriter writer, Object key, Executor executor) {
+      if (writer instanceof NonBlockingCacheWriter) {
+         try {
+            return continueOn(((NonBlockingCacheWriter) writer).deleteAsync(key), executor);
+         } catch (RuntimeException e) {
+            return CompletableFutures.completedExceptionFuture(e);
+         }
+      }
+      return supplyOn(() -> writer.delete(key), executor);
+   }
+
+   private static <T> CompletableFuture<T> supplyOn(Supplier<T> operation, Executor executor) {
+      CompletableFuture<T> future = new CompletableFuture<>();
+      try {
+         executor.execute(() -> {
+            try {
+               future.complete(operation.get());
+            } catch (Throwable t) {
+               future.completeExceptionally(t);
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         future.completeExceptionally(e);
+      }
+      return future;
+   }
+
+   private static <T> CompletableFuture<T> continueOn(CompletionStage<T> stage, Executor executor) {
+      CompletableFuture<T> future = stage.toCompletableFuture();
+      if (future.isDone()) {
+         return future;
+      }
+      return future.whenCompleteAsync((value, throwable) -> {}, executor);
+   }
+}
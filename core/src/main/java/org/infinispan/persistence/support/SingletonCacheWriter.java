@@ -124,6 +124,22 @@ public boolean delete(Object key) {
       return active && super.delete(key);
    }
 
+   @Override
+   public void writeBatch(Iterable entries) {
+      if (active) {
+         super.writeBatch(entries);
+      } else {
+         if (trace)
+            log.tracef("Not storing batch.  Instance: %s", this);
+      }
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      if (active)
+         super.deleteBatch(keys);
+   }
+
    protected Callable<?> createPushStateTask() {
       return new Callable<Object>() {
          @Override
@@ -0,0 +1,191 @@
+package org.infinispan.persistence.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.infinispan.filter.KeyFilter;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.util.concurrent.TimeoutException;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
+import org.infinispan.util.function.CloseableSupplier;
+
+/**
+ * A closeable supplier of the entries of an {@link AdvancedCacheLoader} that can only push its entries through
+ * {@link AdvancedCacheLoader#process(KeyFilter, AdvancedCacheLoader.CacheLoaderTask, Executor, boolean, boolean)}.
+ * On the first call to get a task iterating over the loader is submitted to the executor. The task hands the entries
+ * over through a bounded queue, so it blocks while the queue is full and stops once the supplier is closed, or once
+ * the consumer hasn't taken an entry for the timeout, so that an abandoned supplier doesn't hold a thread. A failure
+ * of the iteration is rethrown by get, and get throws a {@link TimeoutException} if no entry is handed over in time,
+ * including when the executor had no thread available to start the task.
+ * <p>
+ * The executor must run the task on another thread than the one calling get, as the task would otherwise block while
+ * the queue is full with nobody to consume it. The task fails right away if it is rejected or run by the caller.
+ *
+ * @since 9.0
+ */
+public class CacheLoaderCloseableSupplier<K, V> implements CloseableSupplier<MarshalledEntry<K, V>> {
+   private final Executor executor;
+   private final AdvancedCacheLoader<K, V> loader;
+   private final KeyFilter<? super K> filter;
+   private final boolean fetchValue;
+   private final boolean fetchMetadata;
+   private final BlockingQueue<MarshalledEntry<K, V>> queue;
+   private final long timeout;
+   private final TimeUnit unit;
+
+   private final Lock closeLock = new ReentrantLock();
+   private final Condition closeCondition = closeLock.newCondition();
+   private final AtomicBoolean started = new AtomicBoolean();
+
+   private boolean closed = false;
+   private boolean running = false;
+   private Throwable failure;
+
+   public CacheLoaderCloseableSupplier(Executor executor, AdvancedCacheLoader<K, V> loader, KeyFilter<? super K> filter,
+                                       boolean fetchValue, boolean fetchMetadata, int maxQueue, long timeout,
+                                       TimeUnit unit) {
+      this.executor = executor;
+      this.loader = loader;
+      this.filter = filter;
+      this.fetchValue = fetchValue;
+      this.fetchMetadata = fetchMetadata;
+      this.queue = new ArrayBlockingQueue<>(maxQueue);
+      this.timeout = timeout;
+      this.unit = unit;
+   }
+
+   private void offer(MarshalledEntry<K, V> marshalledEntry, AdvancedCacheLoader.TaskContext taskContext)
+         throws InterruptedException {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      while (!isClosed()) {
+         if (System.nanoTime() - deadline > 0) {
+            close(new TimeoutException("The consumer of the entries of " + loader + " didn't take any in " +
+                  timeout + " " + unit));
+            break;
+         }
+         if (queue.offer(marshalledEntry, 100, TimeUnit.MILLISECONDS)) {
+            closeLock.lock();
+            try {
+               // Wake up anyone waiting for a value
+               closeCondition.signalAll();
+            } finally {
+               closeLock.unlock();
+            }
+            return;
+         }
+      }
+      taskContext.stop();
+   }
+
+   private boolean isClosed() {
+      closeLock.lock();
+      try {
+         return closed;
+      } finally {
+         closeLock.unlock();
+      }
+   }
+
+   @Override
+   public MarshalledEntry<K, V> get() {
+      if (!started.get() && started.compareAndSet(false, true)) {
+         Thread consumer = Thread.currentThread();
+         // The task blocks while the queue is full, so the loader must not hand the entries to other threads
+         try {
+            executor.execute(() -> {
+               if (Thread.currentThread() == consumer) {
+                  close(new PersistenceException("The iteration of " + loader + " can't run on the consuming thread"));
+                  return;
+               }
+               if (!markRunning()) {
+                  // closed, or timed out, while waiting for a thread
+                  return;
+               }
+               try {
+                  loader.process(filter, this::offer, new WithinThreadExecutor(), fetchValue, fetchMetadata);
+                  close(null);
+               } catch (Throwable t) {
+                  close(t);
+               }
+            });
+         } catch (RejectedExecutionException e) {
+            close(e);
+         }
+      }
+      MarshalledEntry<K, V> entry;
+      boolean interrupted = false;
+      long remaining = unit.toNanos(timeout);
+      while ((entry = queue.poll()) == null) {
+         closeLock.lock();
+         try {
+            if (closed) {
+               // The task may have added entries before completing
+               entry = queue.poll();
+               if (entry == null && failure != null) {
+                  throw new PersistenceException(failure);
+               }
+               break;
+            }
+            if (remaining <= 0) {
+               if (!running) {
+                  // Don't start the iteration once the consumer gave up
+                  TimeoutException e = new TimeoutException("No thread was available to iterate over " + loader +
+                        " in allotted timeout: " + timeout + " " + unit + ", too many iterations are open");
+                  closed = true;
+                  failure = e;
+                  throw e;
+               }
+               throw new TimeoutException("Couldn't retrieve an entry from " + loader + " in allotted timeout: " +
+                     timeout + " " + unit);
+            }
+            remaining = closeCondition.awaitNanos(remaining);
+         } catch (InterruptedException e) {
+            interrupted = true;
+         } finally {
+            closeLock.unlock();
+         }
+      }
+      if (interrupted) {
+         Thread.currentThread().interrupt();
+      }
+      return entry;
+   }
+
+   private boolean markRunning() {
+      closeLock.lock();
+      try {
+         running = !closed;
+         return running;
+      } finally {
+         closeLock.unlock();
+      }
+   }
+
+   private void close(Throwable t) {
+      closeLock.lock();
+      try {
+         if (!closed) {
+            failure = t;
+            closed = true;
+         }
+         closeCondition.signalAll();
+      } finally {
+         closeLock.unlock();
+      }
+   }
+
+   @Override
+   public void close() {
+      close(null);
+      queue.clear();
+   }
+}
@@ -0,0 +1,52 @@
+package org.infinispan.statetransfer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate at which the outbound state transfer tasks of a cache send bytes. Each caller reserves the bytes it
+ * is about to send and waits until the bytes reserved before it were sent at the configured rate, so the limit is
+ * shared by all the tasks using the same instance.
+ *
+ * @since 9.0
+ */
+class BandwidthLimiter {
+   private final long bytesPerSecond;
+   // The time at which all the bytes reserved so far have been sent at the configured rate
+   private long nextFreeNanos;
+
+   /**
+    * @param bytesPerSecond the maximum number of bytes sent per second, must be greater than 0
+    */
+   BandwidthLimiter(long bytesPerSecond) {
+      if (bytesPerSecond <= 0) {
+         throw new IllegalArgumentException("bytesPerSecond must be greater than 0");
+      }
+      this.bytesPerSecond = bytesPerSecond;
+      this.nextFreeNanos = System.nanoTime();
+   }
+
+   /**
+    * Waits until {@code bytes} bytes can be sent without exceeding the limit.
+    *
+    * @throws InterruptedException if the thread was interrupted while waiting, e.g. because the transfer was cancelled
+    */
+   void acquire(long bytes) throws InterruptedException {
+      long waitNanos = reserve(bytes);
+      if (waitNanos > 0) {
+         TimeUnit.NANOSECONDS.sleep(waitNanos);
+      }
+   }
+
+   private synchronized long reserve(long bytes) {
+      long now = System.nanoTime();
+      // Don't let the time the limiter was idle be used for a burst
+      long start = Math.max(now, nextFreeNanos);
+      nextFreeNanos = start + (long) (bytes * (double) TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+      return start - now;
+   }
+
+   @Override
+   public String toString() {
+      return "BandwidthLimiter{bytesPerSecond=" + bytesPerSecond + '}';
+   }
+}
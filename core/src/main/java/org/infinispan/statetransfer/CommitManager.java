@@ -11,6 +11,7 @@
 import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.metadata.Metadata;
@@ -124,6 +125,38 @@ public final void commit(final CacheEntry entry, final Metadata metadata, final
       });
    }
 
+   /**
+    * Stores an entry received by state transfer directly in the data container. The entry is not stored if another
+    * operation already has updated the key, same as {@link #commit(CacheEntry, Metadata, Flag, boolean)} with
+    * {@link Flag#PUT_FOR_STATE_TRANSFER}, but without wrapping the entry first.
+    *
+    * @param entry the received entry
+    * @return {@code true} if the entry was stored, {@code false} if it was discarded
+    */
+   public final boolean commitStateTransferEntry(InternalCacheEntry entry) {
+      if (isTrackDisabled(Flag.PUT_FOR_STATE_TRANSFER)) {
+         if (trace) {
+            log.tracef("Not committing key=%s. It is a state transfer key but no track is enabled!",
+                  toStr(entry.getKey()));
+         }
+         return false;
+      }
+      boolean[] committed = new boolean[1];
+      tracker.compute(entry.getKey(), (o, discardPolicy) -> {
+         if (discardPolicy != null && discardPolicy.ignore(Flag.PUT_FOR_STATE_TRANSFER)) {
+            if (trace) {
+               log.tracef("Not committing key=%s. It was already overwritten! Discard policy=%s",
+                     toStr(entry.getKey()), discardPolicy);
+            }
+            return discardPolicy;
+         }
+         dataContainer.put(entry.getKey(), entry.getValue(), entry.getMetadata());
+         committed[0] = true;
+         return calculateDiscardPolicy();
+      });
+      return committed[0];
+   }
+
    /**
     * @return {@code true} if the flag is being tracked, {@code false} otherwise.
     */
@@ -1,26 +1,41 @@
 package org.infinispan.statetransfer;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.filter.CollectionKeyFilter;
+import org.infinispan.filter.CompositeKeyFilter;
+import org.infinispan.filter.KeyFilter;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.persistence.spi.IterableCacheLoader;
+import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
+import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
@@ -43,6 +58,11 @@ public class OutboundTransferTask implements Runnable {
 
    private static final Log log = LogFactory.getLog(OutboundTransferTask.class);
 
+   /**
+    * Estimated size of the metadata and framing of each entry, added to the size of its key and value.
+    */
+   private static final int ENTRY_OVERHEAD = 32;
+
    private final boolean trace = log.isTraceEnabled();
 
    private final StateProviderImpl stateProvider;
@@ -55,6 +75,14 @@ public class OutboundTransferTask implements Runnable {
 
    private final int stateTransferChunkSize;
 
+   private final int chunkBytes;
+
+   private final int maxInFlightChunks;
+
+   private final BandwidthLimiter bandwidthLimiter;  // optional
+
+   private final StreamingMarshaller marshaller;
+
    private final ConsistentHash readCh;
 
    private final DataContainer<Object, Object> dataContainer;
@@ -76,6 +104,19 @@ public class OutboundTransferTask implements Runnable {
     */
    private int accumulatedEntries;
 
+   /**
+    * The estimated size of the entries accumulated in entriesBySegment, only computed if a chunk byte size or a
+    * bandwidth limit is configured.
+    */
+   private long accumulatedBytes;
+
+   private final boolean estimateSizes;
+
+   /**
+    * The responses of the chunks sent but not yet acknowledged, oldest first.
+    */
+   private final Deque<CompletableFuture<Map<Address, Response>>> pendingResponses = new ArrayDeque<>();
+
    /**
     * The Future obtained from submitting this task to an executor service. This is used for cancellation.
     */
@@ -85,7 +126,14 @@ public class OutboundTransferTask implements Runnable {
 
    private InternalEntryFactory entryFactory;
 
-   public OutboundTransferTask(Address destination, Set<Integer> segments, int stateTransferChunkSize,
+   /**
+    * @param chunkBytes        if greater than 0, a chunk is sent as soon as its estimated size would exceed it
+    * @param maxInFlightChunks how many chunks can be sent before waiting for the destination to acknowledge them
+    * @param bandwidthLimiter  if not {@code null}, limits the rate at which chunks are sent
+    * @param marshaller        estimates the size of the entries, required if chunkBytes or the limiter are set
+    */
+   public OutboundTransferTask(Address destination, Set<Integer> segments, int stateTransferChunkSize, int chunkBytes,
+                               int maxInFlightChunks, BandwidthLimiter bandwidthLimiter, StreamingMarshaller marshaller,
                                int topologyId, ConsistentHash readCh, StateProviderImpl stateProvider, DataContainer dataContainer,
                                PersistenceManager persistenceManager, RpcManager rpcManager,
                                CommandsFactory commandsFactory, InternalEntryFactory ef, long timeout, String cacheName) {
@@ -98,10 +146,18 @@ public OutboundTransferTask(Address destination, Set<Integer> segments, int stat
       if (stateTransferChunkSize <= 0) {
          throw new IllegalArgumentException("stateTransferChunkSize must be greater than 0");
       }
+      if (maxInFlightChunks <= 0) {
+         throw new IllegalArgumentException("maxInFlightChunks must be greater than 0");
+      }
       this.stateProvider = stateProvider;
       this.destination = destination;
       this.segments.addAll(segments);
       this.stateTransferChunkSize = stateTransferChunkSize;
+      this.chunkBytes = chunkBytes;
+      this.maxInFlightChunks = maxInFlightChunks;
+      this.bandwidthLimiter = bandwidthLimiter;
+      this.marshaller = marshaller;
+      this.estimateSizes = chunkBytes > 0 || bandwidthLimiter != null;
       this.topologyId = topologyId;
       this.readCh = readCh;
       this.dataContainer = dataContainer;
@@ -145,7 +201,12 @@ public int getTopologyId() {
    public void run() {
       try {
          // send data container entries
-         for (InternalCacheEntry ice : dataContainer) {
+         // a segmented container only visits the entries of the requested segments
+         Iterator<InternalCacheEntry<Object, Object>> iterator = dataContainer instanceof SegmentedDataContainer ?
+               ((SegmentedDataContainer<Object, Object>) dataContainer).iterator(new HashSet<>(segments)) :
+               dataContainer.iterator();
+         while (iterator.hasNext()) {
+            InternalCacheEntry ice = iterator.next();
             Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
             int segmentId = readCh.getSegment(key);
             if (segments.contains(segmentId) && !ice.isL1Entry()) {
@@ -156,22 +217,25 @@ public void run() {
          AdvancedCacheLoader stProvider = persistenceManager.getStateTransferProvider();
          if (stProvider != null) {
             try {
-               CollectionKeyFilter filter = new CollectionKeyFilter(new ReadOnlyDataContainerBackedKeySet(dataContainer));
-               AdvancedCacheLoader.CacheLoaderTask task = new AdvancedCacheLoader.CacheLoaderTask() {
-                  @Override
-                  public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext taskContext) throws InterruptedException {
-                        int segmentId = readCh.getSegment(me.getKey());
-                        if (segments.contains(segmentId)) {
-                           try {
-                              InternalCacheEntry icv = entryFactory.create(me.getKey(), me.getValue(), me.getMetadata());
-                              sendEntry(icv, segmentId);
-                           } catch (CacheException e) {
-                              log.failedLoadingValueFromCacheStore(me.getKey(), e);
-                           }
-                        }
+               KeyFilter filter = new CollectionKeyFilter(new ReadOnlyDataContainerBackedKeySet(dataContainer));
+               AdvancedCacheLoader.CacheLoaderTask task = (me, taskContext) -> sendStoredEntry(me);
+               // skip the keys of the other segments before their values are loaded
+               KeyFilter segmentFilter = new CompositeKeyFilter(key -> segments.contains(readCh.getSegment(key)), filter);
+               if (stProvider instanceof SegmentedAdvancedLoadWriteStore) {
+                  // only read the requested segments
+                  ((SegmentedAdvancedLoadWriteStore) stProvider).process(new HashSet<>(segments), filter, task,
+                        new WithinThreadExecutor(), true, true);
+               } else if (stProvider instanceof IterableCacheLoader) {
+                  // pull the entries, so the store only reads them as fast as they are sent
+                  try (CloseableIterator<MarshalledEntry> iterator =
+                             ((IterableCacheLoader) stProvider).entryIterator(segmentFilter, true, true)) {
+                     while (iterator.hasNext() && !segments.isEmpty()) {
+                        sendStoredEntry(iterator.next());
                      }
-                  };
-               stProvider.process(filter, task, new WithinThreadExecutor(), true, true);
+                  }
+               } else {
+                  stProvider.process(segmentFilter, task, new WithinThreadExecutor(), true, true);
+               }
             } catch (CacheException e) {
                log.failedLoadingKeysFromCacheStore(e);
             }
@@ -192,11 +256,26 @@ public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext tas
       }
    }
 
-   private void sendEntry(InternalCacheEntry ice, int segmentId) {
-      // send if we have a full chunk
-      if (accumulatedEntries >= stateTransferChunkSize) {
+   private void sendStoredEntry(MarshalledEntry me) throws InterruptedException {
+      int segmentId = readCh.getSegment(me.getKey());
+      if (segments.contains(segmentId)) {
+         try {
+            InternalCacheEntry icv = entryFactory.create(me.getKey(), me.getValue(), me.getMetadata());
+            sendEntry(icv, segmentId);
+         } catch (CacheException e) {
+            log.failedLoadingValueFromCacheStore(me.getKey(), e);
+         }
+      }
+   }
+
+   private void sendEntry(InternalCacheEntry ice, int segmentId) throws InterruptedException {
+      int size = estimateSizes ? estimateSize(ice) : 0;
+      // send if we have a full chunk, either by number of entries or by size
+      if (accumulatedEntries >= stateTransferChunkSize ||
+            (chunkBytes > 0 && accumulatedEntries > 0 && accumulatedBytes + size > chunkBytes)) {
          sendEntries(false);
          accumulatedEntries = 0;
+         accumulatedBytes = 0;
       }
 
       List<InternalCacheEntry> entries = entriesBySegment.get(segmentId);
@@ -206,9 +285,24 @@ private void sendEntry(InternalCacheEntry ice, int segmentId) {
       }
       entries.add(ice);
       accumulatedEntries++;
+      accumulatedBytes += size;
    }
 
-   private void sendEntries(boolean isLast) {
+   private int estimateSize(InternalCacheEntry ice) {
+      return ENTRY_OVERHEAD + estimateSize(ice.getKey()) + estimateSize(ice.getValue());
+   }
+
+   private int estimateSize(Object o) {
+      if (o instanceof WrappedBytes) {
+         return ((WrappedBytes) o).getLength();
+      } else if (o instanceof byte[]) {
+         return ((byte[]) o).length;
+      }
+      // the predictor learns the size of each type from the previous marshalling of instances of that type
+      return marshaller.getBufferSizePredictor(o).nextSize(o);
+   }
+
+   private void sendEntries(boolean isLast) throws InterruptedException {
       List<StateChunk> chunks = new ArrayList<StateChunk>();
       for (Map.Entry<Integer, List<InternalCacheEntry>> e : entriesBySegment.entrySet()) {
          List<InternalCacheEntry> entries = e.getValue();
@@ -236,23 +330,50 @@ private void sendEntries(boolean isLast) {
             }
          }
 
+         if (bandwidthLimiter != null) {
+            bandwidthLimiter.acquire(accumulatedBytes);
+         }
+
          StateResponseCommand cmd = commandsFactory.buildStateResponseCommand(rpcManager.getAddress(), topologyId, chunks);
-         // send synchronously, in order. it is important that the last chunk is received last in order to correctly detect completion of the stream of chunks
-         try {
-            rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
-         } catch (SuspectException e) {
-            log.debugf("Node %s left cache %s while we were sending state to it, cancelling transfer.", destination, cacheName);
-            cancel();
-         } catch (Exception e) {
-            if (isCancelled()) {
-               log.debugf("Stopping cancelled transfer of segments %s of cache %s to node %s", segments, cacheName, destination);
-            } else {
-               log.errorf(e, "Failed to send entries to node %s : %s", destination, e.getMessage());
+         if (maxInFlightChunks == 1) {
+            // send synchronously, in order. it is important that the last chunk is received last in order to correctly detect completion of the stream of chunks
+            try {
+               rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
+            } catch (Exception e) {
+               onSendFailure(e);
+            }
+         } else {
+            // wait for the acknowledgements beyond the window, and for all of them before sending the last chunk
+            awaitPendingResponses(isLast ? 0 : maxInFlightChunks - 1);
+            pendingResponses.add(rpcManager.invokeRemotelyAsync(Collections.singleton(destination), cmd, rpcOptions));
+            if (isLast) {
+               awaitPendingResponses(0);
             }
          }
       }
    }
 
+   private void awaitPendingResponses(int maxPending) throws InterruptedException {
+      while (pendingResponses.size() > maxPending) {
+         try {
+            pendingResponses.poll().get();
+         } catch (ExecutionException e) {
+            onSendFailure(e.getCause());
+         }
+      }
+   }
+
+   private void onSendFailure(Throwable t) {
+      if (t instanceof SuspectException) {
+         log.debugf("Node %s left cache %s while we were sending state to it, cancelling transfer.", destination, cacheName);
+         cancel();
+      } else if (isCancelled()) {
+         log.debugf("Stopping cancelled transfer of segments %s of cache %s to node %s", segments, cacheName, destination);
+      } else {
+         log.errorf(t, "Failed to send entries to node %s : %s", destination, t.getMessage());
+      }
+   }
+
    /**
     * Cancel some of the segments. If all segments get cancelled then the whole task will be cancelled.
     *
@@ -292,6 +413,8 @@ public String toString() {
             ", destination=" + destination +
             ", segments=" + segments +
             ", stateTransferChunkSize=" + stateTransferChunkSize +
+            ", chunkBytes=" + chunkBytes +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             ", timeout=" + timeout +
             ", cacheName='" + cacheName + '\'' +
             '}';
@@ -0,0 +1,80 @@
+package org.infinispan.statetransfer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the state received and applied by the {@link StateConsumer} for a single segment.
+ * <p>
+ * Counters are only incremented, so they cover all the rebalances the node took part in since the cache started.
+ *
+ * @since 9.0
+ */
+public class StateApplyStatistics {
+   private final LongAdder chunks = new LongAdder();
+   private final LongAdder appliedEntries = new LongAdder();
+   private final LongAdder discardedEntries = new LongAdder();
+   private final LongAdder applyNanos = new LongAdder();
+
+   void record(int applied, int discarded, long nanos) {
+      chunks.increment();
+      appliedEntries.add(applied);
+      discardedEntries.add(discarded);
+      applyNanos.add(nanos);
+   }
+
+   /**
+    * @return how many state chunks containing entries were applied
+    */
+   public long getChunks() {
+      return chunks.sum();
+   }
+
+   /**
+    * @return how many received entries were written to the cache
+    */
+   public long getAppliedEntries() {
+      return appliedEntries.sum();
+   }
+
+   /**
+    * @return how many received entries were not written, because a newer value was already written by a user
+    * operation or because applying them failed
+    */
+   public long getDiscardedEntries() {
+      return discardedEntries.sum();
+   }
+
+   /**
+    * @return the time spent applying the received entries, in milliseconds
+    */
+   public long getApplyTime() {
+      return TimeUnit.NANOSECONDS.toMillis(applyNanos.sum());
+   }
+
+   long getApplyNanos() {
+      return applyNanos.sum();
+   }
+
+   /**
+    * @return how many received entries (applied or discarded) were processed per second of apply time
+    */
+   public double getEntriesPerSecond() {
+      long nanos = applyNanos.sum();
+      if (nanos == 0) {
+         return 0;
+      }
+      return (appliedEntries.sum() + discardedEntries.sum()) * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+   }
+
+   @Override
+   public String toString() {
+      return "StateApplyStatistics{" +
+            "chunks=" + getChunks() +
+            ", appliedEntries=" + getAppliedEntries() +
+            ", discardedEntries=" + getDiscardedEntries() +
+            ", applyTime=" + getApplyTime() +
+            "ms, entriesPerSecond=" + getEntriesPerSecond() +
+            '}';
+   }
+}
@@ -1,6 +1,7 @@
 package org.infinispan.statetransfer;
 
 import java.util.Collection;
+import java.util.Map;
 
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
@@ -49,4 +50,10 @@ public interface StateConsumer {
     * @return  true if this node has already received the first rebalance command
     */
    boolean ownsData();
+
+   /**
+    * @return the statistics of the state applied so far, by segment. Only the segments for which some state was
+    * received are present.
+    */
+   Map<Integer, StateApplyStatistics> getApplyStatistics();
 }
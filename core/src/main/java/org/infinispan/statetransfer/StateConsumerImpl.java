@@ -23,6 +23,8 @@
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -31,6 +33,7 @@
 import javax.transaction.TransactionManager;
 
 import org.infinispan.Cache;
+import org.infinispan.commands.CommandInvocationId;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.write.InvalidateCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
@@ -39,7 +42,9 @@
 import org.infinispan.commons.util.concurrent.ConcurrentHashSet;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextFactory;
@@ -54,7 +59,10 @@
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryFactory;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.remoting.responses.CacheNotFoundResponse;
 import org.infinispan.remoting.responses.Response;
@@ -74,6 +82,7 @@
 import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
 import org.infinispan.util.concurrent.CommandAckCollector;
 import org.infinispan.util.concurrent.TimeoutException;
+import org.infinispan.util.concurrent.locks.LockManager;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -120,6 +129,10 @@ public class StateConsumerImpl implements StateConsumer {
    private CommitManager commitManager;
    private ExecutorService stateTransferExecutor;
    private CommandAckCollector commandAckCollector;
+   private MarshalledEntryFactory marshalledEntryFactory;
+   private LockManager lockManager;
+   private boolean isBulkApply;
+   private boolean isWritingToStores;
 
    private volatile CacheTopology cacheTopology;
 
@@ -162,6 +175,8 @@ public class StateConsumerImpl implements StateConsumer {
 
    private volatile boolean ownsData = false;
 
+   private final ConcurrentMap<Integer, StateApplyStatistics> applyStatistics = new ConcurrentHashMap<>();
+
    private RpcOptions rpcOptions;
 
    public StateConsumerImpl() {
@@ -195,7 +210,9 @@ public void init(Cache cache,
                     TotalOrderManager totalOrderManager,
                     @ComponentName(KnownComponentNames.REMOTE_COMMAND_EXECUTOR) BlockingTaskAwareExecutorService remoteCommandsExecutor,
                     CommitManager commitManager,
-                    CommandAckCollector commandAckCollector) {
+                    CommandAckCollector commandAckCollector,
+                    MarshalledEntryFactory marshalledEntryFactory,
+                    LockManager lockManager) {
       this.cache = cache;
       this.cacheName = cache.getName();
       this.stateTransferExecutor = stateTransferExecutor;
@@ -215,6 +232,8 @@ public void init(Cache cache,
       this.remoteCommandsExecutor = remoteCommandsExecutor;
       this.commitManager = commitManager;
       this.commandAckCollector = commandAckCollector;
+      this.marshalledEntryFactory = marshalledEntryFactory;
+      this.lockManager = lockManager;
 
       isInvalidationMode = configuration.clustering().cacheMode().isInvalidation();
 
@@ -222,6 +241,20 @@ public void init(Cache cache,
       isTotalOrder = configuration.transaction().transactionProtocol().isTotalOrder();
 
       timeout = configuration.clustering().stateTransfer().timeout();
+
+      isWritingToStores = configuration.persistence().usingStores() && !configuration.persistence().passivation();
+      isBulkApply = configuration.clustering().stateTransfer().bulkApply() && !isTotalOrder &&
+            !configuration.persistence().passivation() && !configuration.indexing().index().isEnabled() &&
+            !configuration.compatibility().enabled() && !hasTransactionalStore(configuration);
+   }
+
+   private static boolean hasTransactionalStore(Configuration configuration) {
+      for (StoreConfiguration store : configuration.persistence().stores()) {
+         if (store.transactional()) {
+            return true;
+         }
+      }
+      return false;
    }
 
    public boolean hasActiveTransfers() {
@@ -556,7 +589,18 @@ private void applyChunk(Address sender, Set<Integer> mySegments, StateChunk stat
       }
       if (inboundTransfer != null) {
          if (stateChunk.getCacheEntries() != null) {
-            doApplyState(sender, stateChunk.getSegmentId(), stateChunk.getCacheEntries());
+            int segmentId = stateChunk.getSegmentId();
+            Collection<InternalCacheEntry> cacheEntries = stateChunk.getCacheEntries();
+            long start = System.nanoTime();
+            int applied;
+            // Listeners can be added at any time, so check them for each chunk
+            if (isBulkApply && cacheNotifier.getListeners().isEmpty()) {
+               applied = doApplyStateInBulk(sender, segmentId, cacheEntries);
+            } else {
+               applied = doApplyState(sender, segmentId, cacheEntries);
+            }
+            applyStatistics.computeIfAbsent(segmentId, s -> new StateApplyStatistics())
+                  .record(applied, cacheEntries.size() - applied, System.nanoTime() - start);
          }
 
          inboundTransfer.onStateReceived(stateChunk.getSegmentId(), stateChunk.isLastChunk());
@@ -567,12 +611,13 @@ private void applyChunk(Address sender, Set<Integer> mySegments, StateChunk stat
       }
    }
 
-   private void doApplyState(Address sender, int segmentId, Collection<InternalCacheEntry> cacheEntries) {
+   private int doApplyState(Address sender, int segmentId, Collection<InternalCacheEntry> cacheEntries) {
       if (trace) log.tracef("Applying new state chunk for segment %d of cache %s from node %s: received %d cache entries",
             segmentId, cacheName, sender, cacheEntries.size());
 
       // CACHE_MODE_LOCAL avoids handling by StateTransferInterceptor and any potential locks in StateTransferLock
       boolean transactional = transactionManager != null;
+      int applied = 0;
       for (InternalCacheEntry e : cacheEntries) {
          try {
             InvocationContext ctx;
@@ -593,6 +638,7 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
             if (transactionManager != null) {
                transactionManager.commit();
             }
+            applied++;
          } catch (Exception ex) {
             if (!cache.getStatus().allowInvocations()) {
                log.debugf("Cache %s is shutting down, stopping state transfer", cacheName);
@@ -611,6 +657,89 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
          }
       }
       if (trace) log.tracef("Finished applying chunk of segment %d of cache %s", segmentId, cacheName);
+      return applied;
+   }
+
+   /**
+    * Writes the received entries directly to the data container and then to the private stores in a single batch,
+    * instead of invoking a command (and a transaction) for each entry. Entries updated by user operations since the
+    * rebalance started are skipped by the {@link CommitManager}, same as with commands.
+    * <p>
+    * User operations write the stores before committing to the data container, both while holding the key lock, so the
+    * keys of the chunk are locked until the entries have been written to both. If they can't be locked in time, the
+    * entries are applied one by one with commands instead.
+    *
+    * @return the number of entries written to the data container
+    */
+   private int doApplyStateInBulk(Address sender, int segmentId, Collection<InternalCacheEntry> cacheEntries) {
+      if (trace) log.tracef("Applying new state chunk in bulk for segment %d of cache %s from node %s: received %d cache entries",
+            segmentId, cacheName, sender, cacheEntries.size());
+
+      List<Object> keys = new ArrayList<>(cacheEntries.size());
+      for (InternalCacheEntry e : cacheEntries) {
+         keys.add(e.getKey());
+      }
+      Object lockOwner = CommandInvocationId.generateId(rpcManager.getAddress());
+      try {
+         lockManager.lockAll(keys, lockOwner, configuration.locking().lockAcquisitionTimeout(), TimeUnit.MILLISECONDS)
+               .lock();
+      } catch (TimeoutException e) {
+         lockManager.unlockAll(keys, lockOwner);
+         if (trace) log.tracef("Cannot lock the keys of segment %d of cache %s, applying them one by one", segmentId,
+               cacheName);
+         return doApplyState(sender, segmentId, cacheEntries);
+      } catch (InterruptedException e) {
+         lockManager.unlockAll(keys, lockOwner);
+         Thread.currentThread().interrupt();
+         return 0;
+      }
+      int applied = 0;
+      try {
+         // Don't allow the topology to change (and state transfer to remove the segment) while writing the entries
+         stateTransferLock.acquireSharedTopologyLock();
+         try {
+            CacheTopology localCacheTopology = cacheTopology;
+            Address address = rpcManager.getAddress();
+            if (localCacheTopology == null ||
+                  !localCacheTopology.getWriteConsistentHash().isSegmentLocalToNode(address, segmentId)) {
+               if (trace) log.tracef("Discarding chunk of segment %d of cache %s, the segment is no longer owned",
+                     segmentId, cacheName);
+               return 0;
+            }
+            List<MarshalledEntry> toStore = isWritingToStores ? new ArrayList<>(cacheEntries.size()) : null;
+            for (InternalCacheEntry e : cacheEntries) {
+               if (commitManager.commitStateTransferEntry(e)) {
+                  applied++;
+                  if (toStore != null) {
+                     toStore.add(marshalledEntryFactory.newMarshalledEntry(e.getKey(), e.getValue(),
+                           PersistenceUtil.internalMetadata(e)));
+                  }
+               }
+            }
+            if (toStore != null && !toStore.isEmpty()) {
+               writeToStores(toStore);
+            }
+         } finally {
+            stateTransferLock.releaseSharedTopologyLock();
+         }
+      } finally {
+         lockManager.unlockAll(keys, lockOwner);
+      }
+      if (trace) log.tracef("Finished applying chunk of segment %d of cache %s in bulk, %d entries applied", segmentId,
+            cacheName, applied);
+      return applied;
+   }
+
+   private void writeToStores(List<MarshalledEntry> entries) {
+      try {
+         persistenceManager.writeBatchToAllNonTxStores(entries, PRIVATE);
+      } catch (Exception ex) {
+         if (!cache.getStatus().allowInvocations()) {
+            log.debugf("Cache %s is shutting down, stopping state transfer", cacheName);
+         } else {
+            log.problemApplyingStateForKey(ex.getMessage(), entries.get(0).getKey(), ex);
+         }
+      }
    }
 
    private void applyTransactions(Address sender, Collection<TransactionInfo> transactions, int topologyId) {
@@ -679,6 +808,11 @@ public void stop() {
       }
    }
 
+   @Override
+   public Map<Integer, StateApplyStatistics> getApplyStatistics() {
+      return Collections.unmodifiableMap(applyStatistics);
+   }
+
    @Override
    public CacheTopology getCacheTopology() {
       return cacheTopology;
@@ -919,24 +1053,30 @@ private void removeStaleData(final Set<Integer> removedSegments) throws Interrup
       // Keys that we used to own, and need to be removed from the data container AND the cache stores
       final ConcurrentHashSet<Object> keysToRemove = new ConcurrentHashSet<Object>();
 
-      dataContainer.executeTask(KeyFilter.ACCEPT_ALL_FILTER, (o, ice) -> {
-         Object key = ice.getKey();
-         int keySegment = getSegment(key);
-         if (removedSegments.contains(keySegment)) {
-            keysToRemove.add(key);
+      if (dataContainer instanceof SegmentedDataContainer) {
+         // only visit the entries of the removed segments
+         Iterator<InternalCacheEntry<Object, Object>> iterator =
+               ((SegmentedDataContainer<Object, Object>) dataContainer).iteratorIncludingExpired(removedSegments);
+         while (iterator.hasNext()) {
+            keysToRemove.add(iterator.next().getKey());
          }
-      });
+      } else {
+         dataContainer.executeTask(KeyFilter.ACCEPT_ALL_FILTER, (o, ice) -> {
+            Object key = ice.getKey();
+            int keySegment = getSegment(key);
+            if (removedSegments.contains(keySegment)) {
+               keysToRemove.add(key);
+            }
+         });
+      }
 
       // gather all keys from cache store that belong to the segments that are being removed/moved to L1
       if (!removedSegments.isEmpty()) {
          try {
-            KeyFilter filter = key -> {
-               if (dataContainer.containsKey(key))
-                  return false;
-               int keySegment = getSegment(key);
-               return (removedSegments.contains(keySegment));
-            };
-            persistenceManager.processOnAllStores(filter,
+            // segmented stores drop the removed segments in one go, they don't need the invalidation
+            persistenceManager.removeSegmentsFromAllStores(removedSegments, PRIVATE);
+            KeyFilter filter = key -> !dataContainer.containsKey(key);
+            persistenceManager.processOnAllStores(removedSegments, filter,
                   (marshalledEntry, taskContext) -> keysToRemove.add(marshalledEntry.getKey()), false, false, PRIVATE);
          } catch (CacheException e) {
             log.failedLoadingKeysFromCacheStore(e);
@@ -18,6 +18,7 @@
 import org.infinispan.Cache;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
@@ -64,6 +65,10 @@ public class StateProviderImpl implements StateProvider {
    private InternalEntryFactory entryFactory;
    private long timeout;
    private int chunkSize;
+   private int chunkBytes;
+   private int maxInFlightChunks;
+   private BandwidthLimiter bandwidthLimiter;   // optional
+   private StreamingMarshaller marshaller;
 
    private StateConsumer stateConsumer;
 
@@ -87,7 +92,8 @@ public void init(Cache cache,
                     DataContainer dataContainer,
                     TransactionTable transactionTable,
                     StateTransferLock stateTransferLock,
-                    StateConsumer stateConsumer, InternalEntryFactory entryFactory) {
+                    StateConsumer stateConsumer, InternalEntryFactory entryFactory,
+                    StreamingMarshaller marshaller) {
       this.cacheName = cache.getName();
       this.executorService = executorService;
       this.configuration = configuration;
@@ -100,10 +106,16 @@ public void init(Cache cache,
       this.stateTransferLock = stateTransferLock;
       this.stateConsumer = stateConsumer;
       this.entryFactory = entryFactory;
+      this.marshaller = marshaller;
 
       timeout = configuration.clustering().stateTransfer().timeout();
 
       this.chunkSize = configuration.clustering().stateTransfer().chunkSize();
+      this.chunkBytes = configuration.clustering().stateTransfer().chunkBytes();
+      this.maxInFlightChunks = configuration.clustering().stateTransfer().maxInFlightChunks();
+      long maxBandwidth = configuration.clustering().stateTransfer().maxBandwidth();
+      // shared by the transfers to all the destinations
+      this.bandwidthLimiter = maxBandwidth > 0 ? new BandwidthLimiter(maxBandwidth) : null;
    }
 
    public boolean isStateTransferInProgress() {
@@ -289,8 +301,9 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, Se
       final CacheTopology cacheTopology = getCacheTopology(requestTopologyId, destination, false);
 
       // the destination node must already have an InboundTransferTask waiting for these segments
-      OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, requestTopologyId,
-            cacheTopology.getReadConsistentHash(), this, dataContainer, persistenceManager, rpcManager, commandsFactory, entryFactory, timeout, cacheName);
+      OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, chunkBytes,
+            maxInFlightChunks, bandwidthLimiter, marshaller, requestTopologyId, cacheTopology.getReadConsistentHash(),
+            this, dataContainer, persistenceManager, rpcManager, commandsFactory, entryFactory, timeout, cacheName);
       addTransfer(outboundTransfer);
       outboundTransfer.execute(executorService);
    }
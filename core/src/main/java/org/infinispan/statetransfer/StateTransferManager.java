@@ -9,6 +9,9 @@
 import org.infinispan.jmx.annotations.DataType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Parameter;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.topology.CacheTopology;
@@ -70,4 +73,21 @@ public interface StateTransferManager {
 
    @ManagedAttribute(description = "Retrieves the rebalancing status for this cache. Possible values are PENDING, SUSPENDED, IN_PROGRESS, BALANCED", displayName = "Rebalancing progress", dataType = DataType.TRAIT)
    String getRebalancingStatus() throws Exception;
+
+   /**
+    * @return the statistics of the state received by this node so far, by segment
+    */
+   Map<Integer, StateApplyStatistics> getApplyStatistics();
+
+   @ManagedAttribute(description = "Number of entries received by state transfer and written to the cache", displayName = "Applied state transfer entries", measurementType = MeasurementType.TRENDSUP)
+   long getAppliedStateEntries();
+
+   @ManagedAttribute(description = "Number of entries received by state transfer and discarded, because they were already overwritten or could not be applied", displayName = "Discarded state transfer entries", measurementType = MeasurementType.TRENDSUP)
+   long getDiscardedStateEntries();
+
+   @ManagedAttribute(description = "Number of entries received by state transfer processed per second of apply time, across all segments", displayName = "State transfer apply throughput")
+   double getStateApplyThroughput();
+
+   @ManagedOperation(description = "Shows the chunks, entries and apply throughput of the state received for a segment", displayName = "Segment state apply statistics")
+   String getSegmentApplyStatistics(@Parameter(name = "segment", description = "The segment") int segment);
 }
@@ -326,6 +326,46 @@ public int getFirstTopologyAsMember() {
       return firstTopologyAsMember;
    }
 
+   @Override
+   public Map<Integer, StateApplyStatistics> getApplyStatistics() {
+      return stateConsumer.getApplyStatistics();
+   }
+
+   @Override
+   public long getAppliedStateEntries() {
+      long applied = 0;
+      for (StateApplyStatistics statistics : stateConsumer.getApplyStatistics().values()) {
+         applied += statistics.getAppliedEntries();
+      }
+      return applied;
+   }
+
+   @Override
+   public long getDiscardedStateEntries() {
+      long discarded = 0;
+      for (StateApplyStatistics statistics : stateConsumer.getApplyStatistics().values()) {
+         discarded += statistics.getDiscardedEntries();
+      }
+      return discarded;
+   }
+
+   @Override
+   public double getStateApplyThroughput() {
+      long entries = 0;
+      long applyNanos = 0;
+      for (StateApplyStatistics statistics : stateConsumer.getApplyStatistics().values()) {
+         entries += statistics.getAppliedEntries() + statistics.getDiscardedEntries();
+         applyNanos += statistics.getApplyNanos();
+      }
+      return applyNanos == 0 ? 0 : entries * (double) TimeUnit.SECONDS.toNanos(1) / applyNanos;
+   }
+
+   @Override
+   public String getSegmentApplyStatistics(int segment) {
+      StateApplyStatistics statistics = stateConsumer.getApplyStatistics().get(segment);
+      return statistics == null ? "No state received for segment " + segment : statistics.toString();
+   }
+
    @Override
 
    public String toString() {
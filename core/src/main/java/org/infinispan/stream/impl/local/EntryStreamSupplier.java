@@ -2,6 +2,7 @@
 
 import java.util.BitSet;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -28,11 +29,22 @@
    private final Cache<K, V> cache;
    private final ConsistentHash hash;
    private final Supplier<Stream<CacheEntry<K, V>>> supplier;
+   private final Function<Set<Integer>, Stream<CacheEntry<K, V>>> segmentSupplier;
 
    public EntryStreamSupplier(Cache<K, V> cache, ConsistentHash hash, Supplier<Stream<CacheEntry<K, V>>> supplier) {
+      this(cache, hash, supplier, null);
+   }
+
+   /**
+    * @param segmentSupplier if not null, used instead of filtering the stream of the supplier when the stream
+    *                        is limited to some segments, it must only return the elements of the given segments
+    */
+   public EntryStreamSupplier(Cache<K, V> cache, ConsistentHash hash, Supplier<Stream<CacheEntry<K, V>>> supplier,
+         Function<Set<Integer>, Stream<CacheEntry<K, V>>> segmentSupplier) {
       this.cache = cache;
       this.hash = hash;
       this.supplier = supplier;
+      this.segmentSupplier = segmentSupplier;
    }
 
    @Override
@@ -54,6 +66,11 @@ public Stream<CacheEntry<K, V>> buildStream(Set<Integer> segmentsToFilter, Set<?
                .map(typeConverter::boxKey)
                .map(advancedCache::getCacheEntry)
                .filter(e -> e != null);
+      } else if (segmentsToFilter != null && hash != null && segmentSupplier != null) {
+         if (trace) {
+            log.tracef("Retrieving segments %s", segmentsToFilter);
+         }
+         return segmentSupplier.apply(segmentsToFilter);
       } else {
          stream = supplier.get();
       }
@@ -28,11 +28,22 @@
    private final Cache<K, V> cache;
    private final ConsistentHash hash;
    private final Supplier<Stream<K>> supplier;
+   private final Function<Set<Integer>, Stream<K>> segmentSupplier;
 
    public KeyStreamSupplier(Cache<K, V> cache, ConsistentHash hash, Supplier<Stream<K>> supplier) {
+      this(cache, hash, supplier, null);
+   }
+
+   /**
+    * @param segmentSupplier if not null, used instead of filtering the stream of the supplier when the stream
+    *                        is limited to some segments, it must only return the elements of the given segments
+    */
+   public KeyStreamSupplier(Cache<K, V> cache, ConsistentHash hash, Supplier<Stream<K>> supplier,
+         Function<Set<Integer>, Stream<K>> segmentSupplier) {
       this.cache = cache;
       this.hash = hash;
       this.supplier = supplier;
+      this.segmentSupplier = segmentSupplier;
    }
 
    @Override
@@ -51,6 +62,11 @@ public Stream<K> buildStream(Set<Integer> segmentsToFilter, Set<?> keysToFilter)
          stream = (Stream<K>) keysToFilter.stream()
                .map(typeConverter::boxKey)
                .filter(advancedCache::containsKey);
+      } else if (segmentsToFilter != null && hash != null && segmentSupplier != null) {
+         if (trace) {
+            log.tracef("Retrieving segments %s", segmentsToFilter);
+         }
+         return segmentSupplier.apply(segmentsToFilter);
       } else {
          stream = supplier.get();
       }
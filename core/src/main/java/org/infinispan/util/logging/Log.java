@@ -1480,4 +1480,12 @@ TimeoutException timeoutWaitingForView(int expectedViewId, int currentViewId,
 
    @Message(value = "On key %s previous read version (%s) is different from currently read version (%s)", id = 429)
    WriteSkewException writeSkewOnRead(@Param Object key, Object key2, EntryVersion lastVersion, EntryVersion remoteVersion);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Unable to save the index of the file store %s, it will be rebuilt from the data file on start", id = 430)
+   void unableToSaveFileStoreIndex(String path, @Cause Throwable t);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Unable to load the index of the file store %s, rebuilding it from the data file", id = 431)
+   void unableToLoadFileStoreIndex(String path, @Cause Throwable t);
 }
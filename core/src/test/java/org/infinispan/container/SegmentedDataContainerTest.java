@@ -0,0 +1,105 @@
+package org.infinispan.container;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the segmented data container in a distributed cache.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "container.SegmentedDataContainerTest")
+public class SegmentedDataContainerTest extends MultipleCacheManagersTest {
+   private static final int NUM_KEYS = 100;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numSegments(16).numOwners(1);
+      builder.memory().segmented(true);
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   private static SegmentedDataContainer<Object, Object> dataContainer(Cache<?, ?> cache) {
+      DataContainer dc = cache.getAdvancedCache().getDataContainer();
+      assertTrue(dc instanceof SegmentedDataContainer);
+      return (SegmentedDataContainer<Object, Object>) dc;
+   }
+
+   private static KeyPartitioner keyPartitioner(Cache<?, ?> cache) {
+      return cache.getAdvancedCache().getComponentRegistry().getComponent(KeyPartitioner.class);
+   }
+
+   private void populate() {
+      cache(0).clear();
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         cache(0).put("key" + i, "value" + i);
+      }
+   }
+
+   /**
+    * Checks that each segment of the data container of the cache only returns and counts the keys of that segment,
+    * and that the segments hold all the entries.
+    */
+   public static void assertEntriesStoredPerSegment(Cache<?, ?> cache) {
+      SegmentedDataContainer<Object, Object> dc = dataContainer(cache);
+      KeyPartitioner keyPartitioner = keyPartitioner(cache);
+      int numSegments = cache.getCacheConfiguration().clustering().hash().numSegments();
+      int total = 0;
+      for (int segment = 0; segment < numSegments; ++segment) {
+         Set<Integer> segments = Collections.singleton(segment);
+         int count = 0;
+         for (Iterator<InternalCacheEntry<Object, Object>> iter = dc.iterator(segments); iter.hasNext(); ) {
+            assertEquals(segment, keyPartitioner.getSegment(iter.next().getKey()));
+            count++;
+         }
+         assertEquals(count, dc.sizeIncludingExpired(segments));
+         total += count;
+      }
+      assertEquals(dc.sizeIncludingExpired(), total);
+      assertEquals(dc.size(), total);
+   }
+
+   public void testEntriesAreStoredPerSegment() {
+      populate();
+      for (Cache<Object, Object> cache : caches()) {
+         assertEntriesStoredPerSegment(cache);
+      }
+      assertEquals(NUM_KEYS, dataContainer(cache(0)).size() + dataContainer(cache(1)).size());
+   }
+
+   public void testStreamFilterKeySegments() {
+      populate();
+      KeyPartitioner keyPartitioner = keyPartitioner(cache(0));
+      Set<Integer> segments = new HashSet<>();
+      for (int segment = 0; segment < 16; segment += 3) {
+         segments.add(segment);
+      }
+      Set<Object> expected = new HashSet<>();
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         if (segments.contains(keyPartitioner.getSegment("key" + i))) {
+            expected.add("key" + i);
+         }
+      }
+      Set<Object> keys = cache(0).keySet().stream().filterKeySegments(segments).collect(Collectors.toSet());
+      assertEquals(expected, keys);
+      Set<Object> entryKeys = cache(1).entrySet().stream().filterKeySegments(segments).map(e -> e.getKey())
+            .collect(Collectors.toSet());
+      assertEquals(expected, entryKeys);
+   }
+}
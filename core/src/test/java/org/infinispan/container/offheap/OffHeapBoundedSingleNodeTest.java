@@ -0,0 +1,157 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.StorageType;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the eviction of a local off-heap cache bounded by count and by memory.
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapBoundedSingleNodeTest")
+public class OffHeapBoundedSingleNodeTest extends SingleCacheManagerTest {
+
+   private static final int COUNT_SIZE = 10;
+   private static final long MEMORY_SIZE = 4096;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.memory().storageType(StorageType.OFF_HEAP).size(COUNT_SIZE).evictionType(EvictionType.COUNT);
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+
+      ConfigurationBuilder memoryBuilder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      memoryBuilder.memory().storageType(StorageType.OFF_HEAP).size(MEMORY_SIZE).evictionType(EvictionType.MEMORY);
+      cm.defineConfiguration("memory", memoryBuilder.build());
+
+      ConfigurationBuilder zeroBuilder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      zeroBuilder.memory().storageType(StorageType.OFF_HEAP).size(0).evictionType(EvictionType.COUNT);
+      cm.defineConfiguration("zero", zeroBuilder.build());
+      cache = cm.getCache();
+      return cm;
+   }
+
+   public void testCountBound() {
+      for (int i = 0; i < COUNT_SIZE * 3; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      assertEquals(COUNT_SIZE, cache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+      // The most recently written entries are kept
+      for (int i = COUNT_SIZE * 2; i < COUNT_SIZE * 3; ++i) {
+         assertEquals("value" + i, cache.get("key" + i));
+      }
+   }
+
+   public void testLeastRecentlyUsedIsEvicted() {
+      cache.clear();
+      for (int i = 0; i < COUNT_SIZE; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      // Touch the oldest entry so that key1 becomes the least recently used
+      assertEquals("value0", cache.get("key0"));
+      cache.put("new-key", "new-value");
+      assertNotNull(cache.get("key0"));
+      assertNull(cache.get("key1"));
+      assertEquals(COUNT_SIZE, cache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+   }
+
+   public void testOverwriteDoesNotEvict() {
+      cache.clear();
+      for (int i = 0; i < COUNT_SIZE; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      for (int i = 0; i < COUNT_SIZE; ++i) {
+         cache.put("key" + i, "other-value" + i);
+      }
+      for (int i = 0; i < COUNT_SIZE; ++i) {
+         assertEquals("other-value" + i, cache.get("key" + i));
+      }
+   }
+
+   public void testResize() {
+      cache.clear();
+      for (int i = 0; i < COUNT_SIZE; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      cache.getCacheConfiguration().memory().size(COUNT_SIZE / 2);
+      try {
+         assertEquals(COUNT_SIZE / 2, cache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+      } finally {
+         cache.getCacheConfiguration().memory().size(COUNT_SIZE);
+      }
+   }
+
+   public void testConcurrentReads() throws Exception {
+      cache.clear();
+      for (int i = 0; i < COUNT_SIZE; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      // Readers may skip the lru update while another thread holds the lock, but the list must stay consistent
+      List<Future<?>> readers = new ArrayList<>();
+      for (int t = 0; t < 4; ++t) {
+         readers.add(fork(() -> {
+            for (int i = 0; i < 10_000; ++i) {
+               cache.get("key" + i % COUNT_SIZE);
+            }
+         }));
+      }
+      for (int i = 0; i < COUNT_SIZE * 10; ++i) {
+         cache.put("other-key" + i, "value" + i);
+      }
+      for (Future<?> reader : readers) {
+         reader.get(10, TimeUnit.SECONDS);
+      }
+      assertEquals(COUNT_SIZE, cache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+      cache.clear();
+      assertEquals(0, cache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+   }
+
+   public void testMemoryBound() {
+      Cache<String, byte[]> memoryCache = cacheManager.getCache("memory");
+      OffHeapMemoryAllocator allocator = memoryCache.getAdvancedCache().getComponentRegistry()
+            .getComponent(OffHeapMemoryAllocator.class);
+      for (int i = 0; i < 100; ++i) {
+         memoryCache.put("key" + i, new byte[256]);
+         assertTrue(allocator.getAllocatedAmount() <= MEMORY_SIZE);
+      }
+      int size = memoryCache.getAdvancedCache().getDataContainer().sizeIncludingExpired();
+      assertTrue(size > 0);
+      assertTrue(size < 100);
+      memoryCache.clear();
+      assertEquals(0, allocator.getAllocatedAmount());
+   }
+
+   public void testZeroSize() {
+      // A size of 0 still bounds the container, so the entries must have room for the lru pointers
+      Cache<String, String> zeroCache = cacheManager.getCache("zero");
+      OffHeapMemoryAllocator allocator = zeroCache.getAdvancedCache().getComponentRegistry()
+            .getComponent(OffHeapMemoryAllocator.class);
+      for (int i = 0; i < COUNT_SIZE; ++i) {
+         zeroCache.put("key" + i, "value" + i);
+         assertEquals(0, zeroCache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+      }
+      zeroCache.getCacheConfiguration().memory().size(COUNT_SIZE);
+      for (int i = 0; i < COUNT_SIZE; ++i) {
+         zeroCache.put("key" + i, "value" + i);
+      }
+      for (int i = 0; i < COUNT_SIZE; ++i) {
+         assertEquals("value" + i, zeroCache.get("key" + i));
+      }
+      zeroCache.clear();
+      assertEquals(0, allocator.getAllocatedAmount());
+   }
+}
@@ -0,0 +1,81 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Map;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.StorageType;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the off-heap single node tests with the pooled slab allocator.
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapPooledSingleNodeTest")
+public class OffHeapPooledSingleNodeTest extends OffHeapSingleNodeTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.LOCAL, true);
+      dcc.memory().storageType(StorageType.OFF_HEAP).allocator(AllocatorType.POOLED).slabSize(16384);
+      // Only start up the 1 cache
+      addClusterEnabledCacheManager(dcc);
+   }
+
+   private PooledOffHeapMemoryAllocator allocator(Cache<?, ?> cache) {
+      OffHeapMemoryAllocator allocator = cache.getAdvancedCache().getComponentRegistry()
+            .getComponent(OffHeapMemoryAllocator.class);
+      assertTrue(allocator instanceof PooledOffHeapMemoryAllocator);
+      return (PooledOffHeapMemoryAllocator) allocator;
+   }
+
+   public void testFreedBlocksAreReused() {
+      Cache<byte[], byte[]> cache = cache(0);
+      cache.clear();
+      PooledOffHeapMemoryAllocator allocator = allocator(cache);
+      allocator.releaseIdleSlabs();
+      Map<byte[], byte[]> map = cache;
+      byte[][] keys = new byte[100][];
+      for (int i = 0; i < keys.length; ++i) {
+         keys[i] = randomBytes(KEY_SIZE);
+         map.put(keys[i], randomBytes(VALUE_SIZE));
+      }
+      assertTrue(allocator.getAllocatedAmount() > 0);
+      // A write allocates the new entry before freeing the old one, so overwrite once to have a spare block
+      for (byte[] key : keys) {
+         map.put(key, randomBytes(VALUE_SIZE));
+      }
+      long reserved = allocator.getReservedMemory();
+      int slabs = allocator.getSlabCount();
+
+      for (byte[] key : keys) {
+         map.put(key, randomBytes(VALUE_SIZE));
+      }
+      // Overwriting with values of the same size should only reuse blocks
+      assertEquals(reserved, allocator.getReservedMemory());
+      assertEquals(slabs, allocator.getSlabCount());
+
+      cache.clear();
+      assertEquals(0, allocator.getAllocatedAmount());
+      allocator.releaseIdleSlabs();
+      assertEquals(0, allocator.getReservedMemory());
+      assertEquals(0, allocator.getSlabCount());
+   }
+
+   public void testLargeEntriesBypassPool() {
+      Cache<byte[], byte[]> cache = cache(0);
+      cache.clear();
+      PooledOffHeapMemoryAllocator allocator = allocator(cache);
+      allocator.releaseIdleSlabs();
+      byte[] key = randomBytes(KEY_SIZE);
+      cache.put(key, randomBytes(8192));
+      assertEquals(0, allocator.getSlabCount());
+      assertTrue(allocator.getReservedMemory() > 8192);
+      cache.remove(key);
+      assertEquals(0, allocator.getReservedMemory());
+      assertEquals(0, allocator.getAllocatedAmount());
+   }
+}
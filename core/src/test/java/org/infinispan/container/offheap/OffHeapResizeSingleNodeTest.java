@@ -0,0 +1,62 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.StorageType;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the off-heap single node tests starting with few address pointers, so they have to grow.
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapResizeSingleNodeTest")
+public class OffHeapResizeSingleNodeTest extends OffHeapSingleNodeTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.LOCAL, true);
+      // Start with the smallest possible amount of address pointers so they have to grow
+      dcc.memory().storageType(StorageType.OFF_HEAP).addressCount(1);
+      // Only start up the 1 cache
+      addClusterEnabledCacheManager(dcc);
+   }
+
+   public void testAddressPointersGrow() {
+      Cache<String, String> cache = cache(0);
+      cache.clear();
+      OffHeapDataContainer container = (OffHeapDataContainer) (Object) cache.getAdvancedCache().getDataContainer();
+      long initialAddressCount = container.getAddressCount();
+      int entries = 10_000;
+      Map<String, String> expected = new HashMap<>();
+      for (int i = 0; i < entries; ++i) {
+         cache.put("key" + i, "value" + i);
+         expected.put("key" + i, "value" + i);
+      }
+      assertTrue(container.getAddressCount() > initialAddressCount);
+      assertTrue("Load factor was " + container.getLoadFactor(), container.getLoadFactor() <= 0.75);
+      assertTrue(container.getAverageChainLength() >= 1);
+
+      for (int i = 0; i < entries; ++i) {
+         assertEquals("value" + i, cache.get("key" + i));
+      }
+      Map<String, String> iterated = new HashMap<>();
+      for (Iterator<Map.Entry<String, String>> iter = cache.entrySet().iterator(); iter.hasNext(); ) {
+         Map.Entry<String, String> entry = iter.next();
+         assertEquals(null, iterated.put(entry.getKey(), entry.getValue()));
+      }
+      assertEquals(expected, iterated);
+      assertEquals(entries, container.sizeIncludingExpired());
+
+      for (int i = 0; i < entries; ++i) {
+         assertEquals("value" + i, cache.remove("key" + i));
+      }
+      assertEquals(0, container.getLoadFactor(), 0);
+   }
+}
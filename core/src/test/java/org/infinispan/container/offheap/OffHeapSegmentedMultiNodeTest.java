@@ -0,0 +1,35 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.SegmentedDataContainerTest;
+import org.infinispan.container.StorageType;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the off-heap multi node tests with a segmented data container.
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapSegmentedMultiNodeTest")
+public class OffHeapSegmentedMultiNodeTest extends OffHeapMultiNodeTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, true);
+      dcc.memory().storageType(StorageType.OFF_HEAP).segmented(true);
+      createCluster(dcc, 4);
+      waitForClusterToForm();
+   }
+
+   public void testEntriesAreStoredPerSegment() {
+      for (int i = 0; i < numberOfKeys; ++i) {
+         cache(0).put("key" + i, "value" + i);
+      }
+      for (Cache<Object, Object> cache : caches()) {
+         assertTrue(cache.getAdvancedCache().getDataContainer() instanceof SegmentedOffHeapDataContainer);
+         SegmentedDataContainerTest.assertEntriesStoredPerSegment(cache);
+      }
+   }
+}
@@ -0,0 +1,100 @@
+package org.infinispan.expiration.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Iterator;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.container.ExpirationIndex;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.expiration.ExpirationManager;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the expiration reaper only visits the entries that may have expired
+ */
+@Test(groups = "functional", testName = "expiration.impl.ExpirationIndexFunctionalTest")
+public class ExpirationIndexFunctionalTest extends ExpirationFunctionalTest {
+
+   private ExpirationManagerImpl expirationManager() {
+      return (ExpirationManagerImpl) TestingUtil.extractComponent(cache, ExpirationManager.class);
+   }
+
+   public void testOnlyExpiringEntriesVisited() {
+      cache.clear();
+      for (int i = 0; i < SIZE * 10; i++) {
+         cache.put("immortal-" + i, "value-" + i);
+      }
+      for (int i = 0; i < SIZE; i++) {
+         cache.put("mortal-" + i, "value-" + i, 10, TimeUnit.MILLISECONDS);
+      }
+      timeService.advance(5000);
+      ExpirationManagerImpl expirationManager = expirationManager();
+      expirationManager.processExpiration();
+      assertEquals(SIZE, expirationManager.getLastPurgeVisited());
+      assertEquals(SIZE, expirationManager.getLastPurgeExpired());
+      assertEquals(SIZE * 10, cache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+
+      // Nothing is left to visit
+      expirationManager.processExpiration();
+      assertEquals(0, expirationManager.getLastPurgeVisited());
+      assertEquals(0, expirationManager.getLastPurgeExpired());
+   }
+
+   public void testEntriesNotDueAreNotVisited() {
+      cache.clear();
+      for (int i = 0; i < SIZE; i++) {
+         cache.put("short-" + i, "value-" + i, 1, TimeUnit.SECONDS);
+         cache.put("long-" + i, "value-" + i, 1, TimeUnit.HOURS);
+      }
+      timeService.advance(5000);
+      ExpirationManagerImpl expirationManager = expirationManager();
+      expirationManager.processExpiration();
+      assertEquals(SIZE, expirationManager.getLastPurgeVisited());
+      assertEquals(SIZE, expirationManager.getLastPurgeExpired());
+      assertEquals(SIZE, cache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+
+      timeService.advance(TimeUnit.HOURS.toMillis(1));
+      expirationManager.processExpiration();
+      assertEquals(SIZE, expirationManager.getLastPurgeVisited());
+      assertEquals(SIZE, expirationManager.getLastPurgeExpired());
+      assertEquals(0, cache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+   }
+
+   public void testOverwrittenEntryNotExpired() {
+      cache.clear();
+      cache.put("key", "value", 10, TimeUnit.MILLISECONDS);
+      cache.put("key", "other-value", 1, TimeUnit.HOURS);
+      timeService.advance(5000);
+      ExpirationManagerImpl expirationManager = expirationManager();
+      expirationManager.processExpiration();
+      assertEquals(0, expirationManager.getLastPurgeExpired());
+      assertEquals("other-value", cache.get("key"));
+
+      timeService.advance(TimeUnit.HOURS.toMillis(1));
+      expirationManager.processExpiration();
+      assertEquals(1, expirationManager.getLastPurgeExpired());
+      assertEquals(0, cache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+   }
+
+   public void testConcurrentAddAndRemoveInSameBucket() throws Exception {
+      ExpirationIndex<String> index = new ExpirationIndex<>();
+      for (int round = 0; round < 1000; round++) {
+         // Removing the last key of the bucket must not drop the bucket a concurrent add is adding to
+         index.add("removed", 1000);
+         Future<?> remove = fork(() -> index.remove("removed", 1000));
+         index.add("added-" + round, 1000);
+         remove.get(10, TimeUnit.SECONDS);
+         assertEquals(1, index.size());
+         int visited = 0;
+         for (Iterator<InternalCacheEntry<String, String>> it = index.expirationCandidates(1000,
+               key -> new ImmortalCacheEntry(key, "value")); it.hasNext(); it.next()) {
+            visited++;
+         }
+         assertEquals(1, visited);
+      }
+   }
+}
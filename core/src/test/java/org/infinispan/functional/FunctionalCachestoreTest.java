@@ -5,10 +5,13 @@
 import static org.testng.Assert.assertTrue;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -106,6 +109,25 @@ public void testWriteLoadLocal(WriteMethod method) {
       assertInvocations(2);
    }
 
+   public void testRemoveManyLocal() {
+      Cache<Integer, String> cache = cacheManagers.get(0).getCache();
+      Set<Integer> keys = new HashSet<>(Arrays.asList(10, 11, 12));
+      keys.forEach(key -> cache.put(key, "value"));
+
+      DummyInMemoryStore store = getStore(cache);
+      store.clearStats();
+      lwo.evalMany(keys, (Consumer<WriteEntryView<String>> & Serializable) WriteEntryView::remove).join();
+
+      keys.forEach(key -> {
+         assertFalse(cache.containsKey(key));
+         assertFalse(store.contains(key));
+      });
+      if (!passivation) {
+         // The removed keys are deleted from the store as a single batch
+         assertEquals(store.stats().get("deleteBatch").intValue(), 1);
+      }
+   }
+
    @Test(dataProvider = "owningModeAndReadMethod")
    public void testReadLoad(boolean isSourceOwner, ReadMethod method) {
       Object key = getKey(isSourceOwner);
@@ -52,6 +52,7 @@
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
 import org.infinispan.commons.marshall.NotSerializableException;
 import org.infinispan.commons.marshall.PojoWithJBossExternalize;
@@ -569,6 +570,25 @@ public void testByteArray() throws Exception {
       marshallAndAssertByteArrayEquality(bytes);
    }
 
+   public void testLargeByteArrayBuffers() throws Exception {
+      // marshall enough times for the size predictor to reach its maximum and the pooled arrays to be used
+      for (int size : new int[] { 200 * 1024, 300 * 1024, 2 * 1024 * 1024 }) {
+         byte[] bytes = new byte[size];
+         Arrays.fill(bytes, (byte) size);
+         for (int i = 0; i < 20; ++i) {
+            ByteBuffer buffer = marshaller.objectToBuffer(bytes);
+            byte[] readObj = (byte[]) marshaller.objectFromByteBuffer(buffer.getBuf(), buffer.getOffset(),
+                  buffer.getLength());
+            assertArrayEquals(bytes, readObj);
+            marshallAndAssertByteArrayEquality(bytes);
+            if (i == 19) {
+               // no unused bytes are left in the array
+               assertEquals(buffer.getLength(), buffer.getBuf().length);
+            }
+         }
+      }
+   }
+
    public void testExternalAndInternalWithOffset() throws Exception {
       PojoWithExternalAndInternal obj = new PojoWithExternalAndInternal(new Human().age(23), "value");
 
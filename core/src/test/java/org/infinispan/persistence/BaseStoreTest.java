@@ -1,6 +1,7 @@
 package org.infinispan.persistence;
 
 import static java.util.Collections.emptySet;
+import static org.infinispan.test.Exceptions.expectException;
 import static org.infinispan.test.TestingUtil.allEntries;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
@@ -10,20 +11,27 @@
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.InternalEntryFactoryImpl;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.executors.LimitedExecutor;
 import org.infinispan.filter.CollectionKeyFilter;
 import org.infinispan.marshall.TestObjectStreamMarshaller;
 import org.infinispan.marshall.core.ExternalPojo;
@@ -34,12 +42,14 @@
 import org.infinispan.persistence.spi.AdvancedCacheWriter;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
 import org.infinispan.persistence.spi.InitializationContext;
+import org.infinispan.persistence.spi.IterableCacheLoader;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.util.ControlledTimeService;
 import org.infinispan.util.PersistenceMockUtil;
+import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -413,6 +423,95 @@ public void testStoreAndRemove() throws PersistenceException {
       assertEquals("k4", set.iterator().next().getKey());
    }
 
+   public void testWriteAndDeleteBatch() throws PersistenceException {
+      assertIsEmpty();
+
+      List<MarshalledEntry<?, ?>> entries = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+         entries.add(marshalledEntry("k" + i, "v" + i, null));
+      }
+      cl.writeBatch(entries);
+
+      for (int i = 0; i < 10; i++) {
+         MarshalledEntry me = cl.load("k" + i);
+         assertNotNull(me);
+         assertEquals("v" + i, unwrap(me.getValue()));
+      }
+      assertSize(TestingUtil.allEntries(cl), 10);
+
+      cl.deleteBatch(Arrays.asList("k0", "k1", "k2", "k3", "k4"));
+
+      for (int i = 0; i < 10; i++) {
+         assertContains("k" + i, i >= 5);
+      }
+      assertSize(TestingUtil.allEntries(cl), 5);
+   }
+
+   public void testEntryIterator() throws Exception {
+      assertIsEmpty();
+      for (int i = 0; i < 10; i++) {
+         cl.write(marshalledEntry("k" + i, "v" + i, null));
+      }
+
+      ExecutorService executor = Executors.newSingleThreadExecutor(getTestThreadFactory("EntryIterator"));
+      try {
+         Set<Object> keys = new HashSet<>();
+         try (CloseableIterator<MarshalledEntry<Object, Object>> iterator = PersistenceUtil.entryIterator(cl,
+               new CollectionKeyFilter<>(Collections.singleton("k0")), true, true, executor, 2, 10,
+               TimeUnit.SECONDS)) {
+            while (iterator.hasNext()) {
+               MarshalledEntry<Object, Object> me = iterator.next();
+               assertEquals("v" + me.getKey().toString().substring(1), unwrap(me.getValue()));
+               keys.add(me.getKey());
+            }
+         }
+         assertEquals(9, keys.size());
+         assertFalse(keys.contains("k0"));
+
+         // Closing the iterator before it is exhausted stops the iteration
+         try (CloseableIterator<MarshalledEntry<Object, Object>> iterator = PersistenceUtil.entryIterator(cl, null,
+               false, false, executor, 2, 10, TimeUnit.SECONDS)) {
+            assertTrue(iterator.hasNext());
+            assertNotNull(iterator.next().getKey());
+         }
+         cl.write(marshalledEntry("k10", "v10", null));
+         assertContains("k10", true);
+      } finally {
+         executor.shutdownNow();
+      }
+
+      if (!(cl instanceof IterableCacheLoader)) {
+         // An iteration run by the consuming thread would block forever once the queue is full
+         try (CloseableIterator<MarshalledEntry<Object, Object>> iterator = PersistenceUtil.entryIterator(cl, null,
+               false, false, new WithinThreadExecutor(), 2, 10, TimeUnit.SECONDS)) {
+            expectException(PersistenceException.class, iterator::hasNext);
+         }
+
+         // The iterations beyond the limit wait for a thread, and an abandoned iteration gives its thread back
+         ExecutorService delegate = Executors.newCachedThreadPool(getTestThreadFactory("EntryIterator"));
+         LimitedExecutor limitedExecutor = new LimitedExecutor("EntryIterator", delegate, 1);
+         try (CloseableIterator<MarshalledEntry<Object, Object>> abandoned = PersistenceUtil.entryIterator(cl, null,
+               false, false, limitedExecutor, 2, 2, TimeUnit.SECONDS)) {
+            assertTrue(abandoned.hasNext());
+            try (CloseableIterator<MarshalledEntry<Object, Object>> waiting = PersistenceUtil.entryIterator(cl, null,
+                  false, false, limitedExecutor, 2, 500, TimeUnit.MILLISECONDS)) {
+               expectException(TimeoutException.class, waiting::hasNext);
+            }
+            try (CloseableIterator<MarshalledEntry<Object, Object>> iterator = PersistenceUtil.entryIterator(cl, null,
+                  false, false, limitedExecutor, 2, 10, TimeUnit.SECONDS)) {
+               int count = 0;
+               while (iterator.hasNext()) {
+                  iterator.next();
+                  count++;
+               }
+               assertEquals(11, count);
+            }
+         } finally {
+            delegate.shutdownNow();
+         }
+      }
+   }
+
    public void testPurgeExpired() throws Exception {
       assertIsEmpty();
       // Increased lifespan and idle timeouts to accommodate slower cache stores
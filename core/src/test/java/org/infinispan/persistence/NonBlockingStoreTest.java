@@ -0,0 +1,223 @@
+package org.infinispan.persistence;
+
+import static org.infinispan.test.Exceptions.expectException;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.infinispan.commons.configuration.BuiltBy;
+import org.infinispan.commons.configuration.ConfigurationFor;
+import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.configuration.cache.AsyncStoreConfiguration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.configuration.cache.SingletonStoreConfiguration;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfiguration;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.NonBlockingCacheLoader;
+import org.infinispan.persistence.spi.NonBlockingCacheWriter;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.support.NonBlockingStoreAdapter;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that single key commands load and store their entries through the non-blocking store SPI.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "persistence.NonBlockingStoreTest")
+public class NonBlockingStoreTest extends SingleCacheManagerTest {
+
+   private static final ExecutorService STORE_EXECUTOR = Executors.newSingleThreadExecutor();
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder config = new ConfigurationBuilder();
+      config.persistence().addStore(NonBlockingStoreConfigurationBuilder.class);
+      return TestCacheManagerFactory.createCacheManager(config);
+   }
+
+   @AfterClass(alwaysRun = true)
+   protected void shutdownExecutor() {
+      STORE_EXECUTOR.shutdownNow();
+   }
+
+   public void testLoadWriteAndDelete() {
+      NonBlockingStore store = (NonBlockingStore) TestingUtil.getCacheLoader(cache);
+
+      int writes = store.asyncWrites.get();
+      int deletes = store.asyncDeletes.get();
+      cache.put("k", "v");
+      assertEquals(writes + 1, store.asyncWrites.get());
+      assertNotNull(store.load("k"));
+
+      cache.getAdvancedCache().getDataContainer().clear();
+      int loads = store.asyncLoads.get();
+      assertEquals("v", cache.get("k"));
+      assertEquals(loads + 1, store.asyncLoads.get());
+
+      cache.remove("k");
+      assertEquals(deletes + 1, store.asyncDeletes.get());
+      assertNull(store.load("k"));
+      assertFalse(cache.containsKey("k"));
+   }
+
+   public void testLoadConcurrentWithRemove() throws Exception {
+      NonBlockingStore store = (NonBlockingStore) TestingUtil.getCacheLoader(cache);
+
+      cache.put("k2", "v");
+      cache.getAdvancedCache().getDataContainer().clear();
+      int loads = store.asyncLoads.get();
+      // The load reads the entry, but only completes after the remove deleted it
+      CompletableFuture<Void> loadReleased = new CompletableFuture<>();
+      store.nextLoadReleased = loadReleased;
+      Future<Object> get = fork(() -> cache.get("k2"));
+      eventuallyEquals(loads + 1, store.asyncLoads::get);
+
+      assertEquals("v", cache.remove("k2"));
+      loadReleased.complete(null);
+
+      assertNull(get.get(10, TimeUnit.SECONDS));
+      assertFalse(cache.getAdvancedCache().getDataContainer().containsKey("k2"));
+      assertNull(cache.get("k2"));
+   }
+
+   public void testFailedStages() {
+      NonBlockingStore store = (NonBlockingStore) TestingUtil.getCacheLoader(cache);
+
+      cache.put("k3", "v");
+      cache.getAdvancedCache().getDataContainer().clear();
+      // The stages fail with a CompletionException wrapping the store exception
+      store.failure = new PersistenceException("Injected failure");
+      try {
+         expectException(PersistenceException.class, () -> cache.get("k3"));
+         expectException(PersistenceException.class,
+               () -> cache.getAdvancedCache().withFlags(Flag.SKIP_CACHE_LOAD).put("k3", "v2"));
+         store.failure = null;
+         assertEquals("v", cache.get("k3"));
+         store.failure = new PersistenceException("Injected failure");
+         expectException(PersistenceException.class, () -> cache.remove("k3"));
+      } finally {
+         store.failure = null;
+      }
+      assertEquals("v", cache.get("k3"));
+   }
+
+   public void testBlockingStoreFailure() {
+      AtomicReference<Thread> loadThread = new AtomicReference<>();
+      DummyInMemoryStore blockingStore = new DummyInMemoryStore() {
+         @Override
+         public MarshalledEntry load(Object key) {
+            loadThread.set(Thread.currentThread());
+            throw new PersistenceException("Injected failure");
+         }
+      };
+      // Blocking stores are invoked on the executor, so that they never block the caller
+      CompletableFuture<MarshalledEntry> load = NonBlockingStoreAdapter.load(blockingStore, "k", STORE_EXECUTOR);
+      expectException(CompletionException.class, PersistenceException.class, load::join);
+      assertNotNull(loadThread.get());
+      assertNotSame(Thread.currentThread(), loadThread.get());
+   }
+
+   public void testBlockingStoreDoesNotBlockCaller() throws Exception {
+      CompletableFuture<Void> writeReleased = new CompletableFuture<>();
+      DummyInMemoryStore blockingStore = new DummyInMemoryStore() {
+         @Override
+         public void write(MarshalledEntry entry) {
+            writeReleased.join();
+         }
+      };
+      CompletableFuture<Void> write = NonBlockingStoreAdapter.write(blockingStore, null, STORE_EXECUTOR);
+      assertFalse(write.isDone());
+      writeReleased.complete(null);
+      write.get(10, TimeUnit.SECONDS);
+   }
+
+   public static class NonBlockingStoreConfigurationBuilder extends DummyInMemoryStoreConfigurationBuilder {
+      public NonBlockingStoreConfigurationBuilder(PersistenceConfigurationBuilder builder) {
+         super(builder);
+      }
+
+      @Override
+      public NonBlockingStoreConfiguration create() {
+         return new NonBlockingStoreConfiguration(attributes.protect(), async.create(), singletonStore.create());
+      }
+   }
+
+   @ConfigurationFor(NonBlockingStore.class)
+   @BuiltBy(NonBlockingStoreConfigurationBuilder.class)
+   public static class NonBlockingStoreConfiguration extends DummyInMemoryStoreConfiguration {
+      public NonBlockingStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async,
+                                           SingletonStoreConfiguration singletonStore) {
+         super(attributes, async, singletonStore);
+      }
+   }
+
+   public static class NonBlockingStore extends DummyInMemoryStore implements NonBlockingCacheLoader, NonBlockingCacheWriter {
+      final AtomicInteger asyncLoads = new AtomicInteger();
+      final AtomicInteger asyncWrites = new AtomicInteger();
+      final AtomicInteger asyncDeletes = new AtomicInteger();
+      volatile CompletableFuture<Void> nextLoadReleased;
+      volatile PersistenceException failure;
+
+      @Override
+      public CompletionStage<MarshalledEntry> loadAsync(Object key) {
+         CompletableFuture<Void> released = nextLoadReleased;
+         if (released != null) {
+            nextLoadReleased = null;
+            MarshalledEntry entry = load(key);
+            asyncLoads.incrementAndGet();
+            return released.thenApplyAsync(ignore -> entry, STORE_EXECUTOR);
+         }
+         asyncLoads.incrementAndGet();
+         return CompletableFuture.supplyAsync(() -> {
+            checkFailure();
+            return load(key);
+         }, STORE_EXECUTOR);
+      }
+
+      @Override
+      public CompletionStage<Void> writeAsync(MarshalledEntry entry) {
+         asyncWrites.incrementAndGet();
+         return CompletableFuture.runAsync(() -> {
+            checkFailure();
+            write(entry);
+         }, STORE_EXECUTOR);
+      }
+
+      @Override
+      public CompletionStage<Boolean> deleteAsync(Object key) {
+         asyncDeletes.incrementAndGet();
+         return CompletableFuture.supplyAsync(() -> {
+            checkFailure();
+            return delete(key);
+         }, STORE_EXECUTOR);
+      }
+
+      private void checkFailure() {
+         PersistenceException e = failure;
+         if (e != null)
+            throw e;
+      }
+   }
+}
@@ -98,6 +98,13 @@ public void clear() {
       store.clear();
    }
 
+   @Override
+   public void deleteBatch(Iterable<Object> keys) {
+      record("deleteBatch");
+      for (Object key : keys)
+         delete(key);
+   }
+
    @Override
    public boolean delete(Object key) {
       record("delete");
@@ -3,10 +3,14 @@
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -272,6 +276,198 @@ public void testFileTruncation() throws ExecutionException, InterruptedException
       assertTrue(length3 < length2);
    }
 
+   public void testCompaction() throws ExecutionException, InterruptedException {
+      final int NUM_KEYS = 400;
+
+      Cache<String, String> cache = cacheManager.getCache(CACHE_NAME);
+      PersistenceManager persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+      final SingleFileStore store = persistenceManager.getStores(SingleFileStore.class).iterator().next();
+      final StreamingMarshaller marshaller = TestingUtil.extractComponentRegistry(cache).getCacheMarshaller();
+      assertEquals(0, store.size());
+
+      for (int j = 0; j < NUM_KEYS; j++) {
+         String key = "key" + j;
+         String value = key + "_value_" + j + "_" + times("123456789_", 10);
+         MarshalledEntryImpl entry = new MarshalledEntryImpl<String, String>(key, value, null, marshaller);
+         store.write(entry);
+      }
+      // Keep one entry out of four, spread over the whole file
+      for (int j = 0; j < NUM_KEYS; j++) {
+         if (j % 4 != 0)
+            store.delete("key" + j);
+      }
+      File file = new File(location, CACHE_NAME + ".dat");
+      long lengthBefore = file.length();
+
+      ExecutorService executor = Executors.newSingleThreadExecutor(getTestThreadFactory("Purge"));
+      store.purge(executor, null);
+      executor.shutdown();
+      long lengthAfter = file.length();
+
+      // Verify that the live entries were moved into the holes and the file truncated
+      assertTrue("File size before " + lengthBefore + ", after " + lengthAfter, lengthAfter < lengthBefore / 2);
+      assertEquals(NUM_KEYS / 4, store.size());
+      for (int j = 0; j < NUM_KEYS; j += 4) {
+         String key = "key" + j;
+         assertEquals(key + "_value_" + j + "_" + times("123456789_", 10), store.load(key).getValue());
+      }
+   }
+
+   public void testIndexSavedOnStop() {
+      final int NUM_KEYS = 100;
+
+      Cache<String, String> cache = cacheManager.getCache(CACHE_NAME);
+      PersistenceManager persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+      final SingleFileStore store = persistenceManager.getStores(SingleFileStore.class).iterator().next();
+      final StreamingMarshaller marshaller = TestingUtil.extractComponentRegistry(cache).getCacheMarshaller();
+      assertEquals(0, store.size());
+
+      for (int j = 0; j < NUM_KEYS; j++) {
+         String key = "key" + j;
+         MarshalledEntryImpl entry = new MarshalledEntryImpl<String, String>(key, key + "_value", null, marshaller);
+         store.write(entry);
+      }
+      store.delete("key0");
+
+      File indexFile = new File(location, CACHE_NAME + ".idx");
+      store.stop();
+      assertTrue(indexFile.exists());
+      store.start();
+      assertFalse(indexFile.exists());
+
+      assertEquals(NUM_KEYS - 1, store.size());
+      assertEquals(1, store.getFreeList().size());
+      assertNull(store.load("key0"));
+      for (int j = 1; j < NUM_KEYS; j++) {
+         String key = "key" + j;
+         assertEquals(key + "_value", store.load(key).getValue());
+      }
+   }
+
+   public void testCorruptedIndexIgnored() throws IOException {
+      final int NUM_KEYS = 100;
+
+      Cache<String, String> cache = cacheManager.getCache(CACHE_NAME);
+      PersistenceManager persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+      final SingleFileStore store = persistenceManager.getStores(SingleFileStore.class).iterator().next();
+      final StreamingMarshaller marshaller = TestingUtil.extractComponentRegistry(cache).getCacheMarshaller();
+      assertEquals(0, store.size());
+
+      for (int j = 0; j < NUM_KEYS; j++) {
+         String key = "key" + j;
+         MarshalledEntryImpl entry = new MarshalledEntryImpl<String, String>(key, key + "_value", null, marshaller);
+         store.write(entry);
+      }
+
+      File indexFile = new File(location, CACHE_NAME + ".idx");
+      store.stop();
+      // Flip a byte in the middle of the entries, the checksum no longer matches and the data file is scanned instead
+      try (RandomAccessFile raf = new RandomAccessFile(indexFile, "rw")) {
+         long pos = raf.length() / 2;
+         raf.seek(pos);
+         int b = raf.read();
+         raf.seek(pos);
+         raf.write(b ^ 0xFF);
+      }
+      store.start();
+      assertFalse(indexFile.exists());
+
+      assertEquals(NUM_KEYS, store.size());
+      for (int j = 0; j < NUM_KEYS; j++) {
+         String key = "key" + j;
+         assertEquals(key + "_value", store.load(key).getValue());
+      }
+   }
+
+   public void testRebuildAfterOverwrite() {
+      final int NUM_KEYS = 100;
+
+      Cache<String, String> cache = cacheManager.getCache(CACHE_NAME);
+      PersistenceManager persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+      final SingleFileStore store = persistenceManager.getStores(SingleFileStore.class).iterator().next();
+      final StreamingMarshaller marshaller = TestingUtil.extractComponentRegistry(cache).getCacheMarshaller();
+      assertEquals(0, store.size());
+
+      for (int i = 0; i < 3; i++) {
+         for (int j = 0; j < NUM_KEYS; j++) {
+            String key = "key" + j;
+            String value = key + "_value" + i;
+            MarshalledEntryImpl entry = new MarshalledEntryImpl<String, String>(key, value, null, marshaller);
+            store.write(entry);
+         }
+      }
+
+      File indexFile = new File(location, CACHE_NAME + ".idx");
+      store.stop();
+      // Without the index the keys are read from the data file, where each of them must have a single valid entry
+      assertTrue(indexFile.delete());
+      store.start();
+
+      assertEquals(NUM_KEYS, store.size());
+      for (int j = 0; j < NUM_KEYS; j++) {
+         String key = "key" + j;
+         assertEquals(key + "_value2", store.load(key).getValue());
+      }
+   }
+
+   public void testRebuildAfterInterruptedOverwrite() throws IOException {
+      Cache<String, String> cache = cacheManager.getCache(CACHE_NAME);
+      PersistenceManager persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+      final SingleFileStore store = persistenceManager.getStores(SingleFileStore.class).iterator().next();
+      final StreamingMarshaller marshaller = TestingUtil.extractComponentRegistry(cache).getCacheMarshaller();
+
+      // Interrupted before freeing the old entry: the old value is kept
+      writeOverwrittenKey(store, marshaller);
+      File file = new File(location, CACHE_NAME + ".dat");
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+         int firstSize = readInt(raf, 4);
+         int keyLen = readInt(raf, 4 + firstSize + 4);
+         writeInt(raf, 4 + 4, keyLen);
+         writeInt(raf, 4 + firstSize + 4, -keyLen);
+      }
+      store.start();
+      assertEquals(1, store.size());
+      assertEquals("value1", store.load("key").getValue());
+
+      // Interrupted after freeing the old entry: the new value is kept
+      writeOverwrittenKey(store, marshaller);
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+         int firstSize = readInt(raf, 4);
+         int keyLen = readInt(raf, 4 + firstSize + 4);
+         assertEquals(0, readInt(raf, 4 + 4));
+         writeInt(raf, 4 + firstSize + 4, -keyLen);
+      }
+      store.start();
+      assertEquals(1, store.size());
+      assertEquals("value2", store.load("key").getValue());
+
+      // Either way the pending entry was resolved, so the key has a single valid entry after another restart
+      store.stop();
+      assertTrue(new File(location, CACHE_NAME + ".idx").delete());
+      store.start();
+      assertEquals(1, store.size());
+      assertEquals("value2", store.load("key").getValue());
+   }
+
+   private void writeOverwrittenKey(SingleFileStore store, StreamingMarshaller marshaller) {
+      store.clear();
+      // the file is empty, so the first value is written right after the magic and the second one after it
+      store.write(new MarshalledEntryImpl<String, String>("key", "value1", null, marshaller));
+      store.write(new MarshalledEntryImpl<String, String>("key", "value2", null, marshaller));
+      store.stop();
+      assertTrue(new File(location, CACHE_NAME + ".idx").delete());
+   }
+
+   private static int readInt(RandomAccessFile raf, long pos) throws IOException {
+      raf.seek(pos);
+      return raf.readInt();
+   }
+
+   private static void writeInt(RandomAccessFile raf, long pos, int value) throws IOException {
+      raf.seek(pos);
+      raf.writeInt(value);
+   }
+
    public void testProcess() throws ExecutionException, InterruptedException {
       final int NUM_WRITER_THREADS = 2;
       final int NUM_KEYS = 2000;
@@ -0,0 +1,75 @@
+package org.infinispan.statetransfer;
+
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Tests {@link BandwidthLimiter}.
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "statetransfer.BandwidthLimiterTest")
+public class BandwidthLimiterTest extends AbstractInfinispanTest {
+   private static final long BYTES_PER_SECOND = 100_000;
+   // 100 milliseconds at the configured rate
+   private static final long BYTES = 10_000;
+   // TimeUnit.sleep may round the nanoseconds down
+   private static final long TOLERANCE_MILLIS = 10;
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testZeroBandwidth() {
+      new BandwidthLimiter(0);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testNegativeBandwidth() {
+      new BandwidthLimiter(-1);
+   }
+
+   public void testRate() throws InterruptedException {
+      BandwidthLimiter limiter = new BandwidthLimiter(BYTES_PER_SECOND);
+      long start = System.nanoTime();
+      // the first bytes are sent right away, the following ones wait for the previous ones
+      for (int i = 0; i < 6; ++i) {
+         limiter.acquire(BYTES);
+      }
+      assertElapsed(start, 500);
+   }
+
+   public void testRateIsSharedByAllCallers() throws Exception {
+      BandwidthLimiter limiter = new BandwidthLimiter(BYTES_PER_SECOND);
+      long start = System.nanoTime();
+      Future<Void> other = fork(() -> {
+         for (int i = 0; i < 3; ++i) {
+            limiter.acquire(BYTES);
+         }
+         return null;
+      });
+      for (int i = 0; i < 3; ++i) {
+         limiter.acquire(BYTES);
+      }
+      other.get(10, TimeUnit.SECONDS);
+      assertElapsed(start, 500);
+   }
+
+   public void testIdleTimeIsNotUsedForBurst() throws InterruptedException {
+      BandwidthLimiter limiter = new BandwidthLimiter(BYTES_PER_SECOND);
+      Thread.sleep(300);
+      long start = System.nanoTime();
+      for (int i = 0; i < 3; ++i) {
+         limiter.acquire(BYTES);
+      }
+      assertElapsed(start, 200);
+   }
+
+   private void assertElapsed(long startNanos, long expectedMillis) {
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      assertTrue("Expected at least " + expectedMillis + " ms but took " + elapsedMillis + " ms",
+            elapsedMillis >= expectedMillis - TOLERANCE_MILLIS);
+   }
+}
@@ -0,0 +1,99 @@
+package org.infinispan.statetransfer;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.InterceptorConfiguration;
+import org.infinispan.container.DataContainer;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.impl.FlagBitSets;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the state received by a joiner is written directly to the data container and the private stores when
+ * bulk apply is enabled.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "statetransfer.BulkStateApplyTest")
+public class BulkStateApplyTest extends MultipleCacheManagersTest {
+   private static final int NUM_KEYS = 200;
+   // state transfer puts invoked through the interceptor chain of the joiner, instead of applied in bulk
+   private final AtomicInteger stateTransferPuts = new AtomicInteger();
+
+   private ConfigurationBuilder configuration(int index) {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1).numSegments(20)
+            .stateTransfer().bulkApply(true).chunkSize(10);
+      builder.persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class)
+            .storeName(getClass().getSimpleName() + index);
+      return builder;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      addClusterEnabledCacheManager(configuration(0));
+      addClusterEnabledCacheManager(configuration(1));
+      waitForClusterToForm();
+   }
+
+   public void testJoinerAppliesStateInBulk() {
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         cache(0).put("key" + i, "value" + i);
+      }
+
+      ConfigurationBuilder joinerConfiguration = configuration(2);
+      joinerConfiguration.customInterceptors().addInterceptor().position(InterceptorConfiguration.Position.FIRST)
+            .interceptor(new CommandInterceptor() {
+               @Override
+               public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command)
+                     throws Throwable {
+                  if (command.hasAnyFlag(FlagBitSets.PUT_FOR_STATE_TRANSFER)) {
+                     stateTransferPuts.incrementAndGet();
+                  }
+                  return super.visitPutKeyValueCommand(ctx, command);
+               }
+            });
+      addClusterEnabledCacheManager(joinerConfiguration);
+      waitForClusterToForm();
+
+      Cache<Object, Object> joiner = cache(2);
+      DistributionManager dm = joiner.getAdvancedCache().getDistributionManager();
+      DataContainer<Object, Object> dataContainer = joiner.getAdvancedCache().getDataContainer();
+      DummyInMemoryStore store = TestingUtil.getFirstWriter(joiner);
+      int owned = 0;
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         String key = "key" + i;
+         if (dm.getLocality(key).isLocal()) {
+            owned++;
+            assertEquals("value" + i, dataContainer.get(key).getValue());
+            assertEquals("value" + i, store.load(key).getValue());
+         }
+         assertEquals("value" + i, joiner.get(key));
+      }
+      assertTrue(owned > 0);
+      assertEquals(0, stateTransferPuts.get());
+
+      StateTransferManager stm = TestingUtil.extractComponent(joiner, StateTransferManager.class);
+      assertEquals(owned, stm.getAppliedStateEntries());
+      assertEquals(0, stm.getDiscardedStateEntries());
+      Map<Integer, StateApplyStatistics> statistics = stm.getApplyStatistics();
+      assertTrue(!statistics.isEmpty());
+      for (StateApplyStatistics segmentStatistics : statistics.values()) {
+         assertTrue(segmentStatistics.getChunks() > 0);
+      }
+   }
+}
@@ -206,7 +206,7 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
       final StateConsumerImpl stateConsumer = new StateConsumerImpl();
       stateConsumer.init(cache, pooledExecutorService, stateTransferManager, interceptorChain, icf, configuration, rpcManager, null,
             commandsFactory, persistenceManager, dataContainer, transactionTable, stateTransferLock, cacheNotifier,
-            totalOrderManager, remoteCommandsExecutor, new CommitManager(), new CommandAckCollector());
+            totalOrderManager, remoteCommandsExecutor, new CommitManager(), new CommandAckCollector(), null, null);
       stateConsumer.start();
 
       final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
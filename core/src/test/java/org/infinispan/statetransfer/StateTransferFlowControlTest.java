@@ -0,0 +1,165 @@
+package org.infinispan.statetransfer;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.AbstractControlledRpcManager;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that state is transferred correctly when chunks are limited by size, several chunks are sent before waiting
+ * for their acknowledgement and the bandwidth is limited.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "statetransfer.StateTransferFlowControlTest")
+public class StateTransferFlowControlTest extends MultipleCacheManagersTest {
+   private static final int NUM_KEYS = 200;
+   private static final int VALUE_SIZE = 300;
+   private static final int CHUNK_BYTES = 1000;
+   private static final int MAX_IN_FLIGHT_CHUNKS = 4;
+
+   private ConfigurationBuilder builder;
+
+   public StateTransferFlowControlTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      // a single segment with two owners, so the joiner receives all the entries and each command holds one chunk
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2).numSegments(1)
+            .stateTransfer().chunkBytes(CHUNK_BYTES).maxInFlightChunks(MAX_IN_FLIGHT_CHUNKS).maxBandwidth(1024 * 1024);
+      createCluster(builder, 1);
+      waitForClusterToForm();
+   }
+
+   public void testChunksStayWithinChunkBytes() {
+      populate();
+      RecordingRpcManager rpcManager = replaceRpcManager(cache(0));
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+      assertJoinerReceivedAllEntries(cache(1));
+
+      List<Collection<StateChunk>> sent = rpcManager.sentChunks;
+      // each entry is estimated to be bigger than its value, so a chunk can't hold more than CHUNK_BYTES / VALUE_SIZE
+      assertTrue(sent.size() >= NUM_KEYS / (CHUNK_BYTES / VALUE_SIZE));
+      for (int i = 0; i < sent.size(); ++i) {
+         assertEquals(1, sent.get(i).size());
+         StateChunk chunk = sent.get(i).iterator().next();
+         assertEquals(i == sent.size() - 1, chunk.isLastChunk());
+         if (!chunk.isLastChunk()) {
+            int entries = chunk.getCacheEntries().size();
+            assertTrue(entries > 0);
+            assertTrue("Chunk " + i + " holds " + entries + " entries", entries * VALUE_SIZE <= CHUNK_BYTES);
+         }
+      }
+   }
+
+   public void testMaxInFlightChunks() throws Exception {
+      populate();
+      RecordingRpcManager rpcManager = replaceRpcManager(cache(0));
+      rpcManager.blockAcknowledgements = true;
+
+      addClusterEnabledCacheManager(builder);
+      Future<?> join = fork(() -> {
+         cache(1);
+         waitForClusterToForm();
+      });
+
+      // the sender stops once MAX_IN_FLIGHT_CHUNKS chunks are waiting for their acknowledgement
+      eventually(() -> rpcManager.sentChunks.size() == MAX_IN_FLIGHT_CHUNKS);
+      Thread.sleep(100);
+      assertEquals(MAX_IN_FLIGHT_CHUNKS, rpcManager.sentChunks.size());
+      assertFalse(join.isDone());
+
+      rpcManager.releaseAcknowledgements();
+      join.get(30, TimeUnit.SECONDS);
+      assertJoinerReceivedAllEntries(cache(1));
+      assertTrue(rpcManager.sentChunks.size() > MAX_IN_FLIGHT_CHUNKS);
+   }
+
+   private void populate() {
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         byte[] value = new byte[VALUE_SIZE];
+         Arrays.fill(value, (byte) i);
+         cache(0).put("key" + i, value);
+      }
+   }
+
+   private void assertJoinerReceivedAllEntries(Cache<Object, Object> joiner) {
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         byte[] value = (byte[]) joiner.getAdvancedCache().getDataContainer().get("key" + i).getValue();
+         assertNotNull(value);
+         assertEquals(VALUE_SIZE, value.length);
+         assertEquals((byte) i, value[0]);
+      }
+      StateTransferManager stm = TestingUtil.extractComponent(joiner, StateTransferManager.class);
+      assertEquals(NUM_KEYS, stm.getAppliedStateEntries());
+   }
+
+   private RecordingRpcManager replaceRpcManager(Cache<?, ?> cache) {
+      RpcManager manager = TestingUtil.extractComponent(cache, RpcManager.class);
+      RecordingRpcManager recordingRpcManager = new RecordingRpcManager(manager);
+      TestingUtil.replaceComponent(cache, RpcManager.class, recordingRpcManager, true);
+      return recordingRpcManager;
+   }
+
+   /**
+    * Records the chunks of the state responses sent and, if requested, holds back their acknowledgements.
+    */
+   private static class RecordingRpcManager extends AbstractControlledRpcManager {
+      final List<Collection<StateChunk>> sentChunks = new CopyOnWriteArrayList<>();
+      final CompletableFuture<Void> acknowledgementsReleased = new CompletableFuture<>();
+      volatile boolean blockAcknowledgements;
+
+      RecordingRpcManager(RpcManager realOne) {
+         super(realOne);
+      }
+
+      @Override
+      public CompletableFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients,
+                                                                           ReplicableCommand rpc, RpcOptions options) {
+         CompletableFuture<Map<Address, Response>> future = super.invokeRemotelyAsync(recipients, rpc, options);
+         if (rpc instanceof StateResponseCommand && blockAcknowledgements) {
+            return future.thenCombine(acknowledgementsReleased, (responses, ignore) -> responses);
+         }
+         return future;
+      }
+
+      @Override
+      protected Object beforeInvokeRemotely(ReplicableCommand command) {
+         if (command instanceof StateResponseCommand) {
+            sentChunks.add(TestingUtil.extractField(command, "stateChunks"));
+         }
+         return null;
+      }
+
+      void releaseAcknowledgements() {
+         acknowledgementsReleased.complete(null);
+      }
+   }
+}
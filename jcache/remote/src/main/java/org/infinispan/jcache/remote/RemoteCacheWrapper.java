@@ -124,6 +124,11 @@ public MetadataValue<V> getWithMetadata(K key) {
       return delegate.getWithMetadata(key);
    }
 
+   @Override
+   public CompletableFuture<MetadataValue<V>> getWithMetadataAsync(K key) {
+      return delegate.getWithMetadataAsync(key);
+   }
+
    @Override
    public boolean isEmpty() {
       return delegate.isEmpty();
@@ -86,6 +86,9 @@ private void parseStringKeyedJdbcStore(final XMLExtendedStreamReader reader,
             case KEY_TO_STRING_MAPPER:
                builder.key2StringMapper(value);
                break;
+            case BINARY_KEYS:
+               builder.binaryKeys(Boolean.parseBoolean(value));
+               break;
             case DIALECT:
                builder.dialect(DatabaseType.valueOf(value));
                break;
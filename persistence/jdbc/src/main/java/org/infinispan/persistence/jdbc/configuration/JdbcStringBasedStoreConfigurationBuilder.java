@@ -1,15 +1,20 @@
 package org.infinispan.persistence.jdbc.configuration;
 
+import static org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfiguration.BINARY_KEYS;
 import static org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfiguration.KEY2STRING_MAPPER;
 import static org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfiguration.PROPERTIES;
+import static org.infinispan.persistence.jdbc.configuration.TableManipulationConfiguration.ID_COLUMN_TYPE;
 
 import java.util.Map;
 import java.util.Properties;
+import java.util.regex.Pattern;
 
 import org.infinispan.commons.configuration.Builder;
+import org.infinispan.commons.logging.LogFactory;
 import org.infinispan.commons.util.TypedProperties;
 import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
 import org.infinispan.configuration.parsing.XmlConfigHelper;
+import org.infinispan.persistence.jdbc.logging.Log;
 import org.infinispan.persistence.keymappers.DefaultTwoWayKey2StringMapper;
 import org.infinispan.persistence.keymappers.Key2StringMapper;
 
@@ -21,6 +26,9 @@
  * @since 5.2
  */
 public class JdbcStringBasedStoreConfigurationBuilder extends AbstractJdbcStoreConfigurationBuilder<JdbcStringBasedStoreConfiguration, JdbcStringBasedStoreConfigurationBuilder> {
+   private static final Log log = LogFactory.getLog(JdbcStringBasedStoreConfigurationBuilder.class, Log.class);
+   // the binary column types of the supported databases, e.g. VARBINARY, BYTEA, BLOB, RAW or VARCHAR FOR BIT DATA
+   private static final Pattern BINARY_COLUMN_TYPE = Pattern.compile("(?i).*(BINARY|BYTEA|BLOB|RAW|IMAGE|BIT DATA).*");
    private StringTableManipulationConfigurationBuilder table;
 
    public JdbcStringBasedStoreConfigurationBuilder(PersistenceConfigurationBuilder builder) {
@@ -51,6 +59,15 @@ public JdbcStringBasedStoreConfigurationBuilder key2StringMapper(Class<? extends
       return this;
    }
 
+   /**
+    * Stores the marshalled keys in the id column instead of mapping them to strings with the
+    * {@link Key2StringMapper}. The id column must then have a binary type, e.g. BYTEA or VARBINARY. Defaults to false.
+    */
+   public JdbcStringBasedStoreConfigurationBuilder binaryKeys(boolean binaryKeys) {
+      attributes.attribute(BINARY_KEYS).set(binaryKeys);
+      return this;
+   }
+
    /**
     * Allows configuration of table-specific parameters such as column names and types
     */
@@ -67,6 +84,16 @@ public JdbcStringBasedStoreConfigurationBuilder withProperties(Properties props)
       return this;
    }
 
+   @Override
+   public void validate() {
+      super.validate();
+      String idColumnType = table.attributes().attribute(ID_COLUMN_TYPE).get();
+      if (attributes.attribute(BINARY_KEYS).get() && idColumnType != null &&
+            !BINARY_COLUMN_TYPE.matcher(idColumnType).matches()) {
+         throw log.binaryKeysRequireBinaryIdColumnType(idColumnType);
+      }
+   }
+
    @Override
    public JdbcStringBasedStoreConfiguration create() {
       return new JdbcStringBasedStoreConfiguration(attributes.protect(), async.create(), singletonStore.create(), connectionFactory != null ? connectionFactory.create() : null,
@@ -170,4 +170,7 @@ public interface Log extends org.infinispan.util.logging.Log {
    @Message(value = "Unable to notify the PurgeListener of expired cache entries as the configured key2StringMapper " +
          "does not implement %s", id = 8036)
    void twoWayKey2StringMapperIsMissing(String className);
+
+   @Message(value = "Binary keys require a binary id column type, e.g. BYTEA or VARBINARY, but it is '%s'", id = 8037)
+   CacheConfigurationException binaryKeysRequireBinaryIdColumnType(String idColumnType);
 }
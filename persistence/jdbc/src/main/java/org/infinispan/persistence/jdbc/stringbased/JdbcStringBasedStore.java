@@ -8,12 +8,19 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.concurrent.Executor;
 
 import javax.transaction.Transaction;
 
 import org.infinispan.commons.configuration.ConfiguredBy;
 import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.executors.ExecutorAllCompletionService;
@@ -30,6 +37,7 @@
 import org.infinispan.persistence.keymappers.TwoWayKey2StringMapper;
 import org.infinispan.persistence.keymappers.UnsupportedKeyTypeException;
 import org.infinispan.persistence.spi.InitializationContext;
+import org.infinispan.persistence.spi.IterableCacheLoader;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.persistence.support.BatchModification;
 import org.infinispan.util.KeyValuePair;
@@ -64,13 +72,17 @@
  * <b>Rehashing</b>. When a node leaves/joins, Infinispan moves around persistent state as part of rehashing process.
  * For this it needs access to the underlaying key objects, so if distribution is used, the mapper needs to be an
  * {@link org.infinispan.persistence.keymappers.TwoWayKey2StringMapper} otherwise the cache won't start (same constraint as with preloading).
+ * <p/>
+ * <b>Binary keys</b>. With {@link JdbcStringBasedStoreConfiguration#binaryKeys()} the keys are marshalled and stored in
+ * a binary id column instead of being mapped to strings, so no {@link org.infinispan.persistence.keymappers.Key2StringMapper}
+ * is needed.
  *
  * @author Mircea.Markus@jboss.com
  * @see org.infinispan.persistence.keymappers.Key2StringMapper
  * @see org.infinispan.persistence.keymappers.DefaultTwoWayKey2StringMapper
  */
 @ConfiguredBy(JdbcStringBasedStoreConfiguration.class)
-public class JdbcStringBasedStore<K,V> extends AbstractJdbcStore<K,V> {
+public class JdbcStringBasedStore<K,V> extends AbstractJdbcStore<K,V> implements IterableCacheLoader<K,V> {
 
    private static final Log log = LogFactory.getLog(JdbcStringBasedStore.class, Log.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -105,10 +117,11 @@ public void start() {
       if (trace) {
          log.tracef("Using key2StringMapper: %s", key2StringMapper.getClass().getName());
       }
-      if (configuration.preload()) {
+      // marshalled keys can always be read back
+      if (configuration.preload() && !configuration.binaryKeys()) {
          enforceTwoWayMapper("preload");
       }
-      if (isDistributed()) {
+      if (isDistributed() && !configuration.binaryKeys()) {
          enforceTwoWayMapper("distribution/rehashing");
       }
    }
@@ -116,10 +129,11 @@ public void start() {
    @Override
    public void write(MarshalledEntry entry) {
       Connection connection = null;
-      String keyStr = key2Str(entry.getKey());
+      Object dbKey = toDbKey(entry.getKey());
+      String keyStr = keyToString(entry.getKey(), dbKey);
       try {
          connection = connectionFactory.getConnection();
-         write(entry, connection, keyStr);
+         write(entry, connection, dbKey);
       } catch (SQLException ex) {
          log.sqlFailureStoringKey(keyStr, ex);
          throw new PersistenceException(String.format("Error while storing string key to database; key: '%s'", keyStr), ex);
@@ -134,42 +148,42 @@ public void write(MarshalledEntry entry) {
    }
 
    private void write(MarshalledEntry entry, Connection connection) throws SQLException, InterruptedException {
-      write(entry, connection, key2Str(entry.getKey()));
+      write(entry, connection, toDbKey(entry.getKey()));
    }
 
-   private void write(MarshalledEntry entry, Connection connection, String keyStr) throws SQLException, InterruptedException {
+   private void write(MarshalledEntry entry, Connection connection, Object dbKey) throws SQLException, InterruptedException {
       if (tableManager.isUpsertSupported()) {
-         executeUpsert(connection, entry, keyStr);
+         executeUpsert(connection, entry, dbKey);
       } else {
-         executeLegacyUpdate(connection, entry, keyStr);
+         executeLegacyUpdate(connection, entry, dbKey);
       }
    }
 
-   private void executeUpsert(Connection connection, MarshalledEntry entry, String keyStr)
+   private void executeUpsert(Connection connection, MarshalledEntry entry, Object dbKey)
          throws InterruptedException, SQLException {
       PreparedStatement ps = null;
       String sql = tableManager.getUpsertRowSql();
       if (trace) {
-         log.tracef("Running sql '%s'. Key string is '%s'", sql, keyStr);
+         log.tracef("Running sql '%s'. Key string is '%s'", sql, keyToString(entry.getKey(), dbKey));
       } try {
          ps = connection.prepareStatement(sql);
-         prepareUpdateStatement(entry, keyStr, ps);
+         prepareUpdateStatement(entry, dbKey, ps, 0);
          ps.executeUpdate();
       } finally {
          JdbcUtil.safeClose(ps);
       }
    }
 
-   private void executeLegacyUpdate(Connection connection, MarshalledEntry entry, String keyStr)
+   private void executeLegacyUpdate(Connection connection, MarshalledEntry entry, Object dbKey)
          throws InterruptedException, SQLException {
       String sql = tableManager.getSelectIdRowSql();
       if (trace) {
-         log.tracef("Running sql '%s'. Key string is '%s'", sql, keyStr);
+         log.tracef("Running sql '%s'. Key string is '%s'", sql, keyToString(entry.getKey(), dbKey));
       }
       PreparedStatement ps = null;
       try {
          ps = connection.prepareStatement(sql);
-         ps.setString(1, keyStr);
+         setDbKey(ps, 1, dbKey);
          ResultSet rs = ps.executeQuery();
          if (rs.next()) {
             sql = tableManager.getUpdateRowSql();
@@ -179,19 +193,151 @@ private void executeLegacyUpdate(Connection connection, MarshalledEntry entry, S
          JdbcUtil.safeClose(rs);
          JdbcUtil.safeClose(ps);
          if (trace) {
-            log.tracef("Running sql '%s'. Key string is '%s'", sql, keyStr);
+            log.tracef("Running sql '%s'. Key string is '%s'", sql, keyToString(entry.getKey(), dbKey));
          }
          ps = connection.prepareStatement(sql);
-         prepareUpdateStatement(entry, keyStr, ps);
+         prepareUpdateStatement(entry, dbKey, ps, 0);
          ps.executeUpdate();
       } finally {
          JdbcUtil.safeClose(ps);
       }
    }
 
+   @Override
+   public void writeBatch(Iterable<MarshalledEntry<? extends K, ? extends V>> marshalledEntries) {
+      if (!tableManager.isUpsertSupported()) {
+         // the legacy update needs a select per entry to choose between insert and update
+         super.writeBatch(marshalledEntries);
+         return;
+      }
+
+      Connection connection = null;
+      try {
+         connection = connectionFactory.getConnection();
+         boolean autoCommit = connection.getAutoCommit();
+         connection.setAutoCommit(false);
+         try {
+            upsert(connection, marshalledEntries);
+            connection.commit();
+         } catch (SQLException | InterruptedException e) {
+            connection.rollback();
+            throw e;
+         } finally {
+            connection.setAutoCommit(autoCommit);
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureStoringKeys(ex);
+         throw new PersistenceException("Error while storing a batch of string keys to database", ex);
+      } catch (InterruptedException e) {
+         if (trace) {
+            log.trace("Interrupted while marshalling to store");
+         }
+         Thread.currentThread().interrupt();
+      } finally {
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
+   /**
+    * Upserts the entries with statements of up to batch size rows when the database supports multi-row upserts,
+    * otherwise with a JDBC batch of single row upserts. The rows of a statement are also limited by the number of
+    * parameters the database accepts.
+    */
+   private void upsert(Connection connection, Iterable<? extends MarshalledEntry> entries) throws SQLException, InterruptedException {
+      int batchSize = tableManager.getBatchSize();
+      int statementRows = Math.min(batchSize, tableManager.getUpsertMultipleRowLimit());
+      String multipleRowSql = tableManager.getUpsertMultipleRowSql(statementRows);
+      if (multipleRowSql == null) {
+         try (PreparedStatement upsertBatch = connection.prepareStatement(tableManager.getUpsertRowSql())) {
+            int rows = 0;
+            for (MarshalledEntry entry : entries) {
+               prepareUpdateStatement(entry, toDbKey(entry.getKey()), upsertBatch, 0);
+               upsertBatch.addBatch();
+               if (++rows == batchSize) {
+                  upsertBatch.executeBatch();
+                  rows = 0;
+               }
+            }
+            if (rows > 0)
+               upsertBatch.executeBatch();
+         }
+         return;
+      }
+      // A single statement cannot upsert the same row twice, so only the last write of each key is kept
+      Map<Object, MarshalledEntry> rows = new LinkedHashMap<>();
+      PreparedStatement fullBatch = null;
+      try {
+         for (MarshalledEntry entry : entries) {
+            rows.remove(entry.getKey());
+            rows.put(entry.getKey(), entry);
+            if (rows.size() == statementRows) {
+               if (fullBatch == null) {
+                  fullBatch = connection.prepareStatement(multipleRowSql);
+               }
+               executeUpsert(fullBatch, rows);
+               rows.clear();
+            }
+         }
+      } finally {
+         JdbcUtil.safeClose(fullBatch);
+      }
+      if (!rows.isEmpty()) {
+         try (PreparedStatement lastBatch = connection.prepareStatement(tableManager.getUpsertMultipleRowSql(rows.size()))) {
+            executeUpsert(lastBatch, rows);
+         }
+      }
+   }
+
+   private void executeUpsert(PreparedStatement ps, Map<Object, MarshalledEntry> rows) throws SQLException, InterruptedException {
+      if (trace) {
+         log.tracef("Upserting %d rows", rows.size());
+      }
+      int offset = 0;
+      for (Map.Entry<Object, MarshalledEntry> row : rows.entrySet()) {
+         prepareUpdateStatement(row.getValue(), toDbKey(row.getKey()), ps, offset);
+         offset += 3;
+      }
+      ps.executeUpdate();
+   }
+
+   @Override
+   public void deleteBatch(Iterable<Object> keys) {
+      Connection connection = null;
+      try {
+         connection = connectionFactory.getConnection();
+         boolean autoCommit = connection.getAutoCommit();
+         connection.setAutoCommit(false);
+         try (PreparedStatement deleteBatch = connection.prepareStatement(tableManager.getDeleteRowSql())) {
+            int batchSize = 0;
+            for (Object key : keys) {
+               setDbKey(deleteBatch, 1, toDbKey(key));
+               deleteBatch.addBatch();
+               if (++batchSize == tableManager.getBatchSize()) {
+                  deleteBatch.executeBatch();
+                  batchSize = 0;
+               }
+            }
+            if (batchSize > 0)
+               deleteBatch.executeBatch();
+            connection.commit();
+         } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+         } finally {
+            connection.setAutoCommit(autoCommit);
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureRemovingKeys(ex);
+         throw new PersistenceException("Error while removing a batch of string keys from database", ex);
+      } finally {
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
    @Override
    public MarshalledEntry load(Object key) {
-      String lockingKey = key2Str(key);
+      Object dbKey = toDbKey(key);
+      String lockingKey = keyToString(key, dbKey);
       Connection conn = null;
       PreparedStatement ps = null;
       ResultSet rs = null;
@@ -200,7 +346,7 @@ public MarshalledEntry load(Object key) {
          String sql = tableManager.getSelectRowSql();
          conn = connectionFactory.getConnection();
          ps = conn.prepareStatement(sql);
-         ps.setString(1, lockingKey);
+         setDbKey(ps, 1, dbKey);
          rs = ps.executeQuery();
          if (rs.next()) {
             InputStream inputStream = rs.getBinaryStream(2);
@@ -228,15 +374,15 @@ public MarshalledEntry load(Object key) {
    public boolean delete(Object key) {
       Connection connection = null;
       PreparedStatement ps = null;
-      String keyStr = key2Str(key);
+      Object dbKey = toDbKey(key);
       try {
          String sql = tableManager.getDeleteRowSql();
          if (trace) {
-            log.tracef("Running sql '%s' on %s", sql, keyStr);
+            log.tracef("Running sql '%s' on %s", sql, keyToString(key, dbKey));
          }
          connection = connectionFactory.getConnection();
          ps = connection.prepareStatement(sql);
-         ps.setString(1, keyStr);
+         setDbKey(ps, 1, dbKey);
          return ps.executeUpdate() == 1;
       } catch (SQLException ex) {
          log.sqlFailureRemovingKeys(ex);
@@ -261,16 +407,15 @@ public void purge(Executor executor, PurgeListener purgeListener) {
 
          try (PreparedStatement batchDelete = conn.prepareStatement(tableManager.getDeleteRowSql())) {
             int affectedRows = 0;
-            boolean twoWayMapperExists = key2StringMapper instanceof TwoWayKey2StringMapper;
+            boolean twoWayMapperExists = configuration.binaryKeys() || key2StringMapper instanceof TwoWayKey2StringMapper;
             while (rs.next()) {
                affectedRows++;
-               String keyStr = rs.getString(2);
-               batchDelete.setString(1, keyStr);
+               Object dbKey = getDbKey(rs, 2);
+               setDbKey(batchDelete, 1, dbKey);
                batchDelete.addBatch();
 
                if (twoWayMapperExists && purgeListener != null) {
-                  Object key = ((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping(keyStr);
-                  purgeListener.entryPurged(key);
+                  purgeListener.entryPurged(fromDbKey(dbKey));
                }
             }
 
@@ -305,41 +450,40 @@ public void process(final KeyFilter filter, final CacheLoaderTask task, Executor
       Connection conn = null;
       PreparedStatement ps = null;
       ResultSet rs = null;
+      Boolean autoCommit = null;
       try {
          String sql = tableManager.getLoadNonExpiredAllRowsSql();
          if (trace) {
             log.tracef("Running sql %s", sql);
          }
          conn = connectionFactory.getConnection();
+         autoCommit = startStreaming(conn);
          ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
          ps.setLong(1, ctx.getTimeService().wallClockTime());
          ps.setFetchSize(tableManager.getFetchSize());
          rs = ps.executeQuery();
 
+         // The rows are copied out of the result set on this thread, as it can only be read until the next row is
+         // fetched, while the values are unmarshalled by the executor in chunks of fetch size rows. The keys are
+         // filtered here, so that the data of the rejected rows is never read
+         int chunkSize = tableManager.getFetchSize() > 0 ? tableManager.getFetchSize() : TableManager.DEFAULT_FETCH_SIZE;
          TaskContext taskContext = new TaskContextImpl();
          ExecutorAllCompletionService ecs = new ExecutorAllCompletionService(executor);
+         List<Object[]> chunk = new ArrayList<>(chunkSize);
          while (rs.next()) {
-            String keyStr = rs.getString(2);
-            Object key = ((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping(keyStr);
             if (taskContext.isStopped()) break;
+            Object key = fromDbKey(getDbKey(rs, 2));
             if (filter != null && !filter.accept(key))
                continue;
-
-            InputStream inputStream = rs.getBinaryStream(1);
-            ecs.submit(() -> {
-               if (!taskContext.isStopped()) {
-                  MarshalledEntry entry;
-                  if (fetchValue || fetchMetadata) {
-                     KeyValuePair<ByteBuffer, ByteBuffer> kvp = unmarshall(inputStream);
-                     entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(
-                           key, fetchValue ? kvp.getKey() : null, fetchMetadata ? kvp.getValue() : null);
-                  } else {
-                     entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(key, (Object) null, null);
-                  }
-                  task.processEntry(entry, taskContext);
-               }
-               return null;
-            });
+            byte[] data = fetchValue || fetchMetadata ? rs.getBytes(1) : null;
+            chunk.add(new Object[]{key, data});
+            if (chunk.size() == chunkSize) {
+               submitChunk(ecs, chunk, task, taskContext, fetchValue, fetchMetadata);
+               chunk = new ArrayList<>(chunkSize);
+            }
+         }
+         if (!chunk.isEmpty() && !taskContext.isStopped()) {
+            submitChunk(ecs, chunk, task, taskContext, fetchValue, fetchMetadata);
          }
          ecs.waitUntilAllCompleted();
          if (ecs.isExceptionThrown()) {
@@ -351,7 +495,152 @@ public void process(final KeyFilter filter, final CacheLoaderTask task, Executor
       } finally {
          JdbcUtil.safeClose(rs);
          JdbcUtil.safeClose(ps);
+         stopStreaming(conn, autoCommit);
+         connectionFactory.releaseConnection(conn);
+      }
+   }
+
+   private void submitChunk(ExecutorAllCompletionService ecs, List<Object[]> rows, CacheLoaderTask task,
+                            TaskContext taskContext, boolean fetchValue, boolean fetchMetadata) {
+      ecs.submit(() -> {
+         for (Object[] row : rows) {
+            if (taskContext.isStopped()) break;
+            Object key = row[0];
+            MarshalledEntry entry;
+            if (fetchValue || fetchMetadata) {
+               KeyValuePair<ByteBuffer, ByteBuffer> kvp = unmarshall(new ByteArrayInputStream((byte[]) row[1]));
+               entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(
+                     key, fetchValue ? kvp.getKey() : null, fetchMetadata ? kvp.getValue() : null);
+            } else {
+               entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(key, (Object) null, null);
+            }
+            task.processEntry(entry, taskContext);
+         }
+         return null;
+      });
+   }
+
+   /**
+    * Some drivers, e.g. the Postgres one, fetch the whole result set at once unless it is read in a transaction.
+    * Returns the previous auto-commit mode.
+    */
+   private boolean startStreaming(Connection connection) throws SQLException {
+      boolean autoCommit = connection.getAutoCommit();
+      if (autoCommit) {
+         connection.setAutoCommit(false);
+      }
+      return autoCommit;
+   }
+
+   private void stopStreaming(Connection connection, Boolean autoCommit) {
+      if (connection != null && autoCommit != null && autoCommit) {
+         try {
+            // ends the read only transaction
+            connection.setAutoCommit(true);
+         } catch (SQLException e) {
+            log.tracef(e, "Cannot restore the auto-commit mode of the connection");
+         }
+      }
+   }
+
+   @Override
+   public CloseableIterator<MarshalledEntry<K, V>> entryIterator(KeyFilter<? super K> filter, boolean fetchValue, boolean fetchMetadata) {
+      Connection conn = null;
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      Boolean autoCommit = null;
+      try {
+         String sql = tableManager.getLoadNonExpiredAllRowsSql();
+         if (trace) {
+            log.tracef("Running sql %s", sql);
+         }
+         conn = connectionFactory.getConnection();
+         autoCommit = startStreaming(conn);
+         ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+         ps.setLong(1, ctx.getTimeService().wallClockTime());
+         ps.setFetchSize(tableManager.getFetchSize());
+         rs = ps.executeQuery();
+         // The rows are fetched as the iterator advances, the connection is released once it is closed
+         return new ResultSetEntryIterator(conn, autoCommit, ps, rs, filter, fetchValue, fetchMetadata);
+      } catch (SQLException e) {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         stopStreaming(conn, autoCommit);
          connectionFactory.releaseConnection(conn);
+         log.sqlFailureFetchingAllStoredEntries(e);
+         throw new PersistenceException("SQL error while fetching all StoredEntries", e);
+      }
+   }
+
+   private class ResultSetEntryIterator implements CloseableIterator<MarshalledEntry<K, V>> {
+      private final Connection conn;
+      private final boolean autoCommit;
+      private final PreparedStatement ps;
+      private final ResultSet rs;
+      private final KeyFilter<? super K> filter;
+      private final boolean fetchValue;
+      private final boolean fetchMetadata;
+      private MarshalledEntry<K, V> next;
+      private boolean closed;
+
+      ResultSetEntryIterator(Connection conn, boolean autoCommit, PreparedStatement ps, ResultSet rs,
+                             KeyFilter<? super K> filter, boolean fetchValue, boolean fetchMetadata) {
+         this.conn = conn;
+         this.autoCommit = autoCommit;
+         this.ps = ps;
+         this.rs = rs;
+         this.filter = filter;
+         this.fetchValue = fetchValue;
+         this.fetchMetadata = fetchMetadata;
+      }
+
+      @Override
+      public boolean hasNext() {
+         try {
+            while (next == null && !closed) {
+               if (!rs.next()) {
+                  close();
+                  break;
+               }
+               K key = (K) fromDbKey(getDbKey(rs, 2));
+               if (filter != null && !filter.accept(key))
+                  continue;
+
+               if (fetchValue || fetchMetadata) {
+                  KeyValuePair<ByteBuffer, ByteBuffer> kvp = unmarshall(rs.getBinaryStream(1));
+                  next = ctx.getMarshalledEntryFactory().newMarshalledEntry(
+                        key, fetchValue ? kvp.getKey() : null, fetchMetadata ? kvp.getValue() : null);
+               } else {
+                  next = ctx.getMarshalledEntryFactory().newMarshalledEntry(key, (Object) null, null);
+               }
+            }
+         } catch (SQLException e) {
+            close();
+            log.sqlFailureFetchingAllStoredEntries(e);
+            throw new PersistenceException("SQL error while fetching all StoredEntries", e);
+         }
+         return next != null;
+      }
+
+      @Override
+      public MarshalledEntry<K, V> next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         MarshalledEntry<K, V> entry = next;
+         next = null;
+         return entry;
+      }
+
+      @Override
+      public void close() {
+         if (!closed) {
+            closed = true;
+            JdbcUtil.safeClose(rs);
+            JdbcUtil.safeClose(ps);
+            stopStreaming(conn, autoCommit);
+            connectionFactory.releaseConnection(conn);
+         }
       }
    }
 
@@ -361,31 +650,22 @@ public void prepareWithModifications(Transaction transaction, BatchModification
          Connection connection = getTxConnection(transaction);
          connection.setAutoCommit(false);
 
-         boolean upsertSupported = tableManager.isUpsertSupported();
-         try (PreparedStatement upsertBatch = upsertSupported ? connection.prepareStatement(tableManager.getUpsertRowSql()) : null;
-              PreparedStatement deleteBatch = connection.prepareStatement(tableManager.getDeleteRowSql())) {
-
-            for (MarshalledEntry entry : batchModification.getMarshalledEntries()) {
-               if (upsertSupported) {
-                  String keyStr = key2Str(entry.getKey());
-                  prepareUpdateStatement(entry, keyStr, upsertBatch);
-                  upsertBatch.addBatch();
-               } else {
+         try (PreparedStatement deleteBatch = connection.prepareStatement(tableManager.getDeleteRowSql())) {
+            if (tableManager.isUpsertSupported()) {
+               upsert(connection, batchModification.getMarshalledEntries());
+            } else {
+               for (MarshalledEntry entry : batchModification.getMarshalledEntries()) {
                   write(entry, connection);
                }
             }
 
             for (Object key : batchModification.getKeysToRemove()) {
-               String keyStr = key2Str(key);
-               deleteBatch.setString(1, keyStr);
+               setDbKey(deleteBatch, 1, toDbKey(key));
                deleteBatch.addBatch();
             }
 
-            if (upsertSupported && !batchModification.getMarshalledEntries().isEmpty())
-               upsertBatch.executeBatch();
-
             if (!batchModification.getKeysToRemove().isEmpty())
-               deleteBatch.executeUpdate();
+               deleteBatch.executeBatch();
          }
          // We do not call connection.close() in the event of an exception, as close() on active Tx behaviour is implementation
          // dependent. See https://docs.oracle.com/javase/8/docs/api/java/sql/Connection.html#close--
@@ -416,11 +696,53 @@ public int size() {
       }
    }
 
-   private void prepareUpdateStatement(MarshalledEntry entry, String key, PreparedStatement ps) throws InterruptedException, SQLException {
+   private void prepareUpdateStatement(MarshalledEntry entry, Object dbKey, PreparedStatement ps, int offset) throws InterruptedException, SQLException {
       ByteBuffer byteBuffer = marshall(new KeyValuePair(entry.getValueBytes(), entry.getMetadataBytes()));
-      ps.setBinaryStream(1, new ByteArrayInputStream(byteBuffer.getBuf(), byteBuffer.getOffset(), byteBuffer.getLength()), byteBuffer.getLength());
-      ps.setLong(2, getExpiryTime(entry.getMetadata()));
-      ps.setString(3, key);
+      ps.setBinaryStream(offset + 1, new ByteArrayInputStream(byteBuffer.getBuf(), byteBuffer.getOffset(), byteBuffer.getLength()), byteBuffer.getLength());
+      ps.setLong(offset + 2, getExpiryTime(entry.getMetadata()));
+      setDbKey(ps, offset + 3, dbKey);
+   }
+
+   /**
+    * Returns the value of the id column for the key - the marshalled key with binary keys, the string mapping otherwise.
+    */
+   private Object toDbKey(Object key) throws PersistenceException {
+      if (!configuration.binaryKeys()) {
+         return key2Str(key);
+      }
+      try {
+         ByteBuffer buffer = marshall(key);
+         if (buffer.getOffset() == 0 && buffer.getLength() == buffer.getBuf().length) {
+            return buffer.getBuf();
+         }
+         return Arrays.copyOfRange(buffer.getBuf(), buffer.getOffset(), buffer.getOffset() + buffer.getLength());
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new PersistenceException("Interrupted while marshalling key: " + key, e);
+      }
+   }
+
+   private Object fromDbKey(Object dbKey) throws PersistenceException {
+      if (configuration.binaryKeys()) {
+         return unmarshall(new ByteArrayInputStream((byte[]) dbKey));
+      }
+      return ((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping((String) dbKey);
+   }
+
+   private String keyToString(Object key, Object dbKey) {
+      return configuration.binaryKeys() ? String.valueOf(key) : (String) dbKey;
+   }
+
+   private Object getDbKey(ResultSet rs, int column) throws SQLException {
+      return configuration.binaryKeys() ? rs.getBytes(column) : rs.getString(column);
+   }
+
+   private void setDbKey(PreparedStatement ps, int index, Object dbKey) throws SQLException {
+      if (configuration.binaryKeys()) {
+         ps.setBytes(index, (byte[]) dbKey);
+      } else {
+         ps.setString(index, (String) dbKey);
+      }
    }
 
    private String key2Str(Object key) throws PersistenceException {
@@ -431,7 +753,7 @@ private String key2Str(Object key) throws PersistenceException {
    }
 
    public boolean supportsKey(Class<?> keyType) {
-      return key2StringMapper.isSupportedType(keyType);
+      return configuration.binaryKeys() || key2StringMapper.isSupportedType(keyType);
    }
 
    public TableManager getTableManager() {
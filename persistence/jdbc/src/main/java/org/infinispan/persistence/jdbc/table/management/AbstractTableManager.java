@@ -19,6 +19,9 @@
 public abstract class AbstractTableManager implements TableManager {
 
    private final Log log;
+   // The parameters bound for each row of an upsert: data, timestamp and id
+   private static final int UPSERT_ROW_PARAMETERS = 3;
+
    protected final ConnectionFactory connectionFactory;
    protected final TableManipulationConfiguration config;
    protected final String timestampIndexExt = "timestamp_index";
@@ -347,4 +350,30 @@ public String getUpsertRowSql() {
       }
       return upsertRowSql;
    }
+
+   @Override
+   public String getUpsertMultipleRowSql(int numberOfRows) {
+      // the generic MERGE statement takes a single row
+      return null;
+   }
+
+   @Override
+   public int getUpsertMultipleRowLimit() {
+      return getMaxStatementParameters() / UPSERT_ROW_PARAMETERS;
+   }
+
+   /**
+    * The maximum number of parameters the database accepts in a single statement.
+    */
+   protected int getMaxStatementParameters() {
+      return Integer.MAX_VALUE;
+   }
+
+   protected String getMultipleRowValues(int numberOfRows) {
+      StringBuilder sb = new StringBuilder("(?,?,?)");
+      for (int i = 1; i < numberOfRows; i++) {
+         sb.append(",(?,?,?)");
+      }
+      return sb.toString();
+   }
 }
@@ -28,6 +28,13 @@ public String getUpsertRowSql() {
       return upsertRowSql;
    }
 
+   @Override
+   public String getUpsertMultipleRowSql(int numberOfRows) {
+      return String.format("MERGE INTO %1$s (%2$s, %3$s, %4$s) KEY(%4$s) VALUES %5$s", getTableName(),
+                           config.dataColumnName(), config.timestampColumnName(), config.idColumnName(),
+                           getMultipleRowValues(numberOfRows));
+   }
+
    @Override
    protected void dropTimestampIndex(Connection conn) throws PersistenceException {
       String dropIndexDdl = String.format("DROP INDEX IF EXISTS  %s", getIndexName(true));
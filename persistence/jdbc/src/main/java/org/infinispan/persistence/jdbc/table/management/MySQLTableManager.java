@@ -30,4 +30,17 @@ public String getUpsertRowSql() {
       }
       return upsertRowSql;
    }
+
+   @Override
+   protected int getMaxStatementParameters() {
+      // the protocol sends the number of parameters as an unsigned 16 bit integer
+      return 65535;
+   }
+
+   @Override
+   public String getUpsertMultipleRowSql(int numberOfRows) {
+      return String.format("INSERT INTO %1$s (%2$s,%3$s,%4$s) VALUES %5$s ON DUPLICATE KEY UPDATE %2$s = VALUES(%2$s), %3$s = VALUES(%3$s)",
+                           getTableName(), config.dataColumnName(), config.timestampColumnName(),
+                           config.idColumnName(), getMultipleRowValues(numberOfRows));
+   }
 }
@@ -77,4 +77,20 @@ public String getUpsertRowSql() {
       }
       return upsertRowSql;
    }
+
+   @Override
+   protected int getMaxStatementParameters() {
+      // the protocol sends the number of parameters as a 16 bit integer
+      return Short.MAX_VALUE;
+   }
+
+   @Override
+   public String getUpsertMultipleRowSql(int numberOfRows) {
+      if (!isUpsertSupported()) {
+         return null;
+      }
+      return String.format("INSERT INTO %1$s (%2$s,%3$s,%4$s) VALUES %5$s ON CONFLICT (%4$s) DO UPDATE SET %2$s = EXCLUDED.%2$s, %3$s = EXCLUDED.%3$s",
+                           getTableName(), config.dataColumnName(), config.timestampColumnName(),
+                           config.idColumnName(), getMultipleRowValues(numberOfRows));
+   }
 }
@@ -41,6 +41,19 @@ public interface TableManager {
 
    String getUpsertRowSql();
 
+   /**
+    * Returns a statement upserting given number of rows, with the parameters of each row in the order of
+    * {@link #getUpsertRowSql()}, or null if the database does not support multi-row upserts. A statement must not
+    * contain the same id twice.
+    */
+   String getUpsertMultipleRowSql(int numberOfRows);
+
+   /**
+    * Returns the maximum number of rows of a statement returned by {@link #getUpsertMultipleRowSql(int)}, as the
+    * database limits the number of parameters a statement can bind.
+    */
+   int getUpsertMultipleRowLimit();
+
    String getSelectRowSql();
 
    String getSelectMultipleRowSql(int numberOfParams);
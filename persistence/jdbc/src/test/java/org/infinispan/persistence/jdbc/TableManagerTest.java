@@ -1,5 +1,7 @@
 package org.infinispan.persistence.jdbc;
 
+import static org.testng.AssertJUnit.assertEquals;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -128,6 +130,18 @@ public void testTableQuoting() throws Exception {
       assert existsTable(connection, tableManager.getTableName());
    }
 
+   public void testUpsertMultipleRowLimit() {
+      JdbcStringBasedStoreConfigurationBuilder storeBuilder = TestCacheManagerFactory
+            .getDefaultCacheConfiguration(false)
+            .persistence()
+            .addStore(JdbcStringBasedStoreConfigurationBuilder.class)
+            .dialect(DatabaseType.POSTGRES).dbMajorVersion(9).dbMinorVersion(5);
+      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table(), false);
+      TableManager postgresTableManager = TableManagerFactory.getManager(connectionFactory, storeBuilder.create());
+      // each row binds 3 of the 32767 parameters of a statement
+      assertEquals(10922, postgresTableManager.getUpsertMultipleRowLimit());
+   }
+
    static boolean existsTable(Connection connection, TableName tableName) throws Exception {
       Statement st = connection.createStatement();
       ResultSet rs = null;
@@ -0,0 +1,120 @@
+package org.infinispan.persistence.jdbc.stringbased;
+
+import static org.infinispan.test.Exceptions.expectException;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.persistence.BaseStoreTest;
+import org.infinispan.persistence.jdbc.common.AbstractJdbcStore;
+import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
+import org.infinispan.persistence.jdbc.table.management.TableManager;
+import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.UnitTestDatabaseManager;
+import org.testng.annotations.Test;
+
+/**
+ * Tester for {@link JdbcStringBasedStore} storing the marshalled keys in a binary id column.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "persistence.jdbc.stringbased.JdbcStringBasedStoreBinaryKeysTest")
+public class JdbcStringBasedStoreBinaryKeysTest extends BaseStoreTest {
+
+   @Override
+   protected AdvancedLoadWriteStore createStore() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      JdbcStringBasedStoreConfigurationBuilder storeBuilder = builder
+            .persistence()
+               .addStore(JdbcStringBasedStoreConfigurationBuilder.class)
+                  .binaryKeys(true);
+      UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
+      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table(), false);
+      storeBuilder.table().idColumnType("VARBINARY(255)").batchSize(4);
+      JdbcStringBasedStore stringBasedCacheStore = new JdbcStringBasedStore();
+      stringBasedCacheStore.init(createContext(builder.build()));
+      return stringBasedCacheStore;
+   }
+
+   @Override
+   protected boolean storePurgesAllExpired() {
+      // expiration listener is not called for the entries
+      return false;
+   }
+
+   public void testWriteBatchWithRepeatedKeys() {
+      List<MarshalledEntry<?, ?>> entries = new ArrayList<>();
+      // more entries than the batch size, each key is written twice in the same statement
+      for (int i = 0; i < 10; i++) {
+         entries.add(marshalledEntry("k" + (i / 2), "v" + i, null));
+      }
+      cl.writeBatch(entries);
+
+      for (int i = 0; i < 5; i++) {
+         MarshalledEntry me = cl.load("k" + i);
+         assertNotNull(me);
+         assertEquals("v" + (2 * i + 1), unwrap(me.getValue()));
+      }
+      assertEquals(5, TestingUtil.allEntries(cl).size());
+   }
+
+   public void testWriteBatchSplitByParameterLimit() {
+      TableManager tableManager = TestingUtil.extractField(cl, "tableManager");
+      List<Integer> statementRows = new ArrayList<>();
+      // allow fewer rows per statement than the batch size of 4
+      TableManager limitedTableManager = (TableManager) Proxy.newProxyInstance(TableManager.class.getClassLoader(),
+            new Class<?>[]{TableManager.class}, (proxy, method, args) -> {
+               if (method.getName().equals("getUpsertMultipleRowLimit")) {
+                  return 3;
+               }
+               if (method.getName().equals("getUpsertMultipleRowSql")) {
+                  statementRows.add((Integer) args[0]);
+               }
+               try {
+                  return method.invoke(tableManager, args);
+               } catch (InvocationTargetException e) {
+                  throw e.getCause();
+               }
+            });
+      TestingUtil.replaceField(limitedTableManager, "tableManager", cl, AbstractJdbcStore.class);
+      try {
+         List<MarshalledEntry<?, ?>> entries = new ArrayList<>();
+         for (int i = 0; i < 10; i++) {
+            entries.add(marshalledEntry("k" + i, "v" + i, null));
+         }
+         cl.writeBatch(entries);
+      } finally {
+         TestingUtil.replaceField(tableManager, "tableManager", cl, AbstractJdbcStore.class);
+      }
+
+      for (int i = 0; i < 10; i++) {
+         MarshalledEntry me = cl.load("k" + i);
+         assertNotNull(me);
+         assertEquals("v" + i, unwrap(me.getValue()));
+      }
+      // three full statements and one for the remaining row
+      assertEquals(Arrays.asList(3, 1), statementRows);
+   }
+
+   public void testBinaryKeysRequireBinaryIdColumnType() {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      JdbcStringBasedStoreConfigurationBuilder storeBuilder = builder
+            .persistence()
+               .addStore(JdbcStringBasedStoreConfigurationBuilder.class)
+                  .binaryKeys(true);
+      UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
+      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table(), false);
+      storeBuilder.table().idColumnType("VARCHAR(255)");
+      expectException(CacheConfigurationException.class, builder::build);
+   }
+}
@@ -1,5 +1,7 @@
 package org.infinispan.persistence.remote;
 
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
@@ -32,6 +34,8 @@
 import org.infinispan.persistence.remote.wrapper.HotRodEntryMarshaller;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
 import org.infinispan.persistence.spi.InitializationContext;
+import org.infinispan.persistence.spi.NonBlockingCacheLoader;
+import org.infinispan.persistence.spi.NonBlockingCacheWriter;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.util.logging.LogFactory;
 
@@ -54,7 +58,7 @@
  */
 @ThreadSafe
 @ConfiguredBy(RemoteStoreConfiguration.class)
-public class RemoteStore implements AdvancedLoadWriteStore {
+public class RemoteStore implements AdvancedLoadWriteStore, NonBlockingCacheLoader, NonBlockingCacheWriter {
 
    private static final Log log = LogFactory.getLog(RemoteStore.class, Log.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -113,23 +117,7 @@ public MarshalledEntry load(Object key) throws PersistenceException {
          } else {
             unwrappedKey = key;
          }
-         MetadataValue<?> value = remoteCache.getWithMetadata(unwrappedKey);
-         if (value != null) {
-            Metadata metadata = new EmbeddedMetadata.Builder()
-                  .version(new NumericVersion(value.getVersion()))
-                  .lifespan(value.getLifespan(), TimeUnit.SECONDS)
-                  .maxIdle(value.getMaxIdle(), TimeUnit.SECONDS).build();
-            long created = value.getCreated();
-            long lastUsed = value.getLastUsed();
-            Object realValue = value.getValue();
-            if (realValue instanceof byte[]) {
-               realValue = new WrappedByteArray((byte[]) realValue);
-            }
-            return ctx.getMarshalledEntryFactory().newMarshalledEntry(key, realValue,
-                                    new InternalMetadataImpl(metadata, created, lastUsed));
-         } else {
-            return null;
-         }
+         return toMarshalledEntry(key, remoteCache.getWithMetadata(unwrappedKey));
       } else {
          if (key instanceof WrappedByteArray) {
             key = ((WrappedByteArray) key).getBytes();
@@ -138,6 +126,40 @@ public MarshalledEntry load(Object key) throws PersistenceException {
       }
    }
 
+   @Override
+   public CompletionStage<MarshalledEntry> loadAsync(Object key) {
+      Object unwrappedKey;
+      if (key instanceof WrappedByteArray) {
+         unwrappedKey = ((WrappedByteArray) key).getBytes();
+      } else {
+         unwrappedKey = key;
+      }
+      if (configuration.rawValues()) {
+         return remoteCache.getWithMetadataAsync(unwrappedKey).thenApply(value -> toMarshalledEntry(key, value));
+      } else {
+         return remoteCache.getAsync(unwrappedKey).thenApply(value -> (MarshalledEntry) value);
+      }
+   }
+
+   private MarshalledEntry toMarshalledEntry(Object key, MetadataValue<?> value) {
+      if (value != null) {
+         Metadata metadata = new EmbeddedMetadata.Builder()
+               .version(new NumericVersion(value.getVersion()))
+               .lifespan(value.getLifespan(), TimeUnit.SECONDS)
+               .maxIdle(value.getMaxIdle(), TimeUnit.SECONDS).build();
+         long created = value.getCreated();
+         long lastUsed = value.getLastUsed();
+         Object realValue = value.getValue();
+         if (realValue instanceof byte[]) {
+            realValue = new WrappedByteArray((byte[]) realValue);
+         }
+         return ctx.getMarshalledEntryFactory().newMarshalledEntry(key, realValue,
+                                 new InternalMetadataImpl(metadata, created, lastUsed));
+      } else {
+         return null;
+      }
+   }
+
    @Override
    public boolean contains(Object key) throws PersistenceException {
       if (key instanceof WrappedByteArray) {
@@ -187,10 +209,31 @@ public void write(MarshalledEntry entry) throws PersistenceException {
       InternalMetadata metadata = entry.getMetadata();
       long lifespan = metadata != null ? metadata.lifespan() : -1;
       long maxIdle = metadata != null ? metadata.maxIdle() : -1;
+      remoteCache.put(remoteKey(entry), remoteValue(entry), toSeconds(lifespan, entry.getKey(), LIFESPAN), TimeUnit.SECONDS,
+            toSeconds(maxIdle, entry.getKey(), MAXIDLE), TimeUnit.SECONDS);
+   }
+
+   @Override
+   public CompletionStage<Void> writeAsync(MarshalledEntry entry) {
+      if (trace) {
+         log.tracef("Adding entry asynchronously: %s", entry);
+      }
+      InternalMetadata metadata = entry.getMetadata();
+      long lifespan = metadata != null ? metadata.lifespan() : -1;
+      long maxIdle = metadata != null ? metadata.maxIdle() : -1;
+      return remoteCache.putAsync(remoteKey(entry), remoteValue(entry), toSeconds(lifespan, entry.getKey(), LIFESPAN), TimeUnit.SECONDS,
+            toSeconds(maxIdle, entry.getKey(), MAXIDLE), TimeUnit.SECONDS).thenApply(prev -> null);
+   }
+
+   private Object remoteKey(MarshalledEntry entry) {
       Object key = entry.getKey();
       if (key instanceof WrappedByteArray) {
          key = ((WrappedByteArray) key).getBytes();
       }
+      return key;
+   }
+
+   private Object remoteValue(MarshalledEntry entry) {
       Object value;
       if (configuration.rawValues()) {
          value = entry.getValue();
@@ -200,8 +243,7 @@ public void write(MarshalledEntry entry) throws PersistenceException {
       } else {
          value = entry;
       }
-      remoteCache.put(key, value, toSeconds(lifespan, entry.getKey(), LIFESPAN), TimeUnit.SECONDS,
-            toSeconds(maxIdle, entry.getKey(), MAXIDLE), TimeUnit.SECONDS);
+      return value;
    }
 
    @Override
@@ -220,6 +262,14 @@ public boolean delete(Object key) throws PersistenceException {
       return remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).remove(key) != null;
    }
 
+   @Override
+   public CompletionStage<Boolean> deleteAsync(Object key) {
+      if (key instanceof WrappedByteArray) {
+         key = ((WrappedByteArray) key).getBytes();
+      }
+      return remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).removeAsync(key).thenApply(Objects::nonNull);
+   }
+
    private long toSeconds(long millis, Object key, String desc) {
       if (millis > 0 && millis < 1000) {
          if (trace) {
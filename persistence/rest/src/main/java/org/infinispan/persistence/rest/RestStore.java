@@ -9,7 +9,9 @@
 import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
@@ -32,7 +34,10 @@
 import org.infinispan.persistence.rest.metadata.MetadataHelper;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
 import org.infinispan.persistence.spi.InitializationContext;
+import org.infinispan.persistence.spi.NonBlockingCacheLoader;
+import org.infinispan.persistence.spi.NonBlockingCacheWriter;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.logging.LogFactory;
 
 import io.netty.bootstrap.Bootstrap;
@@ -40,6 +45,7 @@
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
@@ -55,6 +61,7 @@
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
@@ -68,7 +75,7 @@
  */
 @ThreadSafe
 @ConfiguredBy(RestStoreConfiguration.class)
-public class RestStore implements AdvancedLoadWriteStore {
+public class RestStore implements AdvancedLoadWriteStore, NonBlockingCacheLoader, NonBlockingCacheWriter {
    private static final String MAX_IDLE_TIME_SECONDS = "maxIdleTimeSeconds";
    private static final String TIME_TO_LIVE_SECONDS = "timeToLiveSeconds";
    private static final Log log = LogFactory.getLog(RestStore.class, Log.class);
@@ -175,20 +182,25 @@ private boolean isTextContentType(String contentType) {
       return contentType.startsWith("text/") || "application/xml".equals(contentType) || "application/json".equals(contentType);
    }
 
+   private DefaultFullHttpRequest putRequest(MarshalledEntry entry) throws IOException, InterruptedException {
+      String contentType = metadataHelper.getContentType(entry);
+      ByteBuf content = Unpooled.wrappedBuffer(marshall(contentType, entry));
+
+      DefaultFullHttpRequest put = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.PUT, keyToUri(entry.getKey()), content);
+      put.headers().add("Content-Type", contentType);
+      put.headers().add("Content-Length", content.readableBytes());
+      InternalMetadata metadata = entry.getMetadata();
+      if (metadata != null && metadata.expiryTime() > -1) {
+         put.headers().add(TIME_TO_LIVE_SECONDS, Long.toString(timeoutToSeconds(metadata.lifespan())));
+         put.headers().add(MAX_IDLE_TIME_SECONDS, Long.toString(timeoutToSeconds(metadata.maxIdle())));
+      }
+      return put;
+   }
+
    @Override
    public void write(MarshalledEntry entry) {
       try {
-         String contentType = metadataHelper.getContentType(entry);
-         ByteBuf content = Unpooled.wrappedBuffer(marshall(contentType, entry));
-
-         DefaultFullHttpRequest put = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.PUT, keyToUri(entry.getKey()), content);
-         put.headers().add("Content-Type", contentType);
-         put.headers().add("Content-Length", content.readableBytes());
-         InternalMetadata metadata = entry.getMetadata();
-         if (metadata != null && metadata.expiryTime() > -1) {
-            put.headers().add(TIME_TO_LIVE_SECONDS, Long.toString(timeoutToSeconds(metadata.lifespan())));
-            put.headers().add(MAX_IDLE_TIME_SECONDS, Long.toString(timeoutToSeconds(metadata.maxIdle())));
-         }
+         DefaultFullHttpRequest put = putRequest(entry);
 
          Channel ch = bootstrap.connect(configuration.host(), configuration.port()).awaitUninterruptibly().channel().pipeline().addLast(new HttpResponseHandler()).channel();
          ch.writeAndFlush(put).sync().channel().closeFuture().sync();
@@ -198,6 +210,70 @@ public void write(MarshalledEntry entry) {
       }
    }
 
+   @Override
+   public CompletionStage<Void> writeAsync(MarshalledEntry entry) {
+      DefaultFullHttpRequest put;
+      try {
+         put = putRequest(entry);
+      } catch (Exception e) {
+         return CompletableFutures.completedExceptionFuture(new PersistenceException(e));
+      }
+      return execute(put).thenAccept(FullHttpResponse::release);
+   }
+
+   /**
+    * Sends the request over a new connection without blocking.
+    *
+    * @return a future completed with the response, which must be released by the caller
+    */
+   private CompletableFuture<FullHttpResponse> execute(HttpRequest request) {
+      CompletableFuture<FullHttpResponse> result = new CompletableFuture<>();
+      bootstrap.connect(configuration.host(), configuration.port()).addListener((ChannelFutureListener) connect -> {
+         if (!connect.isSuccess()) {
+            result.completeExceptionally(new PersistenceException(connect.cause()));
+            return;
+         }
+         Channel ch = connect.channel();
+         ch.pipeline().addLast(new HttpObjectAggregator(maxContentLength), new FutureHttpResponseHandler(result));
+         ch.writeAndFlush(request).addListener((ChannelFutureListener) write -> {
+            if (!write.isSuccess()) {
+               result.completeExceptionally(new PersistenceException(write.cause()));
+               write.channel().close();
+            }
+         });
+      });
+      return result;
+   }
+
+   private static class FutureHttpResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+      private final CompletableFuture<FullHttpResponse> result;
+
+      FutureHttpResponseHandler(CompletableFuture<FullHttpResponse> result) {
+         this.result = result;
+      }
+
+      @Override
+      protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse msg) throws Exception {
+         if (!result.complete(msg.retain())) {
+            msg.release();
+         }
+         ctx.close();
+      }
+
+      @Override
+      public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+         result.completeExceptionally(new PersistenceException("Connection closed before receiving a response"));
+         super.channelInactive(ctx);
+      }
+
+      @Override
+      public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+         result.completeExceptionally(new PersistenceException(cause));
+         ctx.close();
+      }
+   }
+
    private class HttpResponseHandler extends SimpleChannelInboundHandler<HttpResponse> {
 
       private FullHttpResponse response;
@@ -259,6 +335,18 @@ public boolean delete(Object key) {
       }
    }
 
+   @Override
+   public CompletionStage<Boolean> deleteAsync(Object key) {
+      DefaultHttpRequest delete = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.DELETE, keyToUri(key));
+      return execute(delete).thenApply(response -> {
+         try {
+            return isSuccessful(response.getStatus().code());
+         } finally {
+            response.release();
+         }
+      });
+   }
+
    @Override
    public MarshalledEntry load(Object key) {
 
@@ -270,27 +358,7 @@ public MarshalledEntry load(Object key) {
          ch.writeAndFlush(get).sync().channel().closeFuture().sync();
          FullHttpResponse response = handler.getResponse();
          try {
-            if (HttpResponseStatus.OK.equals(response.getStatus())) {
-               String contentType = response.headers().get(HttpHeaders.Names.CONTENT_TYPE);
-               long ttl = timeHeaderToSeconds(response.headers().get(TIME_TO_LIVE_SECONDS));
-               long maxidle = timeHeaderToSeconds(response.headers().get(MAX_IDLE_TIME_SECONDS));
-               Metadata metadata = metadataHelper.buildMetadata(contentType, ttl, TimeUnit.SECONDS, maxidle, TimeUnit.SECONDS);
-               InternalMetadata internalMetadata;
-               if (metadata.maxIdle() > -1 || metadata.lifespan() > -1) {
-                  long now = ctx.getTimeService().wallClockTime();
-                  internalMetadata = new InternalMetadataImpl(metadata, now, now);
-               } else {
-                  internalMetadata = new InternalMetadataImpl(metadata, -1, -1);
-               }
-               ByteBuf content = response.content();
-               byte[] bytes = new byte[content.readableBytes()];
-               content.readBytes(bytes);
-               return ctx.getMarshalledEntryFactory().newMarshalledEntry(key, unmarshall(contentType, bytes), internalMetadata);
-            } else if (HttpResponseStatus.NOT_FOUND.equals(response.getStatus())) {
-               return null;
-            } else {
-               throw log.httpError(response.getStatus().toString());
-            }
+            return toMarshalledEntry(key, response);
          } finally {
             response.release();
          }
@@ -301,6 +369,46 @@ public MarshalledEntry load(Object key) {
       }
    }
 
+   @Override
+   public CompletionStage<MarshalledEntry> loadAsync(Object key) {
+      DefaultHttpRequest get = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, keyToUri(key));
+      return execute(get).thenApply(response -> {
+         try {
+            return toMarshalledEntry(key, response);
+         } catch (IOException e) {
+            throw log.httpError(e);
+         } catch (ClassNotFoundException e) {
+            throw new PersistenceException(e);
+         } finally {
+            response.release();
+         }
+      });
+   }
+
+   private MarshalledEntry toMarshalledEntry(Object key, FullHttpResponse response) throws IOException, ClassNotFoundException {
+      if (HttpResponseStatus.OK.equals(response.getStatus())) {
+         String contentType = response.headers().get(HttpHeaders.Names.CONTENT_TYPE);
+         long ttl = timeHeaderToSeconds(response.headers().get(TIME_TO_LIVE_SECONDS));
+         long maxidle = timeHeaderToSeconds(response.headers().get(MAX_IDLE_TIME_SECONDS));
+         Metadata metadata = metadataHelper.buildMetadata(contentType, ttl, TimeUnit.SECONDS, maxidle, TimeUnit.SECONDS);
+         InternalMetadata internalMetadata;
+         if (metadata.maxIdle() > -1 || metadata.lifespan() > -1) {
+            long now = ctx.getTimeService().wallClockTime();
+            internalMetadata = new InternalMetadataImpl(metadata, now, now);
+         } else {
+            internalMetadata = new InternalMetadataImpl(metadata, -1, -1);
+         }
+         ByteBuf content = response.content();
+         byte[] bytes = new byte[content.readableBytes()];
+         content.readBytes(bytes);
+         return ctx.getMarshalledEntryFactory().newMarshalledEntry(key, unmarshall(contentType, bytes), internalMetadata);
+      } else if (HttpResponseStatus.NOT_FOUND.equals(response.getStatus())) {
+         return null;
+      } else {
+         throw log.httpError(response.getStatus().toString());
+      }
+   }
+
    private long timeoutToSeconds(long timeout) {
       if (timeout < 0)
          return -1;
@@ -0,0 +1,17 @@
+package org.infinispan.persistence.rocksdb;
+
+import org.infinispan.factories.components.ModuleMetadataFileFinder;
+import org.kohsuke.MetaInfServices;
+
+/**
+ * RocksDBMetadataFileFinder.
+ *
+ * @since 9.0
+ */
+@MetaInfServices
+public class RocksDBMetadataFileFinder implements ModuleMetadataFileFinder {
+   @Override
+   public String getMetadataFilename() {
+      return "infinispan-cachestore-rocksdb-component-metadata.dat";
+   }
+}
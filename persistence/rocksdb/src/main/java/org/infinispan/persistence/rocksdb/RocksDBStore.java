@@ -1,20 +1,38 @@
 package org.infinispan.persistence.rocksdb;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.ConfiguredBy;
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.Util;
+import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.executors.ExecutorAllCompletionService;
+import org.infinispan.filter.CompositeKeyFilter;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.metadata.InternalMetadata;
@@ -22,46 +40,93 @@
 import org.infinispan.persistence.TaskContextImpl;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration;
 import org.infinispan.persistence.rocksdb.logging.Log;
-import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
 import org.infinispan.persistence.spi.InitializationContext;
+import org.infinispan.persistence.spi.IterableCacheLoader;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
 import org.infinispan.util.logging.LogFactory;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
 import org.rocksdb.Options;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 
 @ConfiguredBy(RocksDBStoreConfiguration.class)
-public class RocksDBStore implements AdvancedLoadWriteStore {
+public class RocksDBStore implements SegmentedAdvancedLoadWriteStore, IterableCacheLoader {
     private static final Log log = LogFactory.getLog(RocksDBStore.class, Log.class);
+    private static final byte[] EXPIRY_COLUMN_FAMILY = "expiry".getBytes();
+    private static final byte[] EMPTY_VALUE = new byte[0];
+    private static final int KEY_LOCKS = 64;
     private RocksDBStoreConfiguration configuration;
     private BlockingQueue<ExpiryEntry> expiryEntryQueue;
     private RocksDB db;
-    private RocksDB expiredDb;
+    // one column family per segment when segmented, otherwise just the default column family
+    private ColumnFamilyHandle[] handles;
+    // the expiry column family keys are the expiration time followed by the marshalled key, so they are sorted by time
+    private ColumnFamilyHandle expiryHandle;
+    private DBOptions dbOptions;
+    // shared by the data column families, so that they share the same block cache
+    private ColumnFamilyOptions dataOptions;
+    private ColumnFamilyOptions expiryOptions;
+    private Statistics statistics;
+    private KeyPartitioner keyPartitioner;
+    // the number of entries in each column family, saved to a file while the store is stopped
+    private AtomicLong[] entryCounts;
     private InitializationContext ctx;
     private Semaphore semaphore;
     private volatile boolean stopped = true;
+    // the iterators not closed yet, whose RocksDB iterators must be closed before their column families
+    private final Set<EntryIterator> openIterators = ConcurrentHashMap.newKeySet();
+    // serialize the lookup and the update of the keys sharing a lock, so that the entry counts stay exact
+    private final Lock[] keyLocks = new Lock[KEY_LOCKS];
 
     @Override
     public void init(InitializationContext ctx) {
         this.configuration = ctx.getConfiguration();
         this.ctx = ctx;
         this.semaphore = new Semaphore(Integer.MAX_VALUE, true);
+        for (int i = 0; i < keyLocks.length; i++) {
+            keyLocks[i] = new ReentrantLock();
+        }
     }
 
     @Override
     public void start() {
         expiryEntryQueue = new LinkedBlockingQueue<>(configuration.expiryQueueSize());
+        keyPartitioner = ctx.getCache().getAdvancedCache().getComponentRegistry().getComponent(KeyPartitioner.class);
+
+        boolean statisticsEnabled = ctx.getCache().getCacheConfiguration().jmxStatistics().enabled();
+        dbOptions = new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(true);
+        if (statisticsEnabled) {
+            dbOptions.createStatistics();
+            statistics = dbOptions.statisticsPtr();
+        }
+        dataOptions = dataColumnFamilyOptions();
+        expiryOptions = new ColumnFamilyOptions();
 
         try {
-            db = openDatabase(getQualifiedLocation(), dataDbOptions());
-            expiredDb = openDatabase(getQualifiedExpiredLocation(), expiredDbOptions());
+            db = openDataDatabase(getQualifiedLocation());
+            migrateExpiredDatabase();
+            entryCounts = loadEntryCounts();
             stopped = false;
         } catch (Exception e) {
             throw new CacheConfigurationException("Unable to open database", e);
         }
+        if (statisticsEnabled) {
+            ctx.getCache().getAdvancedCache().getComponentRegistry()
+                  .registerComponent(new RocksDBStoreStatistics(this), RocksDBStoreStatistics.class);
+        }
     }
 
     private String sanitizedCacheName() {
@@ -72,28 +137,265 @@ private String getQualifiedLocation() {
         return configuration.location() + sanitizedCacheName();
     }
 
+    private File getEntryCountsFile() {
+        return new File(getQualifiedLocation() + "-entry-counts");
+    }
+
+    /**
+     * Reads the entry counts saved by the last stop, or counts the keys if the store was not stopped cleanly. The file
+     * is removed so that a crash doesn't leave stale counts behind.
+     */
+    private AtomicLong[] loadEntryCounts() throws IOException {
+        AtomicLong[] counts = new AtomicLong[handles.length];
+        File file = getEntryCountsFile();
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                if (in.readInt() == counts.length) {
+                    for (int i = 0; i < counts.length; i++) {
+                        counts[i] = new AtomicLong(in.readLong());
+                    }
+                }
+            }
+            file.delete();
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == null) {
+                counts[i] = new AtomicLong(countKeys(handles[i]));
+            }
+        }
+        return counts;
+    }
+
+    private long countKeys(ColumnFamilyHandle handle) {
+        long count = 0;
+        try (RocksIterator it = wrapIterator(db, handle).get()) {
+            for (it.seekToFirst(); it.isValid(); it.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void saveEntryCounts() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(getEntryCountsFile()))) {
+            out.writeInt(entryCounts.length);
+            for (AtomicLong count : entryCounts) {
+                out.writeLong(count.get());
+            }
+        }
+    }
+
     private String getQualifiedExpiredLocation() {
         return configuration.expiredLocation() + sanitizedCacheName();
     }
 
-    private Options dataDbOptions() {
-        Options options = new Options().setCreateIfMissing(true);
-        options.setCompressionType(CompressionType.getCompressionType(configuration.compressionType().toString()));
+    private int numColumnFamilies() {
+        return configuration.segmented() ? ctx.getCache().getCacheConfiguration().clustering().hash().numSegments() : 1;
+    }
 
+    private ColumnFamilyDescriptor columnFamilyDescriptor(int segment) {
+        byte[] name = configuration.segmented() ? ("segment-" + segment).getBytes() : RocksDB.DEFAULT_COLUMN_FAMILY;
+        return new ColumnFamilyDescriptor(name, dataOptions);
+    }
+
+    /**
+     * The table factory, and with it the block cache, is created when the table format is set, so every column family
+     * opened with the returned options shares the same block cache.
+     */
+    private ColumnFamilyOptions dataColumnFamilyOptions() {
+        BlockBasedTableConfig tableConfig = new BlockBasedTableConfig();
+        if (configuration.blockSize() > 0) {
+            tableConfig.setBlockSize(configuration.blockSize());
+        }
+        if (configuration.cacheSize() > 0) {
+            tableConfig.setBlockCacheSize(configuration.cacheSize());
+        }
+        if (configuration.bloomFilterBitsPerKey() > 0) {
+            tableConfig.setFilter(new BloomFilter(configuration.bloomFilterBitsPerKey(), false));
+        }
+        ColumnFamilyOptions options = new ColumnFamilyOptions().setTableFormatConfig(tableConfig);
+        options.setCompressionType(compressionType(configuration.compressionType()));
+        if (!configuration.compressionPerLevel().isEmpty()) {
+            List<CompressionType> compressionPerLevel = new ArrayList<>();
+            for (org.infinispan.persistence.rocksdb.configuration.CompressionType compressionType : configuration.compressionPerLevel()) {
+                compressionPerLevel.add(compressionType(compressionType));
+            }
+            options.setCompressionPerLevel(compressionPerLevel);
+        }
+        if (configuration.writeBufferSize() > 0) {
+            options.setWriteBufferSize(configuration.writeBufferSize());
+        }
         return options;
     }
 
-    private Options expiredDbOptions() {
-        return new Options().setCreateIfMissing(true);
+    private static CompressionType compressionType(org.infinispan.persistence.rocksdb.configuration.CompressionType compressionType) {
+        switch (compressionType) {
+            case SNAPPY:
+                return CompressionType.SNAPPY_COMPRESSION;
+            case ZLIB:
+                return CompressionType.ZLIB_COMPRESSION;
+            case BZLIB2:
+                return CompressionType.BZLIB2_COMPRESSION;
+            case LZ4:
+                return CompressionType.LZ4_COMPRESSION;
+            case LZ4HC:
+                return CompressionType.LZ4HC_COMPRESSION;
+            default:
+                return CompressionType.NO_COMPRESSION;
+        }
+    }
+
+    /**
+     * The keys are not moved when the number of segments changes, so an existing database can only be reopened with
+     * the number of segments it was created with, and only as segmented if it was created segmented.
+     */
+    private void checkSegmentColumnFamilies(String location) throws RocksDBException {
+        if (!new File(location, "CURRENT").exists()) {
+            return;
+        }
+        int segmentColumnFamilies = 0;
+        try (Options options = new Options()) {
+            for (byte[] name : RocksDB.listColumnFamilies(options, location)) {
+                if (new String(name).startsWith("segment-")) {
+                    segmentColumnFamilies++;
+                }
+            }
+        }
+        int expected = configuration.segmented() ? numColumnFamilies() : 0;
+        if (segmentColumnFamilies != expected) {
+            throw new PersistenceException(String.format(
+                  "The database at %s has %d segments, but the store is configured with %d segments", location,
+                  segmentColumnFamilies, expected));
+        }
     }
 
     /**
-     * Creates database if it doesn't exist.
+     * Creates the data database if it doesn't exist and opens its column families.
      */
-    protected RocksDB openDatabase(String location, Options options) throws IOException, RocksDBException {
+    protected RocksDB openDataDatabase(String location) throws IOException, RocksDBException {
         File dir = new File(location);
         dir.mkdirs();
-        return RocksDB.open(options, location);
+        int numColumnFamilies = numColumnFamilies();
+        checkSegmentColumnFamilies(location);
+        List<ColumnFamilyDescriptor> descriptors = new ArrayList<>(numColumnFamilies + 1);
+        if (configuration.segmented()) {
+            // the default column family always exists, but it is never used
+            descriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY));
+        }
+        int firstDataColumnFamily = descriptors.size();
+        for (int i = 0; i < numColumnFamilies; i++) {
+            descriptors.add(columnFamilyDescriptor(i));
+        }
+        descriptors.add(new ColumnFamilyDescriptor(EXPIRY_COLUMN_FAMILY, expiryOptions));
+        List<ColumnFamilyHandle> openedHandles = new ArrayList<>(descriptors.size());
+        RocksDB rocksDB = RocksDB.open(dbOptions, location, descriptors, openedHandles);
+        handles = openedHandles.subList(firstDataColumnFamily, firstDataColumnFamily + numColumnFamilies)
+              .toArray(new ColumnFamilyHandle[numColumnFamilies]);
+        expiryHandle = openedHandles.get(openedHandles.size() - 1);
+        return rocksDB;
+    }
+
+    /**
+     * Closes the RocksDB iterators of the open entry iterators, which reopen them on their next advance. Must be
+     * invoked while holding all the permits.
+     */
+    private void closeOpenIterators() {
+        for (EntryIterator iterator : openIterators) {
+            iterator.closeIterator();
+        }
+    }
+
+    private void closeDataDatabase() {
+        for (ColumnFamilyHandle handle : handles) {
+            handle.close();
+        }
+        expiryHandle.close();
+        db.close();
+    }
+
+    /**
+     * Moves the expiration data of a store which kept it in a separate database into the expiry column family.
+     */
+    private void migrateExpiredDatabase() throws Exception {
+        File expiredLocation = new File(getQualifiedExpiredLocation());
+        if (!expiredLocation.exists()) {
+            return;
+        }
+        try (Options options = new Options();
+             RocksDB expiredDb = RocksDB.open(options, expiredLocation.getPath());
+             RocksIterator it = expiredDb.newIterator();
+             WriteBatch batch = new WriteBatch();
+             WriteOptions writeOptions = new WriteOptions()) {
+            for (it.seekToFirst(); it.isValid(); it.next()) {
+                long expiry = (Long) unmarshall(it.key());
+                // in the case of collision the value is a List of keys
+                Object value = unmarshall(it.value());
+                Collection<?> keys = value instanceof List ? (List<?>) value : Collections.singleton(value);
+                for (Object key : keys) {
+                    batch.put(expiryHandle, expiryKey(expiry, marshall(key)), EMPTY_VALUE);
+                }
+            }
+            db.write(writeOptions, batch);
+        }
+        destroyDatabase(expiredLocation.getPath());
+    }
+
+    private static byte[] expiryKey(long expiry, byte[] keyBytes) {
+        // big endian, so that the keys are sorted by expiration time
+        return ByteBuffer.allocate(8 + keyBytes.length).putLong(expiry).put(keyBytes).array();
+    }
+
+    private static long expiryTime(byte[] expiryKey) {
+        return ByteBuffer.wrap(expiryKey).getLong();
+    }
+
+    private static byte[] expiryKeyBytes(byte[] expiryKey) {
+        return Arrays.copyOfRange(expiryKey, 8, expiryKey.length);
+    }
+
+    private int columnFamily(Object key) {
+        return configuration.segmented() ? keyPartitioner.getSegment(key) : 0;
+    }
+
+    private ColumnFamilyHandle handle(Object key) {
+        return handles[columnFamily(key)];
+    }
+
+    /**
+     * Must be invoked while holding the lock of the key, so that the key isn't written or deleted before the entry
+     * count is updated.
+     */
+    private boolean exists(int columnFamily, byte[] keyBytes) throws RocksDBException {
+        // keyMayExist only checks the bloom filters and the memtables, so it avoids the lookup for most new keys
+        ColumnFamilyHandle handle = handles[columnFamily];
+        return db.keyMayExist(handle, keyBytes, new StringBuilder()) &&
+              db.get(handle, keyBytes, EMPTY_VALUE) != RocksDB.NOT_FOUND;
+    }
+
+    private int keyLockIndex(byte[] keyBytes) {
+        return (Arrays.hashCode(keyBytes) & Integer.MAX_VALUE) % keyLocks.length;
+    }
+
+    private Lock keyLock(byte[] keyBytes) {
+        return keyLocks[keyLockIndex(keyBytes)];
+    }
+
+    /**
+     * Acquires the locks of all the keys, always in the same order so that concurrent batches can't deadlock, and
+     * returns their indexes.
+     */
+    private int[] lockKeys(List<byte[]> keys) {
+        int[] indexes = keys.stream().mapToInt(this::keyLockIndex).distinct().sorted().toArray();
+        for (int index : indexes) {
+            keyLocks[index].lock();
+        }
+        return indexes;
+    }
+
+    private void unlockKeys(int[] indexes) {
+        for (int index : indexes) {
+            keyLocks[index].unlock();
+        }
     }
 
     protected void destroyDatabase(String location) throws IOException {
@@ -102,11 +404,6 @@ protected void destroyDatabase(String location) throws IOException {
         Util.recursiveFileRemove(new File(location));
     }
 
-    protected RocksDB reinitDatabase(String location, Options options) throws IOException, RocksDBException {
-        destroyDatabase(location);
-        return openDatabase(location, options);
-    }
-
     protected void reinitAllDatabases() throws IOException, RocksDBException {
         try {
             semaphore.acquire(Integer.MAX_VALUE);
@@ -117,10 +414,13 @@ protected void reinitAllDatabases() throws IOException, RocksDBException {
             if (stopped) {
                 throw new PersistenceException("RocksDB is stopped");
             }
-            db.close();
-            expiredDb.close();
-            db = reinitDatabase(getQualifiedLocation(), dataDbOptions());
-            expiredDb = reinitDatabase(getQualifiedExpiredLocation(), expiredDbOptions());
+            closeOpenIterators();
+            closeDataDatabase();
+            destroyDatabase(getQualifiedLocation());
+            db = openDataDatabase(getQualifiedLocation());
+            for (AtomicLong count : entryCounts) {
+                count.set(0);
+            }
         } finally {
             semaphore.release(Integer.MAX_VALUE);
         }
@@ -134,8 +434,15 @@ public void stop() {
             throw new PersistenceException("Cannot acquire semaphore", e);
         }
         try {
-            db.close();
-            expiredDb.close();
+            closeOpenIterators();
+            closeDataDatabase();
+            dataOptions.close();
+            expiryOptions.close();
+            dbOptions.close();
+            statistics = null;
+            saveEntryCounts();
+        } catch (IOException e) {
+            throw new PersistenceException(e);
         } finally {
             stopped = true;
             semaphore.release(Integer.MAX_VALUE);
@@ -155,20 +462,36 @@ public void clear() {
             if (stopped) {
                 throw new PersistenceException("RocksDB is stopped");
             }
-            Optional<RocksIterator> optionalIterator = wrapIterator(this.db);
-            if (optionalIterator.isPresent() && configuration.clearThreshold() <= 0) {
-                try (RocksIterator it = optionalIterator.get()) {
-                    for(it.seekToFirst(); it.isValid(); it.next()) {
-                        db.remove(it.key());
-                        count++;
+            if (configuration.clearThreshold() <= 0) {
+                for (int i = 0; i < handles.length; i++) {
+                    ColumnFamilyHandle handle = handles[i];
+                    try (RocksIterator it = wrapIterator(this.db, handle).get()) {
+                        for (it.seekToFirst(); it.isValid(); it.next()) {
+                            byte[] keyBytes = it.key();
+                            Lock lock = keyLock(keyBytes);
+                            lock.lock();
+                            try {
+                                // the iterator may still see a key deleted since it was created
+                                if (exists(i, keyBytes)) {
+                                    db.remove(handle, keyBytes);
+                                    entryCounts[i].decrementAndGet();
+                                }
+                            } finally {
+                                lock.unlock();
+                            }
+                            count++;
 
-                        if (count > configuration.clearThreshold()) {
-                            destroyDatabase = true;
-                            break;
+                            if (count > configuration.clearThreshold()) {
+                                destroyDatabase = true;
+                                break;
+                            }
                         }
+                    } catch (RocksDBException e) {
+                        destroyDatabase = true;
+                    }
+                    if (destroyDatabase) {
+                        break;
                     }
-                } catch (RocksDBException e) {
-                    destroyDatabase = true;
                 }
             } else {
                 destroyDatabase = true;
@@ -186,16 +509,21 @@ public void clear() {
         }
     }
 
-    private static Optional<RocksIterator> wrapIterator(RocksDB db) {
+    private static Optional<RocksIterator> wrapIterator(RocksDB db, ColumnFamilyHandle handle) {
         // Some Cache Store tests use clear and in case of the Rocks DB implementation
         // this clears out internal references and results in throwing exceptions
         // when getting an iterator. Unfortunately there is no nice way to check that...
-        return Optional.of(db.newIterator(new ReadOptions().setFillCache(false)));
+        return Optional.of(db.newIterator(handle, new ReadOptions().setFillCache(false)));
     }
 
     @Override
     public int size() {
-        return PersistenceUtil.count(this, null);
+        // Expired entries are counted until they are purged
+        long size = 0;
+        for (AtomicLong count : entryCounts) {
+            size += count.get();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
     }
 
     @Override
@@ -207,9 +535,28 @@ public boolean contains(Object key) {
         }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void process(KeyFilter keyFilter, CacheLoaderTask cacheLoaderTask, Executor executor, boolean loadValues, boolean loadMetadata) {
+        processColumnFamilies(null, keyFilter, cacheLoaderTask, executor, loadValues, loadMetadata);
+    }
+
+    @Override
+    public void process(Set<Integer> segments, KeyFilter keyFilter, CacheLoaderTask cacheLoaderTask, Executor executor,
+                        boolean loadValues, boolean loadMetadata) {
+        if (configuration.segmented()) {
+            processColumnFamilies(segments, keyFilter, cacheLoaderTask, executor, loadValues, loadMetadata);
+        } else {
+            KeyFilter segmentFilter = new CompositeKeyFilter(key -> segments.contains(keyPartitioner.getSegment(key)),
+                  PersistenceUtil.notNull(keyFilter));
+            processColumnFamilies(null, segmentFilter, cacheLoaderTask, executor, loadValues, loadMetadata);
+        }
+    }
+
+    /**
+     * Iterates over the given column families, or over all of them if {@code columnFamilies} is null.
+     */
+    private void processColumnFamilies(Set<Integer> columnFamilies, KeyFilter keyFilter, CacheLoaderTask cacheLoaderTask,
+                                       Executor executor, boolean loadValues, boolean loadMetadata) {
         int batchSize = 100;
         ExecutorAllCompletionService eacs = new ExecutorAllCompletionService(executor);
         final TaskContext taskContext = new TaskContextImpl();
@@ -224,35 +571,74 @@ public void process(KeyFilter keyFilter, CacheLoaderTask cacheLoaderTask, Execut
             if (stopped) {
                 throw new PersistenceException("RocksDB is stopped");
             }
-            Optional<RocksIterator> optionalIterator = wrapIterator(this.db);
-            if (optionalIterator.isPresent()) {
-                try (RocksIterator it = optionalIterator.get()) {
-                    for (it.seekToFirst(); it.isValid(); it.next()) {
-                        Entry entry = new Entry(it.key(), it.value());
-                        entries.add(entry);
-                        if (entries.size() == batchSize) {
-                            final List<Entry> batch = entries;
-                            entries = new ArrayList<>(batchSize);
-                            submitProcessTask(cacheLoaderTask, keyFilter, eacs, taskContext, batch, loadValues, loadMetadata);
-                        }
+            try {
+                for (int i = 0; i < handles.length; i++) {
+                    if (columnFamilies != null && !columnFamilies.contains(i)) {
+                        continue;
                     }
-                    if (!entries.isEmpty()) {
-                        submitProcessTask(cacheLoaderTask, keyFilter, eacs, taskContext, entries, loadValues, loadMetadata);
+                    try (RocksIterator it = wrapIterator(this.db, handles[i]).get()) {
+                        for (it.seekToFirst(); it.isValid(); it.next()) {
+                            Entry entry = new Entry(it.key(), it.value());
+                            entries.add(entry);
+                            if (entries.size() == batchSize) {
+                                final List<Entry> batch = entries;
+                                entries = new ArrayList<>(batchSize);
+                                submitProcessTask(cacheLoaderTask, keyFilter, eacs, taskContext, batch, loadValues, loadMetadata);
+                            }
+                        }
                     }
+                }
+                if (!entries.isEmpty()) {
+                    submitProcessTask(cacheLoaderTask, keyFilter, eacs, taskContext, entries, loadValues, loadMetadata);
+                }
 
-                    eacs.waitUntilAllCompleted();
-                    if (eacs.isExceptionThrown()) {
-                        throw new PersistenceException("Execution exception!", eacs.getFirstException());
-                    }
-                } catch (Exception e) {
-                    throw new PersistenceException(e);
+                eacs.waitUntilAllCompleted();
+                if (eacs.isExceptionThrown()) {
+                    throw new PersistenceException("Execution exception!", eacs.getFirstException());
                 }
+            } catch (Exception e) {
+                throw new PersistenceException(e);
             }
         } finally {
             semaphore.release();
         }
     }
 
+    @Override
+    public boolean isSegmented() {
+        return configuration.segmented();
+    }
+
+    @Override
+    public void removeSegments(Set<Integer> segments) {
+        if (!configuration.segmented()) {
+            // removing them would mean scanning all the keys, the entries are kept like in any non-segmented store
+            return;
+        }
+        try {
+            semaphore.acquire(Integer.MAX_VALUE);
+        } catch (InterruptedException e) {
+            throw new PersistenceException("Cannot acquire semaphore", e);
+        }
+        try {
+            if (stopped) {
+                throw new PersistenceException("RocksDB is stopped");
+            }
+            closeOpenIterators();
+            // Dropping a column family is far cheaper than deleting its entries one by one
+            for (int segment : segments) {
+                db.dropColumnFamily(handles[segment]);
+                handles[segment].close();
+                handles[segment] = db.createColumnFamily(columnFamilyDescriptor(segment));
+                entryCounts[segment].set(0);
+            }
+        } catch (RocksDBException e) {
+            throw new PersistenceException(e);
+        } finally {
+            semaphore.release(Integer.MAX_VALUE);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private void submitProcessTask(final CacheLoaderTask cacheLoaderTask, final KeyFilter filter, CompletionService ecs,
                                    final TaskContext taskContext, final List<Entry> batch,
@@ -264,17 +650,9 @@ private void submitProcessTask(final CacheLoaderTask cacheLoaderTask, final KeyF
                     if (taskContext.isStopped()) {
                         break;
                     }
-                    Object key = unmarshall(pair.key);
-                    if (filter == null || filter.accept(key)) {
-                        MarshalledEntry entry = loadValues || loadMetadata ? (MarshalledEntry) unmarshall(pair.value) : null;
-                        boolean isExpired = entry != null && entry.getMetadata() != null && entry.getMetadata().isExpired(now);
-                        if (!isExpired) {
-                            if (!loadValues || !loadMetadata) {
-                                entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(
-                                      key, loadValues ? entry.getValue() : null, loadMetadata ? entry.getMetadata() : null);
-                            }
-                            cacheLoaderTask.processEntry(entry, taskContext);
-                        }
+                    MarshalledEntry entry = toMarshalledEntry(pair.key, pair.value, filter, now, loadValues, loadMetadata);
+                    if (entry != null) {
+                        cacheLoaderTask.processEntry(entry, taskContext);
                     }
                 }
                 return null;
@@ -285,6 +663,139 @@ private void submitProcessTask(final CacheLoaderTask cacheLoaderTask, final KeyF
         });
     }
 
+    /**
+     * Returns the entry stored with the given key and value, or null if the key is not accepted by the filter or the
+     * entry has expired.
+     */
+    private MarshalledEntry toMarshalledEntry(byte[] keyBytes, byte[] valueBytes, KeyFilter filter, long now,
+                                              boolean loadValues, boolean loadMetadata) throws IOException, ClassNotFoundException {
+        Object key = unmarshall(keyBytes);
+        if (filter != null && !filter.accept(key)) {
+            return null;
+        }
+        MarshalledEntry entry = loadValues || loadMetadata ? (MarshalledEntry) unmarshall(valueBytes) : null;
+        boolean isExpired = entry != null && entry.getMetadata() != null && entry.getMetadata().isExpired(now);
+        if (isExpired) {
+            return null;
+        }
+        if (!loadValues || !loadMetadata) {
+            entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(
+                  key, loadValues ? entry.getValue() : null, loadMetadata ? entry.getMetadata() : null);
+        }
+        return entry;
+    }
+
+    @Override
+    public CloseableIterator<MarshalledEntry> entryIterator(KeyFilter filter, boolean fetchValue, boolean fetchMetadata) {
+        if (stopped) {
+            throw new PersistenceException("RocksDB is stopped");
+        }
+        EntryIterator iterator = new EntryIterator(filter, fetchValue, fetchMetadata);
+        openIterators.add(iterator);
+        return iterator;
+    }
+
+    /**
+     * Iterates over the column families one after the other, reading the entries as it advances. A permit is only held
+     * while advancing, so an iterator that is never closed doesn't block stop, clear or the removal of segments. These
+     * close the RocksDB iterator, which is reopened after the last key read on the next advance.
+     */
+    private class EntryIterator implements CloseableIterator<MarshalledEntry> {
+        private final KeyFilter filter;
+        private final boolean fetchValue;
+        private final boolean fetchMetadata;
+        private final long now = ctx.getTimeService().wallClockTime();
+        private int columnFamily = -1;
+        private RocksIterator it;
+        // the key of the last entry read from the current column family, null before reading it
+        private byte[] lastKey;
+        private MarshalledEntry next;
+        private volatile boolean closed;
+
+        EntryIterator(KeyFilter filter, boolean fetchValue, boolean fetchMetadata) {
+            this.filter = filter;
+            this.fetchValue = fetchValue;
+            this.fetchMetadata = fetchMetadata;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null || closed) {
+                return next != null;
+            }
+            try {
+                semaphore.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PersistenceException("Cannot acquire semaphore: CacheStore is likely stopped.", e);
+            }
+            try {
+                if (stopped) {
+                    close();
+                    throw new PersistenceException("RocksDB is stopped");
+                }
+                while (next == null) {
+                    if (it == null) {
+                        if (lastKey == null && ++columnFamily == handles.length) {
+                            close();
+                            return false;
+                        }
+                        openIterator();
+                    } else if (!it.isValid()) {
+                        closeIterator();
+                        lastKey = null;
+                    } else {
+                        lastKey = it.key();
+                        next = toMarshalledEntry(lastKey, it.value(), filter, now, fetchValue, fetchMetadata);
+                        it.next();
+                    }
+                }
+                return true;
+            } catch (IOException | ClassNotFoundException e) {
+                close();
+                throw new PersistenceException(e);
+            } finally {
+                semaphore.release();
+            }
+        }
+
+        private synchronized void openIterator() {
+            it = wrapIterator(db, handles[columnFamily]).get();
+            if (lastKey == null) {
+                it.seekToFirst();
+            } else {
+                it.seek(lastKey);
+                if (it.isValid() && Arrays.equals(it.key(), lastKey)) {
+                    it.next();
+                }
+            }
+        }
+
+        synchronized void closeIterator() {
+            if (it != null) {
+                it.close();
+                it = null;
+            }
+        }
+
+        @Override
+        public MarshalledEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            MarshalledEntry entry = next;
+            next = null;
+            return entry;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            openIterators.remove(this);
+            closeIterator();
+        }
+    }
+
     @Override
     public boolean delete(Object key) {
         try {
@@ -294,10 +805,18 @@ public boolean delete(Object key) {
                 if (stopped) {
                     throw new PersistenceException("RocksDB is stopped");
                 }
-                if (db.get(keyBytes) == null) {
-                    return false;
+                int columnFamily = columnFamily(key);
+                Lock lock = keyLock(keyBytes);
+                lock.lock();
+                try {
+                    if (!exists(columnFamily, keyBytes)) {
+                        return false;
+                    }
+                    db.remove(handles[columnFamily], keyBytes);
+                    entryCounts[columnFamily].decrementAndGet();
+                } finally {
+                    lock.unlock();
                 }
-                db.remove(keyBytes);
             } finally {
                 semaphore.release();
             }
@@ -317,7 +836,18 @@ public void write(MarshalledEntry me) {
                 if (stopped) {
                     throw new PersistenceException("RocksDB is stopped");
                 }
-                db.put(marshelledKey, marshalledEntry);
+                int columnFamily = columnFamily(me.getKey());
+                Lock lock = keyLock(marshelledKey);
+                lock.lock();
+                try {
+                    boolean exists = exists(columnFamily, marshelledKey);
+                    db.put(handles[columnFamily], marshelledKey, marshalledEntry);
+                    if (!exists) {
+                        entryCounts[columnFamily].incrementAndGet();
+                    }
+                } finally {
+                    lock.unlock();
+                }
             } finally {
                 semaphore.release();
             }
@@ -330,6 +860,103 @@ public void write(MarshalledEntry me) {
         }
     }
 
+    @Override
+    public void writeBatch(Iterable marshalledEntries) {
+        try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+            List<MarshalledEntry> entries = new ArrayList<>();
+            List<byte[]> keys = new ArrayList<>();
+            List<MarshalledEntry> expiring = new ArrayList<>();
+            for (Object o : marshalledEntries) {
+                MarshalledEntry me = (MarshalledEntry) o;
+                byte[] keyBytes = marshall(me.getKey());
+                batch.put(handle(me.getKey()), keyBytes, marshall(me));
+                entries.add(me);
+                keys.add(keyBytes);
+                InternalMetadata meta = me.getMetadata();
+                if (meta != null && meta.expiryTime() > -1) {
+                    expiring.add(me);
+                }
+            }
+            semaphore.acquire();
+            try {
+                if (stopped) {
+                    throw new PersistenceException("RocksDB is stopped");
+                }
+                int[] locked = lockKeys(keys);
+                try {
+                    int[] added = new int[handles.length];
+                    Set<Object> seen = new HashSet<>();
+                    for (int i = 0; i < entries.size(); i++) {
+                        Object key = entries.get(i).getKey();
+                        int columnFamily = columnFamily(key);
+                        if (seen.add(key) && !exists(columnFamily, keys.get(i))) {
+                            added[columnFamily]++;
+                        }
+                    }
+                    db.write(writeOptions, batch);
+                    addEntryCounts(added, 1);
+                } finally {
+                    unlockKeys(locked);
+                }
+            } finally {
+                semaphore.release();
+            }
+            for (MarshalledEntry me : expiring) {
+                addNewExpiry(me);
+            }
+        } catch (Exception e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    public void deleteBatch(Iterable keys) {
+        try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+            List<Object> keyList = new ArrayList<>();
+            List<byte[]> keyBytesList = new ArrayList<>();
+            for (Object key : keys) {
+                byte[] keyBytes = marshall(key);
+                batch.remove(handle(key), keyBytes);
+                keyList.add(key);
+                keyBytesList.add(keyBytes);
+            }
+            semaphore.acquire();
+            try {
+                if (stopped) {
+                    throw new PersistenceException("RocksDB is stopped");
+                }
+                int[] locked = lockKeys(keyBytesList);
+                try {
+                    int[] removed = new int[handles.length];
+                    Set<Object> seen = new HashSet<>();
+                    for (int i = 0; i < keyList.size(); i++) {
+                        Object key = keyList.get(i);
+                        int columnFamily = columnFamily(key);
+                        if (seen.add(key) && exists(columnFamily, keyBytesList.get(i))) {
+                            removed[columnFamily]++;
+                        }
+                    }
+                    db.write(writeOptions, batch);
+                    addEntryCounts(removed, -1);
+                } finally {
+                    unlockKeys(locked);
+                }
+            } finally {
+                semaphore.release();
+            }
+        } catch (Exception e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private void addEntryCounts(int[] deltas, int sign) {
+        for (int i = 0; i < deltas.length; i++) {
+            if (deltas[i] != 0) {
+                entryCounts[i].addAndGet(sign * deltas[i]);
+            }
+        }
+    }
+
     @Override
     public MarshalledEntry load(Object key) {
         try {
@@ -339,7 +966,7 @@ public MarshalledEntry load(Object key) {
                 if (stopped) {
                     throw new PersistenceException("RocksDB is stopped");
                 }
-                marshalledEntry = db.get(marshall(key));
+                marshalledEntry = db.get(handle(key), marshall(key));
             } finally {
                 semaphore.release();
             }
@@ -368,79 +995,61 @@ public void purge(Executor executor, PurgeListener purgeListener) {
             if (stopped) {
                 throw new PersistenceException("RocksDB is stopped");
             }
-            // Drain queue and update expiry tree
+            // Drain queue and record the expiration times in the expiry column family
             List<ExpiryEntry> entries = new ArrayList<>();
             expiryEntryQueue.drainTo(entries);
-            for (ExpiryEntry entry : entries) {
-                final byte[] expiryBytes = marshall(entry.expiry);
-                final byte[] keyBytes = marshall(entry.key);
-                final byte[] existingBytes = expiredDb.get(expiryBytes);
-
-                if (existingBytes != null) {
-                    // in the case of collision make the key a List ...
-                    final Object existing = unmarshall(existingBytes);
-                    if (existing instanceof List) {
-                        ((List<Object>) existing).add(entry.key);
-                        expiredDb.put(expiryBytes, marshall(existing));
-                    } else {
-                        List<Object> al = new ArrayList<>(2);
-                        al.add(existing);
-                        al.add(entry.key);
-                        expiredDb.put(expiryBytes, marshall(al));
+            if (!entries.isEmpty()) {
+                try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+                    for (ExpiryEntry entry : entries) {
+                        batch.put(expiryHandle, expiryKey(entry.expiry, marshall(entry.key)), EMPTY_VALUE);
                     }
-                } else {
-                    expiredDb.put(expiryBytes, keyBytes);
+                    db.write(writeOptions, batch);
                 }
             }
 
-            List<Long> times = new ArrayList<>();
-            List<Object> keys = new ArrayList<>();
-
             long now = ctx.getTimeService().wallClockTime();
-            Optional<RocksIterator> optionalIterator = wrapIterator(expiredDb);
-            if (optionalIterator.isPresent()) {
-                try (RocksIterator it = optionalIterator.get()) {
-                    for (it.seekToFirst(); it.isValid(); it.next()) {
-                        Long time = (Long) unmarshall(it.key());
-                        if (time > now)
-                            break;
-                        times.add(time);
-                        Object key = unmarshall(it.value());
-                        if (key instanceof List)
-                            keys.addAll((List<?>) key);
-                        else
-                            keys.add(key);
-                    }
-
-                    for (Long time : times) {
-                        expiredDb.remove(marshall(time));
-                    }
+            List<byte[]> expiryKeys = new ArrayList<>();
+            try (RocksIterator it = wrapIterator(db, expiryHandle).get()) {
+                for (it.seekToFirst(); it.isValid(); it.next()) {
+                    byte[] expiryKey = it.key();
+                    if (expiryTime(expiryKey) > now)
+                        break;
+                    expiryKeys.add(expiryKey);
+                }
+            }
 
-                    if (!keys.isEmpty())
-                        log.debugf("purge (up to) %d entries", keys.size());
-                    int count = 0;
-                    for (Object key : keys) {
-                        byte[] keyBytes = marshall(key);
+            if (!expiryKeys.isEmpty())
+                log.debugf("purge (up to) %d entries", expiryKeys.size());
+            int count = 0;
+            try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+                for (byte[] expiryKey : expiryKeys) {
+                    batch.remove(expiryHandle, expiryKey);
+                    byte[] keyBytes = expiryKeyBytes(expiryKey);
+                    Object key = unmarshall(keyBytes);
 
-                        byte[] b = db.get(keyBytes);
+                    // the entry can't be updated between the get and delete while holding its lock
+                    Lock lock = keyLock(keyBytes);
+                    lock.lock();
+                    try {
+                        byte[] b = db.get(handle(key), keyBytes);
                         if (b == null)
                             continue;
-                        MarshalledEntry me = (MarshalledEntry) ctx.getMarshaller().objectFromByteBuffer(b);
-                        // TODO race condition: the entry could be updated between the get and delete!
-                        if (me.getMetadata() != null && me.getMetadata().isExpired(now)) {
-                            // somewhat inefficient to FIND then REMOVE...
-                            db.remove(keyBytes);
-                            purgeListener.entryPurged(key);
-                            count++;
-                        }
-
+                        MarshalledEntry me = (MarshalledEntry) unmarshall(b);
+                        if (me.getMetadata() == null || !me.getMetadata().isExpired(now))
+                            continue;
+                        // somewhat inefficient to FIND then REMOVE...
+                        db.remove(handle(key), keyBytes);
+                        entryCounts[columnFamily(key)].decrementAndGet();
+                    } finally {
+                        lock.unlock();
                     }
-                    if (count != 0)
-                        log.debugf("purged %d entries", count);
-                } catch (Exception e) {
-                    throw new PersistenceException(e);
+                    purgeListener.entryPurged(key);
+                    count++;
                 }
+                db.write(writeOptions, batch);
             }
+            if (count != 0)
+                log.debugf("purged %d entries", count);
         } catch (PersistenceException e) {
             throw e;
         } catch (Exception e) {
@@ -450,6 +1059,46 @@ public void purge(Executor executor, PurgeListener purgeListener) {
         }
     }
 
+    long tickerCount(TickerType tickerType) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        try {
+            // the statistics are released with the database options when the store stops
+            return stopped || statistics == null ? 0 : statistics.getTickerCount(tickerType);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    int pendingCompactions() {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        try {
+            if (stopped) {
+                return 0;
+            }
+            int pending = 0;
+            for (ColumnFamilyHandle handle : handles) {
+                if ("1".equals(db.getProperty(handle, "rocksdb.compaction-pending"))) {
+                    pending++;
+                }
+            }
+            return pending;
+        } catch (RocksDBException e) {
+            throw new PersistenceException(e);
+        } finally {
+            semaphore.release();
+        }
+    }
+
     private byte[] marshall(Object entry) throws IOException, InterruptedException {
         return ctx.getMarshaller().objectToByteBuffer(entry);
     }
@@ -0,0 +1,103 @@
+package org.infinispan.persistence.rocksdb;
+
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+import org.rocksdb.TickerType;
+
+/**
+ * Exposes the statistics gathered by the RocksDB database of a {@link RocksDBStore}. The store registers it in the
+ * cache component registry when it starts with statistics enabled. All the counters are reset when the store is
+ * restarted.
+ *
+ * @since 9.0
+ */
+@MBean(objectName = "RocksDBStore", description = "Statistics of the RocksDB cache store")
+public class RocksDBStoreStatistics {
+   private final RocksDBStore store;
+
+   RocksDBStoreStatistics(RocksDBStore store) {
+      this.store = store;
+   }
+
+   @ManagedAttribute(
+         description = "Number of reads served by the block cache",
+         displayName = "Block cache hits",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getBlockCacheHits() {
+      return store.tickerCount(TickerType.BLOCK_CACHE_HIT);
+   }
+
+   @ManagedAttribute(
+         description = "Number of reads that missed the block cache",
+         displayName = "Block cache misses",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getBlockCacheMisses() {
+      return store.tickerCount(TickerType.BLOCK_CACHE_MISS);
+   }
+
+   @ManagedAttribute(
+         description = "Percentage of the reads served by the block cache",
+         displayName = "Block cache hit ratio",
+         units = Units.PERCENTAGE,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getBlockCacheHitRatio() {
+      long hits = getBlockCacheHits();
+      long total = hits + getBlockCacheMisses();
+      return total == 0 ? 0 : (double) hits / total;
+   }
+
+   @ManagedAttribute(
+         description = "Number of lookups of missing keys that the bloom filters answered without reading a data block",
+         displayName = "Bloom filter useful",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getBloomFilterUseful() {
+      return store.tickerCount(TickerType.BLOOM_FILTER_USEFUL);
+   }
+
+   @ManagedAttribute(
+         description = "Time the writes were stalled waiting for the compactions to catch up",
+         displayName = "Write stall time",
+         units = Units.MILLISECONDS,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getWriteStallTime() {
+      long micros = store.tickerCount(TickerType.STALL_L0_SLOWDOWN_MICROS)
+            + store.tickerCount(TickerType.STALL_MEMTABLE_COMPACTION_MICROS)
+            + store.tickerCount(TickerType.STALL_L0_NUM_FILES_MICROS);
+      return micros / 1000;
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes read by the compactions",
+         displayName = "Compaction bytes read",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactionBytesRead() {
+      return store.tickerCount(TickerType.COMPACT_READ_BYTES);
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes written by the compactions",
+         displayName = "Compaction bytes written",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactionBytesWritten() {
+      return store.tickerCount(TickerType.COMPACT_WRITE_BYTES);
+   }
+
+   @ManagedAttribute(
+         description = "Number of column families with compactions pending",
+         displayName = "Pending compactions",
+         displayType = DisplayType.SUMMARY
+   )
+   public int getPendingCompactions() {
+      return store.pendingCompactions();
+   }
+}
@@ -13,6 +13,7 @@ public enum Attribute {
    UNKNOWN(null),
 
    BLOCK_SIZE("block-size"),
+   BLOOM_FILTER_BITS_PER_KEY("bloom-filter-bits-per-key"),
    CACHE_SIZE("cache-size"),
    CLEAR_THRESHOLD("clear-threshold"),
    COMPRESSION_TYPE("compressionType"),
@@ -21,9 +22,12 @@ public enum Attribute {
    IMPLEMENTATION_TYPE("implementationType"),
    LOCATION("location"),
    PATH("path"),
+   PER_LEVEL("per-level"),
    RELATIVE_TO("relative-to"),
    QUEUE_SIZE("queue-size"),
+   SEGMENTED("segmented"),
    TYPE("type"),
+   WRITE_BUFFER_SIZE("write-buffer-size"),
    ;
 
    private final String name;
@@ -1,5 +1,8 @@
 package org.infinispan.persistence.rocksdb.configuration;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.infinispan.commons.configuration.BuiltBy;
 import org.infinispan.commons.configuration.ConfigurationFor;
 import org.infinispan.commons.configuration.attributes.Attribute;
@@ -23,33 +26,45 @@ public class RocksDBStoreConfiguration extends AbstractStoreConfiguration {
    final static AttributeDefinition<String> LOCATION = AttributeDefinition.builder("location", "Infinispan-RocksDBStore/data").immutable().xmlName("path").build();
    final static AttributeDefinition<String> EXPIRED_LOCATION = AttributeDefinition.builder("expiredLocation", "Infinispan-RocksDBStore/expired").immutable().autoPersist(false).xmlName("path").build();
    final static AttributeDefinition<CompressionType> COMPRESSION_TYPE = AttributeDefinition.builder("compressionType", CompressionType.NONE).immutable().autoPersist(false).build();
+   final static AttributeDefinition<List> COMPRESSION_PER_LEVEL = AttributeDefinition.builder("compressionPerLevel", Collections.emptyList(), List.class).immutable().autoPersist(false).build();
    final static AttributeDefinition<Integer> BLOCK_SIZE = AttributeDefinition.builder("blockSize", 0).immutable().build();
    final static AttributeDefinition<Long> CACHE_SIZE = AttributeDefinition.builder("cacheSize", 0l).immutable().build();
+   final static AttributeDefinition<Integer> BLOOM_FILTER_BITS_PER_KEY = AttributeDefinition.builder("bloomFilterBitsPerKey", 10).immutable().build();
+   final static AttributeDefinition<Long> WRITE_BUFFER_SIZE = AttributeDefinition.builder("writeBufferSize", 0l).immutable().build();
    final static AttributeDefinition<Integer> EXPIRY_QUEUE_SIZE = AttributeDefinition.builder("expiryQueueSize", 10000).immutable().autoPersist(false).build();
    final static AttributeDefinition<Integer> CLEAR_THRESHOLD = AttributeDefinition.builder("clearThreshold", 10000).immutable().build();
+   final static AttributeDefinition<Boolean> SEGMENTED = AttributeDefinition.builder("segmented", false).immutable().build();
 
    public static AttributeSet attributeDefinitionSet() {
       return new AttributeSet(RocksDBStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, EXPIRED_LOCATION, COMPRESSION_TYPE,
-            BLOCK_SIZE, CACHE_SIZE, EXPIRY_QUEUE_SIZE, CLEAR_THRESHOLD);
+            COMPRESSION_PER_LEVEL, BLOCK_SIZE, CACHE_SIZE, BLOOM_FILTER_BITS_PER_KEY, WRITE_BUFFER_SIZE, EXPIRY_QUEUE_SIZE, CLEAR_THRESHOLD, SEGMENTED);
    }
 
    private final Attribute<String> location;
    private final Attribute<String> expiredLocation;
    private final Attribute<CompressionType> compressionType;
+   private final Attribute<List> compressionPerLevel;
    private final Attribute<Integer> blockSize;
    private final Attribute<Long> cacheSize;
+   private final Attribute<Integer> bloomFilterBitsPerKey;
+   private final Attribute<Long> writeBufferSize;
    private final Attribute<Integer> expiryQueueSize;
    private final Attribute<Integer> clearThreshold;
+   private final Attribute<Boolean> segmented;
 
    public RocksDBStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async, SingletonStoreConfiguration singletonStore) {
       super(attributes, async, singletonStore);
       location = attributes.attribute(LOCATION);
       expiredLocation = attributes.attribute(EXPIRED_LOCATION);
       compressionType = attributes.attribute(COMPRESSION_TYPE);
+      compressionPerLevel = attributes.attribute(COMPRESSION_PER_LEVEL);
       blockSize = attributes.attribute(BLOCK_SIZE);
       cacheSize = attributes.attribute(CACHE_SIZE);
+      bloomFilterBitsPerKey = attributes.attribute(BLOOM_FILTER_BITS_PER_KEY);
+      writeBufferSize = attributes.attribute(WRITE_BUFFER_SIZE);
       expiryQueueSize = attributes.attribute(EXPIRY_QUEUE_SIZE);
       clearThreshold = attributes.attribute(CLEAR_THRESHOLD);
+      segmented = attributes.attribute(SEGMENTED);
    }
 
    public String location() {
@@ -64,6 +79,11 @@ public CompressionType compressionType() {
       return compressionType.get();
    }
 
+   @SuppressWarnings("unchecked")
+   public List<CompressionType> compressionPerLevel() {
+      return compressionPerLevel.get();
+   }
+
    public Integer blockSize() {
       return blockSize.get();
    }
@@ -72,6 +92,14 @@ public Long cacheSize() {
       return cacheSize.get();
    }
 
+   public int bloomFilterBitsPerKey() {
+      return bloomFilterBitsPerKey.get();
+   }
+
+   public long writeBufferSize() {
+      return writeBufferSize.get();
+   }
+
    public int expiryQueueSize() {
       return expiryQueueSize.get();
    }
@@ -79,4 +107,8 @@ public int expiryQueueSize() {
    public int clearThreshold() {
       return clearThreshold.get();
    }
+
+   public boolean segmented() {
+      return segmented.get();
+   }
 }
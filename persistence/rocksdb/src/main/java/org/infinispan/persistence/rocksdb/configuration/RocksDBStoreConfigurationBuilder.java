@@ -1,16 +1,23 @@
 package org.infinispan.persistence.rocksdb.configuration;
 
+import java.util.Arrays;
+
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.configuration.cache.AbstractStoreConfigurationBuilder;
 import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
 
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.BLOCK_SIZE;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.BLOOM_FILTER_BITS_PER_KEY;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.CACHE_SIZE;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.LOCATION;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.CLEAR_THRESHOLD;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.EXPIRED_LOCATION;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.EXPIRY_QUEUE_SIZE;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.COMPRESSION_PER_LEVEL;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.COMPRESSION_TYPE;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.SEGMENTED;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.WRITE_BUFFER_SIZE;
 
 /**
  *
@@ -28,21 +35,51 @@ public RocksDBStoreConfigurationBuilder location(String location) {
       return self();
    }
 
+   /**
+    * @deprecated expiration data is now kept in a column family of the data database, this location is only read once
+    * to migrate the expiration data of an existing store
+    */
+   @Deprecated
    public RocksDBStoreConfigurationBuilder expiredLocation(String expiredLocation) {
       attributes.attribute(EXPIRED_LOCATION).set(expiredLocation);
       return self();
    }
 
+   /**
+    * The size of the data blocks, in bytes. 0 keeps the RocksDB default.
+    */
    public RocksDBStoreConfigurationBuilder blockSize(int blockSize) {
       attributes.attribute(BLOCK_SIZE).set(blockSize);
       return self();
    }
 
+   /**
+    * The size of the block cache, in bytes, shared by the column families of all the segments. 0 keeps the RocksDB
+    * default.
+    */
    public RocksDBStoreConfigurationBuilder cacheSize(long cacheSize) {
       attributes.attribute(CACHE_SIZE).set(cacheSize);
       return self();
    }
 
+   /**
+    * The number of bits per key of the bloom filters, which let lookups of missing keys skip reading the data blocks.
+    * 0 disables the bloom filters.
+    */
+   public RocksDBStoreConfigurationBuilder bloomFilterBitsPerKey(int bloomFilterBitsPerKey) {
+      attributes.attribute(BLOOM_FILTER_BITS_PER_KEY).set(bloomFilterBitsPerKey);
+      return self();
+   }
+
+   /**
+    * The size of each memtable, in bytes. When segmented every segment has its own memtables. 0 keeps the RocksDB
+    * default.
+    */
+   public RocksDBStoreConfigurationBuilder writeBufferSize(long writeBufferSize) {
+      attributes.attribute(WRITE_BUFFER_SIZE).set(writeBufferSize);
+      return self();
+   }
+
    public RocksDBStoreConfigurationBuilder expiryQueueSize(int expiryQueueSize) {
       attributes.attribute(EXPIRY_QUEUE_SIZE).set(expiryQueueSize);
       return self();
@@ -53,15 +90,38 @@ public RocksDBStoreConfigurationBuilder clearThreshold(int clearThreshold) {
       return self();
    }
 
+   /**
+    * Stores the entries of each segment in a separate column family, so that state transfer only reads the segments
+    * it transfers and removing a segment drops its column family. Changing it, or changing the number of segments of a
+    * segmented store, requires removing the existing data: the store fails to start otherwise.
+    */
+   public RocksDBStoreConfigurationBuilder segmented(boolean segmented) {
+      attributes.attribute(SEGMENTED).set(segmented);
+      return self();
+   }
+
    public RocksDBStoreConfigurationBuilder compressionType(CompressionType compressionType) {
       attributes.attribute(COMPRESSION_TYPE).set(compressionType);
       return self();
    }
 
+   /**
+    * The compression of each level, starting from level 0, overriding {@link #compressionType(CompressionType)}. The
+    * levels after the last one given use the compression of the last one, e.g. {@code NONE, NONE, LZ4} leaves the
+    * levels which are rewritten most often uncompressed.
+    */
+   public RocksDBStoreConfigurationBuilder compressionPerLevel(CompressionType... compressionTypes) {
+      attributes.attribute(COMPRESSION_PER_LEVEL).set(Arrays.asList(compressionTypes));
+      return self();
+   }
+
    @Override
    public void validate() {
       // how do you validate required attributes?
       super.validate();
+      if (attributes.attribute(BLOOM_FILTER_BITS_PER_KEY).get() < 0) {
+         throw new CacheConfigurationException("The number of bloom filter bits per key cannot be negative");
+      }
    }
 
    @Override
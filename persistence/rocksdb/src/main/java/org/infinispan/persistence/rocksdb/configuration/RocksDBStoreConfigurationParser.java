@@ -69,6 +69,10 @@ private void parseRocksDBCacheStore(XMLExtendedStreamReader reader, RocksDBStore
                builder.clearThreshold(Integer.valueOf(value));
                break;
             }
+            case SEGMENTED: {
+               builder.segmented(Boolean.parseBoolean(value));
+               break;
+            }
             case BLOCK_SIZE: {
                builder.blockSize(Integer.valueOf(value));
                break;
@@ -77,6 +81,14 @@ private void parseRocksDBCacheStore(XMLExtendedStreamReader reader, RocksDBStore
                builder.cacheSize(Long.valueOf(value));
                break;
             }
+            case BLOOM_FILTER_BITS_PER_KEY: {
+               builder.bloomFilterBitsPerKey(Integer.valueOf(value));
+               break;
+            }
+            case WRITE_BUFFER_SIZE: {
+               builder.writeBufferSize(Long.valueOf(value));
+               break;
+            }
             default: {
                Parser.parseStoreAttribute(reader, i, builder);
             }
@@ -131,6 +143,15 @@ private void parseCompression(XMLExtendedStreamReader reader, RocksDBStoreConfig
                builder.compressionType(CompressionType.valueOf(value));
                break;
             }
+            case PER_LEVEL: {
+               String[] levels = value.trim().split("\\s+");
+               CompressionType[] compressionTypes = new CompressionType[levels.length];
+               for (int level = 0; level < levels.length; level++) {
+                  compressionTypes[level] = CompressionType.valueOf(levels[level]);
+               }
+               builder.compressionPerLevel(compressionTypes);
+               break;
+            }
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -21,9 +21,19 @@ public void serialize(XMLExtendedStreamWriter writer, RocksDBStoreConfiguration
       writer.writeStartElement(Element.ROCKSDB_STORE);
       configuration.attributes().write(writer);
       writeCommonStoreSubAttributes(writer, configuration);
-      if (attributes.attribute(RocksDBStoreConfiguration.COMPRESSION_TYPE).isModified()) {
+      if (attributes.attribute(RocksDBStoreConfiguration.COMPRESSION_TYPE).isModified() || attributes.attribute(RocksDBStoreConfiguration.COMPRESSION_PER_LEVEL).isModified()) {
          writer.writeStartElement(Element.COMPRESSION);
          attributes.write(writer, RocksDBStoreConfiguration.COMPRESSION_TYPE, Attribute.TYPE);
+         if (attributes.attribute(RocksDBStoreConfiguration.COMPRESSION_PER_LEVEL).isModified()) {
+            StringBuilder levels = new StringBuilder();
+            for (CompressionType compressionType : configuration.compressionPerLevel()) {
+               if (levels.length() > 0) {
+                  levels.append(' ');
+               }
+               levels.append(compressionType);
+            }
+            writer.writeAttribute(Attribute.PER_LEVEL, levels.toString());
+         }
          writer.writeEndElement();
       }
       if (attributes.attribute(RocksDBStoreConfiguration.EXPIRED_LOCATION).isModified() || attributes.attribute(RocksDBStoreConfiguration.EXPIRY_QUEUE_SIZE).isModified()) {
@@ -0,0 +1,108 @@
+package org.infinispan.persistence.rocksdb;
+
+import static org.infinispan.test.Exceptions.expectException;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.distribution.ch.impl.HashFunctionPartitioner;
+import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.InitializationContext;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the store tests against a RocksDB store keeping each segment in a separate column family.
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "persistence.rocksdb.RocksDBSegmentedStoreTest")
+public class RocksDBSegmentedStoreTest extends RocksDBStoreTest {
+
+   private static final int NUM_SEGMENTS = 8;
+
+   private KeyPartitioner keyPartitioner;
+
+   @Override
+   protected RocksDBStoreConfigurationBuilder createCacheStoreConfig(PersistenceConfigurationBuilder lcb) {
+      return super.createCacheStoreConfig(lcb).segmented(true);
+   }
+
+   @Override
+   protected AdvancedLoadWriteStore createStore() throws Exception {
+      clearTempDir();
+      return createStore(NUM_SEGMENTS);
+   }
+
+   private RocksDBStore createStore(int numSegments) {
+      RocksDBStore fcs = new RocksDBStore();
+      ConfigurationBuilder cb = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      cb.clustering().hash().numSegments(numSegments);
+      createCacheStoreConfig(cb.persistence());
+      Configuration configuration = cb.build();
+      InitializationContext ctx = createContext(configuration);
+      keyPartitioner = new HashFunctionPartitioner();
+      keyPartitioner.init(configuration.clustering().hash());
+      ctx.getCache().getAdvancedCache().getComponentRegistry().registerComponent(keyPartitioner, KeyPartitioner.class);
+      fcs.init(ctx);
+      return fcs;
+   }
+
+   public void testProcessAndRemoveSegments() {
+      SegmentedAdvancedLoadWriteStore<Object, Object> store = (SegmentedAdvancedLoadWriteStore<Object, Object>) cl;
+      int numKeys = 50;
+      for (int i = 0; i < numKeys; i++) {
+         cl.write(marshalledEntry("k" + i, "v" + i, null));
+      }
+      Set<Integer> segments = Collections.singleton(keyPartitioner.getSegment("k0"));
+      int keysInSegments = 0;
+      for (int i = 0; i < numKeys; i++) {
+         if (segments.contains(keyPartitioner.getSegment("k" + i))) {
+            keysInSegments++;
+         }
+      }
+
+      Set<Object> processed = new HashSet<>();
+      store.process(segments, null, (me, taskContext) -> processed.add(me.getKey()), new WithinThreadExecutor(), false, false);
+      assertEquals(processed.size(), keysInSegments);
+      assertTrue(processed.contains("k0"));
+
+      store.removeSegments(segments);
+      for (int i = 0; i < numKeys; i++) {
+         String key = "k" + i;
+         if (segments.contains(keyPartitioner.getSegment(key))) {
+            assertNull(cl.load(key));
+         } else {
+            assertNotNull(cl.load(key));
+         }
+      }
+      assertEquals(cl.size(), numKeys - keysInSegments);
+   }
+
+   public void testReopenWithDifferentNumSegments() {
+      cl.write(marshalledEntry("k", "v", null));
+      cl.stop();
+      try {
+         RocksDBStore store = createStore(NUM_SEGMENTS * 2);
+         // the keys would be looked up in the wrong column families
+         expectException(CacheConfigurationException.class, PersistenceException.class, store::start);
+      } finally {
+         cl.start();
+      }
+      assertNotNull(cl.load("k"));
+   }
+}
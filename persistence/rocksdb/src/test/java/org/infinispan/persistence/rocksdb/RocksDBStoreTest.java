@@ -1,25 +1,37 @@
 package org.infinispan.persistence.rocksdb;
 
+import static org.infinispan.test.Exceptions.expectException;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.persistence.BaseStoreTest;
+import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfigurationBuilder;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
@@ -52,6 +64,94 @@ protected AdvancedLoadWriteStore createStore() throws Exception {
       return fcs;
    }
 
+   public void testSizeAcrossRestart() {
+      cl.write(marshalledEntry("k1", "v1", null));
+      cl.write(marshalledEntry("k2", "v2", null));
+      cl.write(marshalledEntry("k1", "v3", null));
+      assertEquals(cl.size(), 2);
+      cl.delete("k2");
+      cl.delete("k2");
+      assertEquals(cl.size(), 1);
+
+      cl.stop();
+      cl.start();
+      assertEquals(cl.size(), 1);
+      cl.clear();
+      assertEquals(cl.size(), 0);
+   }
+
+   public void testRemoveSegmentsIgnoredWhenNotSegmented() {
+      RocksDBStore store = (RocksDBStore) cl;
+      if (store.isSegmented()) {
+         // covered by RocksDBSegmentedStoreTest
+         return;
+      }
+      cl.write(marshalledEntry("k1", "v1", null));
+      store.removeSegments(Collections.singleton(0));
+      assertEquals(cl.size(), 1);
+      assertEquals(cl.load("k1").getValue(), "v1");
+   }
+
+   public void testSizeWithConcurrentWrites() throws Exception {
+      final int THREADS = 4;
+      final int KEYS = 100;
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+         // The threads write and delete the same keys, so the count is only right if they don't interleave
+         futures.add(fork(() -> {
+            for (int i = 0; i < KEYS; i++) {
+               cl.write(marshalledEntry("k" + i, "v" + i, null));
+               cl.delete("k" + (i / 2));
+            }
+         }));
+      }
+      for (Future<?> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(cl.size(), PersistenceUtil.count(cl, null));
+   }
+
+   public void testOpenIteratorDoesNotBlockClearAndStop() throws Exception {
+      for (int i = 0; i < 3; i++) {
+         cl.write(marshalledEntry("k" + i, "v" + i, null));
+      }
+      CloseableIterator<MarshalledEntry> iterator = ((RocksDBStore) cl).entryIterator(null, true, true);
+      assertTrue(iterator.hasNext());
+      iterator.next();
+      // The iterator is reopened on the cleared database, which has nothing left after the last key read
+      fork(cl::clear).get(10, TimeUnit.SECONDS);
+      assertFalse(iterator.hasNext());
+
+      cl.write(marshalledEntry("k3", "v3", null));
+      iterator = ((RocksDBStore) cl).entryIterator(null, true, true);
+      assertTrue(iterator.hasNext());
+      fork(cl::stop).get(10, TimeUnit.SECONDS);
+      iterator.next();
+      expectException(PersistenceException.class, iterator::hasNext);
+      cl.start();
+   }
+
+   public void testPurgeAfterMigratingExpiredDatabase() throws Exception {
+      long lifespan = 2000;
+      InternalCacheEntry se = internalCacheEntry("k", "v", lifespan);
+      cl.write(marshalledEntry(se));
+      cl.stop();
+
+      // Write the expiration data the way it was kept before it moved into a column family of the data database
+      String expiredLocation = tmpDirectory + "/expiry" + "mock-cache-" + getClass().getSimpleName();
+      new File(expiredLocation).mkdirs();
+      try (Options options = new Options().setCreateIfMissing(true);
+           RocksDB expiredDb = RocksDB.open(options, expiredLocation)) {
+         expiredDb.put(getMarshaller().objectToByteBuffer(se.getExpiryTime()), getMarshaller().objectToByteBuffer("k"));
+      }
+
+      cl.start();
+      assertFalse(new File(expiredLocation).exists());
+      timeService.advance(lifespan + 1);
+      purgeExpired("k");
+      assertEquals(cl.size(), 0);
+   }
+
    @Test(groups = "stress")
    public void testConcurrentWriteAndRestart() {
       concurrentWriteAndRestart(true);
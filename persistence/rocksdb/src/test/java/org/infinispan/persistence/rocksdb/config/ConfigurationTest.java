@@ -6,6 +6,7 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import org.infinispan.Cache;
 import org.infinispan.commons.util.Util;
@@ -18,6 +19,7 @@
 import org.infinispan.configuration.parsing.ParserRegistry;
 import org.infinispan.manager.DefaultCacheManager;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.rocksdb.configuration.CompressionType;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfigurationBuilder;
 import org.infinispan.test.AbstractInfinispanTest;
@@ -82,5 +84,10 @@ public void testXmlConfig() throws IOException {
       RocksDBStoreConfiguration rocksdbConfig = (RocksDBStoreConfiguration) cacheLoaderConfig;
       assertEquals("/tmp/rocksdb/52/data", rocksdbConfig.location());
       assertEquals("/tmp/rocksdb/52/expired", rocksdbConfig.expiredLocation());
+      assertEquals(16777216, rocksdbConfig.cacheSize().longValue());
+      assertEquals(16, rocksdbConfig.bloomFilterBitsPerKey());
+      assertEquals(8388608, rocksdbConfig.writeBufferSize());
+      assertEquals(CompressionType.SNAPPY, rocksdbConfig.compressionType());
+      assertEquals(Arrays.asList(CompressionType.NONE, CompressionType.NONE, CompressionType.LZ4), rocksdbConfig.compressionPerLevel());
    }
 }
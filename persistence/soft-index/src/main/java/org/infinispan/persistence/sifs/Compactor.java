@@ -8,6 +8,7 @@
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.util.TimeService;
@@ -19,9 +20,12 @@
  * becomes cluttered with old records, the valid records are moved to another file and the old ones are dropped.
  * Expired records are moved as tombstones without values (records of entry removal).
  *
+ * The scheduled files are compacted by a configurable number of worker threads. Each worker compacts a single file at
+ * a time into its own output file, and the reads of all the workers are throttled by a common rate limit.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
-class Compactor extends Thread {
+class Compactor {
    private static final Log log = LogFactory.getLog(Compactor.class);
    private static final boolean trace = log.isTraceEnabled();
 
@@ -34,6 +38,14 @@ class Compactor extends Thread {
    private final TimeService timeService;
    private final int maxFileSize;
    private final double compactionThreshold;
+   private final long rateLimit;
+   private final Worker[] workers;
+   private final AtomicLong nextPermit = new AtomicLong(System.nanoTime());
+   private final AtomicInteger activeCompactions = new AtomicInteger();
+   private final AtomicLong compactedFiles = new AtomicLong();
+   private final AtomicLong bytesRead = new AtomicLong();
+   private final AtomicLong bytesWritten = new AtomicLong();
+   private final AtomicLong bytesReclaimed = new AtomicLong();
 
    private Index index;
    // as processing single scheduled compaction takes a lot of time, we don't use the queue to signalize
@@ -46,8 +58,8 @@ class Compactor extends Thread {
    public Compactor(FileProvider fileProvider,
                     TemporaryTable temporaryTable,
                     BlockingQueue<IndexRequest> indexQueue,
-                    Marshaller marshaller, TimeService timeService, int maxFileSize, double compactionThreshold) {
-      super("BCS-Compactor");
+                    Marshaller marshaller, TimeService timeService, int maxFileSize, double compactionThreshold,
+                    int threads, long rateLimit) {
       this.fileProvider = fileProvider;
       this.temporaryTable = temporaryTable;
       this.indexQueue = indexQueue;
@@ -55,7 +67,12 @@ public Compactor(FileProvider fileProvider,
       this.timeService = timeService;
       this.maxFileSize = maxFileSize;
       this.compactionThreshold = compactionThreshold;
-      this.start();
+      this.rateLimit = rateLimit;
+      this.workers = new Worker[threads];
+      for (int i = 0; i < threads; ++i) {
+         workers[i] = new Worker(threads == 1 ? "BCS-Compactor" : "BCS-Compactor-" + i);
+         workers[i].start();
+      }
    }
 
    public void setIndex(Index index) {
@@ -122,191 +139,257 @@ private void schedule(int file, Stats stats) {
       }
    }
 
-   @Override
-   public void run() {
-      try {
-         FileProvider.Log logFile = null;
-         int currentOffset = 0;
-         for(;;) {
-            Integer scheduledFile = null;
-            try {
-               scheduledFile = scheduledCompaction.poll(1, TimeUnit.MINUTES);
-            } catch (InterruptedException e) {
-            }
-            if (terminateSignal) {
-               if (logFile != null) {
-                  logFile.close();
-                  completeFile(logFile.fileId);
+   /**
+    * Number of files scheduled for compaction or being compacted.
+    */
+   public int getBacklog() {
+      return scheduledCompaction.size() + activeCompactions.get();
+   }
+
+   public long getCompactedFiles() {
+      return compactedFiles.get();
+   }
+
+   public long getBytesRead() {
+      return bytesRead.get();
+   }
+
+   public long getBytesWritten() {
+      return bytesWritten.get();
+   }
+
+   /**
+    * Size of the compacted files minus the size of the records moved from them to other files.
+    */
+   public long getBytesReclaimed() {
+      return bytesReclaimed.get();
+   }
+
+   /**
+    * Blocks until the records of given length can be read without exceeding the rate limit of all the workers.
+    */
+   private void throttle(int length) throws InterruptedException {
+      if (rateLimit <= 0) {
+         return;
+      }
+      long cost = length * TimeUnit.SECONDS.toNanos(1) / rateLimit;
+      long now = System.nanoTime();
+      long permit;
+      for (;;) {
+         long next = nextPermit.get();
+         // the time when no worker was reading does not accumulate into a burst
+         permit = Math.max(next, now);
+         if (nextPermit.compareAndSet(next, permit + cost)) {
+            break;
+         }
+      }
+      if (permit > now) {
+         TimeUnit.NANOSECONDS.sleep(permit - now);
+      }
+   }
+
+   private class Worker extends Thread {
+      private Worker(String name) {
+         super(name);
+      }
+
+      @Override
+      public void run() {
+         try {
+            FileProvider.Log logFile = null;
+            int currentOffset = 0;
+            for(;;) {
+               Integer scheduledFile = null;
+               try {
+                  scheduledFile = scheduledCompaction.poll(1, TimeUnit.MINUTES);
+               } catch (InterruptedException e) {
                }
-               break;
-            }
-            if (clearSignal) {
-               pauseCompactor(logFile);
-               logFile = null;
-               continue;
-            }
-            if (scheduledFile == null) {
-               if (logFile != null) {
-                  logFile.close();
-                  completeFile(logFile.fileId);
+               if (terminateSignal) {
+                  if (logFile != null) {
+                     logFile.close();
+                     completeFile(logFile.fileId);
+                  }
+                  break;
+               }
+               if (clearSignal) {
+                  pauseCompactor(logFile);
                   logFile = null;
+                  continue;
                }
-               continue;
-            }
-
-            log.debugf("Compacting file %d", scheduledFile);
-            int scheduledOffset = 0;
-            FileProvider.Handle handle = fileProvider.getFile(scheduledFile);
-            if (handle == null) {
-               throw new IllegalStateException("Compactor should not get deleted file for compaction!");
-            }
-            try {
-               while (!clearSignal && !terminateSignal) {
-                  EntryHeader header = EntryRecord.readEntryHeader(handle, scheduledOffset);
-                  if (header == null) {
-                     break;
+               if (scheduledFile == null) {
+                  if (logFile != null) {
+                     logFile.close();
+                     completeFile(logFile.fileId);
+                     logFile = null;
                   }
-                  byte[] serializedKey = EntryRecord.readKey(handle, header, scheduledOffset);
-                  Object key = marshaller.objectFromByteBuffer(serializedKey);
-
-                  int indexedOffset = header.valueLength() > 0 ? scheduledOffset : ~scheduledOffset;
-                  boolean drop = true;
-                  boolean truncate = false;
-                  EntryPosition entry = temporaryTable.get(key);
-                  if (entry != null) {
-                     synchronized (entry) {
-                        if (trace) {
-                           log.tracef("Key for %d:%d was found in temporary table on %d:%d",
-                                 scheduledFile, scheduledOffset, entry.file, entry.offset);
-                        }
-                        if (entry.file == scheduledFile && entry.offset == indexedOffset) {
-                           // It's quite unlikely that we would compact a record that is not indexed yet,
-                           // but let's handle that
-                           if (header.expiryTime() >= 0 && header.expiryTime() <= timeService.wallClockTime()) {
+                  continue;
+               }
+
+               log.debugf("Compacting file %d", scheduledFile);
+               activeCompactions.incrementAndGet();
+               int scheduledOffset = 0;
+               long movedBytes = 0;
+               long fileSize;
+               FileProvider.Handle handle = fileProvider.getFile(scheduledFile);
+               if (handle == null) {
+                  throw new IllegalStateException("Compactor should not get deleted file for compaction!");
+               }
+               try {
+                  fileSize = handle.getFileSize();
+                  while (!clearSignal && !terminateSignal) {
+                     EntryHeader header = EntryRecord.readEntryHeader(handle, scheduledOffset);
+                     if (header == null) {
+                        break;
+                     }
+                     throttle(header.totalLength());
+                     bytesRead.addAndGet(header.totalLength());
+                     byte[] serializedKey = EntryRecord.readKey(handle, header, scheduledOffset);
+                     Object key = marshaller.objectFromByteBuffer(serializedKey);
+
+                     int indexedOffset = header.valueLength() > 0 ? scheduledOffset : ~scheduledOffset;
+                     boolean drop = true;
+                     boolean truncate = false;
+                     EntryPosition entry = temporaryTable.get(key);
+                     if (entry != null) {
+                        synchronized (entry) {
+                           if (trace) {
+                              log.tracef("Key for %d:%d was found in temporary table on %d:%d",
+                                    scheduledFile, scheduledOffset, entry.file, entry.offset);
+                           }
+                           if (entry.file == scheduledFile && entry.offset == indexedOffset) {
+                              // It's quite unlikely that we would compact a record that is not indexed yet,
+                              // but let's handle that
+                              if (header.expiryTime() >= 0 && header.expiryTime() <= timeService.wallClockTime()) {
+                                 truncate = true;
+                              }
+                           } else {
                               truncate = true;
                            }
-                        } else {
-                           truncate = true;
-                        }
-                     }
-                     // When we have found the entry in temporary table, it's possible that the delete operation
-                     // (that was recorded in temporary table) will arrive to index after DROPPED - in that case
-                     // we could remove the entry and delete would not find it
-                     drop = false;
-                  } else {
-                     EntryInfo info = index.getInfo(key, serializedKey);
-                     assert info != null : String.format("Index does not recognize entry on %d:%d");
-                     assert info.numRecords > 0;
-                     if (info.file == scheduledFile && info.offset == scheduledOffset) {
-                        assert header.valueLength() > 0;
-                        // live record with data
-                        truncate = header.expiryTime() >= 0 && header.expiryTime() <= timeService.wallClockTime();
-                        if (trace) {
-                           log.tracef("Is %d:%d expired? %s, numRecords? %d", scheduledFile, scheduledOffset, truncate, info.numRecords);
-                        }
-                        if (!truncate || info.numRecords > 1) {
-                           drop = false;
                         }
-                        // Drop only when it is expired and has single record
-                     } else if (info.file == scheduledFile && info.offset == ~scheduledOffset && info.numRecords > 1) {
-                        // just tombstone but there are more non-compacted records for this key so we have to keep it
+                        // When we have found the entry in temporary table, it's possible that the delete operation
+                        // (that was recorded in temporary table) will arrive to index after DROPPED - in that case
+                        // we could remove the entry and delete would not find it
                         drop = false;
-                     } else if (trace) {
-                        log.tracef("Key for %d:%d was found in index on %d:%d, %d record => drop",
-                              scheduledFile, scheduledOffset, info.file, info.offset, info.numRecords);
-                     }
-                  }
-                  if (drop) {
-                     if (trace) {
-                        log.tracef("Drop %d:%d (%s)", scheduledFile, (Object)scheduledOffset,
-                              header.valueLength() > 0 ? "record" : "tombstone");
-                     }
-                     indexQueue.put(IndexRequest.dropped(key, serializedKey, scheduledFile, scheduledOffset));
-                  } else {
-                     if (logFile == null || currentOffset + header.totalLength() > maxFileSize) {
-                        if (logFile != null) {
-                           logFile.close();
-                           completeFile(logFile.fileId);
-                        }
-                        currentOffset = 0;
-                        logFile = fileProvider.getFileForLog();
-                        log.debugf("Compacting to %d", (Object) logFile.fileId);
-                     }
-
-                     byte[] serializedValue = null;
-                     byte[] serializedMetadata = null;
-                     int entryOffset;
-                     int writtenLength;
-                     if (header.valueLength() > 0 && !truncate) {
-                        if (header.metadataLength() > 0) {
-                           serializedMetadata = EntryRecord.readMetadata(handle, header, scheduledOffset);
-                        }
-                        serializedValue = EntryRecord.readValue(handle, header, scheduledOffset);
-                        entryOffset = currentOffset;
-                        writtenLength = header.totalLength();
                      } else {
-                        entryOffset = ~currentOffset;
-                        writtenLength = EntryHeader.HEADER_SIZE + header.keyLength();
+                        EntryInfo info = index.getInfo(key, serializedKey);
+                        assert info != null : String.format("Index does not recognize entry on %d:%d");
+                        assert info.numRecords > 0;
+                        if (info.file == scheduledFile && info.offset == scheduledOffset) {
+                           assert header.valueLength() > 0;
+                           // live record with data
+                           truncate = header.expiryTime() >= 0 && header.expiryTime() <= timeService.wallClockTime();
+                           if (trace) {
+                              log.tracef("Is %d:%d expired? %s, numRecords? %d", scheduledFile, scheduledOffset, truncate, info.numRecords);
+                           }
+                           if (!truncate || info.numRecords > 1) {
+                              drop = false;
+                           }
+                           // Drop only when it is expired and has single record
+                        } else if (info.file == scheduledFile && info.offset == ~scheduledOffset && info.numRecords > 1) {
+                           // just tombstone but there are more non-compacted records for this key so we have to keep it
+                           drop = false;
+                        } else if (trace) {
+                           log.tracef("Key for %d:%d was found in index on %d:%d, %d record => drop",
+                                 scheduledFile, scheduledOffset, info.file, info.offset, info.numRecords);
+                        }
                      }
-                     EntryRecord.writeEntry(logFile.fileChannel, serializedKey, serializedMetadata, serializedValue, header.seqId(), header.expiryTime());
-                     TemporaryTable.LockedEntry lockedEntry = temporaryTable.replaceOrLock(key, logFile.fileId, entryOffset, scheduledFile, indexedOffset);
-                     if (lockedEntry == null) {
+                     if (drop) {
                         if (trace) {
-                           log.trace("Found entry in temporary table");
+                           log.tracef("Drop %d:%d (%s)", scheduledFile, (Object)scheduledOffset,
+                                 header.valueLength() > 0 ? "record" : "tombstone");
                         }
+                        indexQueue.put(IndexRequest.dropped(key, serializedKey, scheduledFile, scheduledOffset));
                      } else {
-                        boolean update = false;
-                        try {
-                           EntryInfo info = index.getInfo(key, serializedKey);
-                           if (info == null) {
-                              throw new IllegalStateException(String.format(
-                                    "%s was not found in index but it was not in temporary table and there's entry on %d:%d", key, scheduledFile, indexedOffset));
-                           } else {
-                              update = info.file == scheduledFile && info.offset == indexedOffset;
+                        if (logFile == null || currentOffset + header.totalLength() > maxFileSize) {
+                           if (logFile != null) {
+                              logFile.close();
+                              completeFile(logFile.fileId);
                            }
+                           currentOffset = 0;
+                           logFile = fileProvider.getFileForLog();
+                           log.debugf("Compacting to %d", (Object) logFile.fileId);
+                        }
+
+                        byte[] serializedValue = null;
+                        byte[] serializedMetadata = null;
+                        int entryOffset;
+                        int writtenLength;
+                        if (header.valueLength() > 0 && !truncate) {
+                           if (header.metadataLength() > 0) {
+                              serializedMetadata = EntryRecord.readMetadata(handle, header, scheduledOffset);
+                           }
+                           serializedValue = EntryRecord.readValue(handle, header, scheduledOffset);
+                           entryOffset = currentOffset;
+                           writtenLength = header.totalLength();
+                        } else {
+                           entryOffset = ~currentOffset;
+                           writtenLength = EntryHeader.HEADER_SIZE + header.keyLength();
+                        }
+                        EntryRecord.writeEntry(logFile.fileChannel, serializedKey, serializedMetadata, serializedValue, header.seqId(), header.expiryTime());
+                        TemporaryTable.LockedEntry lockedEntry = temporaryTable.replaceOrLock(key, logFile.fileId, entryOffset, scheduledFile, indexedOffset);
+                        if (lockedEntry == null) {
                            if (trace) {
-                              log.tracef("In index the key is on %d:%d (%s)", info.file, info.offset, String.valueOf(update));
+                              log.trace("Found entry in temporary table");
                            }
-                        } finally {
-                           if (update) {
-                              temporaryTable.updateAndUnlock(lockedEntry, logFile.fileId, entryOffset);
-                           } else {
-                              temporaryTable.removeAndUnlock(lockedEntry, key);
+                        } else {
+                           boolean update = false;
+                           try {
+                              EntryInfo info = index.getInfo(key, serializedKey);
+                              if (info == null) {
+                                 throw new IllegalStateException(String.format(
+                                       "%s was not found in index but it was not in temporary table and there's entry on %d:%d", key, scheduledFile, indexedOffset));
+                              } else {
+                                 update = info.file == scheduledFile && info.offset == indexedOffset;
+                              }
+                              if (trace) {
+                                 log.tracef("In index the key is on %d:%d (%s)", info.file, info.offset, String.valueOf(update));
+                              }
+                           } finally {
+                              if (update) {
+                                 temporaryTable.updateAndUnlock(lockedEntry, logFile.fileId, entryOffset);
+                              } else {
+                                 temporaryTable.removeAndUnlock(lockedEntry, key);
+                              }
                            }
                         }
-                     }
-                     if (trace) {
-                        log.tracef("Update %d:%d -> %d:%d | %d,%d", scheduledFile, indexedOffset,
-                              logFile.fileId, entryOffset, logFile.fileChannel.position(), logFile.fileChannel.size());
-                     }
-                     // entryFile cannot be used as we have to report the file due to free space statistics
-                     indexQueue.put(IndexRequest.moved(key, serializedKey, logFile.fileId, entryOffset, writtenLength,
-                           scheduledFile, indexedOffset));
+                        if (trace) {
+                           log.tracef("Update %d:%d -> %d:%d | %d,%d", scheduledFile, indexedOffset,
+                                 logFile.fileId, entryOffset, logFile.fileChannel.position(), logFile.fileChannel.size());
+                        }
+                        // entryFile cannot be used as we have to report the file due to free space statistics
+                        indexQueue.put(IndexRequest.moved(key, serializedKey, logFile.fileId, entryOffset, writtenLength,
+                              scheduledFile, indexedOffset));
 
-                     currentOffset += writtenLength;
+                        currentOffset += writtenLength;
+                        movedBytes += writtenLength;
+                        bytesWritten.addAndGet(writtenLength);
+                     }
+                     scheduledOffset += header.totalLength();
                   }
-                  scheduledOffset += header.totalLength();
+               } finally {
+                  handle.close();
+                  activeCompactions.decrementAndGet();
                }
-            } finally {
-               handle.close();
-            }
-            if (terminateSignal) {
-               if (logFile != null) {
-                  logFile.close();
-                  completeFile(logFile.fileId);
+               if (terminateSignal) {
+                  if (logFile != null) {
+                     logFile.close();
+                     completeFile(logFile.fileId);
+                  }
+                  return;
+               } else if (clearSignal) {
+                  pauseCompactor(logFile);
+                  logFile = null;
+               } else {
+                  // The deletion must be executed only after the index is fully updated.
+                  log.debugf("Finished compacting %d, scheduling delete", scheduledFile);
+                  indexQueue.put(IndexRequest.deleteFileRequest(scheduledFile));
+                  compactedFiles.incrementAndGet();
+                  bytesReclaimed.addAndGet(fileSize - movedBytes);
                }
-               return;
-            } else if (clearSignal) {
-               pauseCompactor(logFile);
-               logFile = null;
-            } else {
-               // The deletion must be executed only after the index is fully updated.
-               log.debugf("Finished compacting %d, scheduling delete", scheduledFile);
-               indexQueue.put(IndexRequest.deleteFileRequest(scheduledFile));
             }
+         } catch (Exception e) {
+            log.error("Compactor failed.", e);
          }
-      } catch (Exception e) {
-         log.error("Compactor failed.", e);
       }
    }
 
@@ -321,9 +404,12 @@ private void pauseCompactor(FileProvider.Log logFile) throws IOException, Interr
 
    public void clearAndPause() throws InterruptedException {
       compactorResume = new CountDownLatch(1);
-      compactorStop = new CountDownLatch(1);
+      compactorStop = new CountDownLatch(workers.length);
       clearSignal = true;
-      scheduledCompaction.put(-1);
+      // wake up all the workers waiting for a scheduled file
+      for (int i = 0; i < workers.length; ++i) {
+         scheduledCompaction.put(-1);
+      }
       compactorStop.await();
       scheduledCompaction.clear();
       fileStats.clear();
@@ -336,8 +422,12 @@ public void resumeAfterPause() {
 
    public void stopOperations() throws InterruptedException {
       terminateSignal = true;
-      scheduledCompaction.put(-1);
-      this.join();
+      for (int i = 0; i < workers.length; ++i) {
+         scheduledCompaction.put(-1);
+      }
+      for (Worker worker : workers) {
+         worker.join();
+      }
    }
 
    private static class Stats {
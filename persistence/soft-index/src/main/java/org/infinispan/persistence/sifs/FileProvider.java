@@ -6,7 +6,10 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -16,8 +19,10 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 import org.infinispan.util.logging.LogFactory;
 
@@ -25,13 +30,21 @@
  * Provides resource management for files - only limited amount of files may be opened in one moment, and opened file
  * should not be deleted. Also allows to generate file indexes.
  *
+ * Files which are no longer appended to may be memory mapped when opened, up to a limit of mapped bytes, so that reading
+ * them doesn't need a system call. The mapping is released as soon as the file is closed, which happens only once it
+ * has no handles left; if the JVM doesn't allow that, the files are never mapped.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 class FileProvider {
    private static final org.infinispan.util.logging.Log log = LogFactory.getLog(FileProvider.class);
+   // releases the mapping of a buffer right away instead of once it is garbage collected, null if not supported
+   private static final Consumer<MappedByteBuffer> UNMAPPER = unmapper();
 
    private final File dataDir;
    private final int openFileLimit;
+   private final long mappedBytesLimit;
+   private final AtomicLong mappedBytes = new AtomicLong();
    private final ArrayBlockingQueue<Record> recordQueue;
    private final ConcurrentMap<Integer, Record> openFiles = new ConcurrentHashMap<Integer, Record>();
    private final AtomicInteger currentOpenFiles = new AtomicInteger(0);
@@ -40,8 +53,9 @@ class FileProvider {
 
    private int nextFileId = 0;
 
-   public FileProvider(String dataDir, int openFileLimit) {
+   public FileProvider(String dataDir, int openFileLimit, long mappedBytesLimit) {
       this.openFileLimit = openFileLimit;
+      this.mappedBytesLimit = mappedBytesLimit;
       this.recordQueue = new ArrayBlockingQueue<Record>(openFileLimit);
       this.dataDir = new File(dataDir);
       this.dataDir.mkdirs();
@@ -74,10 +88,19 @@ public Handle getFile(int fileId) throws IOException {
                      log.debug("File " + fileId + " was not found", e);
                      return null;
                   }
-                  Record newRecord = new Record(fileChannel, fileId);
+                  MappedByteBuffer mappedBuffer;
+                  try {
+                     mappedBuffer = map(fileId, fileChannel);
+                  } catch (IOException e) {
+                     fileChannel.close();
+                     currentOpenFiles.decrementAndGet();
+                     throw e;
+                  }
+                  Record newRecord = new Record(fileChannel, mappedBuffer, fileId);
                   Record other = openFiles.putIfAbsent(fileId, newRecord);
                   if (other != null) {
-                     fileChannel.close();
+                     // another thread opened the file concurrently, release our mapping along with the channel
+                     newRecord.closeChannel();
                      synchronized (other) {
                         if (other.isOpen()) {
                            // we have allocated opening a new file but then we use an old one
@@ -153,6 +176,68 @@ private boolean tryCloseFile() throws IOException {
       return false;
    }
 
+   /**
+    * Maps the file if it is no longer appended to and it fits in the limit of mapped bytes, otherwise returns null.
+    */
+   private MappedByteBuffer map(int fileId, FileChannel fileChannel) throws IOException {
+      if (mappedBytesLimit <= 0 || UNMAPPER == null || logFiles.contains(fileId)) {
+         return null;
+      }
+      long size = fileChannel.size();
+      for (;;) {
+         long mapped = mappedBytes.get();
+         if (mapped + size > mappedBytesLimit) {
+            return null;
+         }
+         if (mappedBytes.compareAndSet(mapped, mapped + size)) {
+            break;
+         }
+      }
+      try {
+         return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      } catch (IOException e) {
+         mappedBytes.addAndGet(-size);
+         log.debug("Cannot map file " + fileId + ", reading it through the channel", e);
+         return null;
+      }
+   }
+
+   private static Consumer<MappedByteBuffer> unmapper() {
+      try {
+         // Java 9+
+         Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+         Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+         Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+         theUnsafe.setAccessible(true);
+         Object unsafe = theUnsafe.get(null);
+         return buffer -> invoke(invokeCleaner, unsafe, buffer);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+         // Java 8
+      }
+      try {
+         Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+         Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+         return buffer -> {
+            // empty buffers don't have a cleaner
+            Object bufferCleaner = invoke(cleaner, buffer);
+            if (bufferCleaner != null) {
+               invoke(clean, bufferCleaner);
+            }
+         };
+      } catch (ReflectiveOperationException | RuntimeException e) {
+         log.debug("Cannot unmap the files, they won't be memory mapped", e);
+         return null;
+      }
+   }
+
+   private static Object invoke(Method method, Object target, Object... args) {
+      try {
+         return method.invoke(target, args);
+      } catch (ReflectiveOperationException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
    protected FileChannel openChannel(int fileId) throws FileNotFoundException {
       return new RandomAccessFile(new File(dataDir, String.valueOf(fileId)), "r").getChannel();
    }
@@ -212,7 +297,7 @@ public void deleteFile(int fileId) {
       lock.readLock().lock();
       try {
          for (;;) {
-            Record newRecord = new Record(null, fileId);
+            Record newRecord = new Record(null, null, fileId);
             Record record = openFiles.putIfAbsent(fileId, newRecord);
             if (record == null) {
                newRecord.delete();
@@ -288,6 +373,18 @@ private Handle(Record record) {
 
       public int read(ByteBuffer buffer, long offset) throws IOException {
          if (!usable) throw new IllegalStateException();
+         MappedByteBuffer mappedBuffer = record.getMappedBuffer();
+         if (mappedBuffer != null) {
+            if (offset >= mappedBuffer.capacity()) {
+               return -1;
+            }
+            ByteBuffer source = mappedBuffer.duplicate();
+            source.position((int) offset);
+            source.limit((int) Math.min(mappedBuffer.capacity(), offset + buffer.remaining()));
+            int read = source.remaining();
+            buffer.put(source);
+            return read;
+         }
          return record.getFileChannel().read(buffer, offset);
       }
 
@@ -311,11 +408,13 @@ public int getFileId() {
    private class Record {
       private final int fileId;
       private FileChannel fileChannel;
+      private MappedByteBuffer mappedBuffer;
       private int handleCount;
       private boolean deleteOnClose = false;
 
-      private Record(FileChannel fileChannel, int fileId) {
+      private Record(FileChannel fileChannel, MappedByteBuffer mappedBuffer, int fileId) {
          this.fileChannel = fileChannel;
+         this.mappedBuffer = mappedBuffer;
          this.fileId = fileId;
       }
 
@@ -323,6 +422,21 @@ FileChannel getFileChannel() {
          return fileChannel;
       }
 
+      MappedByteBuffer getMappedBuffer() {
+         return mappedBuffer;
+      }
+
+      private void closeChannel() throws IOException {
+         fileChannel.close();
+         fileChannel = null;
+         if (mappedBuffer != null) {
+            // there are no handles left (or the record was never published), so nobody reads the buffer anymore
+            UNMAPPER.accept(mappedBuffer);
+            mappedBytes.addAndGet(-mappedBuffer.capacity());
+            mappedBuffer = null;
+         }
+      }
+
       void increaseHandleCount() {
          handleCount++;
       }
@@ -332,8 +446,7 @@ void decreaseHandleCount() throws IOException {
          if (handleCount == 0 && deleteOnClose) {
             // we cannot easily remove the record from queue - keep it there until collection,
             // but physically close and delete the file
-            fileChannel.close();
-            fileChannel = null;
+            closeChannel();
             openFiles.remove(fileId, this);
             delete();
          }
@@ -352,8 +465,7 @@ public int getFileId() {
       }
 
       public void close() throws IOException {
-         fileChannel.close();
-         fileChannel = null;
+         closeChannel();
          if (deleteOnClose) {
             delete();
          }
@@ -367,8 +479,7 @@ public void delete() {
       public void deleteOnClose() throws IOException {
          if (handleCount == 0) {
             if (fileChannel != null) {
-               fileChannel.close();
-               fileChannel = null;
+               closeChannel();
             }
             openFiles.remove(fileId, this);
             delete();
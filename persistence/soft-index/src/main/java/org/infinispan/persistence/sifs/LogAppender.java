@@ -1,6 +1,8 @@
 package org.infinispan.persistence.sifs;
 
+import java.io.IOException;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.util.logging.Log;
@@ -11,6 +13,9 @@
  * It writes the records to append-only log files, inserts the entry position into TemporaryTable and queues the position
  * to be persisted in Index.
  *
+ * With sync writes the records appended since the last fsync form a group, which is fsynced by a single
+ * {@link java.nio.channels.FileChannel#force(boolean)} before the writers of the whole group are released.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 public class LogAppender extends Thread {
@@ -19,18 +24,26 @@ public class LogAppender extends Thread {
    private final SyncProcessingQueue<LogRequest> queue;
    private final BlockingQueue<IndexRequest> indexQueue;
    private final boolean syncWrites;
+   private final long groupCommitMaxLatency;
+   private final int groupCommitMaxBytes;
    private final TemporaryTable temporaryTable;
    private final int maxFileSize;
    private final Compactor compactor;
    private final FileProvider fileProvider;
    private LogRequest pausedRequest;
    private long seqId = 0;
+   private int unsyncedBytes = 0;
+   private long groupStart;
+   private volatile long bytesAppended = 0;
+   // the file id in the high and the offset in the low bits of the end of the records fsynced so far
+   private volatile long syncedPosition = -1;
 
    LogAppender(SyncProcessingQueue<LogRequest> inboundQueue,
                BlockingQueue<IndexRequest> indexQueue,
                TemporaryTable temporaryTable,
                Compactor compactor,
-               FileProvider fileProvider, boolean syncWrites, int maxFileSize) {
+               FileProvider fileProvider, boolean syncWrites, long groupCommitMaxLatency, int groupCommitMaxBytes,
+               int maxFileSize) {
       super("BCS-LogAppender");
       this.setDaemon(true);
       this.queue = inboundQueue;
@@ -39,10 +52,27 @@ public class LogAppender extends Thread {
       this.compactor = compactor;
       this.fileProvider = fileProvider;
       this.syncWrites = syncWrites;
+      this.groupCommitMaxLatency = TimeUnit.MILLISECONDS.toNanos(groupCommitMaxLatency);
+      this.groupCommitMaxBytes = groupCommitMaxBytes;
       this.maxFileSize = maxFileSize;
       start();
    }
 
+   /**
+    * Number of bytes of the records appended to the log files, not counting the records moved by the compactor.
+    */
+   public long getBytesAppended() {
+      return bytesAppended;
+   }
+
+   /**
+    * Whether the record at the given position is within the part of the log file fsynced last.
+    */
+   boolean isSynced(int fileId, int offset) {
+      long position = syncedPosition;
+      return position >= 0 && (int) (position >>> 32) == fileId && offset < (int) position;
+   }
+
    public void setSeqId(long seqId) {
       this.seqId = seqId;
    }
@@ -72,7 +102,9 @@ public void run() {
          while (true) {
             LogRequest request = queue.pop();
             if (request != null) {
+               // the writes appended so far must be durable before their writers are released
                if (request.isClear()) {
+                  sync(logFile, currentOffset);
                   logFile.close();
                   queue.notifyNoWait();
                   request.pause();
@@ -81,15 +113,18 @@ public void run() {
                   log.debug("Appending records to " + logFile.fileId);
                   continue;
                } else if (request.isStop()) {
+                  sync(logFile, currentOffset);
                   queue.notifyNoWait();
                   break;
                } else if (request.isPause()) {
+                  sync(logFile, currentOffset);
                   queue.notifyNoWait();
                   request.pause();
                   continue;
                }
                if (currentOffset + request.length() > maxFileSize) {
                   // switch to next file
+                  sync(logFile, currentOffset);
                   logFile.close();
                   compactor.completeFile(logFile.fileId);
                   currentOffset = 0;
@@ -105,10 +140,27 @@ public void run() {
                request.setIndexRequest(indexRequest);
                indexQueue.put(indexRequest);
                currentOffset += request.length();
-            } else {
+               // only this thread updates the counter
+               bytesAppended += request.length();
                if (syncWrites) {
-                  logFile.fileChannel.force(false);
+                  if (unsyncedBytes == 0) {
+                     groupStart = System.nanoTime();
+                  }
+                  unsyncedBytes += request.length();
+                  if (isGroupComplete()) {
+                     sync(logFile, currentOffset);
+                     queue.notifyNoWait();
+                  }
                }
+            } else {
+               if (unsyncedBytes > 0 && groupCommitMaxLatency > 0) {
+                  // give other writers the chance to join the group before the fsync
+                  long remaining = groupCommitMaxLatency - (System.nanoTime() - groupStart);
+                  if (remaining > 0 && queue.awaitPush(remaining)) {
+                     continue;
+                  }
+               }
+               sync(logFile, currentOffset);
                queue.notifyAndWait();
             }
          }
@@ -118,6 +170,19 @@ public void run() {
       }
    }
 
+   private boolean isGroupComplete() {
+      return (groupCommitMaxBytes > 0 && unsyncedBytes >= groupCommitMaxBytes)
+            || (groupCommitMaxLatency > 0 && System.nanoTime() - groupStart >= groupCommitMaxLatency);
+   }
+
+   private void sync(FileProvider.Log logFile, int currentOffset) throws IOException {
+      if (unsyncedBytes > 0) {
+         logFile.fileChannel.force(false);
+         unsyncedBytes = 0;
+         syncedPosition = ((long) logFile.fileId << 32) | currentOffset;
+      }
+   }
+
    private byte[] raw(ByteBuffer buffer) {
       if (buffer.getBuf().length == buffer.getLength()) {
          return buffer.getBuf();
@@ -1,7 +1,9 @@
 package org.infinispan.persistence.sifs;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -102,6 +104,7 @@ public class SoftIndexFileStore implements AdvancedLoadWriteStore {
    private static final Log log = LogFactory.getLog(SoftIndexFileStore.class);
    private static final boolean trace = log.isTraceEnabled();
 
+   private InitializationContext ctx;
    private SoftIndexFileStoreConfiguration configuration;
    private boolean started = false;
    private TemporaryTable temporaryTable;
@@ -120,6 +123,7 @@ public class SoftIndexFileStore implements AdvancedLoadWriteStore {
 
    @Override
    public void init(InitializationContext ctx) {
+      this.ctx = ctx;
       configuration = ctx.getConfiguration();
       marshaller = ctx.getMarshaller();
       marshalledEntryFactory = ctx.getMarshalledEntryFactory();
@@ -138,9 +142,11 @@ public void start() {
       temporaryTable = new TemporaryTable(configuration.indexQueueLength() * configuration.indexSegments(), keyEquivalence);
       storeQueue = new SyncProcessingQueue<LogRequest>();
       indexQueue = new IndexQueue(configuration.indexSegments(), configuration.indexQueueLength(), keyEquivalence);
-      fileProvider = new FileProvider(configuration.dataLocation(), configuration.openFilesLimit());
-      compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(), configuration.compactionThreshold());
-      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(), configuration.maxFileSize());
+      fileProvider = new FileProvider(configuration.dataLocation(), configuration.openFilesLimit(), configuration.mappedBytesLimit());
+      compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(), configuration.compactionThreshold(),
+            configuration.compactionThreads(), configuration.compactionRateLimit());
+      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(),
+            configuration.groupCommitMaxLatency(), configuration.groupCommitMaxBytes(), configuration.maxFileSize());
       try {
          index = new Index(fileProvider, configuration.indexLocation(), configuration.indexSegments(),
                configuration.minNodeSize(), configuration.maxNodeSize(),
@@ -189,6 +195,18 @@ public void afterFile(int file) {
          });
       }
       logAppender.setSeqId(maxSeqId.get() + 1);
+      if (ctx.getCache().getCacheConfiguration().jmxStatistics().enabled()) {
+         ctx.getCache().getAdvancedCache().getComponentRegistry()
+               .registerComponent(new SoftIndexFileStoreStatistics(this), SoftIndexFileStoreStatistics.class);
+      }
+   }
+
+   Compactor getCompactor() {
+      return compactor;
+   }
+
+   LogAppender getLogAppender() {
+      return logAppender;
    }
 
    protected boolean isSeqIdOld(long seqId, Object key, byte[] serializedKey) throws IOException {
@@ -301,6 +319,30 @@ public void purge(Executor threadPool, PurgeListener listener) {
 
    @Override
    public void write(MarshalledEntry entry) {
+      checkKeyLength(entry);
+      try {
+         storeQueue.pushAndWait(LogRequest.storeRequest(entry));
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   @Override
+   public void writeBatch(Iterable marshalledEntries) {
+      List<LogRequest> requests = new ArrayList<>();
+      for (Object o : marshalledEntries) {
+         MarshalledEntry entry = (MarshalledEntry) o;
+         checkKeyLength(entry);
+         requests.add(LogRequest.storeRequest(entry));
+      }
+      try {
+         storeQueue.pushAllAndWait(requests);
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   private void checkKeyLength(MarshalledEntry entry) {
       int keyLength = entry.getKeyBytes().getLength();
       if (keyLength > maxKeyLength) {
          throw new PersistenceException("Configuration 'maxNodeSize' is too low - with maxNodeSize="
@@ -310,11 +352,6 @@ public void write(MarshalledEntry entry) {
          // TODO this limitation could be removed by different key length encoding
          throw new PersistenceException("SoftIndexFileStore is limited to keys with serialized size <= 32767 bytes");
       }
-      try {
-         storeQueue.pushAndWait(LogRequest.storeRequest(entry));
-      } catch (Exception e) {
-         throw new PersistenceException(e);
-      }
    }
 
    @Override
@@ -328,6 +365,22 @@ public boolean delete(Object key) {
       }
    }
 
+   @Override
+   public void deleteBatch(Iterable keys) {
+      try {
+         List<LogRequest> requests = new ArrayList<>();
+         for (Object key : keys) {
+            requests.add(LogRequest.deleteRequest(key, toBuffer(marshaller.objectToByteBuffer(key))));
+         }
+         storeQueue.pushAllAndWait(requests);
+         for (LogRequest request : requests) {
+            request.getIndexRequest().getResult();
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
    @Override
    public boolean contains(Object key) {
       try {
@@ -0,0 +1,17 @@
+package org.infinispan.persistence.sifs;
+
+import org.infinispan.factories.components.ModuleMetadataFileFinder;
+import org.kohsuke.MetaInfServices;
+
+/**
+ * SoftIndexFileStoreMetadataFileFinder.
+ *
+ * @since 9.0
+ */
+@MetaInfServices
+public class SoftIndexFileStoreMetadataFileFinder implements ModuleMetadataFileFinder {
+   @Override
+   public String getMetadataFilename() {
+      return "infinispan-persistence-soft-index-component-metadata.dat";
+   }
+}
@@ -0,0 +1,92 @@
+package org.infinispan.persistence.sifs;
+
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Exposes the compaction statistics of a {@link SoftIndexFileStore}. The store registers it in the cache component
+ * registry when it starts with statistics enabled. All the counters are reset when the store is restarted.
+ *
+ * @since 9.0
+ */
+@MBean(objectName = "SoftIndexFileStore", description = "Statistics of the soft-index file cache store")
+public class SoftIndexFileStoreStatistics {
+   private final SoftIndexFileStore store;
+
+   SoftIndexFileStoreStatistics(SoftIndexFileStore store) {
+      this.store = store;
+   }
+
+   @ManagedAttribute(
+         description = "Number of data files scheduled for compaction or being compacted",
+         displayName = "Compaction backlog",
+         displayType = DisplayType.SUMMARY
+   )
+   public int getCompactionBacklog() {
+      Compactor compactor = store.getCompactor();
+      return compactor == null ? 0 : compactor.getBacklog();
+   }
+
+   @ManagedAttribute(
+         description = "Number of data files compacted and deleted",
+         displayName = "Compacted files",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactedFiles() {
+      Compactor compactor = store.getCompactor();
+      return compactor == null ? 0 : compactor.getCompactedFiles();
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes read from the compacted data files",
+         displayName = "Compaction bytes read",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactionBytesRead() {
+      Compactor compactor = store.getCompactor();
+      return compactor == null ? 0 : compactor.getBytesRead();
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes of the live records moved by the compaction to new data files",
+         displayName = "Compaction bytes written",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactionBytesWritten() {
+      Compactor compactor = store.getCompactor();
+      return compactor == null ? 0 : compactor.getBytesWritten();
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes of disk space released by the compaction",
+         displayName = "Compaction bytes reclaimed",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactionBytesReclaimed() {
+      Compactor compactor = store.getCompactor();
+      return compactor == null ? 0 : compactor.getBytesReclaimed();
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes appended to the data files by the writes of the cache",
+         displayName = "Bytes appended",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getBytesAppended() {
+      LogAppender logAppender = store.getLogAppender();
+      return logAppender == null ? 0 : logAppender.getBytesAppended();
+   }
+
+   @ManagedAttribute(
+         description = "Ratio of the bytes written to the data files, including the compaction, to the bytes appended by the writes of the cache",
+         displayName = "Write amplification",
+         displayType = DisplayType.SUMMARY
+   )
+   public double getWriteAmplification() {
+      long appended = getBytesAppended();
+      return appended == 0 ? 0 : (double) (appended + getCompactionBytesWritten()) / appended;
+   }
+}
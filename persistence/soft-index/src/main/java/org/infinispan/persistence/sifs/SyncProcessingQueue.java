@@ -1,6 +1,8 @@
 package org.infinispan.persistence.sifs;
 
 import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Multiple producer-single consumer queue. The producers are expected to call pushAndWait(),
@@ -20,6 +22,9 @@
  * // terminate producers and process the rest of the queue
  * queue.notifyNoWait();
  *
+ * The elements are processed in the order they were pushed, so that the producers released by a notification, those
+ * whose element was pushed before the last element popped, never include one whose element is still in the queue.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 public class SyncProcessingQueue<T> {
@@ -46,9 +51,27 @@ public void pushAndWait(T element) throws InterruptedException {
       waitFor(push(element));
    }
 
+   /**
+    * Pushes all elements atomically, so that the consumer processes them in the given order
+    * in as few loops as possible, and waits until the last of them has been processed.
+    */
+   public void pushAllAndWait(List<T> elements) throws InterruptedException {
+      if (elements.isEmpty()) {
+         return;
+      }
+      long lastIndex;
+      synchronized (queue) {
+         queue.addAll(elements);
+         queue.notify();
+         pushIndex += elements.size();
+         lastIndex = pushIndex;
+      }
+      waitFor(lastIndex);
+   }
+
    public long push(T element) {
       synchronized (queue) {
-         queue.push(element);
+         queue.addLast(element);
          queue.notify();
          pushIndex++;
          return pushIndex;
@@ -101,6 +124,28 @@ public void notifyAndWait() {
       }
    }
 
+   /**
+    * Waits until an element is pushed or the timeout elapses, without releasing the producers of the elements
+    * processed so far. Returns true if there is an element to pop.
+    */
+   public boolean awaitPush(long timeoutNanos) {
+      long deadline = System.nanoTime() + timeoutNanos;
+      synchronized (queue) {
+         while (queue.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+               return false;
+            }
+            try {
+               TimeUnit.NANOSECONDS.timedWait(queue, remaining);
+            } catch (InterruptedException e) {
+               return false;
+            }
+         }
+         return true;
+      }
+   }
+
    public void notifyNoWait() {
       poppedInRow = 0;
       popIndex = processorPopIndex;
@@ -11,7 +11,12 @@
 public enum Attribute {
    // must be first
    UNKNOWN(null),
+   COMPACTION_RATE_LIMIT("compaction-rate-limit"),
+   COMPACTION_THREADS("compaction-threads"),
    COMPACTION_THRESHOLD("compaction-threshold"),
+   GROUP_COMMIT_MAX_BYTES("group-commit-max-bytes"),
+   GROUP_COMMIT_MAX_LATENCY("group-commit-max-latency"),
+   MAPPED_BYTES_LIMIT("mapped-bytes-limit"),
    PATH("path"),
    INDEX_QUEUE_LENGTH("max-queue-length"),
    SEGMENTS("segments"),
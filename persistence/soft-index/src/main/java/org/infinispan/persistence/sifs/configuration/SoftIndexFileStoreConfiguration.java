@@ -25,12 +25,18 @@ public class SoftIndexFileStoreConfiguration extends AbstractStoreConfiguration
    static final AttributeDefinition<Integer> MAX_NODE_SIZE = AttributeDefinition.builder("maxNodeSize", 4096).immutable().autoPersist(false).build();
    static final AttributeDefinition<Integer> INDEX_QUEUE_LENGTH = AttributeDefinition.builder("indexQueueLength", 1000).immutable().autoPersist(false).xmlName("max-queue-length").build();
    static final AttributeDefinition<Boolean> SYNC_WRITES = AttributeDefinition.builder("syncWrites", false).immutable().autoPersist(false).build();
+   static final AttributeDefinition<Long> GROUP_COMMIT_MAX_LATENCY = AttributeDefinition.builder("groupCommitMaxLatency", 0l).immutable().autoPersist(false).build();
+   static final AttributeDefinition<Integer> GROUP_COMMIT_MAX_BYTES = AttributeDefinition.builder("groupCommitMaxBytes", 0).immutable().autoPersist(false).build();
    static final AttributeDefinition<Integer> OPEN_FILES_LIMIT = AttributeDefinition.builder("openFilesLimit", 1000).immutable().build();
+   static final AttributeDefinition<Long> MAPPED_BYTES_LIMIT = AttributeDefinition.builder("mappedBytesLimit", 0l).immutable().build();
    static final AttributeDefinition<Double> COMPACTION_THRESHOLD = AttributeDefinition.builder("compactionThreshold", 0.5d).immutable().build();
+   static final AttributeDefinition<Integer> COMPACTION_THREADS = AttributeDefinition.builder("compactionThreads", 1).immutable().build();
+   static final AttributeDefinition<Long> COMPACTION_RATE_LIMIT = AttributeDefinition.builder("compactionRateLimit", 0l).immutable().build();
 
    public static AttributeSet attributeDefinitionSet() {
       return new AttributeSet(SoftIndexFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), DATA_LOCATION, INDEX_LOCATION, INDEX_SEGMENTS, MAX_FILE_SIZE,
-            MIN_NODE_SIZE, MAX_NODE_SIZE, INDEX_QUEUE_LENGTH, SYNC_WRITES, OPEN_FILES_LIMIT, COMPACTION_THRESHOLD);
+            MIN_NODE_SIZE, MAX_NODE_SIZE, INDEX_QUEUE_LENGTH, SYNC_WRITES, GROUP_COMMIT_MAX_LATENCY, GROUP_COMMIT_MAX_BYTES, OPEN_FILES_LIMIT, MAPPED_BYTES_LIMIT, COMPACTION_THRESHOLD,
+            COMPACTION_THREADS, COMPACTION_RATE_LIMIT);
    }
 
    public SoftIndexFileStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async, SingletonStoreConfiguration singletonStore) {
@@ -69,12 +75,32 @@ public boolean syncWrites() {
       return attributes.attribute(SYNC_WRITES).get();
    }
 
+   public long groupCommitMaxLatency() {
+      return attributes.attribute(GROUP_COMMIT_MAX_LATENCY).get();
+   }
+
+   public int groupCommitMaxBytes() {
+      return attributes.attribute(GROUP_COMMIT_MAX_BYTES).get();
+   }
+
    public int openFilesLimit() {
       return attributes.attribute(OPEN_FILES_LIMIT).get();
    }
 
+   public long mappedBytesLimit() {
+      return attributes.attribute(MAPPED_BYTES_LIMIT).get();
+   }
+
    public double compactionThreshold() {
       return attributes.attribute(COMPACTION_THRESHOLD).get();
    }
 
+   public int compactionThreads() {
+      return attributes.attribute(COMPACTION_THREADS).get();
+   }
+
+   public long compactionRateLimit() {
+      return attributes.attribute(COMPACTION_RATE_LIMIT).get();
+   }
+
 }
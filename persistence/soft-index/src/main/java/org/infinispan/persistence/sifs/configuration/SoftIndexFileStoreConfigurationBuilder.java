@@ -1,16 +1,22 @@
 package org.infinispan.persistence.sifs.configuration;
 
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_RATE_LIMIT;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THREADS;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THRESHOLD;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.DATA_LOCATION;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.GROUP_COMMIT_MAX_BYTES;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.GROUP_COMMIT_MAX_LATENCY;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.INDEX_LOCATION;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.INDEX_QUEUE_LENGTH;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.INDEX_SEGMENTS;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.MAPPED_BYTES_LIMIT;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.MAX_FILE_SIZE;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.MAX_NODE_SIZE;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.MIN_NODE_SIZE;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.OPEN_FILES_LIMIT;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.SYNC_WRITES;
 
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.configuration.cache.AbstractStoreConfigurationBuilder;
 import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
@@ -63,16 +69,74 @@ public SoftIndexFileStoreConfigurationBuilder syncWrites(boolean syncWrites) {
       return this;
    }
 
+   /**
+    * With sync writes, the writes appended while the previous ones wait for the fsync are grouped and fsynced together.
+    * By default a group is fsynced as soon as no other write is waiting to be appended. With a max latency, the
+    * appender waits up to this many milliseconds after the first write of a group for other writes to join it, and
+    * fsyncs the group at the latest after that time even if more writes keep coming.
+    */
+   public SoftIndexFileStoreConfigurationBuilder groupCommitMaxLatency(long groupCommitMaxLatency) {
+      attributes.attribute(GROUP_COMMIT_MAX_LATENCY).set(groupCommitMaxLatency);
+      return this;
+   }
+
+   /**
+    * With sync writes, fsyncs a group of writes as soon as it has appended this many bytes. 0 means no limit.
+    */
+   public SoftIndexFileStoreConfigurationBuilder groupCommitMaxBytes(int groupCommitMaxBytes) {
+      attributes.attribute(GROUP_COMMIT_MAX_BYTES).set(groupCommitMaxBytes);
+      return this;
+   }
+
    public SoftIndexFileStoreConfigurationBuilder openFilesLimit(int openFilesLimit) {
       attributes.attribute(OPEN_FILES_LIMIT).set(openFilesLimit);
       return this;
    }
 
+   /**
+    * The number of bytes of the data files which can be memory mapped. The data files which are no longer written to
+    * are mapped when they are opened, as long as the total size of the mapped files stays within this limit, and the
+    * other files are read through their channels. The mapping of a file is released by the garbage collector after
+    * the file is closed. 0 disables the mapping.
+    */
+   public SoftIndexFileStoreConfigurationBuilder mappedBytesLimit(long mappedBytesLimit) {
+      attributes.attribute(MAPPED_BYTES_LIMIT).set(mappedBytesLimit);
+      return this;
+   }
+
    public SoftIndexFileStoreConfigurationBuilder compactionThreshold(double compactionThreshold) {
       attributes.attribute(COMPACTION_THRESHOLD).set(compactionThreshold);
       return this;
    }
 
+   /**
+    * Number of threads compacting the data files. Each thread compacts a different file into its own output file.
+    */
+   public SoftIndexFileStoreConfigurationBuilder compactionThreads(int compactionThreads) {
+      attributes.attribute(COMPACTION_THREADS).set(compactionThreads);
+      return this;
+   }
+
+   /**
+    * Max number of bytes per second read from the compacted files by all the compaction threads together, so that
+    * the compaction leaves enough disk throughput to the reads and writes of the cache. 0 means no limit.
+    */
+   public SoftIndexFileStoreConfigurationBuilder compactionRateLimit(long compactionRateLimit) {
+      attributes.attribute(COMPACTION_RATE_LIMIT).set(compactionRateLimit);
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      super.validate();
+      if (attributes.attribute(COMPACTION_THREADS).get() < 1) {
+         throw new CacheConfigurationException("The number of compaction threads must be at least 1");
+      }
+      if (attributes.attribute(COMPACTION_RATE_LIMIT).get() < 0) {
+         throw new CacheConfigurationException("The compaction rate limit cannot be negative");
+      }
+   }
+
    @Override
    public SoftIndexFileStoreConfiguration create() {
       return new SoftIndexFileStoreConfiguration(attributes.protect(),
@@ -74,6 +74,15 @@ private void parseSoftIndexFileStore(XMLExtendedStreamReader reader, SoftIndexFi
             case COMPACTION_THRESHOLD:
                builder.compactionThreshold(Double.parseDouble(value));
                break;
+            case COMPACTION_THREADS:
+               builder.compactionThreads(Integer.parseInt(value));
+               break;
+            case COMPACTION_RATE_LIMIT:
+               builder.compactionRateLimit(Long.parseLong(value));
+               break;
+            case MAPPED_BYTES_LIMIT:
+               builder.mappedBytesLimit(Long.parseLong(value));
+               break;
             default:
                Parser.parseStoreAttribute(reader, i, builder);
                break;
@@ -112,6 +121,12 @@ private void parseData(XMLExtendedStreamReader reader, SoftIndexFileStoreConfigu
             case SYNC_WRITES:
                builder.syncWrites(Boolean.parseBoolean(value));
                break;
+            case GROUP_COMMIT_MAX_LATENCY:
+               builder.groupCommitMaxLatency(Long.parseLong(value));
+               break;
+            case GROUP_COMMIT_MAX_BYTES:
+               builder.groupCommitMaxBytes(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
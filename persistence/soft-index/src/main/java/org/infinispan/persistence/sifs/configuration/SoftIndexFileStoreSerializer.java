@@ -29,7 +29,9 @@ private void writeDataElement(XMLExtendedStreamWriter writer, SoftIndexFileStore
       configuration.attributes().write(writer, Element.DATA.getLocalName(),
             SoftIndexFileStoreConfiguration.DATA_LOCATION,
             SoftIndexFileStoreConfiguration.MAX_FILE_SIZE,
-            SoftIndexFileStoreConfiguration.SYNC_WRITES);
+            SoftIndexFileStoreConfiguration.SYNC_WRITES,
+            SoftIndexFileStoreConfiguration.GROUP_COMMIT_MAX_LATENCY,
+            SoftIndexFileStoreConfiguration.GROUP_COMMIT_MAX_BYTES);
    }
 
    private void writeIndexElement(XMLExtendedStreamWriter writer, SoftIndexFileStoreConfiguration configuration) throws XMLStreamException {
@@ -0,0 +1,89 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.commons.util.Util;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests opening the same file from several threads at once.
+ */
+@Test(groups = "unit", testName = "persistence.sifs.FileProviderTest")
+public class FileProviderTest extends AbstractInfinispanTest {
+   private static final int THREADS = 4;
+   private static final int FILE_SIZE = 1000;
+
+   private String tmpDirectory;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = TestingUtil.tmpDirectory(this.getClass());
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testConcurrentOpen() throws Exception {
+      new File(tmpDirectory).mkdirs();
+      Files.write(new File(tmpDirectory, "0").toPath(), new byte[FILE_SIZE]);
+      // all the threads open the channel before any of them publishes it, so all but one lose the race
+      CyclicBarrier barrier = new CyclicBarrier(THREADS);
+      FileProvider fileProvider = new FileProvider(tmpDirectory, THREADS, FILE_SIZE * THREADS) {
+         @Override
+         protected FileChannel openChannel(int fileId) throws FileNotFoundException {
+            FileChannel channel = super.openChannel(fileId);
+            try {
+               barrier.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+               throw new IllegalStateException(e);
+            }
+            return channel;
+         }
+      };
+      List<Future<FileProvider.Handle>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; ++i) {
+         futures.add(fork(() -> fileProvider.getFile(0)));
+      }
+      List<FileProvider.Handle> handles = new ArrayList<>();
+      for (Future<FileProvider.Handle> future : futures) {
+         handles.add(future.get(10, TimeUnit.SECONDS));
+      }
+
+      AtomicLong mappedBytes = TestingUtil.extractField(fileProvider, "mappedBytes");
+      Object unmapper = TestingUtil.extractField(FileProvider.class, null, "UNMAPPER");
+      // only the winner's mapping is kept
+      assertEquals(unmapper == null ? 0 : FILE_SIZE, mappedBytes.get());
+      assertEquals(1, ((AtomicInteger) TestingUtil.extractField(fileProvider, "currentOpenFiles")).get());
+      for (FileProvider.Handle handle : handles) {
+         assertNotNull(handle);
+         assertEquals(FILE_SIZE, handle.read(ByteBuffer.allocate(FILE_SIZE), 0));
+         handle.close();
+      }
+
+      fileProvider.stop();
+      assertEquals(0, mappedBytes.get());
+   }
+}
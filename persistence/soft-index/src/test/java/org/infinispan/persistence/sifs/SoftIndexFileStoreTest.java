@@ -2,11 +2,18 @@
 
 import static org.infinispan.persistence.PersistenceUtil.internalMetadata;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
@@ -195,6 +202,164 @@ public void testStopStartWithLoadDoesNotNukeValues() throws InterruptedException
       }
    }
 
+   public void testGroupCommitWithConcurrentWriters() throws Exception {
+      String location = tmpDirectory + "/group-commit";
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+            .addStore(SoftIndexFileStoreConfigurationBuilder.class)
+               .indexLocation(location + "/index").dataLocation(location + "/data")
+               .maxFileSize(1000)
+               .syncWrites(true).groupCommitMaxLatency(1).groupCommitMaxBytes(2048);
+      SoftIndexFileStore groupCommitStore = new SoftIndexFileStore();
+      groupCommitStore.init(createContext(builder.build()));
+      groupCommitStore.start();
+      try {
+         int threads = 4;
+         int entriesPerThread = 100;
+         List<Future<?>> futures = new ArrayList<>();
+         for (int t = 0; t < threads; ++t) {
+            int thread = t;
+            futures.add(fork(() -> {
+               for (int i = 0; i < entriesPerThread; ++i) {
+                  groupCommitStore.write(marshalledEntry(internalCacheEntry(key(thread * entriesPerThread + i), "value" + i, -1)));
+               }
+            }));
+         }
+         for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+         }
+         groupCommitStore.stop();
+         groupCommitStore.start();
+         for (int i = 0; i < threads * entriesPerThread; ++i) {
+            assertNotNull(key(i), groupCommitStore.load(key(i)));
+         }
+      } finally {
+         groupCommitStore.stop();
+      }
+   }
+
+   public void testGroupCommitReleasesWritersOnceWrittenAndSynced() throws Exception {
+      String location = tmpDirectory + "/group-commit-release";
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+            .addStore(SoftIndexFileStoreConfigurationBuilder.class)
+               .indexLocation(location + "/index").dataLocation(location + "/data")
+               // a single log file, so that every record is in the file fsynced last
+               .maxFileSize(16 * 1024 * 1024)
+               .syncWrites(true).groupCommitMaxLatency(1).groupCommitMaxBytes(512);
+      SoftIndexFileStore groupCommitStore = new SoftIndexFileStore();
+      groupCommitStore.init(createContext(builder.build()));
+      groupCommitStore.start();
+      try {
+         TemporaryTable temporaryTable = TestingUtil.extractField(groupCommitStore, "temporaryTable");
+         Index index = TestingUtil.extractField(groupCommitStore, "index");
+         LogAppender logAppender = groupCommitStore.getLogAppender();
+         int threads = 8;
+         int entriesPerThread = 200;
+         List<Future<?>> futures = new ArrayList<>();
+         for (int t = 0; t < threads; ++t) {
+            int thread = t;
+            futures.add(fork(() -> {
+               for (int i = 0; i < entriesPerThread; ++i) {
+                  String key = key(thread * entriesPerThread + i);
+                  groupCommitStore.write(marshalledEntry(internalCacheEntry(key, "value" + i, -1)));
+                  // the writer is released only once its record is readable and fsynced
+                  MarshalledEntry entry = groupCommitStore.load(key);
+                  assertNotNull(key, entry);
+                  assertEquals("value" + i, entry.getValue());
+                  EntryPosition position = temporaryTable.get(key);
+                  if (position == null) {
+                     position = index.getInfo(key, getMarshaller().objectToByteBuffer(key));
+                  }
+                  assertNotNull(key, position);
+                  assertTrue(key, logAppender.isSynced(position.file, position.offset));
+               }
+               return null;
+            }));
+         }
+         for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+         }
+      } finally {
+         groupCommitStore.stop();
+      }
+   }
+
+   public void testLoadFromMappedFiles() throws IOException {
+      String location = tmpDirectory + "/mapped";
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+            .addStore(SoftIndexFileStoreConfigurationBuilder.class)
+               .indexLocation(location + "/index").dataLocation(location + "/data")
+               .maxFileSize(1000)
+               // enough for a part of the files only, the rest is read through the channels
+               .mappedBytesLimit(20000);
+      SoftIndexFileStore mappedStore = new SoftIndexFileStore();
+      mappedStore.init(createContext(builder.build()));
+      mappedStore.start();
+      try {
+         int numEntries = 1000;
+         for (int i = 0; i < numEntries; ++i) {
+            mappedStore.write(marshalledEntry(internalCacheEntry(key(i), "value" + i, -1)));
+         }
+         mappedStore.stop();
+         mappedStore.start();
+         for (int i = 0; i < numEntries; ++i) {
+            MarshalledEntry entry = mappedStore.load(key(i));
+            assertNotNull(key(i), entry);
+            assertEquals("value" + i, entry.getValue());
+         }
+         // The files are unmapped when they are closed, not once the buffers are garbage collected
+         mappedStore.stop();
+         assertNotMapped(location + "/data");
+         mappedStore.start();
+      } finally {
+         mappedStore.stop();
+      }
+   }
+
+   private void assertNotMapped(String dataLocation) throws IOException {
+      File maps = new File("/proc/self/maps");
+      if (!maps.exists()) {
+         // only Linux lists the mappings of the process
+         return;
+      }
+      String path = new File(dataLocation).getCanonicalPath();
+      for (String line : Files.readAllLines(maps.toPath())) {
+         assertFalse(line, line.contains(path));
+      }
+   }
+
+   public void testParallelCompaction() {
+      String location = tmpDirectory + "/parallel-compaction";
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+            .addStore(SoftIndexFileStoreConfigurationBuilder.class)
+               .indexLocation(location + "/index").dataLocation(location + "/data")
+               .maxFileSize(1000)
+               .compactionThreads(3).compactionRateLimit(1024 * 1024);
+      SoftIndexFileStore compactedStore = new SoftIndexFileStore();
+      compactedStore.init(createContext(builder.build()));
+      compactedStore.start();
+      try {
+         int numEntries = 50;
+         for (int round = 0; round < 20; ++round) {
+            for (int i = 0; i < numEntries; ++i) {
+               compactedStore.write(marshalledEntry(internalCacheEntry(key(i), "value" + round, -1)));
+            }
+         }
+         eventually(() -> compactedStore.getCompactor().getCompactedFiles() > 0);
+         for (int i = 0; i < numEntries; ++i) {
+            MarshalledEntry entry = compactedStore.load(key(i));
+            assertNotNull(key(i), entry);
+            assertEquals("value19", entry.getValue());
+         }
+         assertTrue(compactedStore.getCompactor().getBytesReclaimed() > 0);
+      } finally {
+         compactedStore.stop();
+      }
+   }
+
    private void writeGibberish() {
       for (int i = 0; i < 100; ++i) {
          store.write(marshalledEntry(internalCacheEntry("foo", "bar", -1)));
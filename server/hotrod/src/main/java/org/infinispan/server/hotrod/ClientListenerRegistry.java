@@ -208,6 +208,10 @@ private void addCacheListener(AdvancedCache<byte[], byte[]> cache, Object client
    }
 
    CacheEventFilter<byte[], byte[]> getFilter(String name, Boolean compatEnabled, Boolean useRawData, List<byte[]> binaryParams) {
+      if (name.equals(NearCacheBloomFilter.FACTORY_NAME))
+         // The bloom filter is always sent as is, regardless of the marshaller of the client
+         return (CacheEventFilter) NearCacheBloomFilter.create(binaryParams);
+
       KeyValuePair<CacheEventFilterFactory, Marshaller> factory =
             findFactory(name, compatEnabled, cacheEventFilterFactories, "key/value filter", useRawData);
       List<? extends Object> params = unmarshallParams(binaryParams, factory.getValue(), useRawData);
@@ -5,6 +5,7 @@
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.BitSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -12,9 +13,13 @@
 
 import javax.security.auth.Subject;
 
+import org.infinispan.AdvancedCache;
 import org.infinispan.commons.logging.LogFactory;
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.jboss.GenericJBossMarshaller;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.security.Security;
 import org.infinispan.server.core.transport.NettyTransport;
 import org.infinispan.server.hotrod.iteration.IterableIterationResult;
@@ -142,7 +147,7 @@ protected void realRead(ChannelHandlerContext ctx, CacheDecodeContext msg) throw
                log.tracef("About to create bulk get keys response scope = %d", scope);
             }
             writeResponse(msg, ctx.channel(), new BulkGetKeysResponse(h.version, h.messageId, h.cacheName, h.clientIntel,
-                  h.topologyId, scope, BulkUtil.getAllKeys(msg.cache, scope)));
+                  h.topologyId, scope, getKeys(msg.cache, scope)));
             break;
          case QUERY:
             byte[] queryResult = server.query(msg.cache, (byte[]) msg.operationDecodeContext);
@@ -222,6 +227,23 @@ protected void realRead(ChannelHandlerContext ctx, CacheDecodeContext msg) throw
       }
    }
 
+   /**
+    * With the local scope, returns only the keys of the segments this node is the primary owner of, read locally, so
+    * that clients can retrieve all the keys by asking every server for its share in parallel instead of gathering them
+    * through a single node.
+    */
+   private Iterator<byte[]> getKeys(AdvancedCache<byte[], byte[]> cache, int scope) {
+      if (scope == BulkUtil.LOCAL_SCOPE) {
+         RpcManager rpcManager = SecurityActions.getCacheRpcManager(cache);
+         DistributionManager distributionManager = SecurityActions.getCacheDistributionManager(cache);
+         if (rpcManager != null && distributionManager != null) {
+            ConsistentHash ch = distributionManager.getReadConsistentHash();
+            return BulkUtil.getLocalKeys(cache, ch.getPrimarySegmentsForOwner(rpcManager.getAddress()));
+         }
+      }
+      return BulkUtil.getAllKeys(cache, scope);
+   }
+
    @Override
    public void channelActive(ChannelHandlerContext ctx) throws Exception {
       super.channelActive(ctx);
@@ -65,6 +65,7 @@ public boolean readHeader(ByteBuf buffer, byte version, long messageId, HotRodHe
          int length = ExtendedByteBufJava.readMaybeVInt(buffer);
          // Didn't have enough bytes for VInt or the length is too long for remaining
          if (length == Integer.MIN_VALUE || length > buffer.readableBytes()) {
+            buffer.resetReaderIndex();
             return false;
          } else if (length == 0) {
             header.cacheName = "";
@@ -84,6 +85,7 @@ public boolean readHeader(ByteBuf buffer, byte version, long messageId, HotRodHe
          return false;
       }
       if (buffer.readableBytes() < 2) {
+         buffer.resetReaderIndex();
          return false;
       }
       byte clientIntelligence = buffer.readByte();
@@ -149,7 +151,7 @@ private static CacheDecodeContext.RequestParameters readParameters(ByteBuf buffe
       }
       if (readVersion) {
          version = ExtendedByteBufJava.readUnsignedMaybeLong(buffer);
-         if (version == Integer.MIN_VALUE) {
+         if (version == Long.MIN_VALUE) {
             return null;
          }
       } else {
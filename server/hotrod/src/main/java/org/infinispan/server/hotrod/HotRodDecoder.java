@@ -183,7 +183,7 @@ boolean readHeader(ByteBuf buffer) throws Exception {
          }
 
          long messageId = ExtendedByteBufJava.readMaybeVLong(buffer);
-         if (messageId == Integer.MIN_VALUE) {
+         if (messageId == Long.MIN_VALUE) {
             return false;
          }
          header.messageId = messageId;
@@ -0,0 +1,73 @@
+package org.infinispan.server.hotrod;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.infinispan.commons.io.UnsignedNumeric;
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.commons.util.BloomFilter;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.cachelistener.filter.CacheEventFilter;
+import org.infinispan.notifications.cachelistener.filter.EventType;
+
+/**
+ * Filter of the invalidation events sent to a near cache, which only lets through the events of keys that the near
+ * cache may hold, according to the bloom filter of the marshalled keys sent by the client as the only parameter of
+ * the filter factory.  The client refreshes the bloom filter by registering a new listener.
+ * <p>
+ * When compatibility is enabled the keys are not the marshalled ones, so every event is let through.
+ *
+ * @since 9.0
+ */
+class NearCacheBloomFilter implements CacheEventFilter<Object, Object> {
+   static final String FACTORY_NAME = "___near-cache-bloom-filter";
+
+   private final byte[] bloomFilterBytes;
+   private final BloomFilter bloomFilter;
+
+   private NearCacheBloomFilter(byte[] bloomFilterBytes) {
+      this.bloomFilterBytes = bloomFilterBytes;
+      this.bloomFilter = BloomFilter.fromBytes(bloomFilterBytes);
+   }
+
+   /**
+    * @throws IllegalArgumentException if the parameter is not a valid bloom filter, which rejects the listener
+    */
+   static NearCacheBloomFilter create(List<byte[]> binaryParams) {
+      if (binaryParams.size() != 1) {
+         throw new IllegalArgumentException("Expected the bloom filter as the only parameter, but got " +
+               binaryParams.size() + " parameters");
+      }
+      return new NearCacheBloomFilter(binaryParams.get(0));
+   }
+
+   @Override
+   public boolean accept(Object key, Object oldValue, Metadata oldMetadata, Object newValue, Metadata newMetadata,
+         EventType eventType) {
+      return !(key instanceof byte[]) || bloomFilter.mightContain((byte[]) key);
+   }
+
+   static class Externalizer extends AbstractExternalizer<NearCacheBloomFilter> {
+      @Override
+      public Set<Class<? extends NearCacheBloomFilter>> getTypeClasses() {
+         return Collections.singleton(NearCacheBloomFilter.class);
+      }
+
+      @Override
+      public void writeObject(ObjectOutput output, NearCacheBloomFilter object) throws IOException {
+         UnsignedNumeric.writeUnsignedInt(output, object.bloomFilterBytes.length);
+         output.write(object.bloomFilterBytes);
+      }
+
+      @Override
+      public NearCacheBloomFilter readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         byte[] bytes = new byte[UnsignedNumeric.readUnsignedInt(input)];
+         input.readFully(bytes);
+         return new NearCacheBloomFilter(bytes);
+      }
+   }
+}
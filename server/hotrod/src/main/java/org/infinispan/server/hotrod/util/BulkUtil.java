@@ -1,11 +1,13 @@
 package org.infinispan.server.hotrod.util;
 
 import java.util.Iterator;
+import java.util.Set;
 
 import org.infinispan.Cache;
 import org.infinispan.CacheStream;
 import org.infinispan.commons.util.IteratorMapper;
 import org.infinispan.configuration.cache.CompatibilityModeConfiguration;
+import org.infinispan.context.Flag;
 import org.infinispan.server.hotrod.HotRodTypeConverter;
 
 /**
@@ -21,8 +23,19 @@ public final class BulkUtil {
    public static final int LOCAL_SCOPE = 2;
 
    public static Iterator<byte[]> getAllKeys(Cache<byte[], ?> cache, int scope) {
+      return toBytes(cache, cache.keySet().stream());
+   }
+
+   /**
+    * Returns the keys of the given segments held by this node, without contacting any other node.
+    */
+   public static Iterator<byte[]> getLocalKeys(Cache<byte[], ?> cache, Set<Integer> segments) {
+      return toBytes(cache, cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).keySet().stream()
+            .filterKeySegments(segments));
+   }
+
+   private static Iterator<byte[]> toBytes(Cache<byte[], ?> cache, CacheStream stream) {
       CompatibilityModeConfiguration compatibility = cache.getCacheConfiguration().compatibility();
-      CacheStream stream = cache.keySet().stream();
       HotRodTypeConverter converter = new HotRodTypeConverter(null);
       if (compatibility.enabled() && compatibility.marshaller() != null) {
          converter.setMarshaller(compatibility.marshaller());